@@ -0,0 +1,174 @@
+package agents.multitool.bench;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cold-start time of the server in the runnable jar built by {@code mvn -Pappcds package}, with
+ * and without its AppCDS archive. Each run starts a fresh JVM in one of the container's modes,
+ * {@code devui} (the default, the ADK Dev UI) or {@code headless} ({@code --server}), and measures
+ * three times from process start:
+ * <ul>
+ *   <li>until the port accepts connections;</li>
+ *   <li>until the agent is ready: /health returns 200, or the Dev UI lists an app;</li>
+ *   <li>until a session is created.</li>
+ * </ul>
+ * Needs no credentials: no run reaches the model or BigQuery. The Dev UI compiles the agents in
+ * {@code sources}, as the container does.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar agents.multitool.bench.StartupBenchmark ../target/datacompass.jar ../target/datacompass.jsa [runs] [devui|headless] [sources]
+ * </pre>
+ */
+public final class StartupBenchmark {
+
+    private static final long TIMEOUT_NANOS = Duration.ofMinutes(2).toNanos();
+    private static final Pattern FIRST_APP = Pattern.compile("\\[\\s*\"([^\"]+)\"");
+
+    public static void main(String[] args) throws Exception {
+        Path jar = Paths.get(args.length > 0 ? args[0] : "../target/datacompass.jar");
+        Path archive = Paths.get(args.length > 1 ? args[1] : "../target/datacompass.jsa");
+        int runs = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        String mode = args.length > 3 ? args[3] : "devui";
+        Path sources = Paths.get(args.length > 4 ? args[4] : "../src/main/java").toAbsolutePath();
+        if (!Files.exists(jar)) {
+            throw new IllegalArgumentException(jar + " not found; build it with mvn -Pappcds package");
+        }
+        if (!mode.equals("devui") && !mode.equals("headless")) {
+            throw new IllegalArgumentException("Mode must be devui or headless, got " + mode);
+        }
+
+        System.out.printf("%s, %d runs each, median (min) ms from process start%n%n", mode, runs);
+        System.out.printf("%-22s %18s %18s %18s%n", "jvm", "port open", "agent ready", "first session");
+        report("default CDS", jar, mode, sources, List.of(), runs);
+        if (Files.exists(archive)) {
+            report("AppCDS", jar, mode, sources, List.of("-XX:SharedArchiveFile=" + archive), runs);
+        } else {
+            System.out.println(archive + " not found, skipping the AppCDS runs");
+        }
+    }
+
+    private static void report(String name, Path jar, String mode, Path sources, List<String> jvmOptions, int runs)
+            throws Exception {
+        long[][] times = new long[3][runs];
+        for (int r = 0; r < runs; r++) {
+            long[] run = mode.equals("devui") ? startDevUiOnce(jar, sources, jvmOptions) : startOnce(jar, jvmOptions);
+            for (int i = 0; i < run.length; i++) {
+                times[i][r] = run[i];
+            }
+        }
+        StringBuilder line = new StringBuilder(String.format(Locale.ROOT, "%-22s", name));
+        for (long[] phase : times) {
+            Arrays.sort(phase);
+            line.append(String.format(Locale.ROOT, " %18s", phase[runs / 2] / 1_000_000 + " (" + phase[0] / 1_000_000 + ")"));
+        }
+        System.out.println(line);
+    }
+
+    // nanoseconds from process start to port open, agent ready and first session
+    private static long[] startOnce(Path jar, List<String> jvmOptions) throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.addAll(List.of("--add-modules", "jdk.incubator.vector", "-Ddatacompass.server.port=" + port,
+                "-Ddatacompass.metrics.logIntervalSeconds=0", "-jar", jar.toString(), "--server"));
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+        URI base = URI.create("http://localhost:" + port);
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+        try {
+            long[] times = new long[3];
+            times[0] = awaitStatus(client, HttpRequest.newBuilder(base.resolve("/health")).GET().build(), -1, start, process);
+            times[1] = awaitStatus(client, HttpRequest.newBuilder(base.resolve("/health")).GET().build(), 200, start, process);
+            times[2] = awaitStatus(client, HttpRequest.newBuilder(base.resolve("/sessions"))
+                    .POST(HttpRequest.BodyPublishers.ofString("{}")).build(), 201, start, process);
+            return times;
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    // the same three times for the Dev UI, started as docker-entrypoint.sh starts it
+    private static long[] startDevUiOnce(Path jar, Path sources, List<String> jvmOptions) throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.addAll(List.of("--add-modules", "jdk.incubator.vector", "-Ddatacompass.metrics.logIntervalSeconds=0",
+                "-cp", jar.toString(), "com.google.adk.web.AdkWebServer",
+                "--server.port=" + port, "--adk.agents.source-dir=" + sources));
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+        URI base = URI.create("http://localhost:" + port);
+        HttpRequest listApps = HttpRequest.newBuilder(base.resolve("/list-apps")).GET().build();
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+        try {
+            long[] times = new long[3];
+            times[0] = awaitStatus(client, listApps, -1, start, process);
+            String app = null;
+            while (app == null) {
+                Matcher first = FIRST_APP.matcher(client.send(listApps, HttpResponse.BodyHandlers.ofString()).body());
+                if (first.find()) {
+                    app = first.group(1);
+                } else if (System.nanoTime() - start > TIMEOUT_NANOS || !process.isAlive()) {
+                    throw new IllegalStateException("The Dev UI listed no app");
+                } else {
+                    Thread.sleep(5);
+                }
+            }
+            times[1] = System.nanoTime() - start;
+            times[2] = awaitStatus(client, HttpRequest.newBuilder(base.resolve("/apps/" + app + "/users/bench/sessions"))
+                    .POST(HttpRequest.BodyPublishers.noBody()).build(), 200, start, process);
+            return times;
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    // polls until the request returns {@code status}, or any response if it is -1
+    private static long awaitStatus(HttpClient client, HttpRequest request, int status, long start, Process process)
+            throws Exception {
+        while (System.nanoTime() - start < TIMEOUT_NANOS) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Server exited with " + process.exitValue());
+            }
+            try {
+                int code = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                if (status == -1 || code == status) {
+                    return System.nanoTime() - start;
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(5);
+        }
+        throw new IllegalStateException("Server did not answer " + request.uri() + " within two minutes");
+    }
+}
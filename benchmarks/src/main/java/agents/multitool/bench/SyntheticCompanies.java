@@ -0,0 +1,222 @@
+package agents.multitool.bench;
+
+import agents.multitool.search.CompanyColumns;
+import agents.multitool.search.CompanyCorpus;
+import agents.multitool.search.CompanySnapshotWriter;
+import agents.multitool.search.VectorMath;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Reproducible stand-in for the companies table and its embeddings: the same (count, dimension,
+ * seed) yields the same rows and vectors on every machine, so benchmark numbers are comparable
+ * across commits. Vectors are drawn around a fixed set of cluster centroids, like real embeddings
+ * of companies in the same market, and values are formatted the way the Crunchbase export is.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar agents.multitool.bench.SyntheticCompanies companies.dcs 100000
+ * </pre>
+ * writes a snapshot that {@code datacompass.snapshot.path} can point at; a path ending in
+ * {@code .csv} gets a companies CSV for the local warehouse instead.
+ */
+public final class SyntheticCompanies {
+
+    public static final long DEFAULT_SEED = 0x5EEDL;
+    public static final int DEFAULT_DIMENSION = 256;
+
+    private static final String[] MARKETS = {
+            "Software", "Biotechnology", "Mobile", "E-Commerce", "Curated Web", "Enterprise Software",
+            "Advertising", "Health Care", "Games", "Hardware + Software", "Clean Technology", "Finance",
+            "Analytics", "Education", "Security", "SaaS"
+    };
+    private static final String[] STATUSES = {"operating", "operating", "operating", "acquired", "closed"};
+    private static final String[] REGIONS = {"SF Bay Area", "New York City", "Boston", "London", "Los Angeles", "Seattle", "Berlin", "Bangalore"};
+    private static final String[] NAME_PARTS = {"Data", "Cloud", "Scale", "Sync", "Bio", "Pay", "Learn", "Grid", "Pixel", "Sense", "Nova", "Flow"};
+
+    private final int count;
+    private final int dimension;
+    private final String[][] rows;
+    private final float[] vectors;
+    private final long seed;
+
+    private SyntheticCompanies(int count, int dimension, long seed) {
+        this.count = count;
+        this.dimension = dimension;
+        this.seed = seed;
+        this.rows = new String[count][];
+        this.vectors = new float[Math.multiplyExact(count, dimension)];
+
+        SplittableRandom random = new SplittableRandom(seed);
+        int clusters = MARKETS.length * 4;
+        float[] centroids = new float[clusters * dimension];
+        for (int i = 0; i < centroids.length; i++) {
+            centroids[i] = (float) gaussian(random);
+        }
+        for (int c = 0; c < clusters; c++) {
+            VectorMath.normalize(centroids, c * dimension, dimension);
+        }
+
+        for (int row = 0; row < count; row++) {
+            int cluster = random.nextInt(clusters);
+            int offset = row * dimension;
+            for (int d = 0; d < dimension; d++) {
+                vectors[offset + d] = centroids[cluster * dimension + d] + (float) (1.4 * gaussian(random) / Math.sqrt(dimension));
+            }
+            VectorMath.normalize(vectors, offset, dimension);
+            rows[row] = row(row, MARKETS[cluster % MARKETS.length], random);
+        }
+    }
+
+    public static SyntheticCompanies generate(int count) {
+        return generate(count, DEFAULT_DIMENSION, DEFAULT_SEED);
+    }
+
+    public static SyntheticCompanies generate(int count, int dimension, long seed) {
+        return new SyntheticCompanies(count, dimension, seed);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    /** Row {@code i} in {@link CompanyColumns} order. */
+    public String[] values(int row) {
+        return rows[row];
+    }
+
+    /** Copy of all vectors, row-major and L2-normalized. */
+    public float[] copyVectors() {
+        return vectors.clone();
+    }
+
+    /**
+     * Deterministic query vectors: stored vectors with extra noise, so each query has a cluster of
+     * true neighbours as real profile queries do.
+     */
+    public float[][] queries(int n) {
+        SplittableRandom random = new SplittableRandom(seed ^ 0x9E3779B97F4A7C15L);
+        float[][] queries = new float[n][dimension];
+        for (int q = 0; q < n; q++) {
+            int row = random.nextInt(count);
+            for (int d = 0; d < dimension; d++) {
+                queries[q][d] = vectors[row * dimension + d] + (float) (0.5 * gaussian(random) / Math.sqrt(dimension));
+            }
+            VectorMath.normalize(queries[q]);
+        }
+        return queries;
+    }
+
+    public CompanyCorpus toCorpus() {
+        CompanyCorpus.Builder builder = CompanyCorpus.builder(dimension);
+        float[] vector = new float[dimension];
+        for (int row = 0; row < count; row++) {
+            System.arraycopy(vectors, row * dimension, vector, 0, dimension);
+            builder.add(rows[row], vector);
+        }
+        return builder.build();
+    }
+
+    public void writeSnapshot(Path path) throws IOException {
+        try (CompanySnapshotWriter writer = new CompanySnapshotWriter(path, dimension)) {
+            float[] vector = new float[dimension];
+            for (int row = 0; row < count; row++) {
+                System.arraycopy(vectors, row * dimension, vector, 0, dimension);
+                writer.add(rows[row], vector);
+            }
+            writer.finish();
+        }
+    }
+
+    /**
+     * Writes the rows as a CSV laid out like the Crunchbase companies export (padded
+     * {@code " market "} header, {@code permalink} for the id, no content column), for
+     * {@code datacompass.local.companiesCsv}. Vectors are not written; the local warehouse embeds
+     * the text itself.
+     */
+    public void writeCsv(Path path) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            writer.write("permalink,name,category_list, market , funding_total_usd ,status,funding_rounds,founded_year,round_A,round_B,round_C,round_D,region\n");
+            StringBuilder line = new StringBuilder();
+            for (String[] values : rows) {
+                line.setLength(0);
+                for (int c = 0; c < CompanyColumns.COUNT; c++) {
+                    if (c == CompanyColumns.CONTENT) {
+                        continue;
+                    }
+                    if (c != CompanyColumns.COMPANY_ID) {
+                        line.append(',');
+                    }
+                    csvField(line, c == CompanyColumns.COMPANY_ID ? "/organization/" + values[c] : values[c]);
+                }
+                writer.write(line.append('\n').toString());
+            }
+        }
+    }
+
+    private static void csvField(StringBuilder line, String value) {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            line.append(value);
+            return;
+        }
+        line.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    private static String[] row(int row, String market, SplittableRandom random) {
+        String[] values = new String[CompanyColumns.COUNT];
+        String name = NAME_PARTS[random.nextInt(NAME_PARTS.length)] + NAME_PARTS[random.nextInt(NAME_PARTS.length)] + " " + row;
+        int rounds = 1 + random.nextInt(6);
+        double funding = Math.exp(13 + 2.2 * gaussian(random));
+
+        values[CompanyColumns.COMPANY_ID] = "c" + row;
+        values[CompanyColumns.CONTENT] = name;
+        values[CompanyColumns.NAME] = name;
+        values[CompanyColumns.CATEGORY_LIST] = "|" + market + "|";
+        values[CompanyColumns.MARKET] = " " + market + " ";
+        values[CompanyColumns.FUNDING_TOTAL_USD] = random.nextInt(20) == 0 ? " -   " : amount(funding);
+        values[CompanyColumns.STATUS] = random.nextInt(30) == 0 ? null : STATUSES[random.nextInt(STATUSES.length)];
+        values[CompanyColumns.FUNDING_ROUNDS] = Integer.toString(rounds);
+        values[CompanyColumns.FOUNDED_YEAR] = random.nextInt(10) == 0 ? null : Integer.toString(1995 + random.nextInt(20)) + ".0";
+        values[CompanyColumns.ROUND_A] = rounds > 1 ? Double.toString(Math.round(funding * 0.2)) : "0.0";
+        values[CompanyColumns.ROUND_B] = rounds > 2 ? Double.toString(Math.round(funding * 0.3)) : "0.0";
+        values[CompanyColumns.ROUND_C] = rounds > 3 ? Double.toString(Math.round(funding * 0.3)) : "0.0";
+        values[CompanyColumns.ROUND_D] = rounds > 4 ? Double.toString(Math.round(funding * 0.2)) : "0.0";
+        values[CompanyColumns.REGION] = REGIONS[random.nextInt(REGIONS.length)];
+        return values;
+    }
+
+    // " 1,750,000 " as in the export's funding_total_usd column
+    private static String amount(double value) {
+        return String.format(Locale.ROOT, " %,d ", Math.round(value));
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        double u = 1.0 - random.nextDouble();
+        double v = random.nextDouble();
+        return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * v);
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path path = Paths.get(args.length > 0 ? args[0] : "companies-synthetic.dcs");
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        long start = System.nanoTime();
+        if (path.toString().endsWith(".csv")) {
+            generate(count).writeCsv(path);
+        } else {
+            generate(count).writeSnapshot(path);
+        }
+        System.out.printf("Wrote %d synthetic companies to %s in %d ms%n", count, path, (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,100 @@
+package agents.multitool.bench;
+
+import agents.multitool.metrics.LatencyHistogram;
+import agents.multitool.utils.CompanyVectorSearch;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load test of the similar-company tool exactly as the agents call it, against the
+ * local warehouse: hashing embeddings, companies from a CSV, in-process search. Needs no
+ * credentials or network, so it runs on a laptop.
+ *
+ * <pre>
+ * java --add-modules jdk.incubator.vector -cp target/benchmarks.jar agents.multitool.bench.ToolPathLoadTest \
+ *     [threads] [seconds] [companies.csv | synthetic count] [distinct profiles]
+ * </pre>
+ * Any {@code datacompass.*} system property still applies, e.g. {@code -Ddatacompass.search.backend=hnsw}.
+ */
+public final class ToolPathLoadTest {
+
+    private static final String[] INDUSTRIES = {
+            "Software", "SaaS", "Biotechnology", "Mobile", "E-Commerce", "Health Care", "Finance",
+            "Analytics", "Education", "Security", "Games", "Clean Technology"
+    };
+    private static final String[] STAGES = {"Seed", "Series A", "Series B", "Series C", "Growth"};
+    private static final String[] REVENUES = {"$0-1M", "$1M-10M", "$10M-50M", "$50M-100M", "$100M+"};
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        String companies = args.length > 2 ? args[2] : "50000";
+        int distinct = args.length > 3 ? Integer.parseInt(args[3]) : 100_000;
+
+        Path csv = Paths.get(companies);
+        if (!Files.exists(csv)) {
+            csv = Files.createTempFile("companies-synthetic", ".csv");
+            csv.toFile().deleteOnExit();
+            SyntheticCompanies.generate(Integer.parseInt(companies)).writeCsv(csv);
+        }
+        // read once when CompanyVectorSearch initializes, so set before its first use
+        System.setProperty("datacompass.warehouse", "local");
+        System.setProperty("datacompass.local.companiesCsv", csv.toString());
+
+        // load the companies and build the index outside the measured window
+        long start = System.nanoTime();
+        check(CompanyVectorSearch.getSimilarCompany("warmup", "Software", "Seed", "$0-1M"));
+        System.out.printf("Ready in %d ms%n", (System.nanoTime() - start) / 1_000_000);
+        run(threads, Math.max(1, seconds / 4), distinct, new LatencyHistogram());
+
+        LatencyHistogram latency = new LatencyHistogram();
+        long[] totals = run(threads, seconds, distinct, latency);
+        System.out.printf("%d threads, %d s, %d distinct profiles: %d calls, %.0f calls/s, %d errors%n",
+                threads, seconds, distinct, totals[0], totals[0] / (double) seconds, totals[1]);
+        System.out.printf("latency us: p50 %d  p90 %d  p99 %d  p99.9 %d  max %d%n",
+                latency.percentileMicros(0.50), latency.percentileMicros(0.90), latency.percentileMicros(0.99),
+                latency.percentileMicros(0.999), latency.maxMicros());
+    }
+
+    private static long[] run(int threads, int seconds, int distinct, LatencyHistogram latency) throws InterruptedException {
+        LongAdder calls = new LongAdder();
+        LongAdder errors = new LongAdder();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            long seed = t;
+            Thread worker = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                while (System.nanoTime() < deadline) {
+                    int profile = random.nextInt(distinct);
+                    long callStart = System.nanoTime();
+                    Map<String, Object> result = CompanyVectorSearch.getSimilarCompany("Company " + profile,
+                            INDUSTRIES[profile % INDUSTRIES.length], STAGES[profile % STAGES.length],
+                            REVENUES[(profile / STAGES.length) % REVENUES.length]);
+                    latency.recordSince(callStart);
+                    calls.increment();
+                    if ("error".equals(result.get("status"))) {
+                        errors.increment();
+                    }
+                }
+                done.countDown();
+            }, "load-" + t);
+            worker.setDaemon(true);
+            worker.start();
+        }
+        done.await();
+        return new long[]{calls.sum(), errors.sum()};
+    }
+
+    private static void check(Map<String, Object> result) {
+        if (!"success".equals(result.get("status"))) {
+            throw new IllegalStateException("Warm-up search failed: " + result.get("message"));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package agents.multitool.bench;
+
+import agents.multitool.llmAgents.AnalysisWorkflowAgent;
+import agents.multitool.llmAgents.ParallelWorkflowAgent;
+import agents.multitool.streaming.WorkflowStreams;
+import com.google.adk.agents.BaseAgent;
+import com.google.adk.runner.InMemoryRunner;
+import com.google.adk.sessions.Session;
+import com.google.genai.types.Content;
+import com.google.genai.types.Part;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * End-to-end latency of the two workflow topologies on the same prompts: the sequential
+ * {@link AnalysisWorkflowAgent} and the {@link ParallelWorkflowAgent} with its deterministic
+ * prefetch. Each topology gets one untimed warm-up run, then the runs alternate between the two so
+ * model and warehouse latency drift hits both alike. Reports the median and p90 of the time to the
+ * first streamed output and of the time to the finished report.
+ *
+ * <p>Calls Gemini and the configured search backend like the CLI does, so it needs the same
+ * credentials; {@code -Ddatacompass.warehouse=local} keeps the searches offline.
+ *
+ * <pre>
+ * java --add-modules jdk.incubator.vector -cp target/benchmarks.jar agents.multitool.bench.WorkflowLatencyBenchmark [runs]
+ * </pre>
+ */
+public final class WorkflowLatencyBenchmark {
+
+    private static final List<String> PROMPTS = List.of(
+            "{\"companyName\": \"TechCorp\", \"industry\": \"SaaS\", \"stage\": \"Series A\", \"revenueRange\": \"$1M-$5M\"}",
+            "{\"companyName\": \"GenoLabs\", \"industry\": \"Biotechnology\", \"stage\": \"Seed\", \"revenueRange\": \"$0-$1M\"}",
+            "A Series B fintech startup building payments infrastructure for small businesses, about $10M revenue");
+
+    public static void main(String[] args) {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        Topology sequential = new Topology("sequential", AnalysisWorkflowAgent.createWorkflowAgent());
+        Topology parallel = new Topology("parallel", ParallelWorkflowAgent.createWorkflowAgent());
+
+        sequential.run(PROMPTS.get(0));
+        parallel.run(PROMPTS.get(0));
+        long[][] sequentialTimes = new long[2][runs * PROMPTS.size()];
+        long[][] parallelTimes = new long[2][runs * PROMPTS.size()];
+        int i = 0;
+        for (int r = 0; r < runs; r++) {
+            for (String prompt : PROMPTS) {
+                // alternate which topology goes first
+                if ((i & 1) == 0) {
+                    record(sequentialTimes, i, sequential.run(prompt));
+                    record(parallelTimes, i, parallel.run(prompt));
+                } else {
+                    record(parallelTimes, i, parallel.run(prompt));
+                    record(sequentialTimes, i, sequential.run(prompt));
+                }
+                i++;
+            }
+        }
+
+        System.out.printf("%d runs per topology over %d prompts, ms%n%n", i, PROMPTS.size());
+        System.out.printf("%-12s %14s %14s %14s %14s%n", "topology", "first p50", "first p90", "total p50", "total p90");
+        report(sequential.name, sequentialTimes);
+        report(parallel.name, parallelTimes);
+    }
+
+    private static void record(long[][] times, int i, long[] run) {
+        times[0][i] = run[0];
+        times[1][i] = run[1];
+    }
+
+    private static void report(String name, long[][] times) {
+        StringBuilder line = new StringBuilder(String.format(Locale.ROOT, "%-12s", name));
+        for (long[] phase : times) {
+            Arrays.sort(phase);
+            line.append(String.format(Locale.ROOT, " %14d %14d",
+                    phase[phase.length / 2] / 1_000_000, phase[(int) Math.ceil(phase.length * 0.9) - 1] / 1_000_000));
+        }
+        System.out.println(line);
+    }
+
+    private static final class Topology {
+        private final String name;
+        private final InMemoryRunner runner;
+
+        Topology(String name, BaseAgent agent) {
+            this.name = name;
+            this.runner = new InMemoryRunner(agent, "DatacompassAgent");
+        }
+
+        // nanoseconds to the first streamed output and to the end of the run, in a fresh session
+        long[] run(String prompt) {
+            Session session = runner.sessionService().createSession("DatacompassAgent", "bench").blockingGet();
+            long start = System.nanoTime();
+            long[] firstOutput = {0};
+            WorkflowStreams.updates(runner.runAsync("bench", session.id(), Content.fromParts(Part.fromText(prompt)),
+                    WorkflowStreams.streamingRunConfig())).blockingForEach(update -> {
+                if (firstOutput[0] == 0) {
+                    firstOutput[0] = System.nanoTime() - start;
+                }
+            });
+            return new long[] {firstOutput[0], System.nanoTime() - start};
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package agents.multitool.search;
+
+import agents.multitool.bench.SyntheticCompanies;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query-embedding cache lookups at the application's default capacity: key normalization, hits
+ * copying into a caller buffer or a new array, misses, and hits under contention.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmbeddingCacheBenchmark {
+
+    private static final int ENTRIES = 10_000;
+
+    private EmbeddingCache cache;
+    private String[] keys;
+    private String[][] profiles;
+    private String[] missingKeys;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+        final float[] buffer = new float[SyntheticCompanies.DEFAULT_DIMENSION];
+    }
+
+    @Setup
+    public void setup() {
+        SyntheticCompanies companies = SyntheticCompanies.generate(ENTRIES);
+        float[] vectors = companies.copyVectors();
+        int dimension = companies.dimension();
+        cache = new EmbeddingCache(ENTRIES, dimension, TimeUnit.DAYS.toMillis(1), "synthetic");
+        keys = new String[ENTRIES];
+        profiles = new String[ENTRIES][];
+        float[] vector = new float[dimension];
+        for (int i = 0; i < ENTRIES; i++) {
+            String[] values = companies.values(i);
+            profiles[i] = new String[] {values[CompanyColumns.NAME], values[CompanyColumns.MARKET], "Series A", "$1M-$5M"};
+            keys[i] = EmbeddingCache.normalizeKey(profiles[i]);
+            System.arraycopy(vectors, i * dimension, vector, 0, dimension);
+            cache.put(keys[i], vector);
+        }
+        missingKeys = new String[1024];
+        for (int i = 0; i < missingKeys.length; i++) {
+            missingKeys[i] = "missing|" + i;
+        }
+    }
+
+    @Benchmark
+    public String normalizeKey(Cursor cursor) {
+        return EmbeddingCache.normalizeKey(profiles[cursor.next++ % ENTRIES]);
+    }
+
+    @Benchmark
+    public boolean hitIntoBuffer(Cursor cursor) {
+        return cache.get(keys[cursor.next++ % ENTRIES], cursor.buffer);
+    }
+
+    @Benchmark
+    public float[] hitAllocating(Cursor cursor) {
+        return cache.get(keys[cursor.next++ % ENTRIES]);
+    }
+
+    @Benchmark
+    public boolean miss(Cursor cursor) {
+        return cache.get(missingKeys[cursor.next++ & 1023], cursor.buffer);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean hitContended(Cursor cursor) {
+        return cache.get(keys[cursor.next++ % ENTRIES], cursor.buffer);
+    }
+}
@@ -0,0 +1,102 @@
+package agents.multitool.search;
+
+import agents.multitool.bench.SyntheticCompanies;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+
+/**
+ * Recall-versus-memory report for the quantized indexes: every configuration is searched with the
+ * same queries and compared with the exact float32 scan. Runs on the synthetic corpus, or on a
+ * real snapshot written by {@code generateEmbedding}.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar agents.multitool.search.QuantizationReport 100000
+ * java -cp target/benchmarks.jar agents.multitool.search.QuantizationReport companies.dcs
+ * </pre>
+ */
+public final class QuantizationReport {
+
+    private static final int QUERIES = 200;
+    private static final int K = 5;
+    private static final int RERANK = 4;
+
+    public static void main(String[] args) throws IOException {
+        String source = args.length > 0 ? args[0] : "100000";
+        CompanyStore store;
+        float[][] queries;
+        if (Files.exists(Paths.get(source))) {
+            store = CompanySnapshot.open(Paths.get(source));
+            queries = perturbedRows(store, QUERIES);
+        } else {
+            SyntheticCompanies companies = SyntheticCompanies.generate(Integer.parseInt(source));
+            store = companies.toCorpus();
+            queries = companies.queries(QUERIES);
+        }
+        System.out.printf("%d companies x %d dims, %d queries, recall@%d against the exact float32 scan%n%n",
+                store.size(), store.dimension(), QUERIES, K);
+
+        BruteForceIndex exact = BruteForceIndex.build(store.copyVectors(), store.dimension());
+        SearchHits[] truth = new SearchHits[QUERIES];
+        for (int q = 0; q < QUERIES; q++) {
+            truth[q] = exact.search(queries[q], K);
+        }
+        long floatBytes = (long) store.size() * store.dimension() * Float.BYTES;
+
+        System.out.printf("%-22s %10s %12s %10s %12s%n", "index", "MB", "compression", "recall", "us/query");
+        report("float32 exact", exact, floatBytes, floatBytes, queries, truth);
+        report("int8", ScalarQuantizedIndex.build(store, 1), floatBytes, queries, truth);
+        report("int8 + rerank x" + RERANK, ScalarQuantizedIndex.build(store, RERANK), floatBytes, queries, truth);
+        for (int subspaces : new int[]{32, 64, 128}) {
+            if (store.dimension() % subspaces != 0) {
+                continue;
+            }
+            report("pq" + subspaces, ProductQuantizedIndex.build(store, subspaces, 1, 42), floatBytes, queries, truth);
+            report("pq" + subspaces + " + rerank x" + RERANK, ProductQuantizedIndex.build(store, subspaces, RERANK, 42), floatBytes, queries, truth);
+        }
+    }
+
+    private static void report(String name, QuantizedIndex index, long floatBytes, float[][] queries, SearchHits[] truth) {
+        report(name, index, index.memoryBytes(), floatBytes, queries, truth);
+    }
+
+    private static void report(String name, VectorIndex index, long bytes, long floatBytes, float[][] queries, SearchHits[] truth) {
+        for (float[] query : queries) {
+            index.search(query, K); // warm-up
+        }
+        int found = 0;
+        long start = System.nanoTime();
+        for (int q = 0; q < queries.length; q++) {
+            SearchHits hits = index.search(queries[q], K);
+            for (int i = 0; i < truth[q].size(); i++) {
+                for (int j = 0; j < hits.size(); j++) {
+                    if (truth[q].id(i) == hits.id(j)) {
+                        found++;
+                        break;
+                    }
+                }
+            }
+        }
+        double micros = (System.nanoTime() - start) / 1_000.0 / queries.length;
+        System.out.printf("%-22s %10.1f %11.1fx %10.4f %12.0f%n", name, bytes / 1048576.0,
+                (double) floatBytes / bytes, (double) found / (queries.length * K), micros);
+    }
+
+    // stored rows plus a little noise, so each query has a neighbourhood of true matches
+    private static float[][] perturbedRows(CompanyStore store, int n) {
+        SplittableRandom random = new SplittableRandom(7);
+        int dimension = store.dimension();
+        float[][] queries = new float[n][dimension];
+        for (int q = 0; q < n; q++) {
+            store.readVector(random.nextInt(store.size()), queries[q], 0);
+            VectorMath.normalize(queries[q]);
+            for (int d = 0; d < dimension; d++) {
+                queries[q][d] += (float) ((random.nextDouble() - 0.5) / Math.sqrt(dimension));
+            }
+            VectorMath.normalize(queries[q]);
+        }
+        return queries;
+    }
+}
@@ -0,0 +1,110 @@
+package agents.multitool.search;
+
+import agents.multitool.bench.SyntheticCompanies;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Top-k cosine search over the synthetic 256-dimensional corpus: scalar and Vector API exact scans
+ * against the HNSW graph with the application's default parameters. Setup prints HNSW recall@k against the exact result,
+ * so speed is never reported without the accuracy it was bought with. The mapped variant scans a
+ * snapshot file in place, as the application does when {@code datacompass.snapshot.path} is set.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g", "--add-modules", "jdk.incubator.vector"})
+public class TopKSearchBenchmark {
+
+    private static final int QUERIES = 256;
+
+    @Param({"10000", "100000"})
+    public int corpusSize;
+
+    @Param({"5"})
+    public int k;
+
+    private float[][] queries;
+    private BruteForceIndex bruteForce;
+    private SimdBruteForceIndex simdBruteForce;
+    private SimdBruteForceIndex simdBruteForceMapped;
+    private CompanySnapshot snapshot;
+    private Path snapshotPath;
+    private HnswIndex hnsw;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        SyntheticCompanies companies = SyntheticCompanies.generate(corpusSize);
+        snapshotPath = Files.createTempFile("topk", ".dcs");
+        companies.writeSnapshot(snapshotPath);
+        snapshot = CompanySnapshot.open(snapshotPath);
+        simdBruteForceMapped = SimdBruteForceIndex.over(snapshot);
+        queries = companies.queries(QUERIES);
+        bruteForce = BruteForceIndex.build(companies.copyVectors(), companies.dimension());
+        simdBruteForce = SimdBruteForceIndex.build(companies.copyVectors(), companies.dimension());
+        hnsw = HnswIndex.build(companies.copyVectors(), companies.dimension(), 16, 100, 64);
+        System.out.printf("%nHNSW recall@%d over %d queries: %.4f%n", k, QUERIES, recall());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        snapshot.close();
+        Files.deleteIfExists(snapshotPath);
+    }
+
+    private double recall() {
+        int found = 0;
+        for (float[] query : queries) {
+            SearchHits exact = bruteForce.search(query, k);
+            SearchHits approximate = hnsw.search(query, k);
+            for (int i = 0; i < exact.size(); i++) {
+                for (int j = 0; j < approximate.size(); j++) {
+                    if (exact.id(i) == approximate.id(j)) {
+                        found++;
+                        break;
+                    }
+                }
+            }
+        }
+        return (double) found / (QUERIES * k);
+    }
+
+    @Benchmark
+    public SearchHits bruteForce() {
+        return bruteForce.search(queries[next++ & (QUERIES - 1)], k);
+    }
+
+    @Benchmark
+    public SearchHits simdBruteForce() {
+        return simdBruteForce.search(queries[next++ & (QUERIES - 1)], k);
+    }
+
+    @Benchmark
+    public SearchHits simdBruteForceMapped() {
+        return simdBruteForceMapped.search(queries[next++ & (QUERIES - 1)], k);
+    }
+
+    @Benchmark
+    public SearchHits hnsw() {
+        return hnsw.search(queries[next++ & (QUERIES - 1)], k);
+    }
+}
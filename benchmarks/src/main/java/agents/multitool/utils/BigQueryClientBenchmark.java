@@ -0,0 +1,55 @@
+package agents.multitool.utils;
+
+import com.google.cloud.bigquery.BigQuery;
+import com.google.cloud.bigquery.QueryJobConfiguration;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Compares the per-call cost of building a BigQuery client on every tool call (the old behaviour)
+ * with the shared {@link BigQueryClientProvider}.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar agents.multitool.utils.BigQueryClientBenchmark 200 query
+ * </pre>
+ * The first argument is the number of calls per variant. With "query", every call also runs
+ * {@code SELECT 1}, which includes connection setup in the measurement.
+ */
+public class BigQueryClientBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        int calls = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        boolean runQuery = args.length > 1 && "query".equalsIgnoreCase(args[1]);
+
+        System.out.printf("%d calls per variant%s%n", calls, runQuery ? ", each running SELECT 1" : "");
+        run("client per call", BigQueryClientProvider::createUnshared, calls, runQuery);
+        run("shared client", BigQueryClientProvider::get, calls, runQuery);
+    }
+
+    private static void run(String label, Supplier<BigQuery> clients, int calls, boolean runQuery) throws InterruptedException {
+        QueryJobConfiguration selectOne = QueryJobConfiguration.newBuilder("SELECT 1").setUseLegacySql(false).build();
+
+        // Warm up class loading and the credential cache so the first variant is not penalized.
+        for (int i = 0; i < Math.min(10, calls); i++) {
+            BigQuery bigquery = clients.get();
+            if (runQuery) {
+                bigquery.query(selectOne);
+            }
+        }
+
+        long[] micros = new long[calls];
+        for (int i = 0; i < calls; i++) {
+            long start = System.nanoTime();
+            BigQuery bigquery = clients.get();
+            if (runQuery) {
+                bigquery.query(selectOne);
+            }
+            micros[i] = (System.nanoTime() - start) / 1_000;
+        }
+
+        Arrays.sort(micros);
+        System.out.printf("%-16s p50 %8d us   p90 %8d us   p99 %8d us   max %8d us%n", label,
+                micros[calls / 2], micros[calls * 9 / 10], micros[Math.min(calls - 1, calls * 99 / 100)], micros[calls - 1]);
+    }
+}
@@ -0,0 +1,62 @@
+package agents.multitool.utils;
+
+import agents.multitool.bigquery.ResultRows;
+import com.google.cloud.bigquery.FieldList;
+import com.google.cloud.bigquery.FieldValue;
+import com.google.cloud.bigquery.FieldValueList;
+
+import java.util.List;
+
+/** {@link ResultRows} over in-memory rows, doing the same per-row work as TableResultRows. */
+final class FieldValueListRows implements ResultRows {
+
+    private final FieldList fields;
+    private final List<FieldValueList> rows;
+    private int index = -1;
+
+    FieldValueListRows(FieldList fields, List<FieldValueList> rows) {
+        this.fields = fields;
+        this.rows = rows;
+    }
+
+    @Override
+    public boolean next() {
+        return ++index < rows.size();
+    }
+
+    @Override
+    public int columnIndex(String column) {
+        return fields.getIndex(column);
+    }
+
+    @Override
+    public boolean isNull(int column) {
+        return rows.get(index).get(column).isNull();
+    }
+
+    @Override
+    public String getString(int column) {
+        FieldValue value = rows.get(index).get(column);
+        return value.isNull() ? null : value.getStringValue();
+    }
+
+    @Override
+    public double getDouble(int column) {
+        return rows.get(index).get(column).getDoubleValue();
+    }
+
+    @Override
+    public long getLong(int column) {
+        return rows.get(index).get(column).getLongValue();
+    }
+
+    @Override
+    public float[] getFloatArray(int column) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long totalRows() {
+        return rows.size();
+    }
+}
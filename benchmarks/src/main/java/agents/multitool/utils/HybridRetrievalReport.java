@@ -0,0 +1,158 @@
+package agents.multitool.utils;
+
+import agents.multitool.bench.SyntheticCompanies;
+import agents.multitool.search.Bm25Index;
+import agents.multitool.search.BruteForceIndex;
+import agents.multitool.search.CompanyColumns;
+import agents.multitool.search.CompanyCorpus;
+import agents.multitool.search.CompanyStore;
+import agents.multitool.search.RankFusion;
+import agents.multitool.search.SearchHits;
+import agents.multitool.search.VectorMath;
+import agents.multitool.warehouse.CsvCompanySource;
+import agents.multitool.warehouse.HashingEmbeddingModel;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Offline precision/latency comparison of vector-only, BM25-only and fused (RRF) retrieval for
+ * profiles like the ones getSimilarCompany receives: a company that is not in the table, its
+ * industry, stage and revenue. A result is relevant when its market or one of its categories is
+ * the profile's industry. Companies are embedded with the local hashing model twice: from the name
+ * alone, as generateEmbedding does, and from name, market and categories, as the local warehouse
+ * does.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar agents.multitool.utils.HybridRetrievalReport companies.csv
+ * java -cp target/benchmarks.jar agents.multitool.utils.HybridRetrievalReport 50000
+ * </pre>
+ */
+public final class HybridRetrievalReport {
+
+    private static final int QUERIES = 500;
+    private static final int[] KS = {1, 3, 5, 10};
+    private static final int CANDIDATES = 50;
+    private static final float[] LEXICAL_WEIGHTS = {1, 2, 4};
+    private static final String[] STAGES = {"Seed", "Series A", "Series B", "Series C"};
+    private static final String[] REVENUES = {"$0-1M", "$1M-10M", "$10M-50M", "$50M+"};
+
+    public static void main(String[] args) throws Exception {
+        String source = args.length > 0 ? args[0] : "50000";
+        Path csv = Paths.get(source);
+        if (!Files.exists(csv)) {
+            csv = Files.createTempFile("companies-synthetic", ".csv");
+            csv.toFile().deleteOnExit();
+            SyntheticCompanies.generate(Integer.parseInt(source)).writeCsv(csv);
+        }
+        HashingEmbeddingModel model = new HashingEmbeddingModel(CompanyVectorSearch.EMBEDDING_DIMENSION);
+        CompanyStore store = new CsvCompanySource(csv, model).load();
+        CompanyStore nameOnly = embedNames(store, model);
+        Bm25Index bm25 = Bm25Index.build(store);
+
+        // profiles: industries drawn from the markets of random companies, names that match nothing
+        SplittableRandom random = new SplittableRandom(7);
+        List<String[]> profiles = new ArrayList<>();
+        while (profiles.size() < QUERIES) {
+            String market = store.value(random.nextInt(store.size()), CompanyColumns.MARKET);
+            if (market != null && !market.isBlank()) {
+                profiles.add(new String[]{inventedName(random), market.trim(),
+                        STAGES[random.nextInt(STAGES.length)], REVENUES[random.nextInt(REVENUES.length)]});
+            }
+        }
+        System.out.printf("%d companies, %d profiles, %d candidates per list, precision@k = share of results in the profile's industry%n%n",
+                store.size(), QUERIES, CANDIDATES);
+        System.out.printf("%-46s %8s %8s %8s %8s %10s%n", "retrieval", "P@1", "P@3", "P@5", "P@10", "us/query");
+
+        report("bm25", store, profiles, (embedding, lexical, k) -> bm25.search(lexical, k), model);
+        for (CompanyStore vectors : new CompanyStore[]{nameOnly, store}) {
+            String label = vectors == nameOnly ? "name embedding" : "name+market+categories embedding";
+            BruteForceIndex index = BruteForceIndex.build(vectors.copyVectors(), vectors.dimension());
+            report("vector, " + label, store, profiles, (embedding, lexical, k) -> index.search(embedding, k), model);
+            for (float weight : LEXICAL_WEIGHTS) {
+                float[] weights = {1f, weight};
+                report(String.format(Locale.ROOT, "rrf 1:%.0f, %s", weight, label), store, profiles, (embedding, lexical, k) ->
+                        RankFusion.reciprocalRank(k, RankFusion.DEFAULT_K,
+                                new SearchHits[]{index.search(embedding, CANDIDATES), bm25.search(lexical, CANDIDATES)}, weights), model);
+            }
+        }
+    }
+
+    // pronounceable names that occur nowhere in the data, like most companies users ask about
+    private static String inventedName(SplittableRandom random) {
+        String[] syllables = {"zo", "vek", "tra", "lu", "mi", "qor", "nax", "bel", "ry", "sund"};
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < 3; i++) {
+            name.append(syllables[random.nextInt(syllables.length)]);
+        }
+        name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+        return name.toString();
+    }
+
+    private interface Retrieval {
+        SearchHits search(float[] embedding, String lexical, int k);
+    }
+
+    private static void report(String name, CompanyStore store, List<String[]> profiles, Retrieval retrieval,
+                               HashingEmbeddingModel model) {
+        int maxK = KS[KS.length - 1];
+        // warm up the JIT on the first profiles before timing
+        for (int i = 0; i < Math.min(50, profiles.size()); i++) {
+            String[] p = profiles.get(i);
+            retrieval.search(model.embed(VectorSearchQuery.inputContent(p[0], p[1], p[2], p[3])), VectorSearchQuery.lexicalContent(p[0], p[1]), maxK);
+        }
+        double[] relevant = new double[KS.length];
+        long nanos = 0;
+        for (String[] p : profiles) {
+            long start = System.nanoTime();
+            SearchHits hits = retrieval.search(model.embed(VectorSearchQuery.inputContent(p[0], p[1], p[2], p[3])),
+                    VectorSearchQuery.lexicalContent(p[0], p[1]), maxK);
+            nanos += System.nanoTime() - start;
+            for (int j = 0; j < KS.length; j++) {
+                int hit = 0;
+                for (int i = 0; i < Math.min(KS[j], hits.size()); i++) {
+                    if (isRelevant(store, hits.id(i), p[1])) {
+                        hit++;
+                    }
+                }
+                relevant[j] += hit / (double) KS[j];
+            }
+        }
+        System.out.printf(Locale.ROOT, "%-46s %8.3f %8.3f %8.3f %8.3f %10.1f%n", name,
+                relevant[0] / profiles.size(), relevant[1] / profiles.size(), relevant[2] / profiles.size(),
+                relevant[3] / profiles.size(), nanos / 1e3 / profiles.size());
+    }
+
+    private static boolean isRelevant(CompanyStore store, int row, String industry) {
+        String market = store.value(row, CompanyColumns.MARKET);
+        if (market != null && market.trim().equalsIgnoreCase(industry)) {
+            return true;
+        }
+        String categories = store.value(row, CompanyColumns.CATEGORY_LIST);
+        if (categories != null) {
+            for (String category : categories.split("\\|")) {
+                if (category.trim().equalsIgnoreCase(industry)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static CompanyStore embedNames(CompanyStore store, HashingEmbeddingModel model) {
+        CompanyCorpus.Builder builder = CompanyCorpus.builder(store.dimension());
+        String[] values = new String[CompanyColumns.COUNT];
+        for (int row = 0; row < store.size(); row++) {
+            for (int c = 0; c < values.length; c++) {
+                values[c] = store.value(row, c);
+            }
+            builder.add(values, VectorMath.normalize(model.embed(values[CompanyColumns.NAME])));
+        }
+        return builder.build();
+    }
+}
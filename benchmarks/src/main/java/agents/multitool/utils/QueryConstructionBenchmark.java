@@ -0,0 +1,98 @@
+package agents.multitool.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call cost of preparing the search query: formatting the whole SQL text per call, as
+ * getSimilarCompany used to, against the precompiled template with bound parameters.
+ * Run with {@code -prof gc} for bytes per call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryConstructionBenchmark {
+
+    // The SQL getSimilarCompany formatted on every call before the template existed.
+    private static final String LEGACY_FORMAT =
+            "WITH InputEmbedding AS (\n" +
+            "  SELECT ml_generate_embedding_result AS input_embedding \n" +
+            "  FROM ML.GENERATE_EMBEDDING(\n" +
+            "    MODEL `%s.%s.%s`, \n" +
+            "    (SELECT '%s' AS content), \n" +
+            "    STRUCT(\n" +
+            "      TRUE AS flatten_json_output, \n" +
+            "      'RETRIEVAL_DOCUMENT' AS task_type, \n" +
+            "      256 AS output_dimensionality\n" +
+            "    )\n" +
+            "  )\n" +
+            ")\n" +
+            "SELECT \n" +
+            "  base.base.company_id,\n" +
+            "  base.base.content,\n" +
+            "  base.distance,\n" +
+            "  c.name,\n" +
+            "  c.category_list,\n" +
+            "  c.` market `,\n" +
+            "  c.` funding_total_usd `,\n" +
+            "  c.status,\n" +
+            "  c.funding_rounds,\n" +
+            "  c.founded_year,\n" +
+            "  c.round_A,\n" +
+            "  c.round_B,\n" +
+            "  c.round_C,\n" +
+            "  c.round_D\n" +
+            "FROM VECTOR_SEARCH(\n" +
+            "  TABLE `%s.%s.%s`, \n" +
+            "  'ml_generate_embedding_result', \n" +
+            "  (SELECT input_embedding FROM InputEmbedding), \n" +
+            "  distance_type => 'COSINE', \n" +
+            "  top_k => 5\n" +
+            ") base\n" +
+            "JOIN `%s.%s.%s` c ON base.base.company_id = c.company_id\n" +
+            "WHERE base.base.company_id IS NOT NULL\n" +
+            "ORDER BY base.distance ASC\n" +
+            "LIMIT 5";
+
+    private final String[][] profiles = {
+            {"TechCorp", "SaaS", "Series A", "$1M-$5M"},
+            {"CloudScale", "cloud computing", "Series B", "$6M"},
+            {"DataSync", "Fintech", "Seed", "$500k"},
+            {"O'Brien Labs", "Biotech", "Series C", "$20M-$50M"},
+    };
+    private int next;
+
+    @Benchmark
+    public Object formatPerCall() {
+        String[] p = profiles[next++ & 3];
+        String inputContent = String.format(
+                "Company Name: %s. Industry: %s. Funding Stage: %s. Revenue Range: %s. " +
+                "This is a startup company in the %s industry at %s stage with %s revenue.",
+                p[0], p[1], p[2], p[3], p[1], p[2], p[3]);
+        return String.format(LEGACY_FORMAT,
+                CompanyVectorSearch.PROJECT_ID, CompanyVectorSearch.DATASET_ID, CompanyVectorSearch.MODEL_NAME, inputContent,
+                CompanyVectorSearch.PROJECT_ID, CompanyVectorSearch.DATASET_ID, CompanyVectorSearch.EMBEDDING_TABLE,
+                CompanyVectorSearch.PROJECT_ID, CompanyVectorSearch.DATASET_ID, CompanyVectorSearch.COMPANIES_TABLE);
+    }
+
+    @Benchmark
+    public Object precompiledTemplate() {
+        String[] p = profiles[next++ & 3];
+        String inputContent = VectorSearchQuery.inputContent(p[0], p[1], p[2], p[3]);
+        Map<?, ?> parameters = VectorSearchQuery.contentParameters(inputContent, 5);
+        return VectorSearchQuery.SEARCH_BY_CONTENT.length() + parameters.size();
+    }
+}
@@ -0,0 +1,113 @@
+package agents.multitool.utils;
+
+import agents.multitool.bench.SyntheticCompanies;
+import agents.multitool.search.BruteForceIndex;
+import agents.multitool.search.CompanySnapshot;
+import agents.multitool.search.CompanyStore;
+import agents.multitool.search.SearchHits;
+import agents.multitool.search.VectorMath;
+import agents.multitool.warehouse.CsvCompanySource;
+import agents.multitool.warehouse.HashingEmbeddingModel;
+import com.google.genai.Client;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Size of the getSimilarCompany response the agents read, per {@link ToolResponseFormat} mode, for
+ * the same search results. Profiles are random companies of the table, searched with the exact
+ * scan. Tokens are counted by Gemini's countTokens when GOOGLE_API_KEY is set, otherwise
+ * estimated as characters / 4. For tokens billed in production, compare
+ * {@code datacompass_llm_tokens_total{type="prompt"}} per {@code response_format} across runs.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar agents.multitool.utils.ResponseTokenReport companies.csv 5
+ * java -cp target/benchmarks.jar agents.multitool.utils.ResponseTokenReport companies.dcs 10
+ * </pre>
+ */
+public final class ResponseTokenReport {
+
+    private static final int QUERIES = 200;
+    // countTokens is a network call; count a sample and scale the character ratio
+    private static final int COUNTED_QUERIES = 20;
+    private static final String MODEL = "gemini-2.5-flash";
+    private static final int[] BUDGETS = {0, 2000, 1000};
+
+    public static void main(String[] args) throws Exception {
+        String source = args.length > 0 ? args[0] : "50000";
+        int topK = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        CompanyStore store = load(source);
+        BruteForceIndex index = BruteForceIndex.build(store.copyVectors(), store.dimension());
+
+        SplittableRandom random = new SplittableRandom(11);
+        List<List<Company>> results = new ArrayList<>(QUERIES);
+        float[] query = new float[store.dimension()];
+        for (int q = 0; q < QUERIES; q++) {
+            store.readVector(random.nextInt(store.size()), query, 0);
+            SearchHits hits = index.search(VectorMath.normalize(query), topK);
+            List<Company> companies = new ArrayList<>(hits.size());
+            for (int i = 0; i < hits.size(); i++) {
+                companies.add(LocalVectorSearch.toCompany(store, hits.id(i), hits.score(i)));
+            }
+            results.add(companies);
+        }
+
+        Client gemini = System.getenv("GOOGLE_API_KEY") == null ? null : new Client();
+        System.out.printf("%d companies, %d searches, top %d, tokens %s%n%n", store.size(), QUERIES, topK,
+                gemini == null ? "estimated as chars / 4 (set GOOGLE_API_KEY to count with " + MODEL + ")" : "counted by " + MODEL);
+        System.out.printf("%-24s %12s %12s %10s %12s%n", "format", "chars/call", "tokens/call", "vs verbose", "rows/call");
+
+        double verboseTokens = report("verbose", results, -1, gemini, 0);
+        for (int budget : BUDGETS) {
+            report(budget == 0 ? "compact" : "compact, " + budget + " chars", results, budget, gemini, verboseTokens);
+        }
+    }
+
+    // budget < 0 is the verbose format
+    private static double report(String name, List<List<Company>> results, int budget, Client gemini, double verboseTokens) {
+        long chars = 0;
+        long rows = 0;
+        long countedChars = 0;
+        long countedTokens = 0;
+        for (int q = 0; q < results.size(); q++) {
+            List<Company> companies = results.get(q);
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("status", "success");
+            response.put("message", "Found " + companies.size() + " similar companies");
+            Object encoded = budget < 0 ? Company.toResponse(companies) : ToolResponseFormat.compact(companies, budget);
+            response.put("companies", encoded);
+            int length = ToolResponseFormat.length(response);
+            chars += length;
+            rows += encoded instanceof Map<?, ?> table ? ((List<?>) table.get("rows")).size() : companies.size();
+            if (gemini != null && q < COUNTED_QUERIES) {
+                countedChars += length;
+                countedTokens += gemini.models.countTokens(MODEL, ToolResponseFormat.toJson(response), null).totalTokens().orElse(0);
+            }
+        }
+        double tokensPerChar = gemini == null ? 0.25 : countedTokens / (double) countedChars;
+        double tokens = chars * tokensPerChar / results.size();
+        System.out.printf(Locale.ROOT, "%-24s %12.0f %12.0f %9.0f%% %12.1f%n", name, chars / (double) results.size(), tokens,
+                verboseTokens == 0 ? 100 : 100 * tokens / verboseTokens, rows / (double) results.size());
+        return tokens;
+    }
+
+    private static CompanyStore load(String source) throws Exception {
+        Path path = Paths.get(source);
+        if (source.endsWith(".dcs") && Files.exists(path)) {
+            return CompanySnapshot.open(path);
+        }
+        if (!Files.exists(path)) {
+            path = Files.createTempFile("companies-synthetic", ".csv");
+            path.toFile().deleteOnExit();
+            SyntheticCompanies.generate(Integer.parseInt(source)).writeCsv(path);
+        }
+        return new CsvCompanySource(path, new HashingEmbeddingModel(CompanyVectorSearch.EMBEDDING_DIMENSION)).load();
+    }
+}
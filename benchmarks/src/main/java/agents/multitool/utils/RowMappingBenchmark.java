@@ -0,0 +1,114 @@
+package agents.multitool.utils;
+
+import agents.multitool.bench.SyntheticCompanies;
+import agents.multitool.search.CompanyColumns;
+import com.google.cloud.bigquery.Field;
+import com.google.cloud.bigquery.FieldList;
+import com.google.cloud.bigquery.FieldValue;
+import com.google.cloud.bigquery.FieldValueList;
+import com.google.cloud.bigquery.StandardSQLTypeName;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping VECTOR_SEARCH result rows to the tool response: the original per-row HashMap filled by
+ * column name, against {@link CompanyRowReader} (column positions resolved once) plus the lazy
+ * {@link Company#toResponse} view.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowMappingBenchmark {
+
+    // Result columns of the search query, in its SELECT order
+    private static final String[] COLUMNS = {
+            "company_id", "content", "distance", "name", "category_list", " market ", " funding_total_usd ",
+            "status", "region", "funding_rounds", "founded_year", "round_A", "round_B", "round_C", "round_D"
+    };
+    private static final int[] SOURCE = {
+            CompanyColumns.COMPANY_ID, CompanyColumns.CONTENT, -1, CompanyColumns.NAME, CompanyColumns.CATEGORY_LIST,
+            CompanyColumns.MARKET, CompanyColumns.FUNDING_TOTAL_USD, CompanyColumns.STATUS, CompanyColumns.REGION, CompanyColumns.FUNDING_ROUNDS,
+            CompanyColumns.FOUNDED_YEAR, CompanyColumns.ROUND_A, CompanyColumns.ROUND_B, CompanyColumns.ROUND_C, CompanyColumns.ROUND_D
+    };
+
+    @Param({"5", "1000"})
+    public int rows;
+
+    private FieldList schema;
+    private List<FieldValueList> result;
+
+    @Setup
+    public void setup() {
+        Field[] fields = new Field[COLUMNS.length];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = Field.of(COLUMNS[i], "distance".equals(COLUMNS[i]) ? StandardSQLTypeName.FLOAT64 : StandardSQLTypeName.STRING);
+        }
+        schema = FieldList.of(fields);
+
+        SyntheticCompanies companies = SyntheticCompanies.generate(rows);
+        result = new ArrayList<>(rows);
+        for (int row = 0; row < rows; row++) {
+            String[] values = companies.values(row);
+            List<FieldValue> cells = new ArrayList<>(COLUMNS.length);
+            for (int c = 0; c < COLUMNS.length; c++) {
+                String value = SOURCE[c] < 0 ? Double.toString(0.1 + row * 1e-4) : values[SOURCE[c]];
+                cells.add(FieldValue.of(FieldValue.Attribute.PRIMITIVE, value));
+            }
+            result.add(FieldValueList.of(cells, schema));
+        }
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> hashMapByName() {
+        List<Map<String, Object>> companies = new ArrayList<>();
+        for (FieldValueList row : result) {
+            Map<String, Object> company = new HashMap<>();
+            company.put("company_id", row.get("company_id").getValue());
+            company.put("content", row.get("content").getValue());
+            company.put("similarity_score", 1.0 - row.get("distance").getDoubleValue());
+            company.put("name", row.get("name").getValue());
+            company.put("category_list", row.get("category_list").getValue());
+            company.put("market", row.get(" market ").getValue());
+            company.put("funding_total_usd", row.get(" funding_total_usd ").getValue());
+            company.put("status", row.get("status").getValue());
+            company.put("region", row.get("region").getValue());
+            company.put("funding_rounds", row.get("funding_rounds").getValue());
+            company.put("founded_year", row.get("founded_year").getValue());
+            company.put("round_A", row.get("round_A").getValue());
+            company.put("round_B", row.get("round_B").getValue());
+            company.put("round_C", row.get("round_C").getValue());
+            company.put("round_D", row.get("round_D").getValue());
+            companies.add(company);
+        }
+        return companies;
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> typedRecordByIndex() {
+        FieldValueListRows rows = new FieldValueListRows(schema, result);
+        CompanyRowReader reader = new CompanyRowReader(rows);
+        List<Company> companies = new ArrayList<>();
+        while (rows.next()) {
+            companies.add(reader.read());
+        }
+        return Company.toResponse(companies);
+    }
+}
@@ -0,0 +1,21 @@
+#!/bin/sh
+# Starts the server chosen by DATACOMPASS_SERVER (see Dockerfile), with the AppCDS archive.
+set -e
+
+JAVA_OPTS="-XX:SharedArchiveFile=datacompass.jsa --add-modules jdk.incubator.vector"
+
+case "${DATACOMPASS_SERVER:-devui}" in
+    devui)
+        # ADK Dev UI and its REST API; the agents are compiled from the source dir at startup
+        exec java $JAVA_OPTS -cp datacompass.jar com.google.adk.web.AdkWebServer \
+            --server.port="${PORT:-8080}" --adk.agents.source-dir=src/main/java
+        ;;
+    headless)
+        # multi-session HTTP server; reads PORT itself
+        exec java $JAVA_OPTS -jar datacompass.jar --server
+        ;;
+    *)
+        echo "DATACOMPASS_SERVER must be devui or headless, got '$DATACOMPASS_SERVER'" >&2
+        exit 1
+        ;;
+esac
@@ -8,13 +8,30 @@ import com.google.genai.types.Content;
 import com.google.genai.types.Part;
 import io.reactivex.rxjava3.core.Flowable;
 import agents.multitool.llmAgents.DatacompassAgent;
+import agents.multitool.metrics.Metrics;
+import agents.multitool.server.DatacompassServer;
+import agents.multitool.server.StartupTraining;
+import agents.multitool.streaming.WorkflowStreams;
 
 import java.nio.charset.StandardCharsets;
 import java.util.Scanner;
 
 public class DatacompassApplication {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        // Headless multi-session HTTP mode instead of the interactive CLI
+        if (args.length > 0 && "--server".equals(args[0])) {
+            DatacompassServer.main(args);
+            return;
+        }
+        // Training run for the AppCDS archive, see the "appcds" profile in pom.xml
+        if (args.length > 0 && "--train".equals(args[0])) {
+            StartupTraining.main(args);
+            return;
+        }
+
         System.out.println("Starting Datacompass Agent...");
+        // off unless configured: the summary would interrupt the conversation
+        Metrics.startLogSummary(0);
 
         try {
             // Get ROOT_AGENT from DatacompassAgent
@@ -48,15 +65,39 @@ public class DatacompassApplication {
 
                     Content userMsg = Content.fromParts(Part.fromText(userInput)); // user msg
 
-                    // Run the agent
-                    Flowable<Event> events = runner.runAsync("user_123", session.id(), userMsg);
+                    // Run the agent, streaming partial model output
+                    Flowable<Event> events = runner.runAsync("user_123", session.id(), userMsg, WorkflowStreams.streamingRunConfig());
 
                     System.out.print("\nAgent > ");
-                    events.blockingForEach(event -> {
-                        if (event.finalResponse()) {
-                            System.out.println(event.stringifyContent());
+                    long start = System.nanoTime();
+                    long[] firstOutput = {0};
+                    String[] currentAuthor = {null};
+                    WorkflowStreams.updates(events).blockingForEach(update -> {
+                        if (firstOutput[0] == 0) {
+                            firstOutput[0] = System.nanoTime();
+                        }
+                        if (!update.author().equals(currentAuthor[0])) {
+                            currentAuthor[0] = update.author();
+                            System.out.printf("%n[%s]%n", update.author());
+                        }
+                        switch (update.type()) {
+                            case TOOL_RESULT:
+                                String table = WorkflowStreams.formatCompanyTable(update.toolResult());
+                                if (!table.isEmpty()) {
+                                    System.out.println(table);
+                                }
+                                break;
+                            case TEXT_DELTA:
+                                System.out.print(update.text());
+                                break;
+                            case AGENT_DONE:
+                                System.out.println(update.streamed() ? "" : update.text());
+                                break;
                         }
+                        System.out.flush();
                     });
+                    System.out.printf("%n(%s workflow: first output after %d ms, finished in %d ms)%n", rootAgent.name(),
+                            firstOutput[0] == 0 ? 0 : (firstOutput[0] - start) / 1_000_000, (System.nanoTime() - start) / 1_000_000);
                 }
             }
 
@@ -0,0 +1,104 @@
+package agents.multitool.bigquery;
+
+import com.google.cloud.bigquery.QueryParameterValue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Offline {@link QueryExecutor}: answers every query from a caller-supplied function and records
+ * the SQL and parameters it was given. Row values may be Strings, Numbers, float[] or null.
+ */
+public class FakeQueryExecutor implements QueryExecutor {
+
+    private final BiFunction<String, Map<String, QueryParameterValue>, List<Map<String, Object>>> responder;
+    private final List<String> executedSql = Collections.synchronizedList(new ArrayList<>());
+    private volatile Map<String, QueryParameterValue> lastParameters = Map.of();
+
+    public FakeQueryExecutor(BiFunction<String, Map<String, QueryParameterValue>, List<Map<String, Object>>> responder) {
+        this.responder = responder;
+    }
+
+    /** Returns the same rows for every query. */
+    public static FakeQueryExecutor returning(List<Map<String, Object>> rows) {
+        return new FakeQueryExecutor((sql, parameters) -> rows);
+    }
+
+    @Override
+    public ResultRows query(String sql, Map<String, QueryParameterValue> parameters) {
+        executedSql.add(sql);
+        lastParameters = parameters;
+        return new MapRows(responder.apply(sql, parameters));
+    }
+
+    public List<String> executedSql() {
+        return List.copyOf(executedSql);
+    }
+
+    public Map<String, QueryParameterValue> lastParameters() {
+        return lastParameters;
+    }
+
+    private static final class MapRows implements ResultRows {
+        private final List<Map<String, Object>> rows;
+        private final List<String> columns = new ArrayList<>();
+        private int index = -1;
+
+        MapRows(List<Map<String, Object>> rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public boolean next() {
+            return ++index < rows.size();
+        }
+
+        @Override
+        public int columnIndex(String column) {
+            int position = columns.indexOf(column);
+            if (position < 0) {
+                columns.add(column);
+                position = columns.size() - 1;
+            }
+            return position;
+        }
+
+        private Object value(int column) {
+            return rows.get(index).get(columns.get(column));
+        }
+
+        @Override
+        public boolean isNull(int column) {
+            return value(column) == null;
+        }
+
+        @Override
+        public String getString(int column) {
+            Object value = value(column);
+            return value == null ? null : value.toString();
+        }
+
+        @Override
+        public double getDouble(int column) {
+            return ((Number) value(column)).doubleValue();
+        }
+
+        @Override
+        public long getLong(int column) {
+            return ((Number) value(column)).longValue();
+        }
+
+        @Override
+        public float[] getFloatArray(int column) {
+            return ((float[]) value(column)).clone();
+        }
+
+        @Override
+        public long totalRows() {
+            return rows.size();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package agents.multitool.bigquery;
+
+import agents.multitool.metrics.Counter;
+import agents.multitool.metrics.LatencyHistogram;
+import agents.multitool.metrics.Metrics;
+import com.google.cloud.bigquery.QueryParameterValue;
+
+import java.util.Map;
+
+/**
+ * Records how long {@link QueryExecutor#query} takes until the first page of rows is available,
+ * and how many queries fail, per executor kind.
+ */
+public class InstrumentedQueryExecutor implements QueryExecutor {
+
+    private final QueryExecutor delegate;
+    private final LatencyHistogram latency;
+    private final Counter errors;
+
+    public InstrumentedQueryExecutor(QueryExecutor delegate, String kind) {
+        this.delegate = delegate;
+        this.latency = Metrics.timer("datacompass_bigquery_query_seconds",
+                "Time from submitting a query to its first page of rows", "executor", kind);
+        this.errors = Metrics.counter("datacompass_bigquery_query_errors_total", "Failed BigQuery queries", "executor", kind);
+    }
+
+    @Override
+    public ResultRows query(String sql, Map<String, QueryParameterValue> parameters) throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            return delegate.query(sql, parameters);
+        } catch (RuntimeException | InterruptedException e) {
+            errors.increment();
+            throw e;
+        } finally {
+            latency.recordSince(start);
+        }
+    }
+}
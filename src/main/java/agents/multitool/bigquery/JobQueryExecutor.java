@@ -0,0 +1,71 @@
+package agents.multitool.bigquery;
+
+import agents.multitool.metrics.Counter;
+import agents.multitool.metrics.Metrics;
+import com.google.cloud.bigquery.BigQuery;
+import com.google.cloud.bigquery.Job;
+import com.google.cloud.bigquery.JobInfo;
+import com.google.cloud.bigquery.JobStatistics;
+import com.google.cloud.bigquery.QueryJobConfiguration;
+import com.google.cloud.bigquery.QueryParameterValue;
+
+import java.util.Map;
+
+/**
+ * Full job lifecycle: insert a query job, poll until it finishes, then page through its results.
+ */
+public class JobQueryExecutor implements QueryExecutor {
+
+    private static final Counter BYTES_PROCESSED = Metrics.counter("datacompass_bigquery_bytes_processed_total",
+            "Bytes processed by query jobs, from the job statistics");
+    private static final Counter BYTES_BILLED = Metrics.counter("datacompass_bigquery_bytes_billed_total",
+            "Bytes billed for query jobs, from the job statistics");
+    private static final Counter CACHE_HITS = Metrics.counter("datacompass_bigquery_result_cache_hits_total",
+            "Query jobs answered from the BigQuery result cache");
+
+    private final BigQuery bigquery;
+
+    public JobQueryExecutor(BigQuery bigquery) {
+        this.bigquery = bigquery;
+    }
+
+    @Override
+    public ResultRows query(String sql, Map<String, QueryParameterValue> parameters) throws InterruptedException {
+        Job queryJob = bigquery.create(JobInfo.newBuilder(configuration(sql, parameters)).build());
+        queryJob = queryJob.waitFor();
+
+        if (queryJob == null) {
+            throw new RuntimeException("Query job no longer exists.");
+        }
+
+        if (queryJob.getStatus().getError() != null) {
+            throw new RuntimeException("Query failed: " + queryJob.getStatus().getError().toString());
+        }
+
+        recordStatistics(queryJob.getStatistics());
+        return new TableResultRows(queryJob.getQueryResults());
+    }
+
+    static void recordStatistics(JobStatistics statistics) {
+        if (!(statistics instanceof JobStatistics.QueryStatistics)) {
+            return;
+        }
+        JobStatistics.QueryStatistics query = (JobStatistics.QueryStatistics) statistics;
+        if (query.getTotalBytesProcessed() != null) {
+            BYTES_PROCESSED.add(query.getTotalBytesProcessed());
+        }
+        if (query.getTotalBytesBilled() != null) {
+            BYTES_BILLED.add(query.getTotalBytesBilled());
+        }
+        if (Boolean.TRUE.equals(query.getCacheHit())) {
+            CACHE_HITS.increment();
+        }
+    }
+
+    static QueryJobConfiguration configuration(String sql, Map<String, QueryParameterValue> parameters) {
+        QueryJobConfiguration.Builder builder = QueryJobConfiguration.newBuilder(sql)
+                .setUseLegacySql(false);
+        parameters.forEach(builder::addNamedParameter);
+        return builder.build();
+    }
+}
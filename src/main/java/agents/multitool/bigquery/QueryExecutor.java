@@ -0,0 +1,15 @@
+package agents.multitool.bigquery;
+
+import com.google.cloud.bigquery.QueryParameterValue;
+
+import java.util.Map;
+
+/**
+ * Runs a read-only GoogleSQL query with named parameters and streams the rows back.
+ * Implementations differ in how the rows travel: jobless short query, full job lifecycle,
+ * or the Storage Read API.
+ */
+public interface QueryExecutor {
+
+    ResultRows query(String sql, Map<String, QueryParameterValue> parameters) throws InterruptedException;
+}
@@ -0,0 +1,53 @@
+package agents.multitool.bigquery;
+
+/**
+ * Forward-only cursor over query results. Columns can be addressed by name or, on hot paths,
+ * by an index resolved once with {@link #columnIndex(String)}.
+ * Scalar getters return BigQuery's string form so callers see the same values as
+ * {@code FieldValue.getValue()}.
+ */
+public interface ResultRows extends AutoCloseable {
+
+    /** Advances to the next row; must be called before reading the first one. */
+    boolean next();
+
+    /** Position of the named column, valid for the lifetime of this cursor. */
+    int columnIndex(String column);
+
+    boolean isNull(int column);
+
+    String getString(int column);
+
+    double getDouble(int column);
+
+    long getLong(int column);
+
+    float[] getFloatArray(int column);
+
+    /** Total rows in the result, or -1 when the source does not report it. */
+    long totalRows();
+
+    default boolean isNull(String column) {
+        return isNull(columnIndex(column));
+    }
+
+    default String getString(String column) {
+        return getString(columnIndex(column));
+    }
+
+    default double getDouble(String column) {
+        return getDouble(columnIndex(column));
+    }
+
+    default long getLong(String column) {
+        return getLong(columnIndex(column));
+    }
+
+    default float[] getFloatArray(String column) {
+        return getFloatArray(columnIndex(column));
+    }
+
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,115 @@
+package agents.multitool.bigquery;
+
+import com.google.cloud.bigquery.FieldList;
+import com.google.cloud.bigquery.FieldValue;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * {@link ResultRows} over the JDBC-style {@link ResultSet} returned by the BigQuery Connection API.
+ * That result set does not implement {@code findColumn} and addresses columns by their 0-based
+ * position in the result schema, so indexes are resolved against the schema's fields instead.
+ */
+class ResultSetRows implements ResultRows {
+
+    private final ResultSet resultSet;
+    private final FieldList fields;
+    private final long totalRows;
+    private final Runnable onClose;
+
+    ResultSetRows(ResultSet resultSet, FieldList fields, long totalRows, Runnable onClose) {
+        this.resultSet = resultSet;
+        this.fields = fields;
+        this.totalRows = totalRows;
+        this.onClose = onClose;
+    }
+
+    @Override
+    public boolean next() {
+        try {
+            return resultSet.next();
+        } catch (SQLException e) {
+            throw new RuntimeException("Reading query results failed: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int columnIndex(String column) {
+        return fields.getIndex(column);
+    }
+
+    @Override
+    public boolean isNull(int column) {
+        try {
+            return resultSet.getObject(column) == null;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public String getString(int column) {
+        try {
+            Object value = resultSet.getObject(column);
+            return value == null ? null : value.toString();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public double getDouble(int column) {
+        try {
+            return resultSet.getDouble(column);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public long getLong(int column) {
+        try {
+            return resultSet.getLong(column);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public float[] getFloatArray(int column) {
+        try {
+            Object value = resultSet.getObject(column);
+            if (value instanceof Array) {
+                value = ((Array) value).getArray();
+            }
+            if (value instanceof Object[]) {
+                value = List.of((Object[]) value);
+            }
+            List<?> values = (List<?>) value;
+            float[] vector = new float[values.size()];
+            for (int i = 0; i < vector.length; i++) {
+                // the JSON path yields FieldValues, the Arrow path plain numbers
+                Object element = values.get(i);
+                vector[i] = element instanceof FieldValue
+                        ? (float) ((FieldValue) element).getDoubleValue()
+                        : ((Number) element).floatValue();
+            }
+            return vector;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public long totalRows() {
+        return totalRows;
+    }
+
+    @Override
+    public void close() {
+        onClose.run();
+    }
+}
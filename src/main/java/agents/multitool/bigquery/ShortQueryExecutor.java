@@ -0,0 +1,68 @@
+package agents.multitool.bigquery;
+
+import agents.multitool.metrics.Counter;
+import agents.multitool.metrics.Metrics;
+import com.google.cloud.bigquery.BigQuery;
+import com.google.cloud.bigquery.BigQueryException;
+import com.google.cloud.bigquery.Job;
+import com.google.cloud.bigquery.JobId;
+import com.google.cloud.bigquery.QueryParameterValue;
+import com.google.cloud.bigquery.TableResult;
+
+import java.util.Map;
+
+/**
+ * Jobless "short query" path. With {@code JobCreationMode.JOB_CREATION_OPTIONAL} set on the client,
+ * {@link BigQuery#query} issues a single jobs.query call and small results come back inline with no
+ * job to poll; BigQuery only creates a job when the query needs one (long running, large result),
+ * in which case the client library waits on it transparently. If the optional mode itself is
+ * rejected, the query is retried once through {@link JobQueryExecutor}.
+ *
+ * <p>Bytes processed and billed are recorded from the job statistics when BigQuery created a job.
+ * Jobless queries report no statistics through the client, so they are only counted, in
+ * {@code datacompass_bigquery_jobless_queries_total}.
+ */
+public class ShortQueryExecutor implements QueryExecutor {
+
+    private static final Counter JOBLESS = Metrics.counter("datacompass_bigquery_jobless_queries_total",
+            "Short queries answered without a job, whose bytes processed and billed are not reported");
+
+    private final BigQuery bigquery;
+    private final JobQueryExecutor fallback;
+
+    public ShortQueryExecutor(BigQuery bigquery) {
+        this.bigquery = bigquery;
+        this.fallback = new JobQueryExecutor(bigquery);
+    }
+
+    @Override
+    public ResultRows query(String sql, Map<String, QueryParameterValue> parameters) throws InterruptedException {
+        TableResult tableResult;
+        try {
+            tableResult = bigquery.query(JobQueryExecutor.configuration(sql, parameters));
+        } catch (BigQueryException e) {
+            if (e.getCode() != 400 || e.getMessage() == null || !e.getMessage().contains("jobCreationMode")) {
+                throw e;
+            }
+            System.err.println("Short query mode rejected, falling back to a query job: " + e.getMessage());
+            return fallback.query(sql, parameters);
+        }
+        recordStatistics(tableResult.getJobId());
+        return new TableResultRows(tableResult);
+    }
+
+    private void recordStatistics(JobId jobId) {
+        if (jobId == null) {
+            JOBLESS.increment();
+            return;
+        }
+        try {
+            Job job = bigquery.getJob(jobId);
+            if (job != null) {
+                JobQueryExecutor.recordStatistics(job.getStatistics());
+            }
+        } catch (BigQueryException e) {
+            System.err.println("Could not read the statistics of job " + jobId.getJob() + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package agents.multitool.bigquery;
+
+import com.google.cloud.bigquery.BigQuery;
+import com.google.cloud.bigquery.BigQueryResult;
+import com.google.cloud.bigquery.BigQuerySQLException;
+import com.google.cloud.bigquery.Connection;
+import com.google.cloud.bigquery.ConnectionSettings;
+import com.google.cloud.bigquery.DatasetId;
+import com.google.cloud.bigquery.Parameter;
+import com.google.cloud.bigquery.QueryParameterValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads results through the BigQuery Storage Read API (parallel Arrow streams) instead of paging
+ * tabledata.list. Worth it for bulk result sets such as portfolio benchmarking; for a handful of
+ * rows {@link ShortQueryExecutor} is faster. The connection stays open until the rows are closed.
+ */
+public class StorageReadQueryExecutor implements QueryExecutor {
+
+    private final BigQuery bigquery;
+    private final ConnectionSettings settings;
+
+    public StorageReadQueryExecutor(BigQuery bigquery, String projectId, String datasetId) {
+        this.bigquery = bigquery;
+        this.settings = ConnectionSettings.newBuilder()
+                .setDefaultDataset(DatasetId.of(projectId, datasetId))
+                .setUseReadAPI(true)
+                .build();
+    }
+
+    @Override
+    public ResultRows query(String sql, Map<String, QueryParameterValue> parameters) {
+        List<Parameter> bound = new ArrayList<>(parameters.size());
+        parameters.forEach((name, value) -> bound.add(Parameter.newBuilder().setName(name).setValue(value).build()));
+
+        Connection connection = bigquery.createConnection(settings);
+        try {
+            BigQueryResult result = connection.executeSelect(sql, bound);
+            return new ResultSetRows(result.getResultSet(), result.getSchema().getFields(), result.getTotalRows(), () -> closeQuietly(connection));
+        } catch (BigQuerySQLException | RuntimeException e) {
+            closeQuietly(connection);
+            throw new RuntimeException("Storage Read query failed: " + e.getMessage(), e);
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (BigQuerySQLException e) {
+            System.err.println("Could not close BigQuery connection: " + e.getMessage());
+        }
+    }
+}
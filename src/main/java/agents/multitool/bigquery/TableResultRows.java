@@ -0,0 +1,73 @@
+package agents.multitool.bigquery;
+
+import com.google.cloud.bigquery.FieldList;
+import com.google.cloud.bigquery.FieldValue;
+import com.google.cloud.bigquery.FieldValueList;
+import com.google.cloud.bigquery.TableResult;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * {@link ResultRows} over a {@link TableResult}, fetching further pages as the cursor advances.
+ */
+public class TableResultRows implements ResultRows {
+
+    private final TableResult tableResult;
+    private final FieldList fields;
+    private final Iterator<FieldValueList> rows;
+    private FieldValueList row;
+
+    public TableResultRows(TableResult tableResult) {
+        this.tableResult = tableResult;
+        this.fields = tableResult.getSchema().getFields();
+        this.rows = tableResult.iterateAll().iterator();
+    }
+
+    @Override
+    public boolean next() {
+        row = rows.hasNext() ? rows.next() : null;
+        return row != null;
+    }
+
+    @Override
+    public int columnIndex(String column) {
+        return fields.getIndex(column);
+    }
+
+    @Override
+    public boolean isNull(int column) {
+        return row.get(column).isNull();
+    }
+
+    @Override
+    public String getString(int column) {
+        FieldValue value = row.get(column);
+        return value.isNull() ? null : value.getStringValue();
+    }
+
+    @Override
+    public double getDouble(int column) {
+        return row.get(column).getDoubleValue();
+    }
+
+    @Override
+    public long getLong(int column) {
+        return row.get(column).getLongValue();
+    }
+
+    @Override
+    public float[] getFloatArray(int column) {
+        List<FieldValue> values = row.get(column).getRepeatedValue();
+        float[] vector = new float[values.size()];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = (float) values.get(i).getDoubleValue();
+        }
+        return vector;
+    }
+
+    @Override
+    public long totalRows() {
+        return tableResult.getTotalRows();
+    }
+}
@@ -3,17 +3,26 @@ package agents.multitool.llmAgents;
 import com.google.adk.agents.BaseAgent;
 import com.google.adk.agents.LlmAgent;
 import com.google.adk.agents.SequentialAgent;
+import com.google.adk.tools.BaseTool;
 import com.google.adk.tools.FunctionTool;
+import agents.multitool.metrics.AgentMetrics;
+import agents.multitool.utils.CompanyCohorts;
 import agents.multitool.utils.CompanyVectorSearch;
+import agents.multitool.utils.MemoizedTool;
+import agents.multitool.utils.ReportCache;
 
 public class AnalysisWorkflowAgent {
     private static final String MODEL_NAME = "gemini-2.5-flash";
 
     public static BaseAgent createWorkflowAgent() {
-        FunctionTool vectorSearchTool = FunctionTool.create(CompanyVectorSearch.class, "getSimilarCompany");
+        // Both agents search for the same profile; memoize so a workflow run pays for one query
+        BaseTool vectorSearchTool = MemoizedTool.wrap(FunctionTool.create(CompanyVectorSearch.class, "getSimilarCompany"));
+        BaseTool filteredSearchTool = MemoizedTool.wrap(FunctionTool.create(CompanyVectorSearch.class, "getSimilarCompanyFiltered"));
+        BaseTool batchSearchTool = FunctionTool.create(CompanyVectorSearch.class, "getSimilarCompanies");
+        BaseTool cohortTool = MemoizedTool.wrap(FunctionTool.create(CompanyCohorts.class, "getCohortStatistics"));
 
         // First agent: Company Analysis Agent
-        LlmAgent analysisAgent = LlmAgent.builder()
+        LlmAgent analysisAgent = AgentMetrics.instrument(LlmAgent.builder())
                 .model(MODEL_NAME)
                 .name("company_analysis_agent")
                 .description("Analyzes user input and determines industry & comparable companies.")
@@ -27,14 +36,16 @@ public class AnalysisWorkflowAgent {
                         "  5. Suggest 2–3 growth opportunities or strategic priorities based on the company's stage and revenue range.\n" +
                         "  6. Mention any common risks or red flags associated with similar startups.\n" +
                         "  7. Keep your tone professional, insightful, and concise.\n" +
-                        "  8. Format the top 5 competitors in a clear table or list format."
+                        "  8. Format the top 5 competitors in a clear table or list format.\n" +
+                        "When the user restricts the peers by market, status (e.g. only operating companies), region, total funding range or founding-year range, call the filtered vector search tool with those filters instead of the plain one.\n" +
+                        "For step 4, call the cohort statistics tool with the company's market, stage, region and founding year (when known) and base the typical characteristics on its medians and status shares rather than on the 5 similar companies alone."
                 )
-                .tools(vectorSearchTool)
+                .tools(vectorSearchTool, filteredSearchTool, cohortTool)
                 .outputKey("company_analysis")
                 .build();
 
         // Second agent: Benchmark Report Agent
-        LlmAgent benchmarkAgent = LlmAgent.builder()
+        LlmAgent benchmarkAgent = AgentMetrics.instrument(LlmAgent.builder())
                 .model(MODEL_NAME)
                 .name("benchmark_report_agent")
                 .description("Queries startup databases and builds a comprehensive benchmarking report.")
@@ -51,18 +62,20 @@ public class AnalysisWorkflowAgent {
                         "  4. Create a detailed benchmarking report including:\n" +
                         "     - Market positioning analysis based on the top 5 competitors\n" +
                         "     - Competitive landscape overview\n" +
-                        "     - Funding patterns and trends from similar companies\n" +
+                        "     - Funding patterns and trends: call the cohort statistics tool with the company's market, stage, region and founding year, and place the company and its top 5 competitors against the cohort's funding percentiles, round sizes and survival rate. Quote the cohort size and any widened dimensions; do not invent statistics the tool did not return\n" +
                         "     - Regional market insights\n" +
                         "     - Strategic recommendations based on comparable companies\n" +
                         "  5. Provide actionable insights for strategic decision-making.\n" +
-                        "  6. Format the report in a clear, structured manner with the top 5 competitors prominently displayed."
+                        "  6. Format the report in a clear, structured manner with the top 5 competitors prominently displayed.\n" +
+                        "When the user supplies a portfolio of several companies, call the batch similarity search tool once with all of them instead of calling the vector search tool per company.\n" +
+                        "When the user restricts the peers by market, status (e.g. only operating companies), region, total funding range or founding-year range, call the filtered vector search tool with those filters instead of the plain one. Use the same filters the previous agent used."
                 )
-                .tools(vectorSearchTool)
+                .tools(vectorSearchTool, filteredSearchTool, batchSearchTool, cohortTool)
                 .outputKey("benchmark_report")
                 .build();
 
-        // Create the sequential workflow
-        return SequentialAgent.builder()
+        // Create the sequential workflow, behind the report cache when it is enabled
+        return ReportCache.wrap(SequentialAgent.builder())
                 .name("CompanyAnalysisWorkflow")
                 .description("Executes a sequence of company analyzing and benchmark report generating.")
                 .subAgents(analysisAgent, benchmarkAgent)
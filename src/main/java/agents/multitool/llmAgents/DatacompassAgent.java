@@ -1,5 +1,6 @@
 package agents.multitool.llmAgents;
 
+import agents.multitool.utils.DatacompassConfig;
 import com.google.adk.agents.BaseAgent;
 import com.google.genai.types.Schema;
 
@@ -28,7 +29,10 @@ public class DatacompassAgent  {
     public static BaseAgent ROOT_AGENT = initAgent();
 
     private static BaseAgent initAgent(){
-        // workflow agent here
+        // workflow agent here; "parallel" fetches similar companies once and writes sections concurrently
+        if ("parallel".equalsIgnoreCase(DatacompassConfig.get("datacompass.workflow.topology", "sequential"))) {
+            return ParallelWorkflowAgent.createWorkflowAgent();
+        }
         return AnalysisWorkflowAgent.createWorkflowAgent();
         
     }
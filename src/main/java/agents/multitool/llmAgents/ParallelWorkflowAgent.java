@@ -0,0 +1,77 @@
+package agents.multitool.llmAgents;
+
+import com.google.adk.agents.BaseAgent;
+import com.google.adk.agents.LlmAgent;
+import com.google.adk.agents.ParallelAgent;
+import com.google.adk.agents.SequentialAgent;
+import agents.multitool.metrics.AgentMetrics;
+import agents.multitool.utils.ReportCache;
+import agents.multitool.utils.SimilarCompanyPrefetch;
+
+/**
+ * Fan-out alternative to {@link AnalysisWorkflowAgent}: the similar companies and cohort statistics
+ * are fetched once up front by {@link SimilarCompanyPrefetch}, without a model call, the independent
+ * report sections are written by parallel branches that read them from session state, and a final
+ * agent merges the sections. No step calls a tool.
+ */
+public class ParallelWorkflowAgent {
+    private static final String MODEL_NAME = "gemini-2.5-flash";
+
+    public static BaseAgent createWorkflowAgent() {
+        // Step 1: independent sections, written concurrently once the comparable companies are in state
+        LlmAgent profileAgent = section("profile_summary_agent", "profile_summary",
+                "Summarize the company profile in 1–2 sentences and position it against the comparable companies.");
+        LlmAgent riskAgent = section("risk_agent", "risks",
+                "List the common risks and red flags for companies at this stage in this industry, grounded in the comparable companies.");
+        LlmAgent growthAgent = section("growth_agent", "growth_opportunities",
+                "Suggest 2–3 growth opportunities or strategic priorities based on the company's stage, revenue range and the comparable companies.");
+        LlmAgent fundingAgent = section("funding_trends_agent", "funding_trends",
+                "Describe the funding patterns of the comparable companies: total funding, number of rounds, round sizes and how they relate to founding year and status. Place them against the cohort statistics (percentiles, round shares, survival rate), quoting the cohort size.");
+
+        ParallelAgent sections = ParallelAgent.builder()
+                .name("ReportSections")
+                .description("Writes the independent report sections concurrently.")
+                .beforeAgentCallback(SimilarCompanyPrefetch::beforeSections)
+                .subAgents(profileAgent, riskAgent, growthAgent, fundingAgent)
+                .build();
+
+        // Step 2: merge the sections into one report
+        LlmAgent synthesisAgent = AgentMetrics.instrument(LlmAgent.builder())
+                .model(MODEL_NAME)
+                .name("report_synthesis_agent")
+                .description("Merges the report sections into the final benchmarking report.")
+                .instruction(
+                        "You are a benchmark analysis specialist. Combine the sections below into one clear, structured benchmarking report.\n" +
+                        "Start with a table of the top 5 competitors (name, similarity score, market, funding, founded year, status), then the sections in this order.\n" +
+                        "Keep your tone professional, insightful, and concise; do not invent data that is not in the sections.\n\n" +
+                        "Comparable companies:\n{similar_companies}\n\n" +
+                        "Profile summary:\n{profile_summary}\n\n" +
+                        "Growth opportunities:\n{growth_opportunities}\n\n" +
+                        "Risks:\n{risks}\n\n" +
+                        "Funding trends:\n{funding_trends}"
+                )
+                .outputKey("benchmark_report")
+                .build();
+
+        return ReportCache.wrap(SequentialAgent.builder())
+                .name("CompanyAnalysisWorkflow")
+                .description("Fetches similar companies once, writes the report sections in parallel and merges them.")
+                .subAgents(sections, synthesisAgent)
+                .build();
+    }
+
+    private static LlmAgent section(String name, String outputKey, String task) {
+        return AgentMetrics.instrument(LlmAgent.builder())
+                .model(MODEL_NAME)
+                .name(name)
+                .description(task)
+                .instruction(
+                        "You are a startup analysis assistant writing one section of a benchmarking report.\n" +
+                        "Comparable companies found for the user's company:\n{similar_companies}\n\n" +
+                        "Your task: " + task + "\n" +
+                        "Write only this section, in a few concise bullet points."
+                )
+                .outputKey(outputKey)
+                .build();
+    }
+}
@@ -0,0 +1,95 @@
+package agents.multitool.metrics;
+
+import agents.multitool.utils.ToolResponseFormat;
+import com.google.adk.agents.CallbackContext;
+import com.google.adk.agents.LlmAgent;
+import com.google.adk.models.LlmRequest;
+import com.google.adk.models.LlmResponse;
+import com.google.genai.types.Content;
+import com.google.genai.types.GenerateContentResponseUsageMetadata;
+import io.reactivex.rxjava3.core.Maybe;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Agent and model callbacks that time each {@link LlmAgent} step, its model calls and time to
+ * first streamed token, and count prompt and output tokens, labelled by agent name. The callbacks
+ * never alter the request or response.
+ */
+public final class AgentMetrics {
+
+    // invocation id + agent name -> System.nanoTime() at the start of the step / the model call in progress
+    private static final Map<String, Long> AGENT_STARTS = new ConcurrentHashMap<>();
+    private static final Map<String, ModelCall> MODEL_CALLS = new ConcurrentHashMap<>();
+
+    private record ModelCall(long start, boolean firstTokenRecorded) {
+    }
+
+    private AgentMetrics() {
+    }
+
+    public static LlmAgent.Builder instrument(LlmAgent.Builder builder) {
+        return builder
+                .beforeAgentCallback(AgentMetrics::beforeAgent)
+                .afterAgentCallback(AgentMetrics::afterAgent)
+                .beforeModelCallback(AgentMetrics::beforeModel)
+                .afterModelCallback(AgentMetrics::afterModel);
+    }
+
+    private static Maybe<Content> beforeAgent(CallbackContext context) {
+        AGENT_STARTS.put(key(context), System.nanoTime());
+        return Maybe.empty();
+    }
+
+    private static Maybe<Content> afterAgent(CallbackContext context) {
+        Long start = AGENT_STARTS.remove(key(context));
+        if (start != null) {
+            Metrics.timer("datacompass_agent_step_seconds", "Latency of one agent step, model and tool calls included",
+                    "agent", context.agentName()).recordSince(start);
+        }
+        return Maybe.empty();
+    }
+
+    private static Maybe<LlmResponse> beforeModel(CallbackContext context, LlmRequest request) {
+        MODEL_CALLS.put(key(context), new ModelCall(System.nanoTime(), false));
+        return Maybe.empty();
+    }
+
+    private static Maybe<LlmResponse> afterModel(CallbackContext context, LlmResponse response) {
+        String key = key(context);
+        String agent = context.agentName();
+        if (response.partial().orElse(false)) {
+            // Streamed chunk: only the first one records time to first token
+            ModelCall call = MODEL_CALLS.get(key);
+            if (call != null && !call.firstTokenRecorded()) {
+                Metrics.timer("datacompass_llm_first_token_seconds", "Time from model request to its first streamed chunk",
+                        "agent", agent).recordSince(call.start());
+                MODEL_CALLS.put(key, new ModelCall(call.start(), true));
+            }
+            return Maybe.empty();
+        }
+
+        ModelCall call = MODEL_CALLS.remove(key);
+        if (call != null) {
+            Metrics.timer("datacompass_llm_call_seconds", "Latency of one model call", "agent", agent)
+                    .recordSince(call.start());
+        }
+        response.usageMetadata().ifPresent(usage -> recordTokens(agent, usage));
+        return Maybe.empty();
+    }
+
+    // labelled by tool response format so runs in verbose and compact mode can be compared per model call
+    private static void recordTokens(String agent, GenerateContentResponseUsageMetadata usage) {
+        usage.promptTokenCount().ifPresent(tokens ->
+                Metrics.counter("datacompass_llm_tokens_total", "Tokens sent to and generated by the model",
+                        "agent", agent, "type", "prompt", "response_format", ToolResponseFormat.MODE).add(tokens));
+        usage.candidatesTokenCount().ifPresent(tokens ->
+                Metrics.counter("datacompass_llm_tokens_total", "Tokens sent to and generated by the model",
+                        "agent", agent, "type", "output", "response_format", ToolResponseFormat.MODE).add(tokens));
+    }
+
+    private static String key(CallbackContext context) {
+        return context.invocationId() + '/' + context.agentName();
+    }
+}
@@ -0,0 +1,21 @@
+package agents.multitool.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** Monotonic counter; {@link LongAdder} keeps concurrent increments from contending. */
+public final class Counter {
+
+    private final LongAdder value = new LongAdder();
+
+    public void increment() {
+        value.increment();
+    }
+
+    public void add(long amount) {
+        value.add(amount);
+    }
+
+    public long get() {
+        return value.sum();
+    }
+}
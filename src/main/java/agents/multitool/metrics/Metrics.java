@@ -0,0 +1,166 @@
+package agents.multitool.metrics;
+
+import agents.multitool.utils.DatacompassConfig;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Process-wide metrics registry. Instruments are looked up once by name and labels (hot paths keep
+ * them in static fields), and exported in the Prometheus text format or as a periodic log summary.
+ *
+ * <pre>
+ * private static final LatencyHistogram SEARCH = Metrics.timer("datacompass_vector_search_seconds",
+ *         "Vector search latency", "backend", "bigquery");
+ * </pre>
+ */
+public final class Metrics {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    // metric name -> (rendered labels -> instrument); TreeMaps keep the export order stable
+    private static final Map<String, ConcurrentMap<String, LatencyHistogram>> TIMERS = new TreeMap<>();
+    private static final Map<String, ConcurrentMap<String, Counter>> COUNTERS = new TreeMap<>();
+    private static final Map<String, ConcurrentMap<String, DoubleSupplier>> GAUGES = new TreeMap<>();
+    private static final Map<String, String> HELP = new ConcurrentHashMap<>();
+
+    private static volatile ScheduledExecutorService logger;
+
+    private Metrics() {
+    }
+
+    /** Latency histogram exported as a Prometheus summary in seconds. */
+    public static LatencyHistogram timer(String name, String help, String... labels) {
+        return family(TIMERS, name, help).computeIfAbsent(labels(labels), l -> new LatencyHistogram());
+    }
+
+    public static Counter counter(String name, String help, String... labels) {
+        return family(COUNTERS, name, help).computeIfAbsent(labels(labels), l -> new Counter());
+    }
+
+    /** Sampled at export time; re-registering the same name and labels replaces the supplier. */
+    public static void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        family(GAUGES, name, help).put(labels(labels), value);
+    }
+
+    private static <T> ConcurrentMap<String, T> family(Map<String, ConcurrentMap<String, T>> families, String name, String help) {
+        synchronized (families) {
+            HELP.putIfAbsent(name, help);
+            return families.computeIfAbsent(name, n -> new ConcurrentHashMap<>());
+        }
+    }
+
+    private static String labels(String... labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be name/value pairs");
+        }
+        StringBuilder rendered = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            rendered.append(rendered.length() == 0 ? "" : ",")
+                    .append(labels[i]).append("=\"")
+                    .append(labels[i + 1].replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"))
+                    .append('"');
+        }
+        return rendered.toString();
+    }
+
+    /** All metrics in the Prometheus text exposition format (version 0.0.4). */
+    public static String prometheusText() {
+        StringBuilder out = new StringBuilder();
+        synchronized (COUNTERS) {
+            COUNTERS.forEach((name, series) -> {
+                header(out, name, "counter");
+                new TreeMap<>(series).forEach((labels, counter) -> sample(out, name, labels, "", counter.get()));
+            });
+        }
+        synchronized (GAUGES) {
+            GAUGES.forEach((name, series) -> {
+                header(out, name, "gauge");
+                new TreeMap<>(series).forEach((labels, gauge) -> sample(out, name, labels, "", gauge.getAsDouble()));
+            });
+        }
+        synchronized (TIMERS) {
+            TIMERS.forEach((name, series) -> {
+                header(out, name, "summary");
+                new TreeMap<>(series).forEach((labels, histogram) -> {
+                    for (double q : QUANTILES) {
+                        String quantile = "quantile=\"" + q + "\"";
+                        sample(out, name, labels.isEmpty() ? quantile : labels + "," + quantile, "",
+                                histogram.percentileMicros(q) / 1e6);
+                    }
+                    sample(out, name, labels, "_sum", histogram.sumMicros() / 1e6);
+                    sample(out, name, labels, "_count", histogram.count());
+                });
+            });
+        }
+        return out.toString();
+    }
+
+    /** One line per non-empty timer (count, p50/p99/max in ms) and per non-zero counter. */
+    public static String summary() {
+        StringBuilder out = new StringBuilder("Metrics summary:\n");
+        synchronized (TIMERS) {
+            TIMERS.forEach((name, series) -> new TreeMap<>(series).forEach((labels, h) -> {
+                if (h.count() > 0) {
+                    out.append(String.format(Locale.ROOT, "  %s{%s} n=%d p50=%.1fms p99=%.1fms max=%.1fms%n", name, labels,
+                            h.count(), h.percentileMicros(0.5) / 1e3, h.percentileMicros(0.99) / 1e3, h.maxMicros() / 1e3));
+                }
+            }));
+        }
+        synchronized (COUNTERS) {
+            COUNTERS.forEach((name, series) -> new TreeMap<>(series).forEach((labels, c) -> {
+                if (c.get() > 0) {
+                    out.append(String.format(Locale.ROOT, "  %s{%s} %d%n", name, labels, c.get()));
+                }
+            }));
+        }
+        synchronized (GAUGES) {
+            GAUGES.forEach((name, series) -> new TreeMap<>(series).forEach((labels, g) ->
+                    out.append(String.format(Locale.ROOT, "  %s{%s} %.4f%n", name, labels, g.getAsDouble()))));
+        }
+        return out.toString();
+    }
+
+    /**
+     * Prints {@link #summary()} to stderr every {@code datacompass.metrics.logIntervalSeconds}, or
+     * {@code defaultSeconds} if unset (0 disables), on a daemon thread. Safe to call more than once.
+     */
+    public static synchronized void startLogSummary(long defaultSeconds) {
+        long interval = DatacompassConfig.getLong("datacompass.metrics.logIntervalSeconds", defaultSeconds);
+        if (logger != null || interval <= 0) {
+            return;
+        }
+        logger = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "datacompass-metrics-log");
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.scheduleAtFixedRate(() -> System.err.print(summary()), interval, interval, TimeUnit.SECONDS);
+    }
+
+    private static void header(StringBuilder out, String name, String type) {
+        out.append("# HELP ").append(name).append(' ').append(HELP.getOrDefault(name, name)).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, String suffix, double value) {
+        out.append(name).append(suffix);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ');
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+}
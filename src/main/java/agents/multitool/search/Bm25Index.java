@@ -0,0 +1,185 @@
+package agents.multitool.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * BM25 inverted index over the company name, category_list and market, for the lexical half of the
+ * hybrid search. The fields are scored as one document with per-field term weights (BM25F), so a
+ * query word that matches the market counts more than one that only appears in a name. Postings
+ * are compressed-row arrays built once; a query walks the postings of its terms into a per-thread
+ * accumulator and keeps the best rows in a {@link TopK}.
+ */
+public final class Bm25Index {
+
+    private static final int[] FIELDS = {CompanyColumns.NAME, CompanyColumns.CATEGORY_LIST, CompanyColumns.MARKET};
+    private static final float[] FIELD_WEIGHTS = {1.0f, 1.5f, 2.0f};
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    private final int size;
+    private final Map<String, Integer> terms;
+    private final float[] idf;
+    // postings of term t are rows[offsets[t]..offsets[t+1]), with their weighted term frequencies
+    private final int[] offsets;
+    private final int[] rows;
+    private final float[] frequencies;
+    // k1 * (1 - b + b * length / averageLength) per row
+    private final float[] lengthNorm;
+    private final ThreadLocal<float[]> accumulators;
+
+    private Bm25Index(int size, Map<String, Integer> terms, float[] idf, int[] offsets, int[] rows,
+                      float[] frequencies, float[] lengthNorm) {
+        this.size = size;
+        this.terms = terms;
+        this.idf = idf;
+        this.offsets = offsets;
+        this.rows = rows;
+        this.frequencies = frequencies;
+        this.lengthNorm = lengthNorm;
+        this.accumulators = ThreadLocal.withInitial(() -> new float[size]);
+    }
+
+    public static Bm25Index build(CompanyStore store) {
+        int size = store.size();
+        Map<String, Integer> terms = new HashMap<>();
+        int[][] docTerms = new int[size][];
+        float[][] docFrequencies = new float[size][];
+        float[] lengths = new float[size];
+        int[] documentFrequency = new int[16];
+        long postings = 0;
+
+        Map<Integer, Float> tf = new HashMap<>();
+        for (int row = 0; row < size; row++) {
+            tf.clear();
+            for (int f = 0; f < FIELDS.length; f++) {
+                for (String token : tokenize(store.value(row, FIELDS[f]))) {
+                    Integer term = terms.get(token);
+                    if (term == null) {
+                        term = terms.size();
+                        terms.put(token, term);
+                        if (term == documentFrequency.length) {
+                            documentFrequency = Arrays.copyOf(documentFrequency, term * 2);
+                        }
+                    }
+                    tf.merge(term, FIELD_WEIGHTS[f], Float::sum);
+                    lengths[row] += FIELD_WEIGHTS[f];
+                }
+            }
+            docTerms[row] = new int[tf.size()];
+            docFrequencies[row] = new float[tf.size()];
+            int i = 0;
+            for (Map.Entry<Integer, Float> e : tf.entrySet()) {
+                docTerms[row][i] = e.getKey();
+                docFrequencies[row][i++] = e.getValue();
+                documentFrequency[e.getKey()]++;
+            }
+            postings += tf.size();
+        }
+
+        int termCount = terms.size();
+        int[] offsets = new int[termCount + 1];
+        for (int t = 0; t < termCount; t++) {
+            offsets[t + 1] = offsets[t] + documentFrequency[t];
+        }
+        int[] rows = new int[Math.toIntExact(postings)];
+        float[] frequencies = new float[rows.length];
+        int[] fill = Arrays.copyOf(offsets, termCount);
+        for (int row = 0; row < size; row++) {
+            for (int i = 0; i < docTerms[row].length; i++) {
+                int p = fill[docTerms[row][i]]++;
+                rows[p] = row;
+                frequencies[p] = docFrequencies[row][i];
+            }
+        }
+
+        float[] idf = new float[termCount];
+        for (int t = 0; t < termCount; t++) {
+            idf[t] = (float) Math.log(1 + (size - documentFrequency[t] + 0.5) / (documentFrequency[t] + 0.5));
+        }
+        double totalLength = 0;
+        for (float length : lengths) {
+            totalLength += length;
+        }
+        float averageLength = size == 0 ? 1 : (float) Math.max(1e-6, totalLength / size);
+        float[] lengthNorm = new float[size];
+        for (int row = 0; row < size; row++) {
+            lengthNorm[row] = K1 * (1 - B + B * lengths[row] / averageLength);
+        }
+        return new Bm25Index(size, terms, idf, offsets, rows, frequencies, lengthNorm);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public SearchHits search(String query, int k) {
+        return search(query, k, null);
+    }
+
+    /** Best {@code k} rows for {@code query} by BM25 score; only rows in {@code filter} unless it is null. */
+    public SearchHits search(String query, int k, BitSet filter) {
+        float[] scores = accumulators.get();
+        int[] touched = new int[64];
+        int touchedCount = 0;
+        for (String token : tokenize(query)) {
+            Integer term = terms.get(token);
+            if (term == null) {
+                continue;
+            }
+            float weight = idf[term];
+            for (int p = offsets[term]; p < offsets[term + 1]; p++) {
+                int row = rows[p];
+                if (filter != null && !filter.get(row)) {
+                    continue;
+                }
+                if (scores[row] == 0) {
+                    if (touchedCount == touched.length) {
+                        touched = Arrays.copyOf(touched, touchedCount * 2);
+                    }
+                    touched[touchedCount++] = row;
+                }
+                float tf = frequencies[p];
+                scores[row] += weight * tf * (K1 + 1) / (tf + lengthNorm[row]);
+            }
+        }
+        if (touchedCount == 0) {
+            return SearchHits.EMPTY;
+        }
+        TopK top = new TopK(k);
+        for (int i = 0; i < touchedCount; i++) {
+            int row = touched[i];
+            top.offer(row, scores[row]);
+            scores[row] = 0;
+        }
+        return top.toHits();
+    }
+
+    /** Lower-cased letter/digit runs, each once, in order of appearance. */
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && !Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            if (start < i) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,103 @@
+package agents.multitool.search;
+
+import java.util.BitSet;
+
+/**
+ * Exact top-k cosine search by scanning every vector. The baseline that approximate indexes are
+ * measured against, and fast enough on its own for small corpora.
+ */
+public final class BruteForceIndex implements VectorIndex {
+
+    // rows copied out of a store per pass of an unfiltered scan
+    static final int BLOCK_ROWS = 256;
+
+    // null when scanning the store in place
+    private final float[] vectors;
+    private final CompanyStore store;
+    private final int dimension;
+    private final int size;
+
+    private BruteForceIndex(float[] vectors, CompanyStore store, int dimension, int size) {
+        this.vectors = vectors;
+        this.store = store;
+        this.dimension = dimension;
+        this.size = size;
+    }
+
+    /** The vectors are normalized in place and retained, so pass a copy you own. */
+    public static BruteForceIndex build(float[] vectors, int dimension) {
+        if (vectors.length % dimension != 0) {
+            throw new IllegalArgumentException("Vector block length " + vectors.length + " is not a multiple of " + dimension);
+        }
+        for (int offset = 0; offset < vectors.length; offset += dimension) {
+            VectorMath.normalize(vectors, offset, dimension);
+        }
+        return new BruteForceIndex(vectors, null, dimension, vectors.length / dimension);
+    }
+
+    /**
+     * Scans the store's vectors where they live, a block of rows at a time, so a memory-mapped
+     * snapshot stays off-heap. The store must hold normalized vectors.
+     */
+    public static BruteForceIndex over(CompanyStore store) {
+        if (!store.vectorsNormalized()) {
+            throw new IllegalArgumentException("The store's vectors are not normalized; build from copyVectors() instead");
+        }
+        return new BruteForceIndex(null, store, store.dimension(), store.size());
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int dimension() {
+        return dimension;
+    }
+
+    @Override
+    public SearchHits search(float[] query, int k) {
+        if (size == 0 || k <= 0) {
+            return SearchHits.EMPTY;
+        }
+        TopK top = new TopK(Math.min(k, size));
+        if (vectors != null) {
+            for (int id = 0, offset = 0; id < size; id++, offset += dimension) {
+                top.offer(id, VectorMath.dot(query, 0, vectors, offset, dimension));
+            }
+            return top.toHits();
+        }
+        float[] block = new float[Math.min(BLOCK_ROWS, size) * dimension];
+        for (int first = 0; first < size; first += BLOCK_ROWS) {
+            int rows = Math.min(BLOCK_ROWS, size - first);
+            store.readVectors(first, rows, block, 0);
+            for (int i = 0; i < rows; i++) {
+                top.offer(first + i, VectorMath.dot(query, 0, block, i * dimension, dimension));
+            }
+        }
+        return top.toHits();
+    }
+
+    @Override
+    public SearchHits search(float[] query, int k, BitSet filter) {
+        if (filter == null) {
+            return search(query, k);
+        }
+        int matches = filter.cardinality();
+        if (size == 0 || k <= 0 || matches == 0) {
+            return SearchHits.EMPTY;
+        }
+        TopK top = new TopK(Math.min(k, matches));
+        float[] row = vectors == null ? new float[dimension] : null;
+        for (int id = filter.nextSetBit(0); id >= 0 && id < size; id = filter.nextSetBit(id + 1)) {
+            if (vectors != null) {
+                top.offer(id, VectorMath.dot(query, 0, vectors, id * dimension, dimension));
+            } else {
+                store.readVector(id, row, 0);
+                top.offer(id, VectorMath.dot(query, 0, row, 0, dimension));
+            }
+        }
+        return top.toHits();
+    }
+}
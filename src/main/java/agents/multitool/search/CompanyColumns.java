@@ -0,0 +1,37 @@
+package agents.multitool.search;
+
+/**
+ * Column ordinals shared by the company stores. Names match the result columns of the vector search.
+ */
+public final class CompanyColumns {
+
+    public static final int COMPANY_ID = 0;
+    public static final int CONTENT = 1;
+    public static final int NAME = 2;
+    public static final int CATEGORY_LIST = 3;
+    public static final int MARKET = 4;
+    public static final int FUNDING_TOTAL_USD = 5;
+    public static final int STATUS = 6;
+    public static final int FUNDING_ROUNDS = 7;
+    public static final int FOUNDED_YEAR = 8;
+    public static final int ROUND_A = 9;
+    public static final int ROUND_B = 10;
+    public static final int ROUND_C = 11;
+    public static final int ROUND_D = 12;
+    public static final int REGION = 13;
+
+    public static final String[] NAMES = {
+            "company_id", "content", "name", "category_list", "market", "funding_total_usd", "status",
+            "funding_rounds", "founded_year", "round_A", "round_B", "round_C", "round_D", "region"
+    };
+
+    public static final int COUNT = NAMES.length;
+
+    private CompanyColumns() {
+    }
+
+    /** Low-cardinality columns stored as int codes into a per-column dictionary. */
+    public static boolean isDictionaryEncoded(int column) {
+        return column == MARKET || column == CATEGORY_LIST || column == STATUS || column == REGION;
+    }
+}
@@ -0,0 +1,97 @@
+package agents.multitool.search;
+
+import java.util.Arrays;
+
+/**
+ * Heap-resident {@link CompanyStore}, used when no snapshot file is configured.
+ */
+public final class CompanyCorpus implements CompanyStore {
+
+    private final int dimension;
+    private final int size;
+    private final float[] vectors;
+    private final String[][] columns;
+
+    private CompanyCorpus(int dimension, int size, float[] vectors, String[][] columns) {
+        this.dimension = dimension;
+        this.size = size;
+        this.vectors = vectors;
+        this.columns = columns;
+    }
+
+    public static Builder builder(int dimension) {
+        return new Builder(dimension);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int dimension() {
+        return dimension;
+    }
+
+    @Override
+    public void readVector(int row, float[] dst, int dstOffset) {
+        System.arraycopy(vectors, row * dimension, dst, dstOffset, dimension);
+    }
+
+    @Override
+    public float[] copyVectors() {
+        return vectors.clone();
+    }
+
+    @Override
+    public String value(int row, int column) {
+        return columns[column][row];
+    }
+
+    public static final class Builder {
+        private final int dimension;
+        private float[] vectors;
+        private String[][] columns;
+        private int size;
+
+        private Builder(int dimension) {
+            this.dimension = dimension;
+            this.vectors = new float[1024 * dimension];
+            this.columns = new String[CompanyColumns.COUNT][1024];
+        }
+
+        /**
+         * @param values metadata in {@link CompanyColumns} order
+         * @param vector embedding of {@code dimension} floats
+         */
+        public Builder add(String[] values, float[] vector) {
+            if (values.length != CompanyColumns.COUNT) {
+                throw new IllegalArgumentException("Expected " + CompanyColumns.COUNT + " column values, got " + values.length);
+            }
+            if (vector.length != dimension) {
+                throw new IllegalArgumentException("Expected a " + dimension + "-dim vector, got " + vector.length);
+            }
+            if (size == columns[0].length) {
+                int capacity = size * 2;
+                vectors = Arrays.copyOf(vectors, capacity * dimension);
+                for (int c = 0; c < columns.length; c++) {
+                    columns[c] = Arrays.copyOf(columns[c], capacity);
+                }
+            }
+            for (int c = 0; c < values.length; c++) {
+                columns[c][size] = values[c];
+            }
+            System.arraycopy(vector, 0, vectors, size * dimension, dimension);
+            size++;
+            return this;
+        }
+
+        public CompanyCorpus build() {
+            String[][] trimmed = new String[columns.length][];
+            for (int c = 0; c < columns.length; c++) {
+                trimmed[c] = Arrays.copyOf(columns[c], size);
+            }
+            return new CompanyCorpus(dimension, size, Arrays.copyOf(vectors, size * dimension), trimmed);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package agents.multitool.search;
+
+import java.util.Locale;
+
+/**
+ * Structured constraints on the candidate companies of a similarity search. Text values are
+ * compared trimmed and case-insensitively (the export pads markets, e.g. {@code " Software "}).
+ * Unset constraints are null for text, NaN for funding and 0 for years.
+ */
+public final class CompanyFilter {
+
+    public static final CompanyFilter NONE = new CompanyFilter(null, null, null, Double.NaN, Double.NaN, 0, 0);
+
+    private final String market;
+    private final String status;
+    private final String region;
+    private final double minFundingUsd;
+    private final double maxFundingUsd;
+    private final int minFoundedYear;
+    private final int maxFoundedYear;
+
+    private CompanyFilter(String market, String status, String region, double minFundingUsd, double maxFundingUsd,
+                          int minFoundedYear, int maxFoundedYear) {
+        this.market = market;
+        this.status = status;
+        this.region = region;
+        this.minFundingUsd = minFundingUsd;
+        this.maxFundingUsd = maxFundingUsd;
+        this.minFoundedYear = minFoundedYear;
+        this.maxFoundedYear = maxFoundedYear;
+    }
+
+    /** Blank text and non-positive numbers mean "no constraint", as the tool parameters pass them. */
+    public static CompanyFilter of(String market, String status, String region, double minFundingUsd, double maxFundingUsd,
+                                   int minFoundedYear, int maxFoundedYear) {
+        CompanyFilter filter = new CompanyFilter(normalize(market), normalize(status), normalize(region),
+                minFundingUsd > 0 ? minFundingUsd : Double.NaN, maxFundingUsd > 0 ? maxFundingUsd : Double.NaN,
+                Math.max(0, minFoundedYear), Math.max(0, maxFoundedYear));
+        return filter.isEmpty() ? NONE : filter;
+    }
+
+    public boolean isEmpty() {
+        return market == null && status == null && region == null && Double.isNaN(minFundingUsd)
+                && Double.isNaN(maxFundingUsd) && minFoundedYear == 0 && maxFoundedYear == 0;
+    }
+
+    public String market() {
+        return market;
+    }
+
+    public String status() {
+        return status;
+    }
+
+    public String region() {
+        return region;
+    }
+
+    public double minFundingUsd() {
+        return minFundingUsd;
+    }
+
+    public double maxFundingUsd() {
+        return maxFundingUsd;
+    }
+
+    public int minFoundedYear() {
+        return minFoundedYear;
+    }
+
+    public int maxFoundedYear() {
+        return maxFoundedYear;
+    }
+
+    public boolean hasFundingRange() {
+        return !Double.isNaN(minFundingUsd) || !Double.isNaN(maxFundingUsd);
+    }
+
+    public boolean hasFoundedYearRange() {
+        return minFoundedYear != 0 || maxFoundedYear != 0;
+    }
+
+    /** Rows without a funding total or founding year never match a range on it. */
+    public boolean matchesFunding(double fundingUsd) {
+        return !Double.isNaN(fundingUsd)
+                && (Double.isNaN(minFundingUsd) || fundingUsd >= minFundingUsd)
+                && (Double.isNaN(maxFundingUsd) || fundingUsd <= maxFundingUsd);
+    }
+
+    public boolean matchesFoundedYear(int year) {
+        return year != 0
+                && (minFoundedYear == 0 || year >= minFoundedYear)
+                && (maxFoundedYear == 0 || year <= maxFoundedYear);
+    }
+
+    /** Trimmed, lower-cased value, or null if blank. */
+    public static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed.toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public String toString() {
+        return "CompanyFilter{market=" + market + ", status=" + status + ", region=" + region
+                + ", funding=[" + minFundingUsd + ", " + maxFundingUsd + "], founded=[" + minFoundedYear + ", " + maxFoundedYear + "]}";
+    }
+}
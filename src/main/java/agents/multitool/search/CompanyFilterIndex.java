@@ -0,0 +1,183 @@
+package agents.multitool.search;
+
+import agents.multitool.utils.Company;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bitmap index over the filterable company columns, built once next to the vector index so a
+ * {@link CompanyFilter} becomes a row bitmap before the search starts. Market, status and region
+ * get a posting per normalized value: a bitmap when the value covers at least 1/32 of the rows
+ * (where it is smaller than a row list), a sorted row list otherwise. Funding and founding year
+ * are kept as compact primitive columns and range-checked per query.
+ */
+public final class CompanyFilterIndex {
+
+    private static final int[] TEXT_COLUMNS = {CompanyColumns.MARKET, CompanyColumns.STATUS, CompanyColumns.REGION};
+
+    private final int size;
+    // indexed like TEXT_COLUMNS
+    private final List<Map<String, Posting>> postings;
+    // double, as the filter bounds are: a float would round amounts across a bound
+    private final double[] fundingUsd;
+    private final short[] foundedYear;
+
+    private CompanyFilterIndex(int size, List<Map<String, Posting>> postings, double[] fundingUsd, short[] foundedYear) {
+        this.size = size;
+        this.postings = postings;
+        this.fundingUsd = fundingUsd;
+        this.foundedYear = foundedYear;
+    }
+
+    public static CompanyFilterIndex build(CompanyStore store) {
+        int size = store.size();
+        List<Map<String, Posting>> postings = new ArrayList<>(TEXT_COLUMNS.length);
+        for (int column : TEXT_COLUMNS) {
+            postings.add(textPostings(store, column));
+        }
+
+        double[] fundingUsd = new double[size];
+        short[] foundedYear = new short[size];
+        for (int row = 0; row < size; row++) {
+            fundingUsd[row] = Company.parseAmount(store.value(row, CompanyColumns.FUNDING_TOTAL_USD));
+            long year = Company.parseWhole(store.value(row, CompanyColumns.FOUNDED_YEAR));
+            foundedYear[row] = year == Company.UNKNOWN ? 0 : (short) year;
+        }
+        return new CompanyFilterIndex(size, postings, fundingUsd, foundedYear);
+    }
+
+    /** Rows that pass {@code filter}, or null when the filter is empty (every row passes). */
+    public BitSet matching(CompanyFilter filter) {
+        if (filter.isEmpty()) {
+            return null;
+        }
+        BitSet result = null;
+        String[] values = {filter.market(), filter.status(), filter.region()};
+        for (int i = 0; i < TEXT_COLUMNS.length; i++) {
+            if (values[i] == null) {
+                continue;
+            }
+            Posting posting = postings.get(i).get(values[i]);
+            if (posting == null) {
+                return new BitSet();
+            }
+            if (result == null) {
+                result = posting.toBitSet();
+            } else {
+                posting.retainIn(result);
+            }
+        }
+
+        if (filter.hasFundingRange() || filter.hasFoundedYearRange()) {
+            if (result == null) {
+                result = new BitSet(size);
+                result.set(0, size);
+            }
+            for (int row = result.nextSetBit(0); row >= 0; row = result.nextSetBit(row + 1)) {
+                if ((filter.hasFundingRange() && !filter.matchesFunding(fundingUsd[row]))
+                        || (filter.hasFoundedYearRange() && !filter.matchesFoundedYear(foundedYear[row]))) {
+                    result.clear(row);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static Map<String, Posting> textPostings(CompanyStore store, int column) {
+        int size = store.size();
+        Map<String, RowList> rows = new HashMap<>();
+        if (store instanceof CompanySnapshot) {
+            // group dictionary codes by normalized value once, then bucket rows by code
+            CompanySnapshot snapshot = (CompanySnapshot) store;
+            RowList[] byCode = new RowList[snapshot.dictionarySize(column)];
+            for (int code = 0; code < byCode.length; code++) {
+                String key = CompanyFilter.normalize(snapshot.dictionaryValue(column, code));
+                if (key != null) {
+                    byCode[code] = rows.computeIfAbsent(key, k -> new RowList());
+                }
+            }
+            for (int row = 0; row < size; row++) {
+                int code = snapshot.dictionaryCode(row, column);
+                if (code >= 0 && byCode[code] != null) {
+                    byCode[code].add(row);
+                }
+            }
+        } else {
+            for (int row = 0; row < size; row++) {
+                String key = CompanyFilter.normalize(store.value(row, column));
+                if (key != null) {
+                    rows.computeIfAbsent(key, k -> new RowList()).add(row);
+                }
+            }
+        }
+
+        Map<String, Posting> postings = new HashMap<>(rows.size() * 2);
+        for (Map.Entry<String, RowList> e : rows.entrySet()) {
+            postings.put(e.getKey(), Posting.of(e.getValue(), size));
+        }
+        return postings;
+    }
+
+    private static final class Posting {
+        private final BitSet bits;
+        private final int[] rows;
+
+        private Posting(BitSet bits, int[] rows) {
+            this.bits = bits;
+            this.rows = rows;
+        }
+
+        static Posting of(RowList list, int size) {
+            if ((long) list.size * 32 >= size) {
+                BitSet bits = new BitSet(size);
+                for (int i = 0; i < list.size; i++) {
+                    bits.set(list.rows[i]);
+                }
+                return new Posting(bits, null);
+            }
+            return new Posting(null, Arrays.copyOf(list.rows, list.size));
+        }
+
+        BitSet toBitSet() {
+            if (bits != null) {
+                return (BitSet) bits.clone();
+            }
+            BitSet result = new BitSet();
+            for (int row : rows) {
+                result.set(row);
+            }
+            return result;
+        }
+
+        void retainIn(BitSet result) {
+            if (bits != null) {
+                result.and(bits);
+                return;
+            }
+            BitSet matched = new BitSet();
+            for (int row : rows) {
+                if (result.get(row)) {
+                    matched.set(row);
+                }
+            }
+            result.and(matched);
+        }
+    }
+
+    private static final class RowList {
+        private int[] rows = new int[16];
+        private int size;
+
+        void add(int row) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            rows[size++] = row;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package agents.multitool.search;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only {@link CompanyStore} over a snapshot file written by {@link CompanySnapshotWriter}.
+ * Every section is memory-mapped, so opening reads only the header and the data is served from
+ * the page cache, shared by every JVM that maps the same file.
+ */
+public final class CompanySnapshot implements CompanyStore, Closeable {
+
+    private final FileChannel channel;
+    private final int size;
+    private final int dimension;
+    private final boolean normalized;
+    private final int rowsPerChunk;
+    private final FloatBuffer[] vectorChunks;
+    private final ByteBuffer[] columns;
+    private final String[][] dictionaries;
+
+    private CompanySnapshot(FileChannel channel) throws IOException {
+        this.channel = channel;
+        ByteBuffer fixed = map(0, CompanySnapshotWriter.HEADER_FIXED_BYTES);
+        if (fixed.getInt(0) != CompanySnapshotWriter.MAGIC) {
+            throw new IOException("Not a company snapshot file");
+        }
+        if (fixed.getInt(4) != CompanySnapshotWriter.VERSION) {
+            throw new IOException("Unsupported company snapshot version " + fixed.getInt(4));
+        }
+        this.size = fixed.getInt(8);
+        this.dimension = fixed.getInt(12);
+        int columnCount = fixed.getInt(16);
+        if (columnCount != CompanyColumns.COUNT) {
+            throw new IOException("Expected " + CompanyColumns.COUNT + " columns, snapshot has " + columnCount);
+        }
+        this.normalized = (fixed.getInt(20) & CompanySnapshotWriter.FLAG_NORMALIZED) != 0;
+        long vectorsOffset = fixed.getLong(24);
+
+        int rowBytes = dimension * Float.BYTES;
+        this.rowsPerChunk = Math.max(1, (Integer.MAX_VALUE - 64) / rowBytes);
+        int chunks = size == 0 ? 0 : (size + rowsPerChunk - 1) / rowsPerChunk;
+        this.vectorChunks = new FloatBuffer[chunks];
+        for (int i = 0; i < chunks; i++) {
+            int rows = Math.min(rowsPerChunk, size - i * rowsPerChunk);
+            vectorChunks[i] = map(vectorsOffset + (long) i * rowsPerChunk * rowBytes, (long) rows * rowBytes).asFloatBuffer();
+        }
+
+        ByteBuffer table = map(CompanySnapshotWriter.HEADER_FIXED_BYTES, columnCount * 16L);
+        this.columns = new ByteBuffer[columnCount];
+        this.dictionaries = new String[columnCount][];
+        for (int c = 0; c < columnCount; c++) {
+            columns[c] = map(table.getLong(c * 16), table.getLong(c * 16 + 8));
+            if (CompanyColumns.isDictionaryEncoded(c)) {
+                dictionaries[c] = new String[columns[c].getInt(0)];
+            }
+        }
+    }
+
+    public static CompanySnapshot open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new CompanySnapshot(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int dimension() {
+        return dimension;
+    }
+
+    @Override
+    public void readVector(int row, float[] dst, int dstOffset) {
+        vectorChunks[row / rowsPerChunk].get((row % rowsPerChunk) * dimension, dst, dstOffset, dimension);
+    }
+
+    @Override
+    public void readVectors(int row, int rows, float[] dst, int dstOffset) {
+        int chunk = row / rowsPerChunk;
+        if (rows > 0 && (row + rows - 1) / rowsPerChunk == chunk) {
+            vectorChunks[chunk].get((row % rowsPerChunk) * dimension, dst, dstOffset, rows * dimension);
+            return;
+        }
+        CompanyStore.super.readVectors(row, rows, dst, dstOffset);
+    }
+
+    @Override
+    public boolean vectorsNormalized() {
+        return normalized;
+    }
+
+    @Override
+    public String value(int row, int column) {
+        if (dictionaries[column] != null) {
+            int code = dictionaryCode(row, column);
+            return code < 0 ? null : dictionaryValue(column, code);
+        }
+        ByteBuffer section = columns[column];
+        if ((section.get(row >>> 3) & (1 << (row & 7))) != 0) {
+            return null;
+        }
+        int offsets = (int) CompanySnapshotWriter.align((size + 7) / 8, 4);
+        int start = section.getInt(offsets + row * Integer.BYTES);
+        int end = section.getInt(offsets + (row + 1) * Integer.BYTES);
+        return decode(section, offsets + (size + 1) * Integer.BYTES + start, end - start);
+    }
+
+    /** Dictionary code of a dictionary-encoded column, or -1 for null. */
+    public int dictionaryCode(int row, int column) {
+        return columns[column].getInt(Integer.BYTES * (1 + row));
+    }
+
+    public int dictionarySize(int column) {
+        return dictionaries[column].length;
+    }
+
+    public String dictionaryValue(int column, int code) {
+        String[] dictionary = dictionaries[column];
+        String value = dictionary[code];
+        if (value == null) {
+            ByteBuffer section = columns[column];
+            int offsets = Integer.BYTES * (1 + size);
+            int start = section.getInt(offsets + code * Integer.BYTES);
+            int end = section.getInt(offsets + (code + 1) * Integer.BYTES);
+            value = decode(section, offsets + (dictionary.length + 1) * Integer.BYTES + start, end - start);
+            dictionary[code] = value;
+        }
+        return value;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private ByteBuffer map(long position, long length) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static String decode(ByteBuffer section, int position, int length) {
+        byte[] bytes = new byte[length];
+        section.get(position, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,261 @@
+package agents.multitool.search;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams rows into the columnar snapshot format read by {@link CompanySnapshot}.
+ * Vectors are spooled to a temp file as they arrive; metadata columns are buffered on heap
+ * and everything is assembled into the target file by {@link #finish()}.
+ *
+ * <pre>
+ * header      magic, version, rows, dimension, columns, flags, vector block offset,
+ *             then (offset, length) per column
+ * vectors     rows * dimension float32, L2-normalized, 64-byte aligned
+ * plain col   null bitmap, int32 offsets[rows + 1], UTF-8 bytes
+ * dict col    int32 dictionary size, int32 codes[rows] (-1 = null), int32 offsets[size + 1], UTF-8 bytes
+ * </pre>
+ * All values are little-endian. Flag {@link #FLAG_NORMALIZED} marks the vectors as unit length, so
+ * readers can score them in place; snapshots written before it have no flags set.
+ */
+public final class CompanySnapshotWriter implements Closeable {
+
+    static final int MAGIC = 0x44435331; // "DCS1"
+    static final int VERSION = 1;
+    static final int HEADER_FIXED_BYTES = 32;
+    static final int FLAG_NORMALIZED = 1;
+
+    private final Path target;
+    private final int dimension;
+    private final Path vectorSpool;
+    private final FileChannel vectorOut;
+    private final ByteBuffer vectorBuffer;
+    private final float[] normalized;
+    private final Object[] columns = new Object[CompanyColumns.COUNT];
+    private int size;
+    private boolean finished;
+
+    public CompanySnapshotWriter(Path target, int dimension) throws IOException {
+        this.target = target;
+        this.dimension = dimension;
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.vectorSpool = Files.createTempFile(parent, "vectors", ".spool");
+        this.vectorOut = FileChannel.open(vectorSpool, StandardOpenOption.WRITE, StandardOpenOption.READ);
+        this.vectorBuffer = ByteBuffer.allocateDirect(dimension * Float.BYTES * 1024).order(ByteOrder.LITTLE_ENDIAN);
+        this.normalized = new float[dimension];
+        for (int c = 0; c < columns.length; c++) {
+            columns[c] = CompanyColumns.isDictionaryEncoded(c) ? new DictionaryColumn() : new PlainColumn();
+        }
+    }
+
+    /**
+     * @param values metadata in {@link CompanyColumns} order, nulls allowed
+     * @param vector embedding of {@code dimension} floats; stored L2-normalized
+     */
+    public void add(String[] values, float[] vector) throws IOException {
+        if (values.length != CompanyColumns.COUNT) {
+            throw new IllegalArgumentException("Expected " + CompanyColumns.COUNT + " column values, got " + values.length);
+        }
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException("Expected a " + dimension + "-dim vector, got " + vector.length);
+        }
+        if (vectorBuffer.remaining() < dimension * Float.BYTES) {
+            flushVectors();
+        }
+        System.arraycopy(vector, 0, normalized, 0, dimension);
+        vectorBuffer.asFloatBuffer().put(VectorMath.normalize(normalized));
+        vectorBuffer.position(vectorBuffer.position() + dimension * Float.BYTES);
+        for (int c = 0; c < columns.length; c++) {
+            if (columns[c] instanceof DictionaryColumn) {
+                ((DictionaryColumn) columns[c]).add(values[c]);
+            } else {
+                ((PlainColumn) columns[c]).add(values[c], size);
+            }
+        }
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Writes the snapshot to a sibling temp file and atomically moves it over the target. */
+    public void finish() throws IOException {
+        flushVectors();
+        ByteBuffer[] sections = new ByteBuffer[columns.length];
+        for (int c = 0; c < columns.length; c++) {
+            sections[c] = columns[c] instanceof DictionaryColumn
+                    ? ((DictionaryColumn) columns[c]).encode()
+                    : ((PlainColumn) columns[c]).encode(size);
+        }
+
+        int headerBytes = HEADER_FIXED_BYTES + columns.length * 16;
+        long vectorsOffset = align(headerBytes, 64);
+        long vectorBytes = (long) size * dimension * Float.BYTES;
+        long[] offsets = new long[columns.length];
+        long position = align(vectorsOffset + vectorBytes, 8);
+        for (int c = 0; c < columns.length; c++) {
+            offsets[c] = position;
+            position = align(position + sections[c].remaining(), 8);
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(headerBytes).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(dimension)
+                .putInt(columns.length).putInt(FLAG_NORMALIZED).putLong(vectorsOffset);
+        for (int c = 0; c < columns.length; c++) {
+            header.putLong(offsets[c]).putLong(sections[c].remaining());
+        }
+        header.flip();
+
+        Path partial = Files.createTempFile(target.toAbsolutePath().getParent(), "snapshot", ".partial");
+        try (FileChannel out = FileChannel.open(partial, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(out, header, 0);
+            long copied = 0;
+            while (copied < vectorBytes) {
+                copied += vectorOut.transferTo(copied, vectorBytes - copied, out.position(vectorsOffset + copied));
+            }
+            for (int c = 0; c < columns.length; c++) {
+                writeFully(out, sections[c], offsets[c]);
+            }
+            out.force(true);
+        }
+        Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        finished = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        vectorOut.close();
+        Files.deleteIfExists(vectorSpool);
+        if (!finished) {
+            System.err.println("Snapshot " + target + " was not finished; nothing written.");
+        }
+    }
+
+    private void flushVectors() throws IOException {
+        vectorBuffer.flip();
+        while (vectorBuffer.hasRemaining()) {
+            vectorOut.write(vectorBuffer);
+        }
+        vectorBuffer.clear();
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += out.write(buffer, position);
+        }
+    }
+
+    static long align(long value, int alignment) {
+        return (value + alignment - 1) & -alignment;
+    }
+
+    private static final class PlainColumn {
+        private byte[] data = new byte[4096];
+        private int dataLength;
+        private int[] ends = new int[1024];
+        private long[] nulls = new long[16];
+
+        void add(String value, int row) {
+            if (row == ends.length) {
+                ends = Arrays.copyOf(ends, row * 2);
+            }
+            if (value == null) {
+                if ((row >>> 6) >= nulls.length) {
+                    nulls = Arrays.copyOf(nulls, Math.max(nulls.length * 2, (row >>> 6) + 1));
+                }
+                nulls[row >>> 6] |= 1L << row;
+            } else {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                if ((long) dataLength + bytes.length > Integer.MAX_VALUE - 8) {
+                    throw new IllegalStateException("Column data exceeds 2 GB");
+                }
+                if (dataLength + bytes.length > data.length) {
+                    data = Arrays.copyOf(data, Math.max(data.length * 2, dataLength + bytes.length));
+                }
+                System.arraycopy(bytes, 0, data, dataLength, bytes.length);
+                dataLength += bytes.length;
+            }
+            ends[row] = dataLength;
+        }
+
+        ByteBuffer encode(int rows) {
+            int bitmapBytes = (int) align((rows + 7) / 8, 4);
+            ByteBuffer out = ByteBuffer.allocate(bitmapBytes + (rows + 1) * Integer.BYTES + dataLength)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < (rows + 7) / 8; i++) {
+                int word = i >>> 3;
+                out.put(word < nulls.length ? (byte) (nulls[word] >>> ((i & 7) * 8)) : 0);
+            }
+            out.position(bitmapBytes);
+            out.putInt(0);
+            for (int row = 0; row < rows; row++) {
+                out.putInt(ends[row]);
+            }
+            out.put(data, 0, dataLength);
+            return out.flip();
+        }
+    }
+
+    private static final class DictionaryColumn {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private int[] rows = new int[1024];
+        private int size;
+
+        void add(String value) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            int code = -1;
+            if (value != null) {
+                code = codes.computeIfAbsent(value, v -> {
+                    values.add(v);
+                    return values.size() - 1;
+                });
+            }
+            rows[size++] = code;
+        }
+
+        ByteBuffer encode() {
+            byte[][] encoded = new byte[values.size()][];
+            int dataLength = 0;
+            for (int i = 0; i < encoded.length; i++) {
+                encoded[i] = values.get(i).getBytes(StandardCharsets.UTF_8);
+                dataLength += encoded[i].length;
+            }
+            ByteBuffer out = ByteBuffer.allocate(Integer.BYTES * (2 + size + encoded.length) + dataLength)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            out.putInt(encoded.length);
+            for (int i = 0; i < size; i++) {
+                out.putInt(rows[i]);
+            }
+            int end = 0;
+            out.putInt(end);
+            for (byte[] value : encoded) {
+                end += value.length;
+                out.putInt(end);
+            }
+            for (byte[] value : encoded) {
+                out.put(value);
+            }
+            return out.flip();
+        }
+    }
+}
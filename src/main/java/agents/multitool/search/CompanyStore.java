@@ -0,0 +1,40 @@
+package agents.multitool.search;
+
+/**
+ * Company embeddings plus metadata, addressed by row ordinal. Row ordinals line up with the
+ * vector ordinals used by {@link VectorIndex}; column ordinals come from {@link CompanyColumns}.
+ */
+public interface CompanyStore {
+
+    int size();
+
+    int dimension();
+
+    /** Copies the embedding of {@code row} into {@code dst} starting at {@code dstOffset}. */
+    void readVector(int row, float[] dst, int dstOffset);
+
+    /** Copies rows [row, row + rows) into {@code dst} back to back, starting at {@code dstOffset}. */
+    default void readVectors(int row, int rows, float[] dst, int dstOffset) {
+        int dimension = dimension();
+        for (int i = 0; i < rows; i++) {
+            readVector(row + i, dst, dstOffset + i * dimension);
+        }
+    }
+
+    /** True if every vector is stored L2-normalized, so it can be scored without a copy. */
+    default boolean vectorsNormalized() {
+        return false;
+    }
+
+    String value(int row, int column);
+
+    /** Returns a fresh row-major block of {@code size * dimension} floats. */
+    default float[] copyVectors() {
+        int dimension = dimension();
+        float[] vectors = new float[Math.multiplyExact(size(), dimension)];
+        for (int row = 0; row < size(); row++) {
+            readVector(row, vectors, row * dimension);
+        }
+        return vectors;
+    }
+}
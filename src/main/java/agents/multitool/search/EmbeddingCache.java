@@ -0,0 +1,314 @@
+package agents.multitool.search;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU cache from a normalized profile key to its embedding, with a time-to-live per entry.
+ * Vectors live in one preallocated float[] slab indexed by slot; the LRU order is an intrusive
+ * doubly linked list over slot numbers, so a hit touches no boxed objects besides the key lookup.
+ *
+ * <p>The cache belongs to one embedding model. Saved files record the model's name, and
+ * {@link #load(Path)} refuses a file written for another: vectors of two models can share a
+ * dimension while meaning nothing to each other.
+ */
+public final class EmbeddingCache {
+
+    private static final int MAGIC = 0x44434532; // "DCE2"
+    // files written before the model was recorded; their model is unknown, so they are refused
+    private static final int UNTAGGED_MAGIC = 0x44434543; // "DCEC"
+    private static final int NONE = -1;
+
+    private final int capacity;
+    private final int dimension;
+    private final long ttlMillis;
+    private final String model;
+
+    private final float[] slab;
+    private final String[] keys;
+    private final long[] expiresAt;
+    private final int[] prev;
+    private final int[] next;
+    private final Map<String, Integer> slots;
+    private int head = NONE; // most recently used
+    private int tail = NONE; // least recently used
+    private int used;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /** @param model name of the embedding model the vectors come from, see {@code EmbeddingModel#name()} */
+    public EmbeddingCache(int capacity, int dimension, long ttlMillis, String model) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.dimension = dimension;
+        this.ttlMillis = ttlMillis;
+        this.model = model;
+        this.slab = new float[Math.multiplyExact(capacity, dimension)];
+        this.keys = new String[capacity];
+        this.expiresAt = new long[capacity];
+        this.prev = new int[capacity];
+        this.next = new int[capacity];
+        this.slots = new HashMap<>(capacity * 4 / 3 + 1);
+    }
+
+    /**
+     * Lower-cases, trims and collapses whitespace in each part and joins them with '|',
+     * so trivially different spellings of the same profile share an entry.
+     */
+    public static String normalizeKey(String... parts) {
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                key.append('|');
+            }
+            if (parts[i] != null) {
+                key.append(parts[i].trim().replaceAll("\\s+", " ").toLowerCase());
+            }
+        }
+        return key.toString();
+    }
+
+    /** Copies the cached vector into {@code dst} and returns true, or returns false on a miss. */
+    public synchronized boolean get(String key, float[] dst) {
+        Integer slot = slots.get(key);
+        if (slot == null || expired(slot, System.currentTimeMillis())) {
+            if (slot != null) {
+                remove(slot);
+            }
+            misses.incrementAndGet();
+            return false;
+        }
+        moveToFront(slot);
+        System.arraycopy(slab, slot * dimension, dst, 0, dimension);
+        hits.incrementAndGet();
+        return true;
+    }
+
+    /** Returns a copy of the cached vector, or null on a miss. */
+    public float[] get(String key) {
+        float[] vector = new float[dimension];
+        return get(key, vector) ? vector : null;
+    }
+
+    public void put(String key, float[] vector) {
+        put(key, vector, System.currentTimeMillis() + ttlMillis);
+    }
+
+    private synchronized void put(String key, float[] vector, long expiry) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException("Expected a " + dimension + "-dim vector, got " + vector.length);
+        }
+        Integer existing = slots.get(key);
+        int slot;
+        if (existing != null) {
+            slot = existing;
+            unlink(slot);
+        } else if (used < capacity) {
+            slot = used++;
+        } else {
+            slot = tail;
+            unlink(slot);
+            slots.remove(keys[slot]);
+            evictions.incrementAndGet();
+        }
+        keys[slot] = key;
+        expiresAt[slot] = expiry;
+        System.arraycopy(vector, 0, slab, slot * dimension, dimension);
+        slots.put(key, slot);
+        linkFront(slot);
+    }
+
+    public synchronized int size() {
+        return slots.size();
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    public long evictions() {
+        return evictions.get();
+    }
+
+    public double hitRatio() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", size());
+        stats.put("capacity", capacity);
+        stats.put("hits", hits());
+        stats.put("misses", misses());
+        stats.put("evictions", evictions());
+        stats.put("hit_ratio", hitRatio());
+        return stats;
+    }
+
+    /** Writes live entries, least recently used first, so reloading restores the LRU order. */
+    public synchronized void save(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        long now = System.currentTimeMillis();
+        Path partial = path.resolveSibling(path.getFileName() + ".partial");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(partial)))) {
+            out.writeInt(MAGIC);
+            out.writeUTF(model);
+            out.writeInt(dimension);
+            int live = 0;
+            for (int slot = tail; slot != NONE; slot = prev[slot]) {
+                if (!expired(slot, now)) {
+                    live++;
+                }
+            }
+            out.writeInt(live);
+            for (int slot = tail; slot != NONE; slot = prev[slot]) {
+                if (expired(slot, now)) {
+                    continue;
+                }
+                out.writeUTF(keys[slot]);
+                out.writeLong(expiresAt[slot]);
+                int offset = slot * dimension;
+                for (int i = 0; i < dimension; i++) {
+                    out.writeFloat(slab[offset + i]);
+                }
+            }
+        }
+        Files.move(partial, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Adds the unexpired entries of a file written by {@link #save(Path)} for the same model;
+     * returns how many were loaded.
+     */
+    public int load(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            int magic = in.readInt();
+            if (magic == UNTAGGED_MAGIC) {
+                throw new IOException("Embedding cache " + path + " does not record its model, expected " + model);
+            }
+            if (magic != MAGIC) {
+                throw new IOException("Not an embedding cache file: " + path);
+            }
+            String fileModel = in.readUTF();
+            if (!fileModel.equals(model)) {
+                throw new IOException("Embedding cache " + path + " was written for model " + fileModel + ", expected " + model);
+            }
+            int fileDimension = in.readInt();
+            if (fileDimension != dimension) {
+                throw new IOException("Embedding cache " + path + " has dimension " + fileDimension + ", expected " + dimension);
+            }
+            int count = in.readInt();
+            long now = System.currentTimeMillis();
+            float[] vector = new float[dimension];
+            int loaded = 0;
+            for (int e = 0; e < count; e++) {
+                String key = in.readUTF();
+                long expiry = in.readLong();
+                for (int i = 0; i < dimension; i++) {
+                    vector[i] = in.readFloat();
+                }
+                if (expiry > now) {
+                    put(key, vector, expiry);
+                    loaded++;
+                }
+            }
+            return loaded;
+        }
+    }
+
+    private boolean expired(int slot, long now) {
+        return expiresAt[slot] <= now;
+    }
+
+    private void remove(int slot) {
+        unlink(slot);
+        slots.remove(keys[slot]);
+        keys[slot] = null;
+        // Move the last used slot into the hole so occupied slots stay dense in [0, used).
+        int last = --used;
+        if (slot != last) {
+            String lastKey = keys[last];
+            boolean wasHead = head == last;
+            boolean wasTail = tail == last;
+            int p = prev[last];
+            int n = next[last];
+            keys[slot] = lastKey;
+            expiresAt[slot] = expiresAt[last];
+            System.arraycopy(slab, last * dimension, slab, slot * dimension, dimension);
+            prev[slot] = p;
+            next[slot] = n;
+            if (p != NONE) {
+                next[p] = slot;
+            }
+            if (n != NONE) {
+                prev[n] = slot;
+            }
+            if (wasHead) {
+                head = slot;
+            }
+            if (wasTail) {
+                tail = slot;
+            }
+            slots.put(lastKey, slot);
+            keys[last] = null;
+        }
+    }
+
+    private void moveToFront(int slot) {
+        if (head != slot) {
+            unlink(slot);
+            linkFront(slot);
+        }
+    }
+
+    private void linkFront(int slot) {
+        prev[slot] = NONE;
+        next[slot] = head;
+        if (head != NONE) {
+            prev[head] = slot;
+        }
+        head = slot;
+        if (tail == NONE) {
+            tail = slot;
+        }
+    }
+
+    private void unlink(int slot) {
+        int p = prev[slot];
+        int n = next[slot];
+        if (p != NONE) {
+            next[p] = n;
+        } else {
+            head = n;
+        }
+        if (n != NONE) {
+            prev[n] = p;
+        } else {
+            tail = p;
+        }
+        prev[slot] = NONE;
+        next[slot] = NONE;
+    }
+}
@@ -0,0 +1,76 @@
+package agents.multitool.search;
+
+import java.util.Arrays;
+
+/**
+ * Growable binary min-heap of float keys carrying int values. Negate keys for max-heap order.
+ */
+final class FloatIntHeap {
+
+    private float[] keys;
+    private int[] values;
+    private int size;
+
+    FloatIntHeap(int initialCapacity) {
+        keys = new float[initialCapacity];
+        values = new int[initialCapacity];
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    float peekKey() {
+        return keys[0];
+    }
+
+    void push(float key, int value) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[parent] <= key) {
+                break;
+            }
+            keys[i] = keys[parent];
+            values[i] = values[parent];
+            i = parent;
+        }
+        keys[i] = key;
+        values[i] = value;
+    }
+
+    int pop() {
+        int top = values[0];
+        int last = --size;
+        if (last > 0) {
+            float key = keys[last];
+            int value = values[last];
+            int i = 0;
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                int right = child + 1;
+                if (right < size && keys[right] < keys[child]) {
+                    child = right;
+                }
+                if (key <= keys[child]) {
+                    break;
+                }
+                keys[i] = keys[child];
+                values[i] = values[child];
+                i = child;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+        return top;
+    }
+}
@@ -0,0 +1,317 @@
+package agents.multitool.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+/**
+ * Hierarchical navigable small world graph over L2-normalized vectors (cosine similarity).
+ * Vectors live in one contiguous float[]; adjacency lists are int[] with the count in slot 0.
+ * The graph is built once and is safe for concurrent searches afterwards.
+ */
+public final class HnswIndex implements VectorIndex {
+
+    // Filters passing fewer rows than this share of the index are answered by an exact scan of
+    // the passing rows: cheaper than a graph walk that has to step over mostly filtered-out nodes.
+    private static final double EXACT_FILTER_FRACTION = 0.05;
+
+    private final int dimension;
+    private final int size;
+    private final float[] vectors;
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private volatile int efSearch;
+    private final double levelMultiplier;
+    private final int[][][] links;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    private final ThreadLocal<SearchScratch> scratch;
+
+    private HnswIndex(float[] vectors, int dimension, int m, int efConstruction, int efSearch) {
+        if (vectors.length % dimension != 0) {
+            throw new IllegalArgumentException("Vector block length " + vectors.length + " is not a multiple of " + dimension);
+        }
+        this.dimension = dimension;
+        this.size = vectors.length / dimension;
+        this.vectors = vectors;
+        this.m = m;
+        this.maxM0 = 2 * m;
+        this.efConstruction = Math.max(efConstruction, m);
+        this.efSearch = efSearch;
+        this.levelMultiplier = 1.0 / Math.log(m);
+        this.links = new int[size][][];
+        this.scratch = ThreadLocal.withInitial(() -> new SearchScratch(size));
+    }
+
+    /**
+     * Builds the graph. The vectors are normalized in place and retained, so pass a copy you own.
+     *
+     * @param vectors        row-major block of {@code size * dimension} floats
+     * @param m              max links per node on the upper layers (layer 0 gets 2*m)
+     * @param efConstruction candidate list size while inserting
+     * @param efSearch       default candidate list size while querying
+     */
+    public static HnswIndex build(float[] vectors, int dimension, int m, int efConstruction, int efSearch) {
+        for (int offset = 0; offset < vectors.length; offset += dimension) {
+            VectorMath.normalize(vectors, offset, dimension);
+        }
+        HnswIndex index = new HnswIndex(vectors, dimension, m, efConstruction, efSearch);
+        SplittableRandom random = new SplittableRandom(42);
+        for (int id = 0; id < index.size; id++) {
+            index.insert(id, random);
+        }
+        return index;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int dimension() {
+        return dimension;
+    }
+
+    public void setEfSearch(int efSearch) {
+        this.efSearch = efSearch;
+    }
+
+    @Override
+    public SearchHits search(float[] query, int k) {
+        return search(query, k, null);
+    }
+
+    /**
+     * Filtered search walks the graph through every node but only admits passing nodes into the
+     * result set, so the walk stops once ef passing nodes are found and none closer remain.
+     */
+    @Override
+    public SearchHits search(float[] query, int k, BitSet filter) {
+        if (query.length != dimension) {
+            throw new IllegalArgumentException("Expected a " + dimension + "-dim query, got " + query.length);
+        }
+        if (entryPoint < 0 || k <= 0) {
+            return SearchHits.EMPTY;
+        }
+        if (filter != null) {
+            int matches = filter.cardinality();
+            if (matches == 0) {
+                return SearchHits.EMPTY;
+            }
+            if (matches <= Math.max(Math.max(efSearch, k), size * EXACT_FILTER_FRACTION)) {
+                TopK top = new TopK(Math.min(k, matches));
+                for (int id = filter.nextSetBit(0); id >= 0 && id < size; id = filter.nextSetBit(id + 1)) {
+                    top.offer(id, similarity(query, 0, id));
+                }
+                return top.toHits();
+            }
+        }
+        SearchScratch s = scratch.get();
+        int ep = entryPoint;
+        float epScore = similarity(query, 0, ep);
+        for (int level = maxLevel; level > 0; level--) {
+            ep = greedyClosest(query, 0, ep, epScore, level);
+            epScore = similarity(query, 0, ep);
+        }
+        int ef = Math.max(efSearch, k);
+        if (filter != null) {
+            // a selective filter leaves fewer passing nodes near the walk; widen the beam to match
+            ef = (int) Math.min(4L * ef, Math.round(ef / Math.sqrt((double) filter.cardinality() / size)));
+        }
+        TopK results = searchLayer(s, query, 0, ep, epScore, ef, 0, filter);
+        while (results.size() > k) {
+            results.pollMin();
+        }
+        return results.toHits();
+    }
+
+    private void insert(int id, SplittableRandom random) {
+        int level = (int) (-Math.log(1.0 - random.nextDouble()) * levelMultiplier);
+        int[][] nodeLinks = new int[level + 1][];
+        for (int l = 0; l <= level; l++) {
+            nodeLinks[l] = new int[(l == 0 ? maxM0 : m) + 1];
+        }
+        links[id] = nodeLinks;
+
+        if (entryPoint < 0) {
+            entryPoint = id;
+            maxLevel = level;
+            return;
+        }
+
+        int offset = id * dimension;
+        int ep = entryPoint;
+        float epScore = similarity(vectors, offset, ep);
+        for (int l = maxLevel; l > level; l--) {
+            ep = greedyClosest(vectors, offset, ep, epScore, l);
+            epScore = similarity(vectors, offset, ep);
+        }
+
+        SearchScratch s = scratch.get();
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            SearchHits candidates = searchLayer(s, vectors, offset, ep, epScore, efConstruction, l, null).toHits();
+            int maxLinks = l == 0 ? maxM0 : m;
+            int[] selected = selectNeighbors(candidates, m, s);
+            int[] own = nodeLinks[l];
+            own[0] = selected.length;
+            System.arraycopy(selected, 0, own, 1, selected.length);
+            for (int neighbor : selected) {
+                link(neighbor, id, l, maxLinks, s);
+            }
+            ep = candidates.id(0);
+            epScore = candidates.score(0);
+        }
+
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = id;
+        }
+    }
+
+    private int greedyClosest(float[] query, int queryOffset, int ep, float epScore, int level) {
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            int[] adjacency = links[ep][level];
+            for (int i = 1; i <= adjacency[0]; i++) {
+                int candidate = adjacency[i];
+                float score = similarity(query, queryOffset, candidate);
+                if (score > epScore) {
+                    epScore = score;
+                    ep = candidate;
+                    improved = true;
+                }
+            }
+        }
+        return ep;
+    }
+
+    private TopK searchLayer(SearchScratch s, float[] query, int queryOffset, int ep, float epScore, int ef, int level,
+                             BitSet filter) {
+        s.nextEpoch();
+        s.visit(ep);
+        FloatIntHeap candidates = s.candidates;
+        candidates.clear();
+        candidates.push(-epScore, ep);
+        TopK results = new TopK(ef);
+        if (filter == null || filter.get(ep)) {
+            results.offer(ep, epScore);
+        }
+
+        while (!candidates.isEmpty()) {
+            float candidateScore = -candidates.peekKey();
+            int candidate = candidates.pop();
+            if (results.isFull() && candidateScore < results.minScore()) {
+                break;
+            }
+            int[][] nodeLinks = links[candidate];
+            if (level >= nodeLinks.length) {
+                continue;
+            }
+            int[] adjacency = nodeLinks[level];
+            for (int i = 1; i <= adjacency[0]; i++) {
+                int neighbor = adjacency[i];
+                if (!s.visit(neighbor)) {
+                    continue;
+                }
+                float score = similarity(query, queryOffset, neighbor);
+                if (filter == null) {
+                    if (results.offer(neighbor, score)) {
+                        candidates.push(-score, neighbor);
+                    }
+                } else if (score > results.threshold()) {
+                    // filtered-out nodes are still expanded: they may be the only path to passing ones
+                    candidates.push(-score, neighbor);
+                    if (filter.get(neighbor)) {
+                        results.offer(neighbor, score);
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Keeps a candidate only if it is closer to the base node than to every neighbor already kept,
+     * which spreads links across directions instead of clustering them.
+     */
+    private int[] selectNeighbors(SearchHits candidates, int limit, SearchScratch s) {
+        int[] selected = s.selected(limit);
+        int count = 0;
+        for (int i = 0; i < candidates.size() && count < limit; i++) {
+            int candidate = candidates.id(i);
+            float toBase = candidates.score(i);
+            boolean keep = true;
+            for (int j = 0; j < count; j++) {
+                if (similarity(vectors, candidate * dimension, selected[j]) > toBase) {
+                    keep = false;
+                    break;
+                }
+            }
+            if (keep) {
+                selected[count++] = candidate;
+            }
+        }
+        return Arrays.copyOf(selected, count);
+    }
+
+    private void link(int node, int newNeighbor, int level, int maxLinks, SearchScratch s) {
+        int[] adjacency = links[node][level];
+        int count = adjacency[0];
+        if (count < maxLinks) {
+            adjacency[count + 1] = newNeighbor;
+            adjacency[0] = count + 1;
+            return;
+        }
+        int offset = node * dimension;
+        TopK pool = new TopK(count + 1);
+        for (int i = 1; i <= count; i++) {
+            pool.offer(adjacency[i], similarity(vectors, offset, adjacency[i]));
+        }
+        pool.offer(newNeighbor, similarity(vectors, offset, newNeighbor));
+        int[] kept = selectNeighbors(pool.toHits(), maxLinks, s);
+        adjacency[0] = kept.length;
+        System.arraycopy(kept, 0, adjacency, 1, kept.length);
+    }
+
+    private float similarity(float[] query, int queryOffset, int node) {
+        return VectorMath.dot(query, queryOffset, vectors, node * dimension, dimension);
+    }
+
+    private static final class SearchScratch {
+        private final int[] visited;
+        private int epoch;
+        private final FloatIntHeap candidates = new FloatIntHeap(64);
+        private int[] selected = new int[0];
+
+        SearchScratch(int size) {
+            this.visited = new int[size];
+        }
+
+        void nextEpoch() {
+            if (++epoch == Integer.MAX_VALUE) {
+                Arrays.fill(visited, 0);
+                epoch = 1;
+            }
+        }
+
+        /** Marks the node and returns true if it had not been visited in this epoch. */
+        boolean visit(int node) {
+            if (visited[node] == epoch) {
+                return false;
+            }
+            visited[node] = epoch;
+            return true;
+        }
+
+        int[] selected(int capacity) {
+            if (selected.length < capacity) {
+                selected = new int[capacity];
+            }
+            return selected;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package agents.multitool.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Product quantization: the vector is cut into {@code subspaces} slices and each slice is replaced
+ * by the byte id of its nearest of 256 k-means centroids, so a 256-dim vector takes
+ * {@code subspaces} bytes (64 bytes is 16x smaller than float32). A query is scored by building a
+ * table of slice-to-centroid dot products once and summing one table entry per code byte.
+ */
+public final class ProductQuantizedIndex extends QuantizedIndex {
+
+    private static final int CENTROIDS = 256;
+    private static final int TRAINING_SAMPLE = 8192;
+    private static final int KMEANS_ITERATIONS = 8;
+
+    private final int subspaces;
+    private final int subDimension;
+    // [subspace][centroid][subDimension], flattened
+    private final float[] codebooks;
+    private final byte[] codes;
+
+    private ProductQuantizedIndex(int dimension, int size, int subspaces, float[] codebooks, byte[] codes,
+                                  CompanyStore rerankStore, int rerankFactor) {
+        super(dimension, size, rerankStore, rerankFactor);
+        this.subspaces = subspaces;
+        this.subDimension = dimension / subspaces;
+        this.codebooks = codebooks;
+        this.codes = codes;
+    }
+
+    /**
+     * Trains the codebooks on a sample of the store's (L2-normalized) vectors and encodes every
+     * row. Training and encoding run on the common fork/join pool.
+     *
+     * @param subspaces must divide the dimension; more subspaces means larger codes and better recall
+     */
+    public static ProductQuantizedIndex build(CompanyStore store, int subspaces, int rerankFactor, long seed) {
+        int dimension = store.dimension();
+        if (subspaces <= 0 || dimension % subspaces != 0) {
+            throw new IllegalArgumentException("Subspaces " + subspaces + " must divide the dimension " + dimension);
+        }
+        int size = store.size();
+        int subDimension = dimension / subspaces;
+
+        SplittableRandom random = new SplittableRandom(seed);
+        int sampleSize = Math.min(size, TRAINING_SAMPLE);
+        float[] sample = new float[sampleSize * dimension];
+        float[] vector = new float[dimension];
+        for (int i = 0; i < sampleSize; i++) {
+            int row = sampleSize == size ? i : random.nextInt(size);
+            readNormalized(store, row, vector);
+            System.arraycopy(vector, 0, sample, i * dimension, dimension);
+        }
+
+        float[] codebooks = new float[subspaces * CENTROIDS * subDimension];
+        IntStream.range(0, subspaces).parallel().forEach(m ->
+                train(sample, sampleSize, dimension, m * subDimension, subDimension,
+                        codebooks, m * CENTROIDS * subDimension, new SplittableRandom(seed + m)));
+
+        byte[] codes = new byte[Math.multiplyExact(size, subspaces)];
+        float[] norms = centroidNorms(codebooks, subDimension);
+        IntStream.range(0, size).parallel().forEach(row -> {
+            float[] v = new float[dimension];
+            readNormalized(store, row, v);
+            for (int m = 0; m < subspaces; m++) {
+                int nearest = nearest(v, m * subDimension, codebooks, m * CENTROIDS * subDimension, norms, m * CENTROIDS, subDimension);
+                codes[row * subspaces + m] = (byte) nearest;
+            }
+        });
+        return new ProductQuantizedIndex(dimension, size, subspaces, codebooks, codes, store, rerankFactor);
+    }
+
+    @Override
+    public long memoryBytes() {
+        return codes.length + (long) Float.BYTES * codebooks.length;
+    }
+
+    @Override
+    void scan(float[] query, BitSet filter, TopK top) {
+        float[] table = new float[subspaces * CENTROIDS];
+        for (int m = 0; m < subspaces; m++) {
+            int base = m * CENTROIDS * subDimension;
+            for (int c = 0; c < CENTROIDS; c++) {
+                table[m * CENTROIDS + c] = VectorMath.dot(query, m * subDimension, codebooks, base + c * subDimension, subDimension);
+            }
+        }
+        for (int row = firstRow(filter); row >= 0; row = nextRow(filter, row)) {
+            int offset = row * subspaces;
+            float score = 0f;
+            for (int m = 0; m < subspaces; m++) {
+                score += table[(m << 8) | (codes[offset + m] & 0xFF)];
+            }
+            top.offer(row, score);
+        }
+    }
+
+    // Lloyd's k-means on one slice of the sample, written into codebooks[out..]
+    private static void train(float[] sample, int sampleSize, int dimension, int sliceOffset, int subDimension,
+                              float[] codebooks, int out, SplittableRandom random) {
+        if (sampleSize == 0) {
+            return;
+        }
+        for (int c = 0; c < CENTROIDS; c++) {
+            System.arraycopy(sample, random.nextInt(sampleSize) * dimension + sliceOffset, codebooks, out + c * subDimension, subDimension);
+        }
+
+        int[] assignment = new int[sampleSize];
+        float[] sums = new float[CENTROIDS * subDimension];
+        int[] counts = new int[CENTROIDS];
+        float[] norms = new float[CENTROIDS];
+        for (int iteration = 0; iteration < KMEANS_ITERATIONS; iteration++) {
+            for (int c = 0; c < CENTROIDS; c++) {
+                int offset = out + c * subDimension;
+                norms[c] = VectorMath.dot(codebooks, offset, codebooks, offset, subDimension);
+            }
+            for (int i = 0; i < sampleSize; i++) {
+                assignment[i] = nearest(sample, i * dimension + sliceOffset, codebooks, out, norms, 0, subDimension);
+            }
+
+            Arrays.fill(sums, 0f);
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < sampleSize; i++) {
+                int c = assignment[i];
+                counts[c]++;
+                for (int d = 0; d < subDimension; d++) {
+                    sums[c * subDimension + d] += sample[i * dimension + sliceOffset + d];
+                }
+            }
+            for (int c = 0; c < CENTROIDS; c++) {
+                if (counts[c] == 0) {
+                    // empty cluster: reseed it on a random sample point
+                    System.arraycopy(sample, random.nextInt(sampleSize) * dimension + sliceOffset, codebooks, out + c * subDimension, subDimension);
+                    continue;
+                }
+                for (int d = 0; d < subDimension; d++) {
+                    codebooks[out + c * subDimension + d] = sums[c * subDimension + d] / counts[c];
+                }
+            }
+        }
+    }
+
+    private static float[] centroidNorms(float[] codebooks, int subDimension) {
+        float[] norms = new float[codebooks.length / subDimension];
+        for (int c = 0; c < norms.length; c++) {
+            norms[c] = VectorMath.dot(codebooks, c * subDimension, codebooks, c * subDimension, subDimension);
+        }
+        return norms;
+    }
+
+    // argmin ||x - c||^2 = argmin (||c||^2 - 2 x.c)
+    private static int nearest(float[] x, int xOffset, float[] codebooks, int codebookOffset,
+                               float[] norms, int normOffset, int subDimension) {
+        int best = 0;
+        float bestDistance = Float.POSITIVE_INFINITY;
+        for (int c = 0; c < CENTROIDS; c++) {
+            float distance = norms[normOffset + c] - 2f * VectorMath.dot(x, xOffset, codebooks, codebookOffset + c * subDimension, subDimension);
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = c;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,89 @@
+package agents.multitool.search;
+
+import java.util.BitSet;
+
+/**
+ * Exact-scan index over compressed embedding codes instead of float32 vectors. Scores are computed
+ * directly on the codes (asymmetrically: the query stays float); with a re-rank store the best
+ * {@code k * rerankFactor} candidates are then re-scored against the original vectors. Re-ranking
+ * only reads a handful of rows per query, so it is cheap even when the store is a memory-mapped
+ * {@link CompanySnapshot} whose pages are not resident.
+ */
+public abstract class QuantizedIndex implements VectorIndex {
+
+    protected final int dimension;
+    protected final int size;
+    private final CompanyStore rerankStore;
+    private final int rerankFactor;
+
+    QuantizedIndex(int dimension, int size, CompanyStore rerankStore, int rerankFactor) {
+        this.dimension = dimension;
+        this.size = size;
+        this.rerankStore = rerankFactor > 1 ? rerankStore : null;
+        this.rerankFactor = rerankFactor;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int dimension() {
+        return dimension;
+    }
+
+    /** Heap bytes held for the codes and the parameters needed to score them. */
+    public abstract long memoryBytes();
+
+    /** Offers every row that passes {@code filter} (all rows if null), scored on its code, to {@code top}. */
+    abstract void scan(float[] query, BitSet filter, TopK top);
+
+    @Override
+    public SearchHits search(float[] query, int k) {
+        return search(query, k, null);
+    }
+
+    @Override
+    public SearchHits search(float[] query, int k, BitSet filter) {
+        int matches = filter == null ? size : filter.cardinality();
+        if (size == 0 || k <= 0 || matches == 0) {
+            return SearchHits.EMPTY;
+        }
+        if (rerankStore == null) {
+            TopK top = new TopK(Math.min(k, matches));
+            scan(query, filter, top);
+            return top.toHits();
+        }
+
+        TopK candidates = new TopK(Math.min(k * rerankFactor, matches));
+        scan(query, filter, candidates);
+        SearchHits coarse = candidates.toHits();
+        TopK top = new TopK(Math.min(k, matches));
+        float[] vector = new float[dimension];
+        for (int i = 0; i < coarse.size(); i++) {
+            int row = coarse.id(i);
+            readNormalized(rerankStore, row, vector);
+            top.offer(row, VectorMath.dot(query, 0, vector, 0, dimension));
+        }
+        return top.toHits();
+    }
+
+    /** First row to scan: 0, or the first row set in {@code filter}; -1 when there is none. */
+    int firstRow(BitSet filter) {
+        return filter == null ? (size > 0 ? 0 : -1) : filter.nextSetBit(0);
+    }
+
+    int nextRow(BitSet filter, int row) {
+        if (filter == null) {
+            return row + 1 < size ? row + 1 : -1;
+        }
+        int next = filter.nextSetBit(row + 1);
+        return next < size ? next : -1;
+    }
+
+    static void readNormalized(CompanyStore store, int row, float[] vector) {
+        store.readVector(row, vector, 0);
+        VectorMath.normalize(vector);
+    }
+}
@@ -0,0 +1,46 @@
+package agents.multitool.search;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reciprocal-rank fusion: a row scores {@code sum 1 / (k + rank)} over the result lists it appears
+ * in (rank from 1). Only ranks are used, so lists with incomparable scores, such as cosine
+ * similarities and BM25, can be merged without calibration, and a row near the top of both lists
+ * beats one that tops only one.
+ */
+public final class RankFusion {
+
+    /** The constant from Cormack et al. (2009); damps the weight of the very first ranks. */
+    public static final int DEFAULT_K = 60;
+
+    private RankFusion() {
+    }
+
+    /** The best {@code topK} rows of the fused lists; scores are the fused RRF scores. */
+    public static SearchHits reciprocalRank(int topK, int k, SearchHits... lists) {
+        float[] weights = new float[lists.length];
+        Arrays.fill(weights, 1f);
+        return reciprocalRank(topK, k, lists, weights);
+    }
+
+    /** Weighted variant: list {@code i} contributes {@code weights[i] / (k + rank)}. */
+    public static SearchHits reciprocalRank(int topK, int k, SearchHits[] lists, float[] weights) {
+        Map<Integer, Float> fused = new HashMap<>();
+        for (int l = 0; l < lists.length; l++) {
+            SearchHits hits = lists[l];
+            for (int rank = 0; rank < hits.size(); rank++) {
+                fused.merge(hits.id(rank), weights[l] / (k + rank + 1), Float::sum);
+            }
+        }
+        if (fused.isEmpty()) {
+            return SearchHits.EMPTY;
+        }
+        TopK top = new TopK(topK);
+        for (Map.Entry<Integer, Float> e : fused.entrySet()) {
+            top.offer(e.getKey(), e.getValue());
+        }
+        return top.toHits();
+    }
+}
@@ -0,0 +1,102 @@
+package agents.multitool.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * int8 scalar quantization: each dimension is mapped linearly from its [min, max] range over the
+ * corpus onto 0..255, one byte per dimension (4x smaller than float32). Because the mapping is
+ * affine, {@code dot(q, x) = sum(q[d] * min[d]) + sum(q[d] * step[d] * code[d])}, so a query is
+ * folded into per-dimension weights once and each row costs one multiply-add per byte.
+ */
+public final class ScalarQuantizedIndex extends QuantizedIndex {
+
+    private static final float WEIGHT_RANGE = 1 << 14;
+
+    private final byte[] codes;
+    private final float[] min;
+    private final float[] step;
+
+    private ScalarQuantizedIndex(int dimension, int size, byte[] codes, float[] min, float[] step,
+                                 CompanyStore rerankStore, int rerankFactor) {
+        super(dimension, size, rerankStore, rerankFactor);
+        this.codes = codes;
+        this.min = min;
+        this.step = step;
+    }
+
+    /**
+     * Quantizes the store's vectors (L2-normalized first). The store is read row by row, so no
+     * float copy of the corpus is made; it is kept only if {@code rerankFactor > 1}.
+     */
+    public static ScalarQuantizedIndex build(CompanyStore store, int rerankFactor) {
+        int dimension = store.dimension();
+        int size = store.size();
+        float[] vector = new float[dimension];
+
+        float[] min = new float[dimension];
+        float[] max = new float[dimension];
+        Arrays.fill(min, Float.POSITIVE_INFINITY);
+        Arrays.fill(max, Float.NEGATIVE_INFINITY);
+        for (int row = 0; row < size; row++) {
+            readNormalized(store, row, vector);
+            for (int d = 0; d < dimension; d++) {
+                min[d] = Math.min(min[d], vector[d]);
+                max[d] = Math.max(max[d], vector[d]);
+            }
+        }
+
+        float[] step = new float[dimension];
+        for (int d = 0; d < dimension; d++) {
+            if (size == 0) {
+                min[d] = 0f;
+            }
+            step[d] = size == 0 || max[d] <= min[d] ? 0f : (max[d] - min[d]) / 255f;
+        }
+
+        byte[] codes = new byte[Math.multiplyExact(size, dimension)];
+        for (int row = 0, offset = 0; row < size; row++, offset += dimension) {
+            readNormalized(store, row, vector);
+            for (int d = 0; d < dimension; d++) {
+                int code = step[d] == 0f ? 0 : Math.round((vector[d] - min[d]) / step[d]);
+                codes[offset + d] = (byte) Math.max(0, Math.min(255, code));
+            }
+        }
+        return new ScalarQuantizedIndex(dimension, size, codes, min, step, store, rerankFactor);
+    }
+
+    @Override
+    public long memoryBytes() {
+        return codes.length + 2L * Float.BYTES * dimension;
+    }
+
+    @Override
+    void scan(float[] query, BitSet filter, TopK top) {
+        float bias = 0f;
+        float maxWeight = 0f;
+        float[] weights = new float[dimension];
+        for (int d = 0; d < dimension; d++) {
+            bias += query[d] * min[d];
+            weights[d] = query[d] * step[d];
+            maxWeight = Math.max(maxWeight, Math.abs(weights[d]));
+        }
+        // The weights are rounded to 15-bit integers so the per-row loop is an int dot product,
+        // which C2 vectorizes (a float sum it may not reorder, so it stays scalar). The rounding
+        // error is far below that of the 8-bit codes; sums stay under 2^31 for up to 512 dims.
+        float scale = maxWeight == 0f ? 0f : WEIGHT_RANGE / maxWeight;
+        int[] intWeights = new int[dimension];
+        for (int d = 0; d < dimension; d++) {
+            intWeights[d] = Math.round(weights[d] * scale);
+        }
+        float unscale = scale == 0f ? 0f : 1f / scale;
+
+        for (int row = firstRow(filter); row >= 0; row = nextRow(filter, row)) {
+            int offset = row * dimension;
+            int sum = 0;
+            for (int d = 0; d < dimension; d++) {
+                sum += intWeights[d] * (codes[offset + d] & 0xFF);
+            }
+            top.offer(row, bias + sum * unscale);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package agents.multitool.search;
+
+/**
+ * Result of a top-k search: ordinals and cosine similarities, best first.
+ */
+public final class SearchHits {
+
+    public static final SearchHits EMPTY = new SearchHits(new int[0], new float[0]);
+
+    private final int[] ids;
+    private final float[] scores;
+
+    SearchHits(int[] ids, float[] scores) {
+        this.ids = ids;
+        this.scores = scores;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public int id(int i) {
+        return ids[i];
+    }
+
+    public float score(int i) {
+        return scores[i];
+    }
+}
@@ -0,0 +1,159 @@
+package agents.multitool.search;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache keyed by similarity rather than equality. A lookup returns the value of the most
+ * similar unexpired entry whose vector has a cosine similarity of at least the threshold with the
+ * query, among the entries of the same partition. The partition is an exact-match key, for fields
+ * that must never be approximated.
+ *
+ * <p>Vectors are stored normalized in one preallocated slab and scanned on each lookup. A thousand
+ * 256-dim entries take about 0.2 ms, which is small next to the seconds-long calls the cache fronts.
+ * When full, the least recently used entry is replaced.
+ */
+public final class SemanticCache<V> {
+
+    /** An entry within the threshold of the query; its similarity is the cosine to the query. */
+    public record Match<V>(V value, float similarity) {
+    }
+
+    private final int capacity;
+    private final int dimension;
+    private final long ttlMillis;
+
+    private final float[] slab;
+    private final String[] partitions;
+    private final Object[] values;
+    private final long[] expiresAt;
+    private final long[] lastUsed;
+    private long clock;
+    private int size;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public SemanticCache(int capacity, int dimension, long ttlMillis) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.dimension = dimension;
+        this.ttlMillis = ttlMillis;
+        this.slab = new float[Math.multiplyExact(capacity, dimension)];
+        this.partitions = new String[capacity];
+        this.values = new Object[capacity];
+        this.expiresAt = new long[capacity];
+        this.lastUsed = new long[capacity];
+    }
+
+    /** The most similar entry of {@code partition} within {@code threshold}, or null. */
+    public synchronized Match<V> get(float[] vector, String partition, float threshold) {
+        float[] query = VectorMath.normalize(vector.clone());
+        int best = nearest(query, partition, System.currentTimeMillis());
+        float similarity = best < 0 ? -1 : VectorMath.dot(query, 0, slab, best * dimension, dimension);
+        if (best < 0 || similarity < threshold) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        lastUsed[best] = ++clock;
+        @SuppressWarnings("unchecked")
+        V value = (V) values[best];
+        return new Match<>(value, similarity);
+    }
+
+    /**
+     * Adds an entry, replacing one of the same partition whose vector is practically identical,
+     * else a free or expired slot, else the least recently used entry.
+     */
+    public synchronized void put(float[] vector, String partition, V value) {
+        float[] normalized = VectorMath.normalize(vector.clone());
+        long now = System.currentTimeMillis();
+        int slot = nearest(normalized, partition, now);
+        if (slot < 0 || VectorMath.dot(normalized, 0, slab, slot * dimension, dimension) < 0.9999f) {
+            slot = freeSlot(now);
+        }
+        System.arraycopy(normalized, 0, slab, slot * dimension, dimension);
+        partitions[slot] = partition;
+        values[slot] = value;
+        expiresAt[slot] = ttlMillis > 0 ? now + ttlMillis : Long.MAX_VALUE;
+        lastUsed[slot] = ++clock;
+    }
+
+    /** Drops every entry, e.g. when what the cached values were computed from has changed. */
+    public synchronized void clear() {
+        for (int i = 0; i < size; i++) {
+            values[i] = null;
+            partitions[i] = null;
+        }
+        size = 0;
+    }
+
+    public synchronized int size() {
+        int live = 0;
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < size; i++) {
+            if (values[i] != null && expiresAt[i] > now) {
+                live++;
+            }
+        }
+        return live;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    public long evictions() {
+        return evictions.get();
+    }
+
+    public double hitRatio() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    private int nearest(float[] query, String partition, long now) {
+        int best = -1;
+        float bestSimilarity = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < size; i++) {
+            if (values[i] == null || expiresAt[i] <= now || !partitions[i].equals(partition)) {
+                continue;
+            }
+            float similarity = VectorMath.dot(query, 0, slab, i * dimension, dimension);
+            if (similarity > bestSimilarity) {
+                bestSimilarity = similarity;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private int freeSlot(long now) {
+        int oldest = -1;
+        for (int i = 0; i < size; i++) {
+            if (values[i] == null || expiresAt[i] <= now) {
+                return i;
+            }
+            if (oldest < 0 || lastUsed[i] < lastUsed[oldest]) {
+                oldest = i;
+            }
+        }
+        if (size < capacity) {
+            return size++;
+        }
+        evictions.incrementAndGet();
+        return oldest;
+    }
+}
@@ -0,0 +1,227 @@
+package agents.multitool.search;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Exact top-k cosine search like {@link BruteForceIndex}, with the dot products computed by the
+ * Vector API and the scan split across a fork/join pool. Each leaf task keeps its own bounded heap
+ * over a contiguous row range; the heaps are merged on the way back up, so threads share nothing
+ * while scanning.
+ *
+ * <p>Needs {@code --add-modules jdk.incubator.vector} at compile and run time; check
+ * {@link VectorMath#vectorApiAvailable()} before touching this class.
+ */
+public final class SimdBruteForceIndex implements VectorIndex {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    // rows scanned per leaf task; below two of these the scan stays on the calling thread
+    private static final int MIN_ROWS_PER_TASK = 8192;
+
+    // null when scanning the store in place
+    private final float[] vectors;
+    private final CompanyStore store;
+    private final int dimension;
+    private final int size;
+    private final ForkJoinPool pool;
+
+    private SimdBruteForceIndex(float[] vectors, CompanyStore store, int dimension, int size, ForkJoinPool pool) {
+        this.vectors = vectors;
+        this.store = store;
+        this.dimension = dimension;
+        this.size = size;
+        this.pool = pool;
+    }
+
+    /** The vectors are normalized in place and retained, so pass a copy you own. */
+    public static SimdBruteForceIndex build(float[] vectors, int dimension) {
+        return build(vectors, dimension, ForkJoinPool.commonPool());
+    }
+
+    public static SimdBruteForceIndex build(float[] vectors, int dimension, ForkJoinPool pool) {
+        if (vectors.length % dimension != 0) {
+            throw new IllegalArgumentException("Vector block length " + vectors.length + " is not a multiple of " + dimension);
+        }
+        for (int offset = 0; offset < vectors.length; offset += dimension) {
+            VectorMath.normalize(vectors, offset, dimension);
+        }
+        return new SimdBruteForceIndex(vectors, null, dimension, vectors.length / dimension, pool);
+    }
+
+    /**
+     * Scans the store's vectors where they live: each leaf task copies a block of rows at a time
+     * into its own buffer, so a memory-mapped snapshot stays off-heap. The store must hold
+     * normalized vectors.
+     */
+    public static SimdBruteForceIndex over(CompanyStore store) {
+        return over(store, ForkJoinPool.commonPool());
+    }
+
+    public static SimdBruteForceIndex over(CompanyStore store, ForkJoinPool pool) {
+        if (!store.vectorsNormalized()) {
+            throw new IllegalArgumentException("The store's vectors are not normalized; build from copyVectors() instead");
+        }
+        return new SimdBruteForceIndex(null, store, store.dimension(), store.size(), pool);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int dimension() {
+        return dimension;
+    }
+
+    @Override
+    public SearchHits search(float[] query, int k) {
+        return search(query, k, null);
+    }
+
+    @Override
+    public SearchHits search(float[] query, int k, BitSet filter) {
+        int candidates = filter == null ? size : filter.cardinality();
+        if (size == 0 || k <= 0 || candidates == 0) {
+            return SearchHits.EMPTY;
+        }
+        int capacity = Math.min(k, candidates);
+        if (candidates < 2 * MIN_ROWS_PER_TASK || pool.getParallelism() < 2) {
+            TopK top = new TopK(capacity);
+            scan(query, 0, size, filter, top);
+            return top.toHits();
+        }
+        // a few leaves per worker so a slow core does not hold up the merge
+        int rowsPerTask = Math.max(MIN_ROWS_PER_TASK, size / (pool.getParallelism() * 4));
+        return pool.invoke(new ScanTask(query, 0, size, filter, capacity, rowsPerTask)).toHits();
+    }
+
+    /** Offers rows [from, to) that pass {@code filter} to {@code top}. */
+    void scan(float[] query, int from, int to, BitSet filter, TopK top) {
+        if (vectors != null) {
+            scan(query, vectors, 0, from, to, filter, top);
+            return;
+        }
+        if (filter != null) {
+            float[] row = new float[dimension];
+            for (int id = filter.nextSetBit(from); id >= 0 && id < to; id = filter.nextSetBit(id + 1)) {
+                store.readVector(id, row, 0);
+                top.offer(id, dot(query, row, 0));
+            }
+            return;
+        }
+        float[] block = new float[Math.min(BruteForceIndex.BLOCK_ROWS, to - from) * dimension];
+        for (int first = from; first < to; first += BruteForceIndex.BLOCK_ROWS) {
+            int last = Math.min(to, first + BruteForceIndex.BLOCK_ROWS);
+            store.readVectors(first, last - first, block, 0);
+            scan(query, block, first, first, last, null, top);
+        }
+    }
+
+    /**
+     * Same over {@code data}, which holds rows from {@code base} on. Unfiltered scans go four rows
+     * per pass so each query lane load is reused.
+     */
+    private void scan(float[] query, float[] data, int base, int from, int to, BitSet filter, TopK top) {
+        if (filter != null) {
+            for (int row = filter.nextSetBit(from); row >= 0 && row < to; row = filter.nextSetBit(row + 1)) {
+                top.offer(row, dot(query, data, (row - base) * dimension));
+            }
+            return;
+        }
+        int row = from;
+        for (; row + 4 <= to; row += 4) {
+            int o0 = (row - base) * dimension;
+            int o1 = o0 + dimension;
+            int o2 = o1 + dimension;
+            int o3 = o2 + dimension;
+            FloatVector acc0 = FloatVector.zero(SPECIES);
+            FloatVector acc1 = FloatVector.zero(SPECIES);
+            FloatVector acc2 = FloatVector.zero(SPECIES);
+            FloatVector acc3 = FloatVector.zero(SPECIES);
+            int i = 0;
+            int upper = SPECIES.loopBound(dimension);
+            for (; i < upper; i += SPECIES.length()) {
+                FloatVector q = FloatVector.fromArray(SPECIES, query, i);
+                acc0 = FloatVector.fromArray(SPECIES, data, o0 + i).fma(q, acc0);
+                acc1 = FloatVector.fromArray(SPECIES, data, o1 + i).fma(q, acc1);
+                acc2 = FloatVector.fromArray(SPECIES, data, o2 + i).fma(q, acc2);
+                acc3 = FloatVector.fromArray(SPECIES, data, o3 + i).fma(q, acc3);
+            }
+            float s0 = acc0.reduceLanes(VectorOperators.ADD);
+            float s1 = acc1.reduceLanes(VectorOperators.ADD);
+            float s2 = acc2.reduceLanes(VectorOperators.ADD);
+            float s3 = acc3.reduceLanes(VectorOperators.ADD);
+            for (; i < dimension; i++) {
+                float q = query[i];
+                s0 += data[o0 + i] * q;
+                s1 += data[o1 + i] * q;
+                s2 += data[o2 + i] * q;
+                s3 += data[o3 + i] * q;
+            }
+            top.offer(row, s0);
+            top.offer(row + 1, s1);
+            top.offer(row + 2, s2);
+            top.offer(row + 3, s3);
+        }
+        for (; row < to; row++) {
+            top.offer(row, dot(query, data, (row - base) * dimension));
+        }
+    }
+
+    private float dot(float[] query, float[] data, int offset) {
+        FloatVector acc = FloatVector.zero(SPECIES);
+        int i = 0;
+        int upper = SPECIES.loopBound(dimension);
+        for (; i < upper; i += SPECIES.length()) {
+            acc = FloatVector.fromArray(SPECIES, data, offset + i).fma(FloatVector.fromArray(SPECIES, query, i), acc);
+        }
+        float sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < dimension; i++) {
+            sum += data[offset + i] * query[i];
+        }
+        return sum;
+    }
+
+    private final class ScanTask extends RecursiveTask<TopK> {
+        private static final long serialVersionUID = 1L;
+
+        private final float[] query;
+        private final int from;
+        private final int to;
+        private final BitSet filter;
+        private final int capacity;
+        private final int rowsPerTask;
+
+        ScanTask(float[] query, int from, int to, BitSet filter, int capacity, int rowsPerTask) {
+            this.query = query;
+            this.from = from;
+            this.to = to;
+            this.filter = filter;
+            this.capacity = capacity;
+            this.rowsPerTask = rowsPerTask;
+        }
+
+        @Override
+        protected TopK compute() {
+            if (to - from <= rowsPerTask) {
+                TopK top = new TopK(capacity);
+                scan(query, from, to, filter, top);
+                return top;
+            }
+            int mid = (from + to) >>> 1;
+            ScanTask left = new ScanTask(query, from, mid, filter, capacity, rowsPerTask);
+            left.fork();
+            TopK right = new ScanTask(query, mid, to, filter, capacity, rowsPerTask).compute();
+            TopK merged = left.join();
+            merged.addAll(right);
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package agents.multitool.search;
+
+import java.util.Arrays;
+
+/**
+ * Bounded min-heap of (ordinal, score) pairs that keeps the k highest scores seen so far.
+ * Backed by primitive arrays so the scan loops allocate nothing per candidate.
+ */
+public final class TopK {
+
+    private final int capacity;
+    private final int[] ids;
+    private final float[] scores;
+    private int size;
+
+    public TopK(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.ids = new int[capacity];
+        this.scores = new float[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    /** Lowest retained score, or negative infinity while the heap still has room. */
+    public float threshold() {
+        return size < capacity ? Float.NEGATIVE_INFINITY : scores[0];
+    }
+
+    public float minScore() {
+        return scores[0];
+    }
+
+    public int minId() {
+        return ids[0];
+    }
+
+    /** Returns true if the pair was retained. */
+    public boolean offer(int id, float score) {
+        if (size < capacity) {
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (scores[parent] <= score) {
+                    break;
+                }
+                ids[i] = ids[parent];
+                scores[i] = scores[parent];
+                i = parent;
+            }
+            ids[i] = id;
+            scores[i] = score;
+            return true;
+        }
+        if (score <= scores[0]) {
+            return false;
+        }
+        siftDown(id, score);
+        return true;
+    }
+
+    public void pollMin() {
+        int last = --size;
+        if (last > 0) {
+            siftDown(ids[last], scores[last]);
+        }
+    }
+
+    public void addAll(TopK other) {
+        for (int i = 0; i < other.size; i++) {
+            offer(other.ids[i], other.scores[i]);
+        }
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /** Copies the retained pairs out, best first. The heap itself is left untouched. */
+    public SearchHits toHits() {
+        long[] packed = new long[size];
+        for (int i = 0; i < size; i++) {
+            packed[i] = ((long) sortableBits(scores[i]) << 32) | (ids[i] & 0xFFFFFFFFL);
+        }
+        Arrays.sort(packed);
+        int[] outIds = new int[size];
+        float[] outScores = new float[size];
+        for (int i = 0; i < size; i++) {
+            long p = packed[size - 1 - i];
+            outIds[i] = (int) p;
+            outScores[i] = fromSortableBits((int) (p >>> 32));
+        }
+        return new SearchHits(outIds, outScores);
+    }
+
+    private void siftDown(int id, float score) {
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && scores[right] < scores[child]) {
+                child = right;
+            }
+            if (score <= scores[child]) {
+                break;
+            }
+            ids[i] = ids[child];
+            scores[i] = scores[child];
+            i = child;
+        }
+        ids[i] = id;
+        scores[i] = score;
+    }
+
+    // Maps float ordering onto signed int ordering so scores can be sorted as packed longs.
+    private static int sortableBits(float f) {
+        int bits = Float.floatToIntBits(f);
+        return bits ^ ((bits >> 31) & 0x7FFFFFFF);
+    }
+
+    private static float fromSortableBits(int bits) {
+        return Float.intBitsToFloat(bits ^ ((bits >> 31) & 0x7FFFFFFF));
+    }
+}
@@ -0,0 +1,22 @@
+package agents.multitool.search;
+
+import java.util.BitSet;
+
+/**
+ * Top-k cosine search over a fixed set of vectors addressed by ordinal (0..size-1).
+ * Query vectors are expected to be L2-normalized; see {@link VectorMath#normalize(float[])}.
+ */
+public interface VectorIndex {
+
+    int size();
+
+    int dimension();
+
+    SearchHits search(float[] query, int k);
+
+    /**
+     * Top-k among the ordinals set in {@code filter} only, so candidates that a structured filter
+     * would drop never take a slot. A null filter searches every vector.
+     */
+    SearchHits search(float[] query, int k, BitSet filter);
+}
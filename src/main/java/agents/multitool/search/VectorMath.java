@@ -0,0 +1,54 @@
+package agents.multitool.search;
+
+/**
+ * Scalar vector kernels shared by the local search backends.
+ */
+public final class VectorMath {
+
+    private VectorMath() {
+    }
+
+    /**
+     * True if the JVM was started with {@code --add-modules jdk.incubator.vector}. Lives here rather
+     * than on {@link SimdBruteForceIndex} so checking does not load the Vector API classes.
+     */
+    public static boolean vectorApiAvailable() {
+        return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    }
+
+    public static float dot(float[] a, int aOffset, float[] b, int bOffset, int dimension) {
+        float s0 = 0f, s1 = 0f, s2 = 0f, s3 = 0f;
+        int i = 0;
+        int upper = dimension & ~3;
+        for (; i < upper; i += 4) {
+            s0 += a[aOffset + i] * b[bOffset + i];
+            s1 += a[aOffset + i + 1] * b[bOffset + i + 1];
+            s2 += a[aOffset + i + 2] * b[bOffset + i + 2];
+            s3 += a[aOffset + i + 3] * b[bOffset + i + 3];
+        }
+        for (; i < dimension; i++) {
+            s0 += a[aOffset + i] * b[bOffset + i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /** Scales the vector to unit length in place and returns it. Zero vectors are left as-is. */
+    public static float[] normalize(float[] v) {
+        normalize(v, 0, v.length);
+        return v;
+    }
+
+    public static void normalize(float[] v, int offset, int dimension) {
+        double norm = 0;
+        for (int i = 0; i < dimension; i++) {
+            norm += (double) v[offset + i] * v[offset + i];
+        }
+        if (norm == 0) {
+            return;
+        }
+        float inv = (float) (1.0 / Math.sqrt(norm));
+        for (int i = 0; i < dimension; i++) {
+            v[offset + i] *= inv;
+        }
+    }
+}
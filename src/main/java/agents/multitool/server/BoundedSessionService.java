@@ -0,0 +1,496 @@
+package agents.multitool.server;
+
+import agents.multitool.utils.DatacompassConfig;
+import com.google.adk.events.Event;
+import com.google.adk.sessions.BaseSessionService;
+import com.google.adk.sessions.GetSessionConfig;
+import com.google.adk.sessions.ListEventsResponse;
+import com.google.adk.sessions.ListSessionsResponse;
+import com.google.adk.sessions.Session;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Single;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Session service that keeps heap bounded: sessions are held in LRU order and evicted when
+ * there are more than {@code maxSessions}, when their approximate size (the JSON length of their
+ * events) adds up to more than {@code maxBytes}, or when idle for longer than {@code idleTtlMillis}.
+ * With a spill directory, evicted sessions are written there as gzipped JSON and rehydrated by
+ * the next {@link #getSession}; without one they are dropped. Sessions inside
+ * {@link #beginRun}/{@link #endRun} are never evicted, since their runner is still appending.
+ *
+ * <p>Spill files are written to a temp file after the service lock is released, so an eviction
+ * never blocks other sessions on disk I/O. Only the final rename, and deleting a session's spill
+ * file, happen under the lock: a spill file exists exactly while its session is spilled.
+ */
+public class BoundedSessionService implements BaseSessionService {
+
+    private static final String SPILL_SUFFIX = ".json.gz";
+
+    private final int maxSessions;
+    private final long maxBytes;
+    private final long idleTtlMillis;
+    private final Path spillDir;
+
+    // access-ordered, guarded by this
+    private final LinkedHashMap<String, Entry> sessions = new LinkedHashMap<>(16, 0.75f, true);
+    // evicted, with their spill file still being written; guarded by this
+    private final Map<String, Entry> spilling = new HashMap<>();
+    // runs in progress per session key; guarded by this
+    private final Map<String, Integer> running = new HashMap<>();
+    // stamp of each spill file written by this service, so a rehydration can tell its file was
+    // replaced while it was being read; guarded by this
+    private final Map<String, Long> spillStamps = new HashMap<>();
+    private long lastStamp;
+    private long totalBytes;
+    private volatile Consumer<String> dropListener = sessionId -> { };
+
+    private long evictions;
+    private long spills;
+    private long rehydrations;
+
+    public BoundedSessionService(int maxSessions, long maxBytes, long idleTtlMillis, Path spillDir) {
+        this.maxSessions = maxSessions;
+        this.maxBytes = maxBytes;
+        this.idleTtlMillis = idleTtlMillis;
+        this.spillDir = spillDir;
+        if (spillDir != null) {
+            try {
+                Files.createDirectories(spillDir);
+            } catch (IOException e) {
+                throw new RuntimeException("Cannot create session spill directory " + spillDir, e);
+            }
+        }
+    }
+
+    /** Bounds from {@code datacompass.sessions.*}, with a background sweep of idle sessions. */
+    public static BoundedSessionService fromConfig() {
+        String spillPath = DatacompassConfig.get("datacompass.sessions.spillPath", "");
+        BoundedSessionService service = new BoundedSessionService(
+                DatacompassConfig.getInt("datacompass.sessions.maxSessions", 10_000),
+                DatacompassConfig.getLong("datacompass.sessions.maxMegabytes", 256) * 1024 * 1024,
+                TimeUnit.MINUTES.toMillis(DatacompassConfig.getLong("datacompass.sessions.idleTtlMinutes", 60)),
+                spillPath.isEmpty() ? null : Paths.get(spillPath));
+
+        ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "datacompass-session-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(service::evictIdle, 1, 1, TimeUnit.MINUTES);
+        return service;
+    }
+
+    @Override
+    public Single<Session> createSession(String appName, String userId, ConcurrentMap<String, Object> state, String sessionId) {
+        return Single.fromCallable(() -> {
+            String id = sessionId == null || sessionId.isBlank() ? UUID.randomUUID().toString() : sessionId;
+            Session session = Session.builder(id)
+                    .appName(appName)
+                    .userId(userId)
+                    .state(state == null ? new ConcurrentHashMap<>() : state)
+                    .events(new ArrayList<>())
+                    .lastUpdateTime(Instant.now())
+                    .build();
+            List<Map.Entry<String, Entry>> evicted;
+            synchronized (this) {
+                evicted = put(key(appName, userId, id), session, 0);
+            }
+            spill(evicted);
+            return session;
+        });
+    }
+
+    /**
+     * Returns the live session, rehydrating it from the spill directory if it was evicted. The
+     * runner appends to the returned instance, so {@code config} filtering is not applied.
+     */
+    @Override
+    public Maybe<Session> getSession(String appName, String userId, String sessionId, Optional<GetSessionConfig> config) {
+        return Maybe.fromCallable(() -> {
+            String key = key(appName, userId, sessionId);
+            while (true) {
+                List<Map.Entry<String, Entry>> evicted;
+                Session revived;
+                long stamp;
+                synchronized (this) {
+                    Entry entry = sessions.get(key);
+                    if (entry != null) {
+                        entry.lastAccess = System.currentTimeMillis();
+                        return entry.session;
+                    }
+                    Entry pending = spilling.remove(key);
+                    if (pending == null) {
+                        if (spillDir == null || !Files.exists(spillFile(key))) {
+                            return null;
+                        }
+                        evicted = null;
+                        revived = null;
+                        stamp = spillStamps.getOrDefault(key, 0L);
+                    } else {
+                        // still being spilled: take it back; the spill discards its temp file when it finishes
+                        revived = pending.session;
+                        evicted = put(key, revived, pending.bytes);
+                        stamp = 0;
+                    }
+                }
+                if (revived != null) {
+                    spill(evicted);
+                    return revived;
+                }
+                Session rehydrated = rehydrate(key, stamp);
+                if (rehydrated != null) {
+                    return rehydrated;
+                }
+                // the file was taken, deleted or replaced while it was read; look again
+            }
+        });
+    }
+
+    @Override
+    public Single<ListSessionsResponse> listSessions(String appName, String userId) {
+        return Single.fromCallable(() -> {
+            List<Session> result = new ArrayList<>();
+            String prefix = key(appName, userId, "");
+            synchronized (this) {
+                for (Map.Entry<String, Entry> e : sessions.entrySet()) {
+                    if (e.getKey().startsWith(prefix)) {
+                        Session session = e.getValue().session;
+                        result.add(Session.builder(session.id())
+                                .appName(appName)
+                                .userId(userId)
+                                .state(session.state())
+                                .events(new ArrayList<>())
+                                .lastUpdateTime(session.lastUpdateTime())
+                                .build());
+                    }
+                }
+            }
+            if (spillDir != null) {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(spillDir, fileName(prefix) + "*" + SPILL_SUFFIX)) {
+                    for (Path file : files) {
+                        String name = file.getFileName().toString();
+                        String key = URLDecoder.decode(name.substring(0, name.length() - SPILL_SUFFIX.length()), StandardCharsets.UTF_8);
+                        result.add(Session.builder(key.substring(prefix.length()))
+                                .appName(appName)
+                                .userId(userId)
+                                .state(new ConcurrentHashMap<>())
+                                .events(new ArrayList<>())
+                                .build());
+                    }
+                }
+            }
+            return ListSessionsResponse.builder().sessions(result).build();
+        });
+    }
+
+    @Override
+    public Completable deleteSession(String appName, String userId, String sessionId) {
+        return Completable.fromAction(() -> {
+            String key = key(appName, userId, sessionId);
+            synchronized (this) {
+                Entry entry = sessions.remove(key);
+                if (entry != null) {
+                    totalBytes -= entry.bytes;
+                }
+                spilling.remove(key);
+                deleteSpillFile(key);
+            }
+        });
+    }
+
+    @Override
+    public Single<ListEventsResponse> listEvents(String appName, String userId, String sessionId) {
+        return getSession(appName, userId, sessionId, Optional.empty())
+                .map(session -> ListEventsResponse.builder().events(new ArrayList<>(session.events())).build())
+                .defaultIfEmpty(ListEventsResponse.builder().build());
+    }
+
+    /** Partial (streamed) events are not kept by the session, so they are not counted either. */
+    @Override
+    public Single<Event> appendEvent(Session session, Event event) {
+        Single<Event> appended = BaseSessionService.super.appendEvent(session, event);
+        if (event.partial().orElse(false)) {
+            return appended;
+        }
+        return appended.doOnSuccess(kept -> {
+            String key = key(session.appName(), session.userId(), session.id());
+            long bytes = kept.toJson().length();
+            List<Map.Entry<String, Entry>> evicted;
+            synchronized (this) {
+                Entry entry = sessions.get(key);
+                if (entry == null) {
+                    // Evicted while written to outside beginRun/endRun; put it back with everything it has.
+                    spilling.remove(key);
+                    deleteSpillFile(key);
+                    evicted = put(key, session, approximateSize(session));
+                } else {
+                    entry.bytes += bytes;
+                    entry.lastAccess = System.currentTimeMillis();
+                    totalBytes += bytes;
+                    evicted = enforceBounds(key);
+                }
+            }
+            spill(evicted);
+        });
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("sessions", sessions.size());
+        stats.put("approximate_bytes", totalBytes);
+        stats.put("evictions", evictions);
+        stats.put("spills", spills);
+        stats.put("rehydrations", rehydrations);
+        return stats;
+    }
+
+    /**
+     * Called with the id of every session evicted without a spill file, i.e. gone for good, so
+     * callers can drop what they keep per session.
+     */
+    public void onDropped(Consumer<String> listener) {
+        this.dropListener = listener;
+    }
+
+    /** Marks a run of the session as started: it is not evicted until the matching {@link #endRun}. */
+    public synchronized void beginRun(String appName, String userId, String sessionId) {
+        running.merge(key(appName, userId, sessionId), 1, Integer::sum);
+    }
+
+    public void endRun(String appName, String userId, String sessionId) {
+        String key = key(appName, userId, sessionId);
+        List<Map.Entry<String, Entry>> evicted;
+        synchronized (this) {
+            running.computeIfPresent(key, (k, runs) -> runs > 1 ? runs - 1 : null);
+            // bounds may have been exceeded while only running sessions were left to evict
+            evicted = enforceBounds(null);
+        }
+        spill(evicted);
+    }
+
+    /** Evicts sessions idle for longer than the TTL. */
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTtlMillis;
+        List<Map.Entry<String, Entry>> idle = new ArrayList<>();
+        synchronized (this) {
+            Iterator<Map.Entry<String, Entry>> it = sessions.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, Entry> e = it.next();
+                if (e.getValue().lastAccess >= cutoff) {
+                    break; // access order: everything after is more recent
+                }
+                if (running.containsKey(e.getKey())) {
+                    continue;
+                }
+                it.remove();
+                evict(e);
+                idle.add(e);
+            }
+        }
+        spill(idle);
+    }
+
+    /** Adds or replaces a session and returns what had to be evicted for it. Caller holds the lock. */
+    private List<Map.Entry<String, Entry>> put(String key, Session session, long bytes) {
+        Entry previous = sessions.put(key, new Entry(session, bytes));
+        if (previous != null) {
+            totalBytes -= previous.bytes;
+        }
+        totalBytes += bytes;
+        return enforceBounds(key);
+    }
+
+    /**
+     * Evicts least recently used sessions, never {@code keep} or a running one, until within
+     * bounds, and returns them for {@link #spill(List)}. Caller holds the lock.
+     */
+    private List<Map.Entry<String, Entry>> enforceBounds(String keep) {
+        List<Map.Entry<String, Entry>> evicted = new ArrayList<>();
+        Iterator<Map.Entry<String, Entry>> it = sessions.entrySet().iterator();
+        while ((sessions.size() > maxSessions || totalBytes > maxBytes) && it.hasNext()) {
+            Map.Entry<String, Entry> eldest = it.next();
+            if (eldest.getKey().equals(keep) || running.containsKey(eldest.getKey())) {
+                continue;
+            }
+            it.remove();
+            evict(eldest);
+            evicted.add(eldest);
+        }
+        return evicted;
+    }
+
+    // caller holds the lock
+    private void evict(Map.Entry<String, Entry> e) {
+        totalBytes -= e.getValue().bytes;
+        evictions++;
+        if (spillDir != null) {
+            spilling.put(e.getKey(), e.getValue());
+        }
+    }
+
+    /** Writes evicted sessions to the spill directory, or reports them dropped. Caller must not hold the lock. */
+    private void spill(List<Map.Entry<String, Entry>> evicted) {
+        for (Map.Entry<String, Entry> e : evicted) {
+            Session session = e.getValue().session;
+            if (spillDir == null) {
+                dropListener.accept(session.id());
+                continue;
+            }
+            Path temp = writeTemp(session);
+            boolean dropped;
+            synchronized (this) {
+                // not current if it was taken back or deleted while the file was being written
+                boolean current = spilling.remove(e.getKey(), e.getValue());
+                dropped = current && !publish(temp, spillFile(e.getKey()));
+                if (current && !dropped) {
+                    spillStamps.put(e.getKey(), ++lastStamp);
+                    spills++;
+                    temp = null;
+                }
+            }
+            if (temp != null) {
+                deleteQuietly(temp);
+            }
+            if (dropped) {
+                dropListener.accept(session.id());
+            }
+        }
+    }
+
+    // the session as gzipped JSON in a temp file of its own, or null if it could not be written
+    private Path writeTemp(Session session) {
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(spillDir, "session", ".tmp");
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp))) {
+                out.write(session.toJson().getBytes(StandardCharsets.UTF_8));
+            }
+            return temp;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not spill session " + session.id() + ": " + e);
+            if (temp != null) {
+                deleteQuietly(temp);
+            }
+            return null;
+        }
+    }
+
+    // renames a written temp file into place; caller holds the lock
+    private static boolean publish(Path temp, Path file) {
+        if (temp == null) {
+            return false;
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Could not spill session file " + file + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("Could not delete " + file + ": " + e.getMessage());
+        }
+    }
+
+    /** Reads the spill file stamped {@code stamp} back in, or returns null if it changed meanwhile. */
+    private Session rehydrate(String key, long stamp) throws IOException {
+        Path file = spillFile(key);
+        Session session;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            session = Session.fromJson(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        long bytes = approximateSize(session);
+        List<Map.Entry<String, Entry>> evicted;
+        synchronized (this) {
+            Entry live = sessions.get(key);
+            if (live != null) {
+                return live.session; // another caller rehydrated it first
+            }
+            if (spilling.containsKey(key) || spillStamps.getOrDefault(key, 0L) != stamp || !Files.exists(file)) {
+                return null;
+            }
+            deleteSpillFile(key);
+            rehydrations++;
+            evicted = put(key, session, bytes);
+        }
+        spill(evicted);
+        return session;
+    }
+
+    // a session's spill file is deleted under the lock, so it cannot race a later spill of the session
+    private void deleteSpillFile(String key) {
+        if (spillDir != null) {
+            spillStamps.remove(key);
+            deleteQuietly(spillFile(key));
+        }
+    }
+
+    private static long approximateSize(Session session) {
+        long bytes = 0;
+        for (Event event : session.events()) {
+            bytes += event.toJson().length();
+        }
+        return bytes;
+    }
+
+    private Path spillFile(String key) {
+        return spillDir.resolve(fileName(key) + SPILL_SUFFIX);
+    }
+
+    private static String fileName(String key) {
+        return URLEncoder.encode(key, StandardCharsets.UTF_8);
+    }
+
+    private static String key(String appName, String userId, String sessionId) {
+        return appName + '\u0000' + userId + '\u0000' + sessionId;
+    }
+
+    private static final class Entry {
+        final Session session;
+        long bytes;
+        long lastAccess = System.currentTimeMillis();
+
+        Entry(Session session, long bytes) {
+            this.session = session;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package agents.multitool.server;
+
+import agents.multitool.llmAgents.DatacompassAgent;
+import agents.multitool.metrics.Metrics;
+import agents.multitool.streaming.WorkflowStreams;
+import agents.multitool.streaming.WorkflowUpdate;
+import agents.multitool.utils.DatacompassConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.adk.events.Event;
+import com.google.adk.artifacts.InMemoryArtifactService;
+import com.google.adk.runner.Runner;
+import com.google.adk.sessions.Session;
+import com.google.genai.types.Content;
+import com.google.genai.types.Part;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Headless HTTP mode: many concurrent sessions on one {@link Runner}, whose sessions are kept in a
+ * {@link BoundedSessionService} so heap stays flat under sustained traffic.
+ *
+ * <pre>
+ * POST   /sessions                 {"userId": "..."}  -> {"sessionId": "...", "userId": "..."}
+ * POST   /sessions/{id}/run        {"message": "..."} -> text/event-stream of ADK events
+ * POST   /sessions/{id}/run?format=updates             -> text/event-stream of tool results and text deltas
+ * DELETE /sessions/{id}
+ * GET    /health
+ * GET    /metrics                                      -> Prometheus text format
+ * </pre>
+ *
+ * Agent runs execute on RxJava's io scheduler; the request thread only drains events to the
+ * client through a bounded prefetch buffer, so a slow client pauses its own run rather than
+ * buffering it in memory. A session runs one message at a time (409 otherwise), and at most
+ * {@code datacompass.server.maxConcurrentRuns} runs are admitted process-wide (503 otherwise).
+ *
+ * <p>{@link #main} opens the port before the agent graph is built, so a cold start is visible to
+ * the platform as soon as the JVM is up; /health answers 503 until the runner is ready, and
+ * session requests wait for it.
+ */
+public class DatacompassServer {
+
+    static final String APP_NAME = "DatacompassAgent";
+
+    private static final int PORT = DatacompassConfig.getInt("datacompass.server.port", DatacompassConfig.getInt("port", 8080));
+    private static final int MAX_CONCURRENT_RUNS = DatacompassConfig.getInt("datacompass.server.maxConcurrentRuns", 256);
+    private static final long ADMISSION_TIMEOUT_MS = DatacompassConfig.getLong("datacompass.server.admissionTimeoutMs", 2_000);
+    private static final int EVENT_BUFFER = DatacompassConfig.getInt("datacompass.server.eventBuffer", 16);
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final CompletableFuture<Runner> runner;
+    private final Map<String, ServerSession> sessions = new ConcurrentHashMap<>();
+    private final Semaphore admission = new Semaphore(MAX_CONCURRENT_RUNS);
+    private final AtomicInteger activeRuns = new AtomicInteger();
+    private HttpServer server;
+    private ExecutorService requestThreads;
+
+    public DatacompassServer(Runner runner) {
+        this(CompletableFuture.completedFuture(runner));
+    }
+
+    public DatacompassServer(CompletableFuture<Runner> runner) {
+        this.runner = runner;
+        runner.thenAccept(ready -> {
+            if (ready.sessionService() instanceof BoundedSessionService) {
+                ((BoundedSessionService) ready.sessionService()).onDropped(this::forget);
+            }
+        });
+    }
+
+    public static void main(String[] args) throws IOException {
+        CompletableFuture<Runner> runner = CompletableFuture.supplyAsync(DatacompassServer::createRunner);
+        new DatacompassServer(runner).start(PORT);
+        runner.whenComplete((ready, e) -> {
+            if (e != null) {
+                System.err.println("Building the agent failed: " + e.getMessage());
+                e.printStackTrace();
+            } else {
+                System.out.printf("Agent %s ready %d ms after JVM start%n",
+                        ready.agent().name(), ManagementFactory.getRuntimeMXBean().getUptime());
+            }
+        });
+        Metrics.startLogSummary(60);
+    }
+
+    static Runner createRunner() {
+        return new Runner(DatacompassAgent.ROOT_AGENT, APP_NAME,
+                new InMemoryArtifactService(), BoundedSessionService.fromConfig());
+    }
+
+    public void start(int port) throws IOException {
+        AtomicInteger threadNumber = new AtomicInteger();
+        requestThreads = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "datacompass-http-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.setExecutor(requestThreads);
+        server.createContext("/health", this::handleHealth);
+        server.createContext("/metrics", this::handleMetrics);
+        server.createContext("/sessions", this::handleSessions);
+        server.start();
+        System.out.printf("Datacompass server listening on port %d (max %d concurrent runs)%n", port, MAX_CONCURRENT_RUNS);
+    }
+
+    /** The bound port, for {@code start(0)}. */
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    public void stop() {
+        server.stop(1);
+        requestThreads.shutdownNow();
+    }
+
+    private void handleHealth(HttpExchange exchange) throws IOException {
+        if (!runner.isDone() || runner.isCompletedExceptionally()) {
+            sendJson(exchange, 503, Map.of("status", runner.isDone() ? "error" : "starting"));
+            return;
+        }
+        Map<String, Object> health = new HashMap<>();
+        health.put("status", "ok");
+        health.put("sessions", sessions.size());
+        health.put("activeRuns", activeRuns.get());
+        if (runner().sessionService() instanceof BoundedSessionService) {
+            health.put("sessionStore", ((BoundedSessionService) runner().sessionService()).stats());
+        }
+        sendJson(exchange, 200, health);
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        byte[] bytes = Metrics.prometheusText().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private void handleSessions(HttpExchange exchange) throws IOException {
+        try {
+            String[] path = exchange.getRequestURI().getPath().split("/");
+            String method = exchange.getRequestMethod();
+            // path: ["", "sessions"] or ["", "sessions", id] or ["", "sessions", id, "run"]
+            if (path.length == 2 && "POST".equals(method)) {
+                createSession(exchange);
+            } else if (path.length == 3 && "DELETE".equals(method)) {
+                deleteSession(exchange, path[2]);
+            } else if (path.length == 4 && "run".equals(path[3]) && "POST".equals(method)) {
+                run(exchange, path[2]);
+            } else {
+                sendJson(exchange, 404, Map.of("error", "Not found"));
+            }
+        } catch (Exception e) {
+            System.err.println("Request failed: " + e.getMessage());
+            e.printStackTrace();
+            sendJson(exchange, 500, Map.of("error", String.valueOf(e.getMessage())));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void createSession(HttpExchange exchange) throws IOException {
+        JsonNode body = readJson(exchange);
+        String userId = body.path("userId").asText("");
+        if (userId.isEmpty()) {
+            userId = "user_" + UUID.randomUUID();
+        }
+        Session session = runner().sessionService().createSession(APP_NAME, userId).blockingGet();
+        sessions.put(session.id(), new ServerSession(userId));
+        sendJson(exchange, 201, Map.of("sessionId", session.id(), "userId", userId));
+    }
+
+    private void deleteSession(HttpExchange exchange, String sessionId) throws IOException {
+        ServerSession session = sessions.remove(sessionId);
+        if (session == null) {
+            sendJson(exchange, 404, Map.of("error", "Unknown session " + sessionId));
+            return;
+        }
+        runner().sessionService().deleteSession(APP_NAME, session.userId, sessionId).blockingAwait();
+        sendJson(exchange, 200, Map.of("deleted", sessionId));
+    }
+
+    private void run(HttpExchange exchange, String sessionId) throws IOException, InterruptedException {
+        ServerSession session = sessions.get(sessionId);
+        if (session == null) {
+            sendJson(exchange, 404, Map.of("error", "Unknown session " + sessionId));
+            return;
+        }
+        if (runner().sessionService().getSession(APP_NAME, session.userId, sessionId, Optional.empty()).blockingGet() == null) {
+            // Evicted without a spill directory, before the store reported it
+            sessions.remove(sessionId);
+            sendJson(exchange, 404, Map.of("error", "Session " + sessionId + " has expired"));
+            return;
+        }
+        String message = readJson(exchange).path("message").asText("");
+        if (message.isBlank()) {
+            sendJson(exchange, 400, Map.of("error", "Missing \"message\""));
+            return;
+        }
+        if (!session.running.compareAndSet(false, true)) {
+            sendJson(exchange, 409, Map.of("error", "Session " + sessionId + " is already running a message"));
+            return;
+        }
+        try {
+            if (!admission.tryAcquire(ADMISSION_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                exchange.getResponseHeaders().add("Retry-After", "5");
+                sendJson(exchange, 503, Map.of("error", "Server is at capacity, retry later"));
+                return;
+            }
+            activeRuns.incrementAndGet();
+            // the store must not evict a session while its runner is still appending to it
+            BoundedSessionService store = runner().sessionService() instanceof BoundedSessionService
+                    ? (BoundedSessionService) runner().sessionService() : null;
+            if (store != null) {
+                store.beginRun(APP_NAME, session.userId, sessionId);
+            }
+            try {
+                String query = exchange.getRequestURI().getQuery();
+                boolean updates = query != null && query.contains("format=updates");
+                streamRun(exchange, session.userId, sessionId, message, updates);
+            } finally {
+                if (store != null) {
+                    store.endRun(APP_NAME, session.userId, sessionId);
+                }
+                activeRuns.decrementAndGet();
+                admission.release();
+            }
+        } finally {
+            session.running.set(false);
+        }
+    }
+
+    /**
+     * Writes each event as a server-sent event as soon as it arrives; closing the stream cancels the
+     * run. Model output is streamed token by token. With {@code ?format=updates} the client gets
+     * {@link WorkflowUpdate}s (tool_result, text_delta, agent_done) instead of raw ADK events.
+     */
+    private void streamRun(HttpExchange exchange, String userId, String sessionId, String message, boolean updates) throws IOException {
+        Flowable<Event> events = runner().runAsync(userId, sessionId, Content.fromParts(Part.fromText(message)),
+                        WorkflowStreams.streamingRunConfig())
+                .subscribeOn(Schedulers.io());
+        Flowable<String[]> messages = updates
+                ? events.compose(WorkflowStreams::updates).map(DatacompassServer::toMessage)
+                : events.map(event -> new String[] {"event", event.toJson()});
+
+        exchange.getResponseHeaders().add("Content-Type", "text/event-stream; charset=utf-8");
+        exchange.getResponseHeaders().add("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+
+        try (Stream<String[]> stream = messages.blockingStream(EVENT_BUFFER)) {
+            Iterator<String[]> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                String[] next = iterator.next();
+                writeEvent(out, next[0], next[1]);
+            }
+            writeEvent(out, "done", "{}");
+        } catch (IOException e) {
+            // The client went away; leaving the try block cancels the upstream run.
+            System.err.println("Client disconnected from session " + sessionId + ": " + e.getMessage());
+        } catch (RuntimeException e) {
+            writeEvent(out, "error", JSON.writeValueAsString(Map.of("error", String.valueOf(e.getMessage()))));
+        }
+    }
+
+    // a session evicted for good; one that is running is put back by the store when it next writes
+    private void forget(String sessionId) {
+        sessions.computeIfPresent(sessionId, (id, session) -> session.running.get() ? session : null);
+    }
+
+    // waits for the agent graph on a cold start
+    private Runner runner() {
+        return runner.join();
+    }
+
+    private static String[] toMessage(WorkflowUpdate update) throws IOException {
+        Map<String, Object> data = new HashMap<>();
+        data.put("author", update.author());
+        switch (update.type()) {
+            case TOOL_RESULT:
+                data.put("tool", update.toolName());
+                data.put("result", update.toolResult());
+                return new String[] {"tool_result", JSON.writeValueAsString(data)};
+            case TEXT_DELTA:
+                data.put("text", update.text());
+                return new String[] {"text_delta", JSON.writeValueAsString(data)};
+            default:
+                data.put("text", update.text());
+                data.put("streamed", update.streamed());
+                return new String[] {"agent_done", JSON.writeValueAsString(data)};
+        }
+    }
+
+    private static void writeEvent(OutputStream out, String name, String data) throws IOException {
+        out.write(("event: " + name + "\ndata: " + data + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private static JsonNode readJson(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readAllBytes();
+            return body.length == 0 ? JSON.createObjectNode() : JSON.readTree(body);
+        }
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = JSON.writeValueAsBytes(body);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static final class ServerSession {
+        final String userId;
+        final AtomicBoolean running = new AtomicBoolean();
+
+        ServerSession(String userId) {
+            this.userId = userId;
+        }
+    }
+}
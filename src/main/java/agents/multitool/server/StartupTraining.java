@@ -0,0 +1,109 @@
+package agents.multitool.server;
+
+import agents.multitool.utils.CompanyVectorSearch;
+import agents.multitool.utils.DatacompassConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.adk.runner.Runner;
+import com.google.adk.web.AdkWebServer;
+import com.google.cloud.NoCredentials;
+import com.google.cloud.bigquery.BigQueryOptions;
+import com.google.cloud.bigquery.QueryJobConfiguration;
+import com.google.genai.types.Content;
+import com.google.genai.types.Part;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Training run for the AppCDS archive of the runnable jar ({@code mvn -Pappcds package}, or the
+ * Dockerfile). It goes through the startup path of both servers the container can run, without
+ * credentials or network:
+ * <ul>
+ *   <li>builds the agent graph and runner;</li>
+ *   <li>serves a few requests on an ephemeral port;</li>
+ *   <li>starts the Dev UI ({@code AdkWebServer}), which compiles the agents under
+ *       {@value #DEV_UI_SOURCES}, lists them and creates a session;</li>
+ *   <li>creates a BigQuery client;</li>
+ *   <li>encodes a tool response;</li>
+ *   <li>with {@code datacompass.warehouse=local}, calls the similar-company tool once.</li>
+ * </ul>
+ * The classes loaded along the way are what {@code -XX:ArchiveClassesAtExit} dumps when it exits.
+ */
+public final class StartupTraining {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    // the Dev UI's source dir, relative to the working directory as in docker-entrypoint.sh
+    static final String DEV_UI_SOURCES = "src/main/java";
+
+    private StartupTraining() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        long start = System.nanoTime();
+        Runner runner = DatacompassServer.createRunner();
+        DatacompassServer server = new DatacompassServer(runner);
+        server.start(0);
+        try {
+            HttpClient client = HttpClient.newHttpClient();
+            String base = "http://localhost:" + server.port();
+            send(client, HttpRequest.newBuilder(URI.create(base + "/health")).GET());
+            String created = send(client, HttpRequest.newBuilder(URI.create(base + "/sessions"))
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"userId\": \"training\"}")));
+            String sessionId = JSON.readTree(created).path("sessionId").asText();
+            send(client, HttpRequest.newBuilder(URI.create(base + "/sessions/" + sessionId)).DELETE());
+            send(client, HttpRequest.newBuilder(URI.create(base + "/metrics")).GET());
+        } finally {
+            server.stop();
+        }
+
+        trainDevUi();
+
+        BigQueryOptions.newBuilder()
+                .setProjectId("training")
+                .setCredentials(NoCredentials.getInstance())
+                .build()
+                .getService();
+        QueryJobConfiguration.newBuilder("SELECT 1").build();
+
+        Map<String, Object> response = Map.of("status", "success", "companies", List.of());
+        if ("local".equalsIgnoreCase(DatacompassConfig.get("datacompass.warehouse", "bigquery"))) {
+            response = CompanyVectorSearch.getSimilarCompany("Training", "Software", "Seed", "$0-1M");
+        }
+        Content.fromParts(Part.fromFunctionResponse("getSimilarCompany", response)).toJson();
+
+        System.out.printf("Training run finished in %d ms%n", (System.nanoTime() - start) / 1_000_000);
+        // the archive is written on exit; do not let a leftover non-daemon thread hold it up
+        System.exit(0);
+    }
+
+    // the default container mode; its Spring and agent-compiler classes are most of its startup
+    private static void trainDevUi() throws Exception {
+        if (!Files.isDirectory(Paths.get(DEV_UI_SOURCES))) {
+            System.out.println("No " + DEV_UI_SOURCES + " here, the archive will not cover the Dev UI");
+            return;
+        }
+        try (ConfigurableApplicationContext devUi = SpringApplication.run(AdkWebServer.class,
+                "--server.port=0", "--adk.agents.source-dir=" + DEV_UI_SOURCES)) {
+            HttpClient client = HttpClient.newHttpClient();
+            String base = "http://localhost:" + devUi.getEnvironment().getProperty("local.server.port");
+            JsonNode apps = JSON.readTree(send(client, HttpRequest.newBuilder(URI.create(base + "/list-apps")).GET()));
+            if (apps.size() > 0) {
+                send(client, HttpRequest.newBuilder(URI.create(base + "/apps/" + apps.get(0).asText() + "/users/training/sessions"))
+                        .POST(HttpRequest.BodyPublishers.noBody()));
+            }
+        }
+    }
+
+    private static String send(HttpClient client, HttpRequest.Builder request) throws Exception {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString()).body();
+    }
+}
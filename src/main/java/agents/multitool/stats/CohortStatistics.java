@@ -0,0 +1,466 @@
+package agents.multitool.stats;
+
+import agents.multitool.search.CompanyColumns;
+import agents.multitool.search.CompanyFilter;
+import agents.multitool.utils.Company;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Funding and outcome statistics of every company cohort, precomputed over the whole companies
+ * table. A cohort is a (market, stage, region, founded-year bucket) cell, and every combination
+ * with some dimensions left open ("any") is kept as well, so a lookup is one hash probe whatever
+ * the caller leaves unspecified. Cohorts hold counts and {@link QuantileSketch}es rather than rows.
+ *
+ * <p>The table has no stage column; a company's stage is the last round it raised, from the
+ * round_A..round_D amounts and total funding ({@link #STAGES}). Founding years are grouped in
+ * {@value #YEAR_BUCKET}-year buckets.
+ *
+ * <p>Refreshes are incremental: each company's previous contribution is remembered, and an
+ * {@link Update} only touches the cohorts of companies that were added, changed or removed.
+ * Lookups may run concurrently with an update.
+ */
+public final class CohortStatistics {
+
+    public static final String[] STAGES = {"Unfunded", "Seed", "Series A", "Series B", "Series C", "Series D+"};
+    public static final int YEAR_BUCKET = 5;
+
+    private static final String[] STATUSES = {"operating", "acquired", "closed", "unknown"};
+    private static final String[] ROUNDS = {"A", "B", "C", "D"};
+    private static final String[] DIMENSIONS = {"market", "stage", "region", "founded_years"};
+    private static final int MARKET = 0, STAGE = 1, REGION = 2, FOUNDED = 3;
+    // dimensions dropped, in this order, until a cohort is large enough
+    private static final int[] WIDENING_ORDER = {REGION, FOUNDED, STAGE, MARKET};
+
+    // cohort key: market and region dictionary codes, stage and year bucket; all ones means "any"
+    private static final int[] SHIFT = {40, 36, 12, 0};
+    private static final long[] MASK = {0xFFFFFFL, 0xFL, 0xFFFFFFL, 0xFFFL};
+    private static final int FIRST_YEAR = 1800;
+    private static final int UNKNOWN_YEAR = 0xFFE;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Dictionary markets = new Dictionary();
+    private final Dictionary regions = new Dictionary();
+    private final Map<Long, Cohort> cohorts = new HashMap<>();
+    private final Map<String, Member> members = new HashMap<>();
+
+    /** Starts a refresh: pass every current company to {@link Update#add}, then {@link Update#apply}. */
+    public Update update() {
+        return new Update();
+    }
+
+    public int companies() {
+        lock.readLock().lock();
+        try {
+            return members.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int cohorts() {
+        lock.readLock().lock();
+        try {
+            return cohorts.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Statistics of the cohort matching the given dimensions; blank values and non-positive years
+     * mean "any". When the cohort has fewer than {@code minSize} companies, region, founding year,
+     * stage and market are dropped in that order until it is large enough, and the dropped
+     * dimensions are listed under "widened".
+     */
+    public Map<String, Object> lookup(String market, String stage, String region, int foundedYear, int minSize) {
+        List<String> notes = new ArrayList<>();
+        long[] fields = {any(MARKET), any(STAGE), any(REGION), any(FOUNDED)};
+
+        if (CompanyFilter.normalize(market) != null) {
+            int code = markets.find(market);
+            if (code < 0) {
+                notes.add("market '" + market.trim() + "' does not occur in the data, using any market");
+            } else {
+                fields[MARKET] = code;
+            }
+        }
+        if (CompanyFilter.normalize(stage) != null) {
+            int code = stageOf(stage);
+            if (code < 0) {
+                notes.add("stage '" + stage.trim() + "' not recognized, using any stage");
+            } else {
+                fields[STAGE] = code;
+            }
+        }
+        if (CompanyFilter.normalize(region) != null) {
+            int code = regions.find(region);
+            if (code < 0) {
+                notes.add("region '" + region.trim() + "' does not occur in the data, using any region");
+            } else {
+                fields[REGION] = code;
+            }
+        }
+        if (foundedYear > 0) {
+            fields[FOUNDED] = yearBucket(foundedYear);
+        }
+
+        lock.readLock().lock();
+        try {
+            Cohort cohort = cohorts.get(key(fields));
+            List<String> widened = new ArrayList<>();
+            for (int dimension : WIDENING_ORDER) {
+                if (cohort != null && cohort.count >= minSize) {
+                    break;
+                }
+                if (fields[dimension] == any(dimension)) {
+                    continue;
+                }
+                fields[dimension] = any(dimension);
+                widened.add(DIMENSIONS[dimension]);
+                cohort = cohorts.get(key(fields));
+            }
+            return describe(fields, cohort, widened, notes);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Index into {@link #STAGES} for free-text stages such as "series b" or "Pre-Seed", or -1. */
+    public static int stageOf(String stage) {
+        String s = CompanyFilter.normalize(stage);
+        if (s == null) {
+            return -1;
+        }
+        if (s.contains("seed") || s.contains("angel")) {
+            return 1;
+        }
+        if (s.contains("unfunded") || s.contains("bootstrap")) {
+            return 0;
+        }
+        if (s.contains("growth") || s.contains("late") || s.contains("pre-ipo")) {
+            return 5;
+        }
+        String letter = s.startsWith("series ") ? s.substring(7).trim() : s;
+        if (letter.length() == 1 && letter.charAt(0) >= 'a' && letter.charAt(0) <= 'z') {
+            return Math.min(5, 2 + letter.charAt(0) - 'a');
+        }
+        return -1;
+    }
+
+    private Map<String, Object> describe(long[] fields, Cohort cohort, List<String> widened, List<String> notes) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        Map<String, Object> dimensions = new LinkedHashMap<>();
+        dimensions.put("market", fields[MARKET] == any(MARKET) ? "any" : markets.label((int) fields[MARKET]));
+        dimensions.put("stage", fields[STAGE] == any(STAGE) ? "any" : STAGES[(int) fields[STAGE]]);
+        dimensions.put("region", fields[REGION] == any(REGION) ? "any" : regions.label((int) fields[REGION]));
+        dimensions.put("founded_years", fields[FOUNDED] == any(FOUNDED) ? "any" : yearLabel((int) fields[FOUNDED]));
+        result.put("cohort", dimensions);
+        if (!widened.isEmpty()) {
+            result.put("widened", widened);
+        }
+        if (!notes.isEmpty()) {
+            result.put("notes", notes);
+        }
+        if (cohort == null || cohort.count == 0) {
+            result.put("companies", 0);
+            return result;
+        }
+
+        result.put("companies", cohort.count);
+        Map<String, Object> funding = quantiles(cohort.funding);
+        funding.put("companies_with_funding", cohort.funding.count());
+        result.put("funding_total_usd", funding);
+        if (cohort.roundsCount > 0) {
+            result.put("mean_funding_rounds", round(cohort.roundsSum / (double) cohort.roundsCount, 2));
+        }
+
+        Map<String, Object> rounds = new LinkedHashMap<>();
+        for (int r = 0; r < ROUNDS.length; r++) {
+            QuantileSketch sketch = cohort.rounds[r];
+            Map<String, Object> round = sketch == null ? new LinkedHashMap<>() : quantiles(sketch);
+            round.put("share_raised", round((sketch == null ? 0 : sketch.count()) / (double) cohort.count, 3));
+            rounds.put("round_" + ROUNDS[r], round);
+        }
+        result.put("rounds_usd", rounds);
+
+        Map<String, Object> status = new LinkedHashMap<>();
+        for (int s = 0; s < STATUSES.length; s++) {
+            status.put(STATUSES[s], round(cohort.status[s] / (double) cohort.count, 3));
+        }
+        result.put("status_share", status);
+        int known = cohort.count - cohort.status[3];
+        if (known > 0) {
+            // acquisitions count as survival: the company did not shut down
+            result.put("survival_rate", round((cohort.status[0] + cohort.status[1]) / (double) known, 3));
+        }
+        return result;
+    }
+
+    private static Map<String, Object> quantiles(QuantileSketch sketch) {
+        Map<String, Object> q = new LinkedHashMap<>();
+        if (sketch.count() == 0) {
+            return q;
+        }
+        q.put("p10", Math.round(sketch.quantile(0.10)));
+        q.put("p25", Math.round(sketch.quantile(0.25)));
+        q.put("median", Math.round(sketch.quantile(0.50)));
+        q.put("p75", Math.round(sketch.quantile(0.75)));
+        q.put("p90", Math.round(sketch.quantile(0.90)));
+        q.put("mean", Math.round(sketch.mean()));
+        return q;
+    }
+
+    private static double round(double value, int decimals) {
+        double scale = Math.pow(10, decimals);
+        return Math.round(value * scale) / scale;
+    }
+
+    private static long any(int dimension) {
+        return MASK[dimension];
+    }
+
+    private static long key(long[] fields) {
+        long key = 0;
+        for (int d = 0; d < fields.length; d++) {
+            key |= (fields[d] & MASK[d]) << SHIFT[d];
+        }
+        return key;
+    }
+
+    private static int yearBucket(int year) {
+        return year < FIRST_YEAR ? UNKNOWN_YEAR : Math.min(UNKNOWN_YEAR - 1, (year - FIRST_YEAR) / YEAR_BUCKET);
+    }
+
+    private static String yearLabel(int bucket) {
+        if (bucket == UNKNOWN_YEAR) {
+            return "unknown";
+        }
+        int from = FIRST_YEAR + bucket * YEAR_BUCKET;
+        return from + "-" + (from + YEAR_BUCKET - 1);
+    }
+
+    // applies a member to its cohort and to every roll-up of it (16 keys), under the write lock
+    private void apply(Member member, int sign) {
+        long[] fields = {member.market, member.stage, member.region, member.yearBucket};
+        long[] rolled = new long[fields.length];
+        for (int mask = 0; mask < 1 << fields.length; mask++) {
+            for (int d = 0; d < fields.length; d++) {
+                rolled[d] = (mask & (1 << d)) != 0 ? any(d) : fields[d];
+            }
+            long key = key(rolled);
+            if (sign > 0) {
+                cohorts.computeIfAbsent(key, k -> new Cohort()).add(member);
+            } else {
+                Cohort cohort = cohorts.get(key);
+                if (cohort != null && cohort.remove(member) == 0) {
+                    cohorts.remove(key);
+                }
+            }
+        }
+    }
+
+    public final class Update {
+        private final Map<String, Member> seen = new HashMap<>();
+
+        private Update() {
+        }
+
+        /** One company, values in {@link CompanyColumns} order. */
+        public void add(String[] values) {
+            String id = values[CompanyColumns.COMPANY_ID] != null ? values[CompanyColumns.COMPANY_ID] : values[CompanyColumns.NAME];
+            if (id != null) {
+                seen.put(id, Member.of(values, markets, regions));
+            }
+        }
+
+        /**
+         * Makes the statistics reflect exactly the companies passed to {@link #add}: new and changed
+         * companies are applied, companies not passed are removed. Returns how many changed.
+         */
+        public int apply() {
+            int changed = 0;
+            lock.writeLock().lock();
+            try {
+                for (Map.Entry<String, Member> e : seen.entrySet()) {
+                    Member previous = members.get(e.getKey());
+                    if (e.getValue().equals(previous)) {
+                        continue;
+                    }
+                    if (previous != null) {
+                        CohortStatistics.this.apply(previous, -1);
+                    }
+                    CohortStatistics.this.apply(e.getValue(), 1);
+                    members.put(e.getKey(), e.getValue());
+                    changed++;
+                }
+                for (Iterator<Map.Entry<String, Member>> it = members.entrySet().iterator(); it.hasNext(); ) {
+                    Map.Entry<String, Member> e = it.next();
+                    if (!seen.containsKey(e.getKey())) {
+                        CohortStatistics.this.apply(e.getValue(), -1);
+                        it.remove();
+                        changed++;
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return changed;
+        }
+    }
+
+    /** What one company contributes to its cohorts. */
+    private static final class Member {
+        final int market;
+        final int stage;
+        final int region;
+        final int yearBucket;
+        final int status;
+        final double funding;
+        final int fundingRounds;
+        final double[] rounds;
+
+        private Member(int market, int stage, int region, int yearBucket, int status, double funding,
+                       int fundingRounds, double[] rounds) {
+            this.market = market;
+            this.stage = stage;
+            this.region = region;
+            this.yearBucket = yearBucket;
+            this.status = status;
+            this.funding = funding;
+            this.fundingRounds = fundingRounds;
+            this.rounds = rounds;
+        }
+
+        static Member of(String[] values, Dictionary markets, Dictionary regions) {
+            double[] rounds = new double[ROUNDS.length];
+            int stage = 0;
+            for (int r = 0; r < rounds.length; r++) {
+                double amount = Company.parseAmount(values[CompanyColumns.ROUND_A + r]);
+                rounds[r] = amount > 0 ? amount : Double.NaN;
+                if (amount > 0) {
+                    stage = 2 + r;
+                }
+            }
+            double funding = Company.parseAmount(values[CompanyColumns.FUNDING_TOTAL_USD]);
+            if (stage == 0 && funding > 0) {
+                stage = 1;
+            }
+            long fundingRounds = Company.parseWhole(values[CompanyColumns.FUNDING_ROUNDS]);
+            long year = Company.parseWhole(values[CompanyColumns.FOUNDED_YEAR]);
+
+            int status = 3;
+            String s = CompanyFilter.normalize(values[CompanyColumns.STATUS]);
+            for (int i = 0; i < 3; i++) {
+                if (STATUSES[i].equals(s)) {
+                    status = i;
+                }
+            }
+            return new Member(markets.code(values[CompanyColumns.MARKET]), stage, regions.code(values[CompanyColumns.REGION]),
+                    year == Company.UNKNOWN ? UNKNOWN_YEAR : yearBucket((int) year), status, funding,
+                    (int) fundingRounds, rounds);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Member)) {
+                return false;
+            }
+            Member m = (Member) o;
+            return market == m.market && stage == m.stage && region == m.region && yearBucket == m.yearBucket
+                    && status == m.status && Double.compare(funding, m.funding) == 0
+                    && fundingRounds == m.fundingRounds && Arrays.equals(rounds, m.rounds);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(market, stage, region, yearBucket, status, funding, fundingRounds);
+        }
+    }
+
+    private static final class Cohort {
+        int count;
+        final int[] status = new int[STATUSES.length];
+        final QuantileSketch funding = new QuantileSketch();
+        long roundsSum;
+        int roundsCount;
+        // allocated on the first company that raised the round; most small cohorts have none
+        final QuantileSketch[] rounds = new QuantileSketch[ROUNDS.length];
+
+        void add(Member m) {
+            count++;
+            status[m.status]++;
+            funding.add(m.funding);
+            if (m.fundingRounds >= 0) {
+                roundsSum += m.fundingRounds;
+                roundsCount++;
+            }
+            for (int r = 0; r < rounds.length; r++) {
+                if (!Double.isNaN(m.rounds[r])) {
+                    if (rounds[r] == null) {
+                        rounds[r] = new QuantileSketch();
+                    }
+                    rounds[r].add(m.rounds[r]);
+                }
+            }
+        }
+
+        int remove(Member m) {
+            count--;
+            status[m.status]--;
+            funding.remove(m.funding);
+            if (m.fundingRounds >= 0) {
+                roundsSum -= m.fundingRounds;
+                roundsCount--;
+            }
+            for (int r = 0; r < rounds.length; r++) {
+                if (!Double.isNaN(m.rounds[r]) && rounds[r] != null) {
+                    rounds[r].remove(m.rounds[r]);
+                }
+            }
+            return count;
+        }
+    }
+
+    /** Normalized value to a stable code; code 0 is "missing". Codes are never reused. */
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+        private final List<String> labels = new ArrayList<>(List.of("unknown"));
+
+        int code(String value) {
+            String key = CompanyFilter.normalize(value);
+            if (key == null) {
+                return 0;
+            }
+            Integer code = codes.get(key);
+            if (code != null) {
+                return code;
+            }
+            synchronized (this) {
+                return codes.computeIfAbsent(key, k -> {
+                    labels.add(value.trim());
+                    return labels.size() - 1;
+                });
+            }
+        }
+
+        int find(String value) {
+            String key = CompanyFilter.normalize(value);
+            Integer code = key == null ? null : codes.get(key);
+            return code == null ? -1 : code;
+        }
+
+        synchronized String label(int code) {
+            return labels.get(code);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package agents.multitool.stats;
+
+import java.util.Arrays;
+
+/**
+ * Relative-error quantile sketch for positive amounts such as funding in USD: values are counted in
+ * logarithmic buckets {@code (gamma^(i-1), gamma^i]}, so any quantile is reported within
+ * {@link #RELATIVE_ACCURACY} of a true sample value whatever the range (DDSketch). Unlike sampling
+ * sketches it is exact under merging and supports removal, which is what lets cohorts be updated
+ * in place when a company changes. Buckets are stored sparsely, so a cohort of three companies
+ * costs three entries. Values {@code <= 0} are counted as zero. Not thread-safe.
+ */
+public final class QuantileSketch {
+
+    public static final double RELATIVE_ACCURACY = 0.01;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    private int[] keys = new int[2];
+    private int[] counts = new int[2];
+    private int buckets;
+    private long zeroCount;
+    private long count;
+    private double sum;
+
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        count++;
+        sum += value;
+        if (value <= 0) {
+            zeroCount++;
+            return;
+        }
+        int key = key(value);
+        int i = Arrays.binarySearch(keys, 0, buckets, key);
+        if (i >= 0) {
+            counts[i]++;
+            return;
+        }
+        i = -i - 1;
+        if (buckets == keys.length) {
+            keys = Arrays.copyOf(keys, buckets * 2);
+            counts = Arrays.copyOf(counts, buckets * 2);
+        }
+        System.arraycopy(keys, i, keys, i + 1, buckets - i);
+        System.arraycopy(counts, i, counts, i + 1, buckets - i);
+        keys[i] = key;
+        counts[i] = 1;
+        buckets++;
+    }
+
+    /** Removes one earlier {@link #add} of {@code value}; values never added are ignored. */
+    public void remove(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (value <= 0) {
+            if (zeroCount > 0) {
+                zeroCount--;
+                count--;
+                sum -= value;
+            }
+            return;
+        }
+        int i = Arrays.binarySearch(keys, 0, buckets, key(value));
+        if (i < 0) {
+            return;
+        }
+        count--;
+        sum -= value;
+        if (--counts[i] == 0) {
+            System.arraycopy(keys, i + 1, keys, i, buckets - i - 1);
+            System.arraycopy(counts, i + 1, counts, i, buckets - i - 1);
+            buckets--;
+        }
+    }
+
+    public void merge(QuantileSketch other) {
+        int[] mergedKeys = new int[buckets + other.buckets];
+        int[] mergedCounts = new int[mergedKeys.length];
+        int i = 0, j = 0, n = 0;
+        while (i < buckets || j < other.buckets) {
+            if (j == other.buckets || (i < buckets && keys[i] < other.keys[j])) {
+                mergedKeys[n] = keys[i];
+                mergedCounts[n++] = counts[i++];
+            } else if (i == buckets || other.keys[j] < keys[i]) {
+                mergedKeys[n] = other.keys[j];
+                mergedCounts[n++] = other.counts[j++];
+            } else {
+                mergedKeys[n] = keys[i];
+                mergedCounts[n++] = counts[i++] + other.counts[j++];
+            }
+        }
+        keys = n == 0 ? new int[2] : mergedKeys;
+        counts = n == 0 ? new int[2] : mergedCounts;
+        buckets = n;
+        zeroCount += other.zeroCount;
+        count += other.count;
+        sum += other.sum;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public double mean() {
+        return count == 0 ? Double.NaN : sum / count;
+    }
+
+    /** The value at {@code quantile} (0 to 1) of everything added, NaN when empty. */
+    public double quantile(double quantile) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) Math.floor(Math.max(0, Math.min(1, quantile)) * (count - 1));
+        if (rank < zeroCount) {
+            return 0;
+        }
+        long seen = zeroCount;
+        for (int i = 0; i < buckets; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                return value(keys[i]);
+            }
+        }
+        return value(keys[buckets - 1]);
+    }
+
+    private static int key(double value) {
+        return (int) Math.ceil(Math.log(value) / LOG_GAMMA);
+    }
+
+    // midpoint of the bucket in relative terms, so the error is at most RELATIVE_ACCURACY either way
+    private static double value(int key) {
+        return 2 * Math.pow(GAMMA, key) / (GAMMA + 1);
+    }
+}
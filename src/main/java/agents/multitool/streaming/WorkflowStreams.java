@@ -0,0 +1,147 @@
+package agents.multitool.streaming;
+
+import com.google.adk.agents.RunConfig;
+import com.google.adk.events.Event;
+import com.google.genai.types.FunctionResponse;
+import com.google.genai.types.Part;
+import io.reactivex.rxjava3.core.Flowable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Turns the raw {@link Event} stream of a run into {@link WorkflowUpdate}s, for the CLI and for
+ * any other caller that wants to show results while the workflow is still running.
+ *
+ * <pre>
+ * runner.runAsync(userId, sessionId, message, WorkflowStreams.streamingRunConfig())
+ *     .compose(WorkflowStreams::updates)
+ * </pre>
+ */
+public final class WorkflowStreams {
+
+    private static final String[] TABLE_COLUMNS = {"name", "similarity_score", "market", "funding_total_usd", "founded_year", "status"};
+    // compact column -> the TABLE_COLUMNS entry it fills
+    private static final Map<String, String> COMPACT_COLUMNS = Map.of(
+            "name", "name", "similarity", "similarity_score", "market", "market",
+            "funding_usd_m", "funding_total_usd", "founded", "founded_year", "status", "status");
+
+    private WorkflowStreams() {
+    }
+
+    /** Asks the model for token-level partial events instead of one event per response. */
+    public static RunConfig streamingRunConfig() {
+        return RunConfig.builder().setStreamingMode(RunConfig.StreamingMode.SSE).build();
+    }
+
+    public static Flowable<WorkflowUpdate> updates(Flowable<Event> events) {
+        return Flowable.defer(() -> {
+            // authors whose current response has already gone out as partial text
+            Set<String> streaming = new HashSet<>();
+            return events.concatMapIterable(event -> toUpdates(event, streaming));
+        });
+    }
+
+    private static List<WorkflowUpdate> toUpdates(Event event, Set<String> streaming) {
+        List<WorkflowUpdate> updates = new ArrayList<>(1);
+        String author = event.author();
+
+        for (FunctionResponse response : event.functionResponses()) {
+            updates.add(WorkflowUpdate.toolResult(author, response.name().orElse(""), response.response().orElse(Map.of())));
+        }
+
+        String text = text(event);
+        if (event.partial().orElse(false)) {
+            if (!text.isEmpty()) {
+                streaming.add(author);
+                updates.add(WorkflowUpdate.textDelta(author, text));
+            }
+            return updates;
+        }
+
+        // A non-partial event repeats the whole response that was streamed before it
+        boolean streamed = streaming.remove(author);
+        if (event.finalResponse()) {
+            updates.add(WorkflowUpdate.agentDone(author, text, streamed));
+        } else if (!text.isEmpty() && !streamed) {
+            updates.add(WorkflowUpdate.textDelta(author, text));
+        }
+        return updates;
+    }
+
+    private static String text(Event event) {
+        StringBuilder text = new StringBuilder();
+        event.content().flatMap(content -> content.parts()).ifPresent(parts -> {
+            for (Part part : parts) {
+                if (!part.thought().orElse(false)) {
+                    part.text().ifPresent(text::append);
+                }
+            }
+        });
+        return text.toString();
+    }
+
+    /**
+     * Plain-text table of the "companies" in a vector search tool result, or "" if there is none.
+     * Reads both response formats: a list of maps, or a compact {@code {columns, rows}} table.
+     */
+    @SuppressWarnings("unchecked")
+    public static String formatCompanyTable(Map<String, Object> toolResult) {
+        Object value = toolResult.get("companies");
+        List<Map<String, Object>> companies = value instanceof Map
+                ? fromCompact((Map<String, Object>) value)
+                : value instanceof List ? (List<Map<String, Object>>) value : List.of();
+        if (companies.isEmpty()) {
+            return "";
+        }
+        StringBuilder table = new StringBuilder();
+        table.append(String.format("%-32s %6s %-24s %16s %7s %-10s%n", "Company", "Score", "Market", "Funding (USD)", "Founded", "Status"));
+        for (Map<String, Object> company : companies) {
+            Object[] values = new Object[TABLE_COLUMNS.length];
+            for (int i = 0; i < values.length; i++) {
+                Object cell = company.get(TABLE_COLUMNS[i]);
+                values[i] = cell == null ? "-" : cell;
+            }
+            table.append(String.format("%-32.32s %6.3f %-24.24s %16s %7s %-10.10s%n",
+                    values[0], toDouble(values[1]), values[2], formatAmount(values[3]), values[4], values[5]));
+        }
+        return table.toString();
+    }
+
+    // compact rows as maps with the verbose keys of TABLE_COLUMNS; amounts back in USD
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> fromCompact(Map<String, Object> compact) {
+        Object columns = compact.get("columns");
+        Object rows = compact.get("rows");
+        if (!(columns instanceof List) || !(rows instanceof List)) {
+            return List.of();
+        }
+        List<Map<String, Object>> companies = new ArrayList<>();
+        for (Object row : (List<?>) rows) {
+            List<Object> cells = (List<Object>) row;
+            Map<String, Object> company = new HashMap<>();
+            for (int c = 0; c < cells.size() && c < ((List<?>) columns).size(); c++) {
+                String column = COMPACT_COLUMNS.get(String.valueOf(((List<?>) columns).get(c)));
+                Object cell = cells.get(c);
+                if (column != null) {
+                    company.put(column, column.equals("funding_total_usd") && cell instanceof Number
+                            ? ((Number) cell).doubleValue() * 1e6 : cell);
+                }
+            }
+            companies.add(company);
+        }
+        return companies;
+    }
+
+    private static double toDouble(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+    }
+
+    private static String formatAmount(Object value) {
+        return value instanceof Number ? String.format("%,.0f", ((Number) value).doubleValue()) : String.valueOf(value);
+    }
+}
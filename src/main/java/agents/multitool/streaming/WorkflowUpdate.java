@@ -0,0 +1,72 @@
+package agents.multitool.streaming;
+
+import java.util.Map;
+
+/**
+ * One step of a workflow run as a caller would display it: a tool result as soon as the tool
+ * returns, a piece of agent text as soon as the model produces it, or the end of an agent's turn.
+ */
+public final class WorkflowUpdate {
+
+    public enum Type {
+        /** A tool returned; {@link #toolName()} and {@link #toolResult()} are set. */
+        TOOL_RESULT,
+        /** New text from {@link #author()}, to be appended to what was shown before. */
+        TEXT_DELTA,
+        /** {@link #author()} gave its final response; {@link #text()} is the whole response. */
+        AGENT_DONE
+    }
+
+    private final Type type;
+    private final String author;
+    private final String text;
+    private final String toolName;
+    private final Map<String, Object> toolResult;
+    private final boolean streamed;
+
+    private WorkflowUpdate(Type type, String author, String text, String toolName, Map<String, Object> toolResult, boolean streamed) {
+        this.type = type;
+        this.author = author;
+        this.text = text;
+        this.toolName = toolName;
+        this.toolResult = toolResult;
+        this.streamed = streamed;
+    }
+
+    static WorkflowUpdate toolResult(String author, String toolName, Map<String, Object> result) {
+        return new WorkflowUpdate(Type.TOOL_RESULT, author, null, toolName, result, false);
+    }
+
+    static WorkflowUpdate textDelta(String author, String text) {
+        return new WorkflowUpdate(Type.TEXT_DELTA, author, text, null, null, false);
+    }
+
+    static WorkflowUpdate agentDone(String author, String text, boolean streamed) {
+        return new WorkflowUpdate(Type.AGENT_DONE, author, text, null, null, streamed);
+    }
+
+    public Type type() {
+        return type;
+    }
+
+    public String author() {
+        return author;
+    }
+
+    public String text() {
+        return text;
+    }
+
+    public String toolName() {
+        return toolName;
+    }
+
+    public Map<String, Object> toolResult() {
+        return toolResult;
+    }
+
+    /** For {@link Type#AGENT_DONE}: whether the text already went out as {@link Type#TEXT_DELTA}s. */
+    public boolean streamed() {
+        return streamed;
+    }
+}
@@ -0,0 +1,79 @@
+package agents.multitool.utils;
+
+import com.google.api.client.http.apache.v2.ApacheHttpTransport;
+import com.google.api.gax.retrying.RetrySettings;
+import com.google.cloud.http.HttpTransportOptions;
+import com.google.cloud.bigquery.BigQuery;
+import com.google.cloud.bigquery.BigQueryOptions;
+import com.google.cloud.bigquery.QueryJobConfiguration.JobCreationMode;
+
+import org.apache.http.client.HttpClient;
+
+import java.time.Duration;
+
+/**
+ * Process-wide BigQuery client. Built on first use and shared by every tool call, so credential
+ * resolution and transport setup happen once. {@link BigQuery} instances are thread-safe.
+ */
+public final class BigQueryClientProvider {
+
+    private static final int CONNECT_TIMEOUT_MS = DatacompassConfig.getInt("datacompass.bigquery.connectTimeoutMs", 10_000);
+    private static final int READ_TIMEOUT_MS = DatacompassConfig.getInt("datacompass.bigquery.readTimeoutMs", 60_000);
+    private static final int MAX_CONNECTIONS = DatacompassConfig.getInt("datacompass.bigquery.maxConnections", 64);
+    // Lets BigQuery.query() answer small queries inline without creating and polling a job
+    private static final boolean SHORT_QUERY = DatacompassConfig.getBoolean("datacompass.bigquery.shortQuery", true);
+
+    private BigQueryClientProvider() {
+    }
+
+    public static BigQuery get() {
+        return Holder.CLIENT;
+    }
+
+    /** Builds a client the way every call used to, bypassing the shared instance. */
+    static BigQuery createUnshared() {
+        return BigQueryOptions.newBuilder()
+                .setProjectId(CompanyVectorSearch.PROJECT_ID)
+                .build()
+                .getService();
+    }
+
+    private static BigQuery create() {
+        // The client's own connection pool, sized so concurrent sessions reuse TLS connections to
+        // the BigQuery host rather than HttpURLConnection's process-wide keep-alive cache of 5.
+        HttpClient httpClient = ApacheHttpTransport.newDefaultHttpClientBuilder()
+                .setMaxConnTotal(MAX_CONNECTIONS)
+                .setMaxConnPerRoute(MAX_CONNECTIONS)
+                .build();
+        ApacheHttpTransport transport = new ApacheHttpTransport(httpClient);
+
+        HttpTransportOptions transportOptions = HttpTransportOptions.newBuilder()
+                .setHttpTransportFactory(() -> transport)
+                .setConnectTimeout(CONNECT_TIMEOUT_MS)
+                .setReadTimeout(READ_TIMEOUT_MS)
+                .build();
+
+        RetrySettings retrySettings = RetrySettings.newBuilder()
+                .setMaxAttempts(4)
+                .setInitialRetryDelayDuration(Duration.ofMillis(250))
+                .setRetryDelayMultiplier(2.0)
+                .setMaxRetryDelayDuration(Duration.ofSeconds(4))
+                .setTotalTimeoutDuration(Duration.ofMillis(READ_TIMEOUT_MS))
+                .build();
+
+        long start = System.nanoTime();
+        BigQuery client = BigQueryOptions.newBuilder()
+                .setProjectId(CompanyVectorSearch.PROJECT_ID)
+                .setTransportOptions(transportOptions)
+                .setRetrySettings(retrySettings)
+                .setDefaultJobCreationMode(SHORT_QUERY ? JobCreationMode.JOB_CREATION_OPTIONAL : JobCreationMode.JOB_CREATION_REQUIRED)
+                .build()
+                .getService();
+        System.out.printf("BigQuery client initialized in %d ms%n", (System.nanoTime() - start) / 1_000_000);
+        return client;
+    }
+
+    private static final class Holder {
+        static final BigQuery CLIENT = create();
+    }
+}
@@ -0,0 +1,55 @@
+package agents.multitool.utils;
+
+import agents.multitool.search.CompanyColumns;
+import agents.multitool.warehouse.CompanySource;
+import com.google.cloud.bigquery.BigQuery;
+import com.google.cloud.bigquery.FieldValueList;
+import com.google.cloud.bigquery.Table;
+import com.google.cloud.bigquery.TableId;
+
+import java.io.IOException;
+
+/** companies_embeddings_ml joined with companies, as embedded by {@link generateEmbedding}. */
+class BigQueryCompanySource implements CompanySource {
+
+    private final BigQuery bigquery;
+
+    BigQueryCompanySource(BigQuery bigquery) {
+        this.bigquery = bigquery;
+    }
+
+    @Override
+    public int dimension() {
+        return CompanyVectorSearch.EMBEDDING_DIMENSION;
+    }
+
+    // generateEmbedding merges into the embeddings table, which bumps its last-modified time; forEachRow
+    // also reads companies that are not embedded yet, so edits to the companies table count too
+    @Override
+    public long version() {
+        return Math.max(lastModified(CompanyVectorSearch.EMBEDDING_TABLE), lastModified(CompanyVectorSearch.COMPANIES_TABLE));
+    }
+
+    private long lastModified(String tableName) {
+        Table table = bigquery.getTable(TableId.of(CompanyVectorSearch.PROJECT_ID, CompanyVectorSearch.DATASET_ID, tableName));
+        return table == null || table.getLastModifiedTime() == null ? 0 : table.getLastModifiedTime();
+    }
+
+    @Override
+    public void forEach(CompanyConsumer consumer) throws IOException, InterruptedException {
+        String[] values = new String[CompanyColumns.COUNT];
+        for (FieldValueList row : generateEmbedding.queryCompanyEmbeddings(bigquery).iterateAll()) {
+            generateEmbedding.readCompanyRow(row, values);
+            consumer.accept(values, CompanyVectorSearch.toFloatArray(row.get("embedding").getRepeatedValue()));
+        }
+    }
+
+    @Override
+    public void forEachRow(CompanyConsumer consumer) throws IOException, InterruptedException {
+        String[] values = new String[CompanyColumns.COUNT];
+        for (FieldValueList row : generateEmbedding.queryCompanies(bigquery).iterateAll()) {
+            generateEmbedding.readCompanyRow(row, values);
+            consumer.accept(values, null);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package agents.multitool.utils;
+
+import agents.multitool.bigquery.QueryExecutor;
+import agents.multitool.bigquery.ResultRows;
+import agents.multitool.warehouse.EmbeddingModel;
+import com.google.cloud.bigquery.QueryParameterValue;
+import com.google.cloud.bigquery.StandardSQLTypeName;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The Vertex AI text embedding model behind ML.GENERATE_EMBEDDING, with the settings used for
+ * companies_embeddings_ml. {@link #embedAll} embeds every input in one query.
+ */
+class BigQueryEmbeddingModel implements EmbeddingModel {
+
+    private final Function<String, QueryExecutor> executors;
+    private final String executor;
+    private final String batchExecutor;
+
+    BigQueryEmbeddingModel(Function<String, QueryExecutor> executors, String executor, String batchExecutor) {
+        this.executors = executors;
+        this.executor = executor;
+        this.batchExecutor = batchExecutor;
+    }
+
+    @Override
+    public int dimension() {
+        return CompanyVectorSearch.EMBEDDING_DIMENSION;
+    }
+
+    @Override
+    public String name() {
+        return "bigquery:" + CompanyVectorSearch.PROJECT_ID + "." + CompanyVectorSearch.DATASET_ID + "." + CompanyVectorSearch.MODEL_NAME;
+    }
+
+    @Override
+    public float[] embed(String content) throws InterruptedException {
+        try (ResultRows rows = executors.apply(executor).query(VectorSearchQuery.EMBED_CONTENT,
+                Map.of("content", QueryParameterValue.string(content)))) {
+            if (rows.next()) {
+                return rows.getFloatArray("embedding");
+            }
+        }
+        throw new RuntimeException("Embedding generation returned no rows.");
+    }
+
+    @Override
+    public float[][] embedAll(String[] contents) throws InterruptedException {
+        float[][] embeddings = new float[contents.length][];
+        try (ResultRows rows = executors.apply(batchExecutor).query(
+                VectorSearchQuery.BATCH_EMBED_CONTENT,
+                Map.of("contents", QueryParameterValue.array(contents, StandardSQLTypeName.STRING)))) {
+            int inputId = rows.columnIndex("input_id");
+            int embedding = rows.columnIndex("embedding");
+            while (rows.next()) {
+                embeddings[(int) rows.getLong(inputId)] = rows.getFloatArray(embedding);
+            }
+        }
+        for (int i = 0; i < embeddings.length; i++) {
+            if (embeddings[i] == null) {
+                throw new RuntimeException("Embedding generation returned no row for input " + i + ".");
+            }
+        }
+        return embeddings;
+    }
+}
@@ -1,4 +1,153 @@
 package agents.multitool.utils;
 
-public record Company(String name, String homepageURL, String categoryList, String market, String fundingTotal, String region, String countryCode, String similarityScore ) {
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * One similar-company result. Missing amounts are {@code NaN}, missing counts and years are {@link #UNKNOWN}.
+ */
+public record Company(String companyId, String name, String content, String homepageURL, String categoryList,
+                      String market, String status, String region, String countryCode,
+                      double fundingTotalUsd, long fundingRounds, long foundedYear,
+                      double roundA, double roundB, double roundC, double roundD,
+                      double similarityScore) {
+
+    public static final long UNKNOWN = -1;
+
+    /** Keys of the tool response map, in the order they are serialized. */
+    static final String[] RESPONSE_KEYS = {
+            "company_id", "name", "similarity_score", "market", "category_list", "status",
+            "funding_total_usd", "funding_rounds", "founded_year",
+            "round_A", "round_B", "round_C", "round_D", "content"
+    };
+
+    /**
+     * Parses amounts as they appear in the Crunchbase export (" 1,750,000 ", " -   ", "2.5E7").
+     */
+    public static double parseAmount(String raw) {
+        if (raw == null) {
+            return Double.NaN;
+        }
+        String cleaned = raw.replace(",", "").trim();
+        if (cleaned.isEmpty() || "-".equals(cleaned)) {
+            return Double.NaN;
+        }
+        try {
+            return Double.parseDouble(cleaned);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /** Parses counts and years, which BigQuery may hand back as "3" or "2012.0". */
+    public static long parseWhole(String raw) {
+        double value = parseAmount(raw);
+        return Double.isNaN(value) ? UNKNOWN : (long) value;
+    }
+
+    /**
+     * Tool response for a list of companies. Each element is a read-only map view over the record
+     * with the same keys the agents have always seen; values are computed on access, so there is no
+     * per-row hash table, and missing values are omitted instead of sent as nulls.
+     */
+    public static List<Map<String, Object>> toResponse(List<Company> companies) {
+        List<Map<String, Object>> response = new ArrayList<>(companies.size());
+        for (Company company : companies) {
+            response.add(company.asMap());
+        }
+        return response;
+    }
+
+    public Map<String, Object> asMap() {
+        return new ResponseView(this);
+    }
+
+    Object responseValue(int key) {
+        switch (key) {
+            case 0: return companyId;
+            case 1: return name;
+            case 2: return similarityScore;
+            case 3: return market;
+            case 4: return categoryList;
+            case 5: return status;
+            case 6: return Double.isNaN(fundingTotalUsd) ? null : fundingTotalUsd;
+            case 7: return fundingRounds == UNKNOWN ? null : fundingRounds;
+            case 8: return foundedYear == UNKNOWN ? null : foundedYear;
+            case 9: return Double.isNaN(roundA) ? null : roundA;
+            case 10: return Double.isNaN(roundB) ? null : roundB;
+            case 11: return Double.isNaN(roundC) ? null : roundC;
+            case 12: return Double.isNaN(roundD) ? null : roundD;
+            case 13: return content;
+            default: throw new IndexOutOfBoundsException(key);
+        }
+    }
+
+    private static final class ResponseView extends AbstractMap<String, Object> {
+        private final Company company;
+
+        ResponseView(Company company) {
+            this.company = company;
+        }
+
+        @Override
+        public Object get(Object key) {
+            for (int i = 0; i < RESPONSE_KEYS.length; i++) {
+                if (RESPONSE_KEYS[i].equals(key)) {
+                    return company.responseValue(i);
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new Iterator<>() {
+                        private int next = advance(0);
+
+                        private int advance(int from) {
+                            while (from < RESPONSE_KEYS.length && company.responseValue(from) == null) {
+                                from++;
+                            }
+                            return from;
+                        }
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < RESPONSE_KEYS.length;
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            int key = next;
+                            next = advance(key + 1);
+                            return new SimpleImmutableEntry<>(RESPONSE_KEYS[key], company.responseValue(key));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    int size = 0;
+                    for (int i = 0; i < RESPONSE_KEYS.length; i++) {
+                        if (company.responseValue(i) != null) {
+                            size++;
+                        }
+                    }
+                    return size;
+                }
+            };
+        }
+    }
 }
@@ -0,0 +1,107 @@
+package agents.multitool.utils;
+
+import agents.multitool.metrics.LatencyHistogram;
+import agents.multitool.metrics.Metrics;
+import agents.multitool.stats.CohortStatistics;
+import agents.multitool.warehouse.CompanySource;
+import com.google.adk.tools.Annotations;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Funding benchmarks of a company's cohort over the whole companies table, as a tool next to
+ * {@link CompanyVectorSearch#getSimilarCompany}: where the similar companies are five examples,
+ * this gives the distribution they come from. The statistics are loaded once from the warehouse;
+ * every {@code datacompass.cohorts.refreshMinutes} the warehouse version is checked and, only if it
+ * changed, the companies are re-read and the statistics updated incrementally.
+ */
+public class CompanyCohorts {
+
+    private static final int MIN_COHORT_SIZE = DatacompassConfig.getInt("datacompass.cohorts.minSize", 20);
+    private static final long REFRESH_MINUTES = DatacompassConfig.getLong("datacompass.cohorts.refreshMinutes", 60);
+
+    private static final LatencyHistogram LOOKUP_LATENCY = Metrics.timer("datacompass_cohort_lookup_seconds",
+            "Cohort statistics lookup, excluding the initial load");
+
+    private static volatile CohortStatistics statistics;
+    // CompanySource.version() the statistics were last read at; only touched under the class lock or by the refresh thread
+    private static long loadedVersion;
+
+    public static Map<String, Object> getCohortStatistics(@Annotations.Schema(name = "market", description = "Crunchbase market of the company, e.g. 'Software' or 'Biotechnology'; empty for any") String market,
+                                           @Annotations.Schema(name = "stage", description = "funding stage, e.g. 'Seed', 'Series A' or 'Series C'; empty for any") String stage,
+                                           @Annotations.Schema(name = "region", description = "region, e.g. 'SF Bay Area' or 'London'; empty for any") String region,
+                                           @Annotations.Schema(name = "foundedYear", description = "founding year of the company; 0 for any") int foundedYear) {
+        try {
+            CohortStatistics cohorts = getInstance();
+            long start = System.nanoTime();
+            Map<String, Object> result = cohorts.lookup(market, stage, region, foundedYear, MIN_COHORT_SIZE);
+            LOOKUP_LATENCY.recordSince(start);
+            result.put("status", "success");
+            return result;
+        } catch (Exception e) {
+            Map<String, Object> result = new HashMap<>();
+            result.put("status", "error");
+            result.put("message", "Error computing cohort statistics: " + e.getMessage());
+            e.printStackTrace();
+            return result;
+        }
+    }
+
+    private static CohortStatistics getInstance() throws IOException, InterruptedException {
+        CohortStatistics local = statistics;
+        if (local == null) {
+            synchronized (CompanyCohorts.class) {
+                local = statistics;
+                if (local == null) {
+                    local = new CohortStatistics();
+                    loadedVersion = refresh(local, CompanyVectorSearch.companySource(), 0);
+                    statistics = local;
+                    if (REFRESH_MINUTES > 0) {
+                        scheduleRefresh(local);
+                    }
+                }
+            }
+        }
+        return local;
+    }
+
+    /**
+     * Re-reads the companies into {@code cohorts} unless {@code source} is still at
+     * {@code loadedVersion}. A source that cannot tell its version (0) is always re-read.
+     * Returns the version now loaded.
+     */
+    static long refresh(CohortStatistics cohorts, CompanySource source, long loadedVersion)
+            throws IOException, InterruptedException {
+        long version = source.version();
+        if (version != 0 && version == loadedVersion) {
+            return version;
+        }
+        long start = System.nanoTime();
+        CohortStatistics.Update update = cohorts.update();
+        source.forEachRow((values, embedding) -> update.add(values));
+        int changed = update.apply();
+        System.out.printf("Cohort statistics: %d companies changed, %d companies in %d cohorts, refreshed in %d ms%n",
+                changed, cohorts.companies(), cohorts.cohorts(), (System.nanoTime() - start) / 1_000_000);
+        return version;
+    }
+
+    private static void scheduleRefresh(CohortStatistics cohorts) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "cohort-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                loadedVersion = refresh(cohorts, CompanyVectorSearch.companySource(), loadedVersion);
+            } catch (IOException | InterruptedException | RuntimeException e) {
+                System.err.println("Cohort statistics refresh failed, keeping the previous statistics: " + e.getMessage());
+            }
+        }, REFRESH_MINUTES, REFRESH_MINUTES, TimeUnit.MINUTES);
+    }
+}
@@ -0,0 +1,111 @@
+package agents.multitool.utils;
+
+import agents.multitool.search.CompanyFilter;
+import agents.multitool.stats.CohortStatistics;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.adk.agents.CallbackContext;
+import com.google.genai.types.Content;
+import com.google.genai.types.Part;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The company a user message describes, read without a model. A JSON message (the CLI's input
+ * schema, plus the optional peer filters of {@link CompanyVectorSearch#getSimilarCompanyFiltered})
+ * is read field by field. Free text becomes the industry description as written, with the funding
+ * stage and revenue range picked out when it mentions them; empty strings mean "not given".
+ */
+public record CompanyProfile(String name, String industry, String stage, String revenue,
+                             String market, String status, String region,
+                             double minFundingUsd, double maxFundingUsd, int minFoundedYear, int maxFoundedYear,
+                             int foundedYear, boolean structured) {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private static final Pattern STAGE = Pattern.compile(
+            "\\b(pre-?seed|seed|angel|bootstrapped|unfunded|series\\s+[a-j]|growth stage|late[- ]stage|pre-ipo)\\b",
+            Pattern.CASE_INSENSITIVE);
+    private static final String AMOUNT = "\\$\\s?\\d[\\d.,]*(?:\\s*(?:million|billion|k|m|b)\\b)?";
+    private static final Pattern REVENUE = Pattern.compile(
+            AMOUNT + "(?:\\s*(?:-|–|to)\\s*" + AMOUNT + ")?", Pattern.CASE_INSENSITIVE);
+
+    public static CompanyProfile parse(String message) {
+        String text = message == null ? "" : message.trim();
+        if (text.startsWith("{")) {
+            try {
+                JsonNode json = JSON.readTree(text);
+                if (json != null && json.isObject()) {
+                    return fromJson(json);
+                }
+            } catch (Exception e) {
+                // not JSON after all
+            }
+        }
+        return new CompanyProfile("", text, stageIn(text), revenueIn(text), "", "", "", 0, 0, 0, 0, 0, false);
+    }
+
+    /** The text parts of the message the current invocation started with. */
+    static String userText(CallbackContext context) {
+        StringBuilder text = new StringBuilder();
+        context.userContent().flatMap(Content::parts).ifPresent(parts -> {
+            for (Part part : parts) {
+                part.text().ifPresent(text::append);
+            }
+        });
+        return text.toString();
+    }
+
+    public CompanyFilter filter() {
+        return CompanyFilter.of(market, status, region, minFundingUsd, maxFundingUsd, minFoundedYear, maxFoundedYear);
+    }
+
+    private static CompanyProfile fromJson(JsonNode json) {
+        return new CompanyProfile(
+                text(json, "companyName", "name"),
+                text(json, "industry"),
+                text(json, "stage"),
+                text(json, "revenueRange", "revenue"),
+                text(json, "market"),
+                text(json, "status"),
+                text(json, "region"),
+                json.path("minFundingUsd").asDouble(0),
+                json.path("maxFundingUsd").asDouble(0),
+                json.path("minFoundedYear").asInt(0),
+                json.path("maxFoundedYear").asInt(0),
+                json.path("foundedYear").asInt(0),
+                true);
+    }
+
+    private static String text(JsonNode json, String... keys) {
+        for (String key : keys) {
+            if (json.hasNonNull(key)) {
+                return json.get(key).asText("").trim();
+            }
+        }
+        return "";
+    }
+
+    // the canonical stage label, so "series b" and "Series B" read the same
+    private static String stageIn(String text) {
+        Matcher m = STAGE.matcher(text);
+        while (m.find()) {
+            int stage = CohortStatistics.stageOf(m.group(1));
+            if (stage >= 0) {
+                return CohortStatistics.STAGES[stage];
+            }
+        }
+        return "";
+    }
+
+    // "$1M - $5M", "$1m to $5m" and "$1M-$5M" all read "$1m-$5m"
+    private static String revenueIn(String text) {
+        Matcher m = REVENUE.matcher(text);
+        if (!m.find()) {
+            return "";
+        }
+        return m.group().toLowerCase(Locale.ROOT).replaceAll("\\s*(?:-|–|to)\\s*", "-").replaceAll("\\s+", "");
+    }
+}
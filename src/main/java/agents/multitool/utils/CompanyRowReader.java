@@ -0,0 +1,68 @@
+package agents.multitool.utils;
+
+import agents.multitool.bigquery.ResultRows;
+
+/**
+ * Maps vector search result rows to {@link Company}. Column positions are resolved once per
+ * result set, so reading a row does no name lookups.
+ */
+final class CompanyRowReader {
+
+    private final ResultRows rows;
+    private final int companyId;
+    private final int content;
+    private final int distance;
+    private final int name;
+    private final int categoryList;
+    private final int market;
+    private final int fundingTotalUsd;
+    private final int status;
+    private final int region;
+    private final int fundingRounds;
+    private final int foundedYear;
+    private final int roundA;
+    private final int roundB;
+    private final int roundC;
+    private final int roundD;
+
+    CompanyRowReader(ResultRows rows) {
+        this.rows = rows;
+        this.companyId = rows.columnIndex("company_id");
+        this.content = rows.columnIndex("content");
+        this.distance = rows.columnIndex("distance");
+        this.name = rows.columnIndex("name");
+        this.categoryList = rows.columnIndex("category_list");
+        this.market = rows.columnIndex(" market ");
+        this.fundingTotalUsd = rows.columnIndex(" funding_total_usd ");
+        this.status = rows.columnIndex("status");
+        this.region = rows.columnIndex("region");
+        this.fundingRounds = rows.columnIndex("funding_rounds");
+        this.foundedYear = rows.columnIndex("founded_year");
+        this.roundA = rows.columnIndex("round_A");
+        this.roundB = rows.columnIndex("round_B");
+        this.roundC = rows.columnIndex("round_C");
+        this.roundD = rows.columnIndex("round_D");
+    }
+
+    /** Reads the current row; call after {@link ResultRows#next()} returned true. */
+    Company read() {
+        return new Company(
+                rows.getString(companyId),
+                rows.getString(name),
+                rows.getString(content),
+                null,
+                rows.getString(categoryList),
+                rows.getString(market),
+                rows.getString(status),
+                rows.getString(region),
+                null,
+                Company.parseAmount(rows.getString(fundingTotalUsd)),
+                Company.parseWhole(rows.getString(fundingRounds)),
+                Company.parseWhole(rows.getString(foundedYear)),
+                Company.parseAmount(rows.getString(roundA)),
+                Company.parseAmount(rows.getString(roundB)),
+                Company.parseAmount(rows.getString(roundC)),
+                Company.parseAmount(rows.getString(roundD)),
+                1.0 - rows.getDouble(distance));
+    }
+}
@@ -1,154 +1,390 @@
 package agents.multitool.utils;
 
+import agents.multitool.bigquery.InstrumentedQueryExecutor;
+import agents.multitool.bigquery.JobQueryExecutor;
+import agents.multitool.bigquery.QueryExecutor;
+import agents.multitool.bigquery.ResultRows;
+import agents.multitool.bigquery.ShortQueryExecutor;
+import agents.multitool.bigquery.StorageReadQueryExecutor;
+import agents.multitool.metrics.Counter;
+import agents.multitool.metrics.LatencyHistogram;
+import agents.multitool.metrics.Metrics;
+import agents.multitool.search.CompanyFilter;
+import agents.multitool.search.EmbeddingCache;
+import agents.multitool.warehouse.CompanySource;
+import agents.multitool.warehouse.CsvCompanySource;
+import agents.multitool.warehouse.EmbeddingModel;
+import agents.multitool.warehouse.HashingEmbeddingModel;
 import com.google.cloud.bigquery.*;
 
 import com.google.adk.tools.Annotations;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 public class CompanyVectorSearch {
 
         
-    private static final String PROJECT_ID = "hopeful-list-463100-s6";
-    private static final String DATASET_ID = "crunchbasedataset";
-    private static final String EMBEDDING_TABLE = "companies_embeddings_ml";
-    private static final String COMPANIES_TABLE = "companies";
-    private static final String MODEL_NAME = "text_embedding_model";
+    static final String PROJECT_ID = "hopeful-list-463100-s6";
+    static final String DATASET_ID = "crunchbasedataset";
+    static final String EMBEDDING_TABLE = "companies_embeddings_ml";
+    static final String COMPANIES_TABLE = "companies";
+    static final String MODEL_NAME = "text_embedding_model";
+    static final int EMBEDDING_DIMENSION = 256;
+    private static final int TOP_K = DatacompassConfig.getInt("datacompass.search.topK", 5);
+
+    // "bigquery", or "local" to embed with a hashing model and load companies from a CSV export,
+    // with no warehouse or model calls at all
+    static final boolean LOCAL_WAREHOUSE = "local".equalsIgnoreCase(DatacompassConfig.get("datacompass.warehouse", "bigquery"));
+    private static final String LOCAL_COMPANIES_CSV = DatacompassConfig.get("datacompass.local.companiesCsv", "companies.csv");
+
+    // "bigquery" runs VECTOR_SEARCH in the warehouse; "hnsw" and "exact" search an in-process index
+    static final String SEARCH_BACKEND = DatacompassConfig.get("datacompass.search.backend", LOCAL_WAREHOUSE ? "exact" : "bigquery");
+
+    private static final String QUERY_EXECUTOR = DatacompassConfig.get("datacompass.bigquery.executor", "short").toLowerCase();
+    // Batch searches return inputs x top_k rows, which is where the Storage Read API pays off
+    private static final String BATCH_QUERY_EXECUTOR = DatacompassConfig.get("datacompass.bigquery.batchExecutor", "storage").toLowerCase();
+    // Inputs per batch query; keeps the @contents parameter well under the query size limit
+    private static final int BATCH_SIZE = DatacompassConfig.getInt("datacompass.search.batchSize", 1000);
+
+    private static final EmbeddingModel EMBEDDING_MODEL = LOCAL_WAREHOUSE
+            ? new HashingEmbeddingModel(EMBEDDING_DIMENSION)
+            : new BigQueryEmbeddingModel(CompanyVectorSearch::executor, QUERY_EXECUTOR, BATCH_QUERY_EXECUTOR);
+    // after the model: a persisted cache is only loaded if the same model wrote it
+    private static final EmbeddingCache EMBEDDING_CACHE = createEmbeddingCache(EMBEDDING_MODEL);
+
+    private static final LatencyHistogram SEARCH_LATENCY = Metrics.timer("datacompass_vector_search_seconds",
+            "End-to-end latency of getSimilarCompany", "backend", SEARCH_BACKEND.toLowerCase());
+    private static final LatencyHistogram EMBEDDING_LATENCY = Metrics.timer("datacompass_query_embedding_seconds",
+            "Time to embed a query profile without searching");
+    private static final LatencyHistogram LOCAL_SEARCH_LATENCY = Metrics.timer("datacompass_local_search_seconds",
+            "In-process index search and row lookup, excluding embedding");
+    private static final Counter SEARCH_ERRORS = Metrics.counter("datacompass_vector_search_errors_total",
+            "getSimilarCompany calls that returned an error");
+    private static final Counter ROWS_RETURNED = Metrics.counter("datacompass_vector_search_rows_total",
+            "Similar companies returned by getSimilarCompany");
+
+    static {
+        Metrics.gauge("datacompass_embedding_cache_hit_ratio", "Query embedding cache hits / lookups", EMBEDDING_CACHE::hitRatio);
+        Metrics.gauge("datacompass_embedding_cache_entries", "Query embeddings currently cached", EMBEDDING_CACHE::size);
+    }
 
     public static Map<String, Object> getSimilarCompany(@Annotations.Schema(name = "name", description = "name of the company") String name,
                                            @Annotations.Schema(name = "industry", description = "the industry which the start up company belongs to") String industry,
                                            @Annotations.Schema(name = "stage", description = "The funding stage of the company") String stage,
                                            @Annotations.Schema(name = "revenue", description = "The annual revenue of the company. Should be provided as a range") String revenue) {
-        
+        return similarCompanies(name, industry, stage, revenue, CompanyFilter.NONE);
+    }
+
+    /**
+     * {@link #getSimilarCompany} restricted to peers passing structured filters. The filter is
+     * applied inside the search, so all top-k slots go to companies that pass it.
+     */
+    public static Map<String, Object> getSimilarCompanyFiltered(@Annotations.Schema(name = "name", description = "name of the company") String name,
+                                           @Annotations.Schema(name = "industry", description = "the industry which the start up company belongs to") String industry,
+                                           @Annotations.Schema(name = "stage", description = "The funding stage of the company") String stage,
+                                           @Annotations.Schema(name = "revenue", description = "The annual revenue of the company. Should be provided as a range") String revenue,
+                                           @Annotations.Schema(name = "market", description = "only peers in this Crunchbase market, e.g. 'Software' or 'Biotechnology'; empty for any") String market,
+                                           @Annotations.Schema(name = "status", description = "only peers with this status: 'operating', 'acquired' or 'closed'; empty for any") String status,
+                                           @Annotations.Schema(name = "region", description = "only peers in this region, e.g. 'SF Bay Area' or 'London'; empty for any") String region,
+                                           @Annotations.Schema(name = "minFundingUsd", description = "minimum total funding in USD; 0 for no minimum") double minFundingUsd,
+                                           @Annotations.Schema(name = "maxFundingUsd", description = "maximum total funding in USD; 0 for no maximum") double maxFundingUsd,
+                                           @Annotations.Schema(name = "minFoundedYear", description = "earliest founding year; 0 for no minimum") int minFoundedYear,
+                                           @Annotations.Schema(name = "maxFoundedYear", description = "latest founding year; 0 for no maximum") int maxFoundedYear) {
+        return similarCompanies(name, industry, stage, revenue,
+                CompanyFilter.of(market, status, region, minFundingUsd, maxFundingUsd, minFoundedYear, maxFoundedYear));
+    }
+
+    private static Map<String, Object> similarCompanies(String name, String industry, String stage, String revenue, CompanyFilter filter) {
         Map<String, Object> result = new HashMap<>();
-        List<Map<String, Object>> companies = new ArrayList<>();
+        List<Company> companies = new ArrayList<>();
+        long start = System.nanoTime();
         
         try {
-            BigQuery bigquery = BigQueryOptions.newBuilder()
-                    .setProjectId(PROJECT_ID)
-                    .build()
-                    .getService();
-
-            // Create input content for embedding
-            String inputContent = String.format(
-                "Company Name: %s. Industry: %s. Funding Stage: %s. Revenue Range: %s. " +
-                "This is a startup company in the %s industry at %s stage with %s revenue.",
-                name, industry, stage, revenue, industry, stage, revenue
-            );
-
-            // Build the query using VECTOR_SEARCH
-            String sql = String.format(
-                "WITH InputEmbedding AS (\n" +
-                "  SELECT ml_generate_embedding_result AS input_embedding \n" +
-                "  FROM ML.GENERATE_EMBEDDING(\n" +
-                "    MODEL `%s.%s.%s`, \n" +
-                "    (SELECT '%s' AS content), \n" +
-                "    STRUCT(\n" +
-                "      TRUE AS flatten_json_output, \n" +
-                "      'RETRIEVAL_DOCUMENT' AS task_type, \n" +
-                "      256 AS output_dimensionality\n" +
-                "    )\n" +
-                "  )\n" +
-                ")\n" +
-                "SELECT \n" +
-                "  base.base.company_id,\n" +
-                "  base.base.content,\n" +
-                "  base.distance,\n" +
-                "  c.name,\n" +
-                "  c.category_list,\n" +
-                "  c.` market `,\n" +
-                "  c.` funding_total_usd `,\n" +
-                "  c.status,\n" +
-                "  c.funding_rounds,\n" +
-                "  c.founded_year,\n" +
-                "  c.round_A,\n" +
-                "  c.round_B,\n" +
-                "  c.round_C,\n" +
-                "  c.round_D\n" +
-                "FROM VECTOR_SEARCH(\n" +
-                "  TABLE `%s.%s.%s`, \n" +
-                "  'ml_generate_embedding_result', \n" +
-                "  (SELECT input_embedding FROM InputEmbedding), \n" +
-                "  distance_type => 'COSINE', \n" +
-                "  top_k => 5\n" +
-                ") base\n" +
-                "JOIN `%s.%s.%s` c ON base.base.company_id = c.company_id\n" +
-                "WHERE base.base.company_id IS NOT NULL\n" +
-                "ORDER BY base.distance ASC\n" +
-                "LIMIT 5",
-                PROJECT_ID, DATASET_ID, MODEL_NAME, inputContent,
-                PROJECT_ID, DATASET_ID, EMBEDDING_TABLE,
-                PROJECT_ID, DATASET_ID, COMPANIES_TABLE
-            );
-
-            System.out.println("Executing vector search query...");
-            
-            QueryJobConfiguration queryConfig = QueryJobConfiguration.newBuilder(sql)
-                    .setUseLegacySql(false)
-                    .build();
+            findSimilar(name, industry, stage, revenue, filter, companies);
+            buildResult(result, companies);
+            ROWS_RETURNED.add(companies.size());
+            SEARCH_LATENCY.recordSince(start);
 
-            Job queryJob = bigquery.create(JobInfo.newBuilder(queryConfig).build());
-            queryJob = queryJob.waitFor();
+        } catch (Exception e) {
+            SEARCH_ERRORS.increment();
+            result.put("status", "error");
+            result.put("message", "Error during vector search: " + e.getMessage());
+            result.put("companies", ToolResponseFormat.encode(companies));
+            e.printStackTrace();
+        }
 
-            if (queryJob == null) {
-                throw new RuntimeException("Vector search job no longer exists.");
-            }
+        return result;
+    }
+
+    /** Adds the top-k companies for the profile to {@code companies}, as they are read. */
+    static void findSimilar(String name, String industry, String stage, String revenue, CompanyFilter filter,
+                            List<Company> companies) throws InterruptedException, IOException {
+        // Create input content for embedding
+        String inputContent = VectorSearchQuery.inputContent(name, industry, stage, revenue);
 
-            if (queryJob.getStatus().getError() != null) {
-                throw new RuntimeException("Vector search failed: " + queryJob.getStatus().getError().toString());
+        // Reuse the embedding of an earlier identical profile instead of calling the model again
+        String cacheKey = EmbeddingCache.normalizeKey(name, industry, stage, revenue);
+        float[] cachedEmbedding = EMBEDDING_CACHE.get(cacheKey);
+
+        if (isLocalBackend()) {
+            float[] queryEmbedding = cachedEmbedding;
+            if (queryEmbedding == null) {
+                long embeddingStart = System.nanoTime();
+                queryEmbedding = EMBEDDING_MODEL.embed(inputContent);
+                EMBEDDING_LATENCY.recordSince(embeddingStart);
+                EMBEDDING_CACHE.put(cacheKey, queryEmbedding);
             }
+            LocalVectorSearch index = LocalVectorSearch.getInstance();
+            long searchStart = System.nanoTime();
+            companies.addAll(index.search(queryEmbedding, VectorSearchQuery.lexicalContent(name, industry), TOP_K, filter));
+            LOCAL_SEARCH_LATENCY.recordSince(searchStart);
+            return;
+        }
 
-            // Process results
-            TableResult tableResult = queryJob.getQueryResults();
-            
-            boolean hasResults = false;
-            for (FieldValueList row : tableResult.iterateAll()) {
-                hasResults = true;
-                Map<String, Object> company = new HashMap<>();
-                company.put("company_id", row.get("company_id").getValue());
-                company.put("content", row.get("content").getValue());
-                company.put("similarity_score", 1.0 - row.get("distance").getDoubleValue());
-                company.put("name", row.get("name").getValue());
-                company.put("category_list", row.get("category_list").getValue());
-                company.put("market", row.get(" market ").getValue());
-                company.put("funding_total_usd", row.get(" funding_total_usd ").getValue());
-                company.put("status", row.get("status").getValue());
-                company.put("funding_rounds", row.get("funding_rounds").getValue());
-                company.put("founded_year", row.get("founded_year").getValue());
-                company.put("round_A", row.get("round_A").getValue());
-                company.put("round_B", row.get("round_B").getValue());
-                company.put("round_C", row.get("round_C").getValue());
-                company.put("round_D", row.get("round_D").getValue());
-                
-                companies.add(company);
+        // On a cache hit the embedding is bound as a parameter; on a miss it is generated in the
+        // same query and returned alongside the rows so it can be cached.
+        String sql;
+        if (filter.isEmpty()) {
+            sql = cachedEmbedding != null ? VectorSearchQuery.SEARCH_BY_EMBEDDING : VectorSearchQuery.SEARCH_BY_CONTENT;
+        } else {
+            sql = cachedEmbedding != null ? VectorSearchQuery.FILTERED_SEARCH_BY_EMBEDDING : VectorSearchQuery.FILTERED_SEARCH_BY_CONTENT;
+        }
+        Map<String, QueryParameterValue> parameters = cachedEmbedding != null
+                ? VectorSearchQuery.embeddingParameters(cachedEmbedding, TOP_K)
+                : VectorSearchQuery.contentParameters(inputContent, TOP_K);
+        if (!filter.isEmpty()) {
+            parameters = VectorSearchQuery.withFilterParameters(parameters, filter);
+        }
+
+        System.out.println("Executing vector search query...");
+
+        // Process results
+        try (ResultRows rows = executor(QUERY_EXECUTOR).query(sql, parameters)) {
+            CompanyRowReader reader = new CompanyRowReader(rows);
+            int inputEmbedding = cachedEmbedding == null ? rows.columnIndex("input_embedding") : -1;
+            while (rows.next()) {
+                if (cachedEmbedding == null && companies.isEmpty()) {
+                    EMBEDDING_CACHE.put(cacheKey, rows.getFloatArray(inputEmbedding));
+                }
+                companies.add(reader.read());
             }
-            
-            if (hasResults) {
-                result.put("status", "success");
-                result.put("message", "Found " + companies.size() + " similar companies");
-                result.put("companies", companies);
-            } else {
-                result.put("status", "no_results");
-                result.put("message", "No similar companies found");
-                result.put("companies", companies);
+        }
+    }
+
+    /**
+     * Finds the top-k similar companies for every profile of a portfolio. Each chunk of
+     * {@code datacompass.search.batchSize} profiles is embedded and searched in one query, so a
+     * portfolio costs a handful of jobs rather than one per company.
+     */
+    public static Map<String, Object> getSimilarCompanies(@Annotations.Schema(name = "companies", description = "the portfolio: a list of objects with the keys name, industry, stage and revenue") List<Map<String, Object>> companies) {
+
+        Map<String, Object> result = new HashMap<>();
+        List<List<Company>> matches = new ArrayList<>(companies.size());
+        for (int i = 0; i < companies.size(); i++) {
+            matches.add(new ArrayList<>());
+        }
+
+        try {
+            boolean local = isLocalBackend();
+            int queries = 0;
+
+            for (int from = 0; from < companies.size(); from += BATCH_SIZE) {
+                int to = Math.min(companies.size(), from + BATCH_SIZE);
+                String[] contents = new String[to - from];
+                for (int i = from; i < to; i++) {
+                    Map<String, Object> profile = companies.get(i);
+                    contents[i - from] = VectorSearchQuery.inputContent(profileValue(profile, "name"),
+                            profileValue(profile, "industry"), profileValue(profile, "stage"), profileValue(profile, "revenue"));
+                }
+
+                if (local) {
+                    float[][] embeddings = batchQueryEmbeddings(companies.subList(from, to), contents);
+                    LocalVectorSearch index = LocalVectorSearch.getInstance();
+                    for (int i = 0; i < embeddings.length; i++) {
+                        Map<String, Object> profile = companies.get(from + i);
+                        matches.get(from + i).addAll(index.search(embeddings[i],
+                                VectorSearchQuery.lexicalContent(profileValue(profile, "name"), profileValue(profile, "industry")), TOP_K));
+                    }
+                } else {
+                    System.out.println("Executing batch vector search for " + contents.length + " companies...");
+                    try (ResultRows rows = executor(BATCH_QUERY_EXECUTOR).query(
+                            VectorSearchQuery.BATCH_SEARCH_BY_CONTENT, VectorSearchQuery.batchParameters(contents, TOP_K))) {
+                        CompanyRowReader reader = new CompanyRowReader(rows);
+                        int inputId = rows.columnIndex("input_id");
+                        while (rows.next()) {
+                            matches.get(from + (int) rows.getLong(inputId)).add(reader.read());
+                        }
+                    }
+                    queries++;
+                }
             }
 
+            result.put("status", "success");
+            result.put("message", "Searched " + companies.size() + " companies" + (local ? "" : " in " + queries + " queries"));
+
         } catch (Exception e) {
             result.put("status", "error");
-            result.put("message", "Error during vector search: " + e.getMessage());
-            result.put("companies", companies);
+            result.put("message", "Error during batch vector search: " + e.getMessage());
             e.printStackTrace();
         }
 
+        List<Map<String, Object>> results = new ArrayList<>(companies.size());
+        for (int i = 0; i < companies.size(); i++) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("input_index", i);
+            entry.put("name", profileValue(companies.get(i), "name"));
+            entry.put("companies", ToolResponseFormat.encode(matches.get(i)));
+            results.add(entry);
+        }
+        result.put("results", results);
+        return result;
+    }
+
+    /** Embeds {@code content} with the model the searches use, through the same query embedding cache. */
+    static float[] embedText(String content) throws InterruptedException {
+        String key = EmbeddingCache.normalizeKey(content);
+        float[] embedding = EMBEDDING_CACHE.get(key);
+        if (embedding == null) {
+            long start = System.nanoTime();
+            embedding = EMBEDDING_MODEL.embed(content);
+            EMBEDDING_LATENCY.recordSince(start);
+            EMBEDDING_CACHE.put(key, embedding);
+        }
+        return embedding;
+    }
+
+    // the local warehouse has no VECTOR_SEARCH to run, so it always searches in process
+    private static boolean isLocalBackend() {
+        return LOCAL_WAREHOUSE || "hnsw".equalsIgnoreCase(SEARCH_BACKEND) || "exact".equalsIgnoreCase(SEARCH_BACKEND);
+    }
+
+    private static String profileValue(Map<String, Object> profile, String key) {
+        Object value = profile.get(key);
+        return value == null ? "" : value.toString();
+    }
+
+    /** Embeddings for a chunk of profiles: cache hits are reused, the misses are embedded in one query. */
+    private static float[][] batchQueryEmbeddings(List<Map<String, Object>> profiles, String[] contents)
+            throws InterruptedException {
+        float[][] embeddings = new float[contents.length][];
+        String[] keys = new String[contents.length];
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < contents.length; i++) {
+            Map<String, Object> profile = profiles.get(i);
+            keys[i] = EmbeddingCache.normalizeKey(profileValue(profile, "name"), profileValue(profile, "industry"),
+                    profileValue(profile, "stage"), profileValue(profile, "revenue"));
+            embeddings[i] = EMBEDDING_CACHE.get(keys[i]);
+            if (embeddings[i] == null) {
+                missing.add(i);
+            }
+        }
+        if (missing.isEmpty()) {
+            return embeddings;
+        }
+
+        String[] missingContents = new String[missing.size()];
+        for (int i = 0; i < missingContents.length; i++) {
+            missingContents[i] = contents[missing.get(i)];
+        }
+        float[][] missingEmbeddings = EMBEDDING_MODEL.embedAll(missingContents);
+        for (int j = 0; j < missingEmbeddings.length; j++) {
+            int i = missing.get(j);
+            embeddings[i] = missingEmbeddings[j];
+            EMBEDDING_CACHE.put(keys[i], embeddings[i]);
+        }
+        return embeddings;
+    }
+
+    // executor kind -> executor; tests swap it for a FakeQueryExecutor to run the warehouse path offline
+    static volatile Function<String, QueryExecutor> executors = kind -> createExecutor(BigQueryClientProvider.get(), kind);
+
+    static QueryExecutor executor(String kind) {
+        return executors.apply(kind);
+    }
+
+    /**
+     * "short" (default) uses jobless short queries, "job" the full job lifecycle and "storage"
+     * the Storage Read API, which only pays off for large result sets.
+     */
+    static QueryExecutor createExecutor(BigQuery bigquery, String kind) {
+        switch (kind) {
+            case "job":
+                return new InstrumentedQueryExecutor(new JobQueryExecutor(bigquery), kind);
+            case "storage":
+                return new InstrumentedQueryExecutor(new StorageReadQueryExecutor(bigquery, PROJECT_ID, DATASET_ID), kind);
+            default:
+                return new InstrumentedQueryExecutor(new ShortQueryExecutor(bigquery), "short");
+        }
+    }
+
+    private static EmbeddingCache createEmbeddingCache(EmbeddingModel model) {
+        EmbeddingCache cache = new EmbeddingCache(
+                DatacompassConfig.getInt("datacompass.embeddingCache.maxEntries", 10_000),
+                EMBEDDING_DIMENSION,
+                TimeUnit.MINUTES.toMillis(DatacompassConfig.getLong("datacompass.embeddingCache.ttlMinutes", 24 * 60)),
+                model.name());
+
+        String path = DatacompassConfig.get("datacompass.embeddingCache.path", "");
+        if (!path.isEmpty()) {
+            Path file = Paths.get(path);
+            if (Files.exists(file)) {
+                try {
+                    System.out.println("Loaded " + cache.load(file) + " cached query embeddings from " + file);
+                } catch (IOException e) {
+                    System.err.println("Ignoring unreadable embedding cache " + file + ": " + e.getMessage());
+                }
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    cache.save(file);
+                } catch (IOException e) {
+                    System.err.println("Could not save embedding cache to " + file + ": " + e.getMessage());
+                }
+            }));
+        }
+        return cache;
+    }
+
+    private static Map<String, Object> buildResult(Map<String, Object> result, List<Company> companies) {
+        if (!companies.isEmpty()) {
+            result.put("status", "success");
+            result.put("message", "Found " + companies.size() + " similar companies");
+        } else {
+            result.put("status", "no_results");
+            result.put("message", "No similar companies found");
+        }
+        result.put("companies", ToolResponseFormat.encode(companies));
         return result;
     }
 
+    /** Where the in-process backends load companies from: BigQuery, or the CSV for the local warehouse. */
+    static CompanySource companySource() {
+        if (LOCAL_WAREHOUSE) {
+            return new CsvCompanySource(Paths.get(LOCAL_COMPANIES_CSV), EMBEDDING_MODEL);
+        }
+        return new BigQueryCompanySource(BigQueryClientProvider.get());
+    }
+
+    static float[] toFloatArray(List<FieldValue> values) {
+        float[] vector = new float[values.size()];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = (float) values.get(i).getDoubleValue();
+        }
+        return vector;
+    }
+
     public static Map<String, Object> debugEmbeddings() {
         try {
-            BigQuery bigQuery = BigQueryOptions.getDefaultInstance().getService();
+            BigQuery bigQuery = BigQueryClientProvider.get();
             
             // Test 1: Check if embeddings table has data
             String checkEmbeddingsQuery = 
@@ -166,6 +402,7 @@ public class CompanyVectorSearch {
             TableResult companiesResult = bigQuery.query(QueryJobConfiguration.newBuilder(checkCompaniesQuery).build());
             
             Map<String, Object> debugResult = new HashMap<>();
+            debugResult.put("embedding_cache", EMBEDDING_CACHE.stats());
             
             for (FieldValueList row : embeddingsResult.iterateAll()) {
                 debugResult.put("total_embeddings", row.get("total_embeddings").getLongValue());
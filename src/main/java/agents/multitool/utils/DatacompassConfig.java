@@ -0,0 +1,39 @@
+package agents.multitool.utils;
+
+/**
+ * Runtime settings. A key such as {@code datacompass.search.backend} is read from the
+ * JVM system property first, then from the environment variable {@code DATACOMPASS_SEARCH_BACKEND}.
+ */
+public final class DatacompassConfig {
+
+    private DatacompassConfig() {
+    }
+
+    public static String get(String key, String defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null || value.isBlank()) {
+            value = System.getenv(key.toUpperCase().replace('.', '_'));
+        }
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        String value = get(key, null);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        String value = get(key, null);
+        return value == null ? defaultValue : Long.parseLong(value);
+    }
+
+    public static double getDouble(String key, double defaultValue) {
+        String value = get(key, null);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = get(key, null);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+}
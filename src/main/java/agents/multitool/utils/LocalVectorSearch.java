@@ -0,0 +1,211 @@
+package agents.multitool.utils;
+
+import agents.multitool.search.Bm25Index;
+import agents.multitool.search.BruteForceIndex;
+import agents.multitool.search.CompanyColumns;
+import agents.multitool.search.CompanyFilter;
+import agents.multitool.search.CompanyFilterIndex;
+import agents.multitool.search.CompanySnapshot;
+import agents.multitool.search.CompanyStore;
+import agents.multitool.search.HnswIndex;
+import agents.multitool.search.ProductQuantizedIndex;
+import agents.multitool.search.RankFusion;
+import agents.multitool.search.ScalarQuantizedIndex;
+import agents.multitool.search.SearchHits;
+import agents.multitool.search.SimdBruteForceIndex;
+import agents.multitool.search.VectorIndex;
+import agents.multitool.search.VectorMath;
+import agents.multitool.warehouse.CompanySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * In-process replacement for the VECTOR_SEARCH half of {@link CompanyVectorSearch#getSimilarCompany}.
+ * The store is memory-mapped from the snapshot file when one is configured (exporting it first if
+ * missing), otherwise loaded onto the heap from the configured {@link CompanySource}.
+ */
+class LocalVectorSearch {
+
+    private static final String SNAPSHOT_PATH = DatacompassConfig.get("datacompass.snapshot.path", "");
+    private static final int HNSW_M = DatacompassConfig.getInt("datacompass.hnsw.m", 16);
+    private static final int HNSW_EF_CONSTRUCTION = DatacompassConfig.getInt("datacompass.hnsw.efConstruction", 100);
+    private static final int HNSW_EF_SEARCH = DatacompassConfig.getInt("datacompass.hnsw.efSearch", 64);
+    // "none", "int8" or "pq"; only the exact backend scans codes
+    private static final String QUANTIZATION = DatacompassConfig.get("datacompass.quantization", "none").toLowerCase();
+    private static final int PQ_SUBSPACES = DatacompassConfig.getInt("datacompass.quantization.pqSubspaces", 128);
+    private static final int RERANK_FACTOR = DatacompassConfig.getInt("datacompass.quantization.rerank", 4);
+    // fuse BM25 over name, category_list and market with the vector candidates
+    static final boolean HYBRID = DatacompassConfig.getBoolean("datacompass.search.hybrid", false);
+    private static final int HYBRID_CANDIDATES = DatacompassConfig.getInt("datacompass.search.hybrid.candidates", 50);
+    // RRF weight of the BM25 list against 1 for the vector list; name-only embeddings need the lexical side to lead
+    private static final float[] HYBRID_WEIGHTS = {1f, (float) DatacompassConfig.getDouble("datacompass.search.hybrid.lexicalWeight", 2.0)};
+
+    private static volatile LocalVectorSearch instance;
+
+    private final CompanyStore store;
+    private final VectorIndex index;
+    private final CompanyFilterIndex filters;
+    // null unless HYBRID
+    private final Bm25Index lexical;
+
+    private LocalVectorSearch(CompanyStore store, VectorIndex index, CompanyFilterIndex filters, Bm25Index lexical) {
+        this.store = store;
+        this.index = index;
+        this.filters = filters;
+        this.lexical = lexical;
+    }
+
+    static LocalVectorSearch getInstance() throws InterruptedException, IOException {
+        LocalVectorSearch local = instance;
+        if (local == null) {
+            synchronized (LocalVectorSearch.class) {
+                local = instance;
+                if (local == null) {
+                    CompanyStore store = loadStore(CompanyVectorSearch.companySource());
+                    long start = System.nanoTime();
+                    VectorIndex index = buildIndex(store);
+                    System.out.printf("Built %s index over %d companies in %d ms%n",
+                            index.getClass().getSimpleName(), index.size(), (System.nanoTime() - start) / 1_000_000);
+                    Bm25Index lexical = null;
+                    if (HYBRID) {
+                        start = System.nanoTime();
+                        lexical = Bm25Index.build(store);
+                        System.out.printf("Built BM25 index over %d companies in %d ms%n",
+                                lexical.size(), (System.nanoTime() - start) / 1_000_000);
+                    }
+                    local = new LocalVectorSearch(store, index, CompanyFilterIndex.build(store), lexical);
+                    instance = local;
+                }
+            }
+        }
+        return local;
+    }
+
+    // "exact" scans every vector: exact recall and no build cost, fine up to a few hundred thousand rows.
+    // The exact scans read a normalized snapshot in place; HNSW and older snapshots copy the vectors to the heap.
+    private static VectorIndex buildIndex(CompanyStore store) {
+        if (!"exact".equalsIgnoreCase(CompanyVectorSearch.SEARCH_BACKEND)) {
+            warnIfCopyingSnapshot(store, "the hnsw backend");
+            return HnswIndex.build(store.copyVectors(), store.dimension(), HNSW_M, HNSW_EF_CONSTRUCTION, HNSW_EF_SEARCH);
+        }
+        if ("int8".equals(QUANTIZATION)) {
+            warnIfQuantizingHeap(store);
+            return ScalarQuantizedIndex.build(store, RERANK_FACTOR);
+        }
+        if ("pq".equals(QUANTIZATION)) {
+            warnIfQuantizingHeap(store);
+            return ProductQuantizedIndex.build(store, PQ_SUBSPACES, RERANK_FACTOR, 42);
+        }
+        boolean inPlace = store instanceof CompanySnapshot && store.vectorsNormalized();
+        if (store instanceof CompanySnapshot && !inPlace) {
+            warnIfCopyingSnapshot(store, "a snapshot written without normalized vectors (delete it to re-export)");
+        }
+        if (VectorMath.vectorApiAvailable()) {
+            return inPlace ? SimdBruteForceIndex.over(store) : SimdBruteForceIndex.build(store.copyVectors(), store.dimension());
+        }
+        System.out.println("jdk.incubator.vector is not available (start the JVM with --add-modules jdk.incubator.vector); using the scalar exact scan");
+        return inPlace ? BruteForceIndex.over(store) : BruteForceIndex.build(store.copyVectors(), store.dimension());
+    }
+
+    private static void warnIfCopyingSnapshot(CompanyStore store, String reason) {
+        if (store instanceof CompanySnapshot) {
+            System.err.printf("Warning: %s copies the snapshot's vectors onto the heap (%d MB); "
+                            + "use datacompass.search.backend=exact to keep them memory-mapped%n",
+                    reason, (long) store.size() * store.dimension() * Float.BYTES >> 20);
+        }
+    }
+
+    // the codes only save memory if the float vectors they re-rank with stay off the heap
+    private static void warnIfQuantizingHeap(CompanyStore store) {
+        if (!(store instanceof CompanySnapshot)) {
+            System.err.printf("Warning: datacompass.quantization=%s adds codes to the float vectors on the heap (%d MB), "
+                            + "which it re-ranks with; set datacompass.snapshot.path to keep those memory-mapped%n",
+                    QUANTIZATION, (long) store.size() * store.dimension() * Float.BYTES >> 20);
+        }
+    }
+
+    List<Company> search(float[] queryEmbedding, String lexicalQuery, int topK) {
+        return search(queryEmbedding, lexicalQuery, topK, CompanyFilter.NONE);
+    }
+
+    /**
+     * Only companies passing {@code filter} compete for the top-k slots. With the hybrid search,
+     * the vector and BM25 candidates for {@code lexicalQuery} are fused by reciprocal rank; the
+     * reported similarity stays the cosine similarity to the query embedding.
+     */
+    List<Company> search(float[] queryEmbedding, String lexicalQuery, int topK, CompanyFilter filter) {
+        BitSet allowed = filters.matching(filter);
+        if (allowed != null && allowed.isEmpty()) {
+            return new ArrayList<>();
+        }
+        float[] query = VectorMath.normalize(queryEmbedding.clone());
+        if (lexical == null) {
+            SearchHits hits = index.search(query, topK, allowed);
+            List<Company> companies = new ArrayList<>(hits.size());
+            for (int i = 0; i < hits.size(); i++) {
+                companies.add(toCompany(store, hits.id(i), hits.score(i)));
+            }
+            return companies;
+        }
+
+        int candidates = Math.max(topK, HYBRID_CANDIDATES);
+        SearchHits fused = RankFusion.reciprocalRank(topK, RankFusion.DEFAULT_K, new SearchHits[]{
+                index.search(query, candidates, allowed), lexical.search(lexicalQuery, candidates, allowed)}, HYBRID_WEIGHTS);
+        List<Company> companies = new ArrayList<>(fused.size());
+        float[] vector = new float[store.dimension()];
+        for (int i = 0; i < fused.size(); i++) {
+            int row = fused.id(i);
+            store.readVector(row, vector, 0);
+            VectorMath.normalize(vector);
+            companies.add(toCompany(store, row, VectorMath.dot(query, 0, vector, 0, vector.length)));
+        }
+        return companies;
+    }
+
+    static Company toCompany(CompanyStore store, int row, double similarity) {
+        return new Company(
+                store.value(row, CompanyColumns.COMPANY_ID),
+                store.value(row, CompanyColumns.NAME),
+                store.value(row, CompanyColumns.CONTENT),
+                null,
+                store.value(row, CompanyColumns.CATEGORY_LIST),
+                store.value(row, CompanyColumns.MARKET),
+                store.value(row, CompanyColumns.STATUS),
+                store.value(row, CompanyColumns.REGION),
+                null,
+                Company.parseAmount(store.value(row, CompanyColumns.FUNDING_TOTAL_USD)),
+                Company.parseWhole(store.value(row, CompanyColumns.FUNDING_ROUNDS)),
+                Company.parseWhole(store.value(row, CompanyColumns.FOUNDED_YEAR)),
+                Company.parseAmount(store.value(row, CompanyColumns.ROUND_A)),
+                Company.parseAmount(store.value(row, CompanyColumns.ROUND_B)),
+                Company.parseAmount(store.value(row, CompanyColumns.ROUND_C)),
+                Company.parseAmount(store.value(row, CompanyColumns.ROUND_D)),
+                similarity);
+    }
+
+    private static CompanyStore loadStore(CompanySource source) throws InterruptedException, IOException {
+        if (SNAPSHOT_PATH.isEmpty()) {
+            System.out.println("Loading company embeddings from " + source.getClass().getSimpleName() + "...");
+            long start = System.nanoTime();
+            CompanyStore store = source.load();
+            System.out.printf("Loaded %d companies in %d ms%n", store.size(), (System.nanoTime() - start) / 1_000_000);
+            return store;
+        }
+
+        Path snapshot = Paths.get(SNAPSHOT_PATH);
+        if (!Files.exists(snapshot)) {
+            generateEmbedding.exportSnapshot(source, snapshot);
+        }
+        long start = System.nanoTime();
+        CompanySnapshot store = CompanySnapshot.open(snapshot);
+        System.out.printf("Mapped snapshot %s (%d companies) in %d us%n",
+                snapshot, store.size(), (System.nanoTime() - start) / 1_000);
+        return store;
+    }
+}
@@ -0,0 +1,95 @@
+package agents.multitool.utils;
+
+import agents.multitool.metrics.Counter;
+import agents.multitool.metrics.Metrics;
+import com.google.adk.tools.BaseTool;
+import com.google.adk.tools.ToolContext;
+import com.google.genai.types.FunctionDeclaration;
+import io.reactivex.rxjava3.core.Single;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wraps a tool so that calls with identical arguments within one invocation (one run of the
+ * workflow, shared by all of its sub-agents) execute once. Concurrent callers subscribe to the
+ * same in-flight call; later callers get the completed result. Failed calls, and results whose
+ * "status" is "error", are not kept, so the next caller retries.
+ */
+public class MemoizedTool extends BaseTool {
+
+    static final int MAX_TRACKED_INVOCATIONS =
+            DatacompassConfig.getInt("datacompass.toolMemo.maxInvocations", 256);
+
+    private final BaseTool delegate;
+    private final Counter hits;
+    private final Counter misses;
+
+    // invocation id -> (canonical arguments -> shared call), oldest invocations dropped first
+    private final Map<String, Map<String, Single<Map<String, Object>>>> invocations =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Map<String, Single<Map<String, Object>>>> eldest) {
+                    return size() > MAX_TRACKED_INVOCATIONS;
+                }
+            };
+
+    private MemoizedTool(BaseTool delegate) {
+        super(delegate.name(), delegate.description());
+        this.delegate = delegate;
+        this.hits = Metrics.counter("datacompass_tool_memo_lookups_total", "Memoized tool calls by outcome",
+                "tool", delegate.name(), "result", "hit");
+        this.misses = Metrics.counter("datacompass_tool_memo_lookups_total", "Memoized tool calls by outcome",
+                "tool", delegate.name(), "result", "miss");
+    }
+
+    public static MemoizedTool wrap(BaseTool delegate) {
+        return new MemoizedTool(delegate);
+    }
+
+    @Override
+    public Optional<FunctionDeclaration> declaration() {
+        return delegate.declaration();
+    }
+
+    @Override
+    public Single<Map<String, Object>> runAsync(Map<String, Object> args, ToolContext toolContext) {
+        return runAsync(toolContext.invocationId(), args, toolContext);
+    }
+
+    Single<Map<String, Object>> runAsync(String invocationId, Map<String, Object> args, ToolContext toolContext) {
+        Map<String, Single<Map<String, Object>>> calls = callsFor(invocationId);
+        String key = new TreeMap<>(args).toString();
+        return Single.defer(() -> {
+            boolean[] created = {false};
+            Single<Map<String, Object>> call = calls.computeIfAbsent(key, k -> {
+                created[0] = true;
+                return Single.defer(() -> delegate.runAsync(args, toolContext))
+                        .doOnSuccess(result -> {
+                            if ("error".equals(result.get("status"))) {
+                                calls.remove(k);
+                            }
+                        })
+                        .doOnError(e -> calls.remove(k))
+                        .cache();
+            });
+            (created[0] ? misses : hits).increment();
+            return call;
+        });
+    }
+
+    int trackedInvocations() {
+        synchronized (invocations) {
+            return invocations.size();
+        }
+    }
+
+    private Map<String, Single<Map<String, Object>>> callsFor(String invocationId) {
+        synchronized (invocations) {
+            return invocations.computeIfAbsent(invocationId, id -> new ConcurrentHashMap<>());
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package agents.multitool.utils;
+
+import agents.multitool.metrics.Counter;
+import agents.multitool.metrics.LatencyHistogram;
+import agents.multitool.metrics.Metrics;
+import agents.multitool.search.CompanyFilter;
+import agents.multitool.search.EmbeddingCache;
+import agents.multitool.search.SemanticCache;
+import com.google.adk.agents.CallbackContext;
+import com.google.adk.agents.SequentialAgent;
+import com.google.genai.types.Content;
+import com.google.genai.types.Part;
+import io.reactivex.rxjava3.core.Maybe;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Report-level cache in front of the workflow. The user's message is reduced to a profile and
+ * embedded. When an earlier run's profile is within {@code datacompass.reportCache.threshold}
+ * cosine similarity, its report is returned and the whole workflow (every model call and search)
+ * is skipped. The report outputs are also put back into session state.
+ *
+ * <p>How a message becomes a profile ({@link CompanyProfile}):
+ * <ul>
+ *   <li>A JSON profile ({@code industry}, {@code stage}, {@code revenueRange}) is embedded without
+ *       the company name, so "SaaS, Series A, $1M-$5M" matches across companies. Stage, revenue
+ *       range and the peer filters ({@code market}, {@code region}, funding and founding years)
+ *       must match exactly, since they decide which companies the report compares against.</li>
+ *   <li>Free text is embedded as is, and must name the same funding stage and revenue range
+ *       exactly: the embedding cannot be trusted to keep "Series A" apart from "Series B". Text
+ *       that names neither or only one, such as a follow-up question, bypasses the cache.</li>
+ * </ul>
+ * Entries are bounded by count and age. All of them are dropped when the warehouse's
+ * {@link agents.multitool.warehouse.CompanySource#version() version} changes, i.e. when
+ * generateEmbedding refreshes {@code companies_embeddings_ml}.
+ */
+public final class ReportCache {
+
+    private static final boolean ENABLED = DatacompassConfig.getBoolean("datacompass.reportCache.enabled", false);
+    private static final float THRESHOLD = (float) DatacompassConfig.getDouble("datacompass.reportCache.threshold", 0.97);
+    private static final int MAX_ENTRIES = DatacompassConfig.getInt("datacompass.reportCache.maxEntries", 1000);
+    private static final long TTL_MINUTES = DatacompassConfig.getLong("datacompass.reportCache.ttlMinutes", 24 * 60);
+    private static final long CHECK_MINUTES = DatacompassConfig.getLong("datacompass.reportCache.checkMinutes", 10);
+    // runs between the lookup and the end of the workflow; runs that fail never reach the end
+    private static final int MAX_PENDING = 256;
+
+    /** Session state written by either workflow topology, in the order a cached report shows them. */
+    private static final List<String> OUTPUT_KEYS = List.of(
+            "company_analysis", "similar_companies", "profile_summary", "growth_opportunities", "risks",
+            "funding_trends", "benchmark_report");
+    private static final List<String> SHOWN_KEYS = List.of("company_analysis", "benchmark_report");
+
+    private static final LatencyHistogram LOOKUP_LATENCY = Metrics.timer("datacompass_report_cache_lookup_seconds",
+            "Report cache lookup, profile embedding included");
+    private static final Counter HITS = Metrics.counter("datacompass_report_cache_lookups_total",
+            "Report cache lookups by outcome", "result", "hit");
+    private static final Counter MISSES = Metrics.counter("datacompass_report_cache_lookups_total",
+            "Report cache lookups by outcome", "result", "miss");
+    private static final Counter BYPASSED = Metrics.counter("datacompass_report_cache_lookups_total",
+            "Report cache lookups by outcome", "result", "bypass");
+    private static final Counter INVALIDATIONS = Metrics.counter("datacompass_report_cache_invalidations_total",
+            "Times the report cache was cleared because the company embeddings changed");
+
+    private static final SemanticCache<Report> CACHE = new SemanticCache<>(MAX_ENTRIES,
+            CompanyVectorSearch.EMBEDDING_DIMENSION, TimeUnit.MINUTES.toMillis(TTL_MINUTES));
+
+    // invocation id -> profile looked up and missed, oldest dropped first
+    private static final Map<String, Pending> PENDING = new LinkedHashMap<>(16, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Pending> eldest) {
+            return size() > MAX_PENDING;
+        }
+    };
+
+    private static volatile long warehouseVersion;
+    private static boolean watching;
+
+    static {
+        Metrics.gauge("datacompass_report_cache_hit_ratio", "Report cache hits / lookups", CACHE::hitRatio);
+        Metrics.gauge("datacompass_report_cache_entries", "Reports currently cached", CACHE::size);
+        Metrics.gauge("datacompass_report_cache_evictions", "Reports evicted to make room since start", CACHE::evictions);
+    }
+
+    private record Report(String profile, Map<String, String> outputs) {
+    }
+
+    private record Pending(float[] embedding, String partition, String profile) {
+    }
+
+    record Profile(String content, String partition) {
+    }
+
+    private ReportCache() {
+    }
+
+    /** Adds the cache callbacks to the root workflow; does nothing unless it is enabled. */
+    public static SequentialAgent.Builder wrap(SequentialAgent.Builder workflow) {
+        if (!ENABLED) {
+            return workflow;
+        }
+        return workflow
+                .beforeAgentCallback(ReportCache::beforeWorkflow)
+                .afterAgentCallback(ReportCache::afterWorkflow);
+    }
+
+    private static Maybe<Content> beforeWorkflow(CallbackContext context) {
+        String message = CompanyProfile.userText(context);
+        if (message.isBlank()) {
+            return Maybe.empty();
+        }
+        try {
+            watchWarehouse();
+            long start = System.nanoTime();
+            Profile profile = profile(message);
+            if (profile == null) {
+                BYPASSED.increment();
+                return Maybe.empty();
+            }
+            float[] embedding = CompanyVectorSearch.embedText(profile.content());
+            SemanticCache.Match<Report> match = CACHE.get(embedding, profile.partition(), THRESHOLD);
+            LOOKUP_LATENCY.recordSince(start);
+            if (match == null) {
+                MISSES.increment();
+                synchronized (PENDING) {
+                    PENDING.put(context.invocationId(), new Pending(embedding, profile.partition(), message));
+                }
+                return Maybe.empty();
+            }
+            HITS.increment();
+            Report report = match.value();
+            report.outputs().forEach((key, value) -> context.state().put(key, value));
+            return Maybe.just(Content.fromParts(Part.fromText(render(report, match.similarity()))));
+        } catch (Exception e) {
+            System.err.println("Report cache lookup failed, running the workflow: " + e.getMessage());
+            return Maybe.empty();
+        }
+    }
+
+    private static Maybe<Content> afterWorkflow(CallbackContext context) {
+        Pending pending;
+        synchronized (PENDING) {
+            pending = PENDING.remove(context.invocationId());
+        }
+        if (pending == null) {
+            return Maybe.empty();
+        }
+        Map<String, String> outputs = new LinkedHashMap<>();
+        for (String key : OUTPUT_KEYS) {
+            Object value = context.state().get(key);
+            if (value != null && !value.toString().isBlank()) {
+                outputs.put(key, value.toString());
+            }
+        }
+        // a run without the final report failed or was cut short; do not serve it to others
+        if (outputs.containsKey("benchmark_report")) {
+            CACHE.put(pending.embedding(), pending.partition(), new Report(pending.profile(), outputs));
+        }
+        return Maybe.empty();
+    }
+
+    // a JSON profile without the company name, free text as it is; null if it cannot be cached
+    static Profile profile(String message) {
+        CompanyProfile profile = CompanyProfile.parse(message);
+        if (profile.structured() && !profile.industry().isEmpty()) {
+            return new Profile(VectorSearchQuery.inputContent("", profile.industry(), profile.stage(), profile.revenue()),
+                    EmbeddingCache.normalizeKey(profile.stage(), profile.revenue(), peers(profile)));
+        }
+        if (profile.stage().isEmpty() || profile.revenue().isEmpty()) {
+            return null;
+        }
+        return new Profile(message.trim(), EmbeddingCache.normalizeKey("text", profile.stage(), profile.revenue()));
+    }
+
+    // the peer filters and founding year that narrow the similar companies and the cohort
+    private static String peers(CompanyProfile profile) {
+        CompanyFilter filter = profile.filter();
+        if (filter.isEmpty() && profile.foundedYear() == 0) {
+            return "";
+        }
+        return String.format(Locale.ROOT, "%s/%s/%s/%s-%s/%d-%d/%d", filter.market(), filter.status(), filter.region(),
+                filter.minFundingUsd(), filter.maxFundingUsd(), filter.minFoundedYear(), filter.maxFoundedYear(),
+                profile.foundedYear());
+    }
+
+    private static String render(Report report, float similarity) {
+        StringBuilder text = new StringBuilder(String.format(Locale.ROOT,
+                "(Cached report for a similar profile, similarity %.3f: %s)%n%n", similarity, report.profile()));
+        for (String key : SHOWN_KEYS) {
+            String value = report.outputs().get(key);
+            if (value != null) {
+                text.append(value).append("\n\n");
+            }
+        }
+        return text.toString().trim();
+    }
+
+    // clears the cache whenever the warehouse version changes, checked every CHECK_MINUTES
+    private static synchronized void watchWarehouse() {
+        if (watching || CHECK_MINUTES <= 0) {
+            return;
+        }
+        watching = true;
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "report-cache-invalidation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                long version = CompanyVectorSearch.companySource().version();
+                if (warehouseVersion != 0 && version != warehouseVersion) {
+                    CACHE.clear();
+                    INVALIDATIONS.increment();
+                    System.out.println("Company embeddings changed, cleared the report cache");
+                }
+                warehouseVersion = version;
+            } catch (Exception e) {
+                System.err.println("Could not check the company embeddings version: " + e.getMessage());
+            }
+        }, 0, CHECK_MINUTES, TimeUnit.MINUTES);
+    }
+}
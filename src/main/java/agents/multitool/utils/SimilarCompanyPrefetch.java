@@ -0,0 +1,104 @@
+package agents.multitool.utils;
+
+import agents.multitool.metrics.Counter;
+import agents.multitool.metrics.LatencyHistogram;
+import agents.multitool.metrics.Metrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.adk.agents.CallbackContext;
+import com.google.genai.types.Content;
+import io.reactivex.rxjava3.core.Maybe;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * First step of the parallel workflow, without a model: reads the profile from the user's message
+ * ({@link CompanyProfile}), runs the similar-company search and the cohort lookup directly and
+ * writes both to {@code similar_companies} for the report sections. The numbers reach the sections
+ * exactly as the tools return them.
+ */
+public final class SimilarCompanyPrefetch {
+
+    public static final String OUTPUT_KEY = "similar_companies";
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private static final LatencyHistogram LATENCY = Metrics.timer("datacompass_prefetch_seconds",
+            "Similar companies and cohort statistics fetched ahead of the report sections");
+    private static final Counter ERRORS = Metrics.counter("datacompass_prefetch_errors_total",
+            "Prefetches that left the sections without comparable companies");
+
+    private SimilarCompanyPrefetch() {
+    }
+
+    /** A before-agent callback; never replaces the agent's output. */
+    public static Maybe<Content> beforeSections(CallbackContext context) {
+        context.state().put(OUTPUT_KEY, fetch(CompanyProfile.parse(CompanyProfile.userText(context))));
+        return Maybe.empty();
+    }
+
+    static String fetch(CompanyProfile profile) {
+        long start = System.nanoTime();
+        StringBuilder text = new StringBuilder("Profile: ")
+                .append(describe(profile))
+                .append("\n\n");
+        try {
+            List<Company> companies = new ArrayList<>();
+            CompanyVectorSearch.findSimilar(profile.name(), profile.industry(), profile.stage(), profile.revenue(),
+                    profile.filter(), companies);
+            text.append("Comparable companies:\n").append(JSON.writeValueAsString(ToolResponseFormat.encode(companies)));
+
+            String market = profile.market().isEmpty() ? commonMarket(companies) : profile.market();
+            int foundedYear = profile.foundedYear() > 0 ? profile.foundedYear() : profile.minFoundedYear();
+            Map<String, Object> cohort = CompanyCohorts.getCohortStatistics(market, profile.stage(), profile.region(), foundedYear);
+            text.append("\n\nCohort statistics:\n").append(JSON.writeValueAsString(cohort));
+        } catch (Exception e) {
+            ERRORS.increment();
+            System.err.println("Prefetching similar companies failed: " + e.getMessage());
+            text.append("No comparable companies could be retrieved (").append(e.getMessage()).append(").");
+        }
+        LATENCY.recordSince(start);
+        return text.toString();
+    }
+
+    private static String describe(CompanyProfile profile) {
+        List<String> parts = new ArrayList<>();
+        if (!profile.name().isEmpty()) {
+            parts.add("name " + profile.name());
+        }
+        if (!profile.industry().isEmpty()) {
+            parts.add((profile.structured() ? "industry " : "description ") + profile.industry());
+        }
+        if (!profile.stage().isEmpty()) {
+            parts.add("stage " + profile.stage());
+        }
+        if (!profile.revenue().isEmpty()) {
+            parts.add("revenue " + profile.revenue());
+        }
+        if (!profile.filter().isEmpty()) {
+            parts.add("peers restricted to " + profile.filter());
+        }
+        return String.join("; ", parts);
+    }
+
+    // the market most of the comparable companies are in, for the cohort when the user gave none
+    private static String commonMarket(List<Company> companies) {
+        Map<String, Integer> counts = new HashMap<>();
+        String best = "";
+        int bestCount = 0;
+        for (Company company : companies) {
+            String market = company.market() == null ? "" : company.market().trim();
+            if (market.isEmpty()) {
+                continue;
+            }
+            int count = counts.merge(market, 1, Integer::sum);
+            if (count > bestCount) {
+                best = market;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+}
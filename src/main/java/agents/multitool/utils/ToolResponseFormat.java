@@ -0,0 +1,189 @@
+package agents.multitool.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * How similar companies are encoded in tool responses, which the model reads as prompt tokens.
+ * "verbose" is the map per company of {@link Company#toResponse}. "compact" is one table per
+ * list: the column names once, then one array of values per company. It also makes these changes:
+ * <ul>
+ *   <li>company_id and content are dropped; content only repeats the name.</li>
+ *   <li>Rounds of 0 USD are treated as missing, since the export records rounds that never happened that way.</li>
+ *   <li>Categories that only repeat the market are dropped.</li>
+ *   <li>Columns that are empty in every row are dropped.</li>
+ *   <li>Similarities are rounded to three decimals.</li>
+ *   <li>Amounts are given in USD millions with three significant digits.</li>
+ *   <li>Categories are listed without the pipes.</li>
+ * </ul>
+ * If the JSON is longer than {@code datacompass.response.maxChars}, categories are cut to the
+ * first {@link #BUDGET_CATEGORIES}, then the least similar rows are dropped. The rows left keep
+ * their order: after hybrid search that is the fused rank, which need not follow similarity.
+ */
+public final class ToolResponseFormat {
+
+    /** "verbose" or "compact". */
+    public static final String MODE = DatacompassConfig.get("datacompass.response.format", "verbose").toLowerCase();
+    private static final int MAX_CHARS = DatacompassConfig.getInt("datacompass.response.maxChars", 2000);
+    static final int BUDGET_CATEGORIES = 3;
+
+    private static final String[] COLUMNS = {
+            "name", "similarity", "market", "categories", "status", "funding_usd_m", "rounds", "founded",
+            "round_a_usd_m", "round_b_usd_m", "round_c_usd_m", "round_d_usd_m"
+    };
+    private static final String UNITS = "amounts in USD millions";
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private ToolResponseFormat() {
+    }
+
+    public static boolean isCompact() {
+        return "compact".equals(MODE);
+    }
+
+    /** The "companies" value of a tool response in the configured format. */
+    public static Object encode(List<Company> companies) {
+        return isCompact() ? compact(companies, MAX_CHARS) : Company.toResponse(companies);
+    }
+
+    /** A table of {@code companies}, trimmed to at most {@code maxChars} of JSON unless it is 0. */
+    public static Map<String, Object> compact(List<Company> companies, int maxChars) {
+        Object[][] cells = new Object[companies.size()][];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = cells(companies.get(i), Integer.MAX_VALUE);
+        }
+        Map<String, Object> table = table(Arrays.asList(cells));
+        if (maxChars <= 0 || length(table) <= maxChars) {
+            return table;
+        }
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = cells(companies.get(i), BUDGET_CATEGORIES);
+        }
+        List<Object[]> rows = new ArrayList<>(Arrays.asList(cells));
+        table = table(rows);
+        if (length(table) > maxChars) {
+            // the least similar first, and of equally similar rows the lowest ranked
+            Integer[] leastSimilar = new Integer[cells.length];
+            for (int i = 0; i < leastSimilar.length; i++) {
+                leastSimilar[i] = cells.length - 1 - i;
+            }
+            Arrays.sort(leastSimilar, Comparator.comparingDouble(i -> companies.get(i).similarityScore()));
+            for (int dropped = 1; rows.size() > 1 && length(table) > maxChars; dropped++) {
+                rows.remove(cells[leastSimilar[dropped - 1]]);
+                table = table(rows);
+                table.put("omitted_rows", dropped);
+            }
+        }
+        return table;
+    }
+
+    /** Length of the JSON the model is sent for {@code value}. */
+    public static int length(Object value) {
+        return toJson(value).length();
+    }
+
+    static String toJson(Object value) {
+        try {
+            return JSON.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Tool response is not serializable", e);
+        }
+    }
+
+    private static Object[] cells(Company company, int maxCategories) {
+        String market = blankToNull(company.market());
+        String categories = categories(company.categoryList(), maxCategories);
+        return new Object[]{
+                blankToNull(company.name()),
+                Math.round(company.similarityScore() * 1000) / 1000.0,
+                market,
+                categories != null && categories.equalsIgnoreCase(market) ? null : categories,
+                blankToNull(company.status()),
+                millions(company.fundingTotalUsd()),
+                company.fundingRounds() == Company.UNKNOWN ? null : company.fundingRounds(),
+                company.foundedYear() == Company.UNKNOWN ? null : company.foundedYear(),
+                round(company.roundA()),
+                round(company.roundB()),
+                round(company.roundC()),
+                round(company.roundD())
+        };
+    }
+
+    // rows without the columns that are null in all of them
+    private static Map<String, Object> table(List<Object[]> rows) {
+        boolean[] used = new boolean[COLUMNS.length];
+        boolean amounts = false;
+        for (Object[] row : rows) {
+            for (int c = 0; c < COLUMNS.length; c++) {
+                if (row[c] != null) {
+                    used[c] = true;
+                    amounts |= COLUMNS[c].endsWith("_usd_m");
+                }
+            }
+        }
+        List<String> columns = new ArrayList<>();
+        for (int c = 0; c < COLUMNS.length; c++) {
+            if (used[c]) {
+                columns.add(COLUMNS[c]);
+            }
+        }
+        List<List<Object>> values = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            List<Object> cells = new ArrayList<>(columns.size());
+            for (int c = 0; c < COLUMNS.length; c++) {
+                if (used[c]) {
+                    cells.add(row[c]);
+                }
+            }
+            values.add(cells);
+        }
+        Map<String, Object> table = new LinkedHashMap<>();
+        table.put("columns", columns);
+        table.put("rows", values);
+        if (amounts) {
+            table.put("units", UNITS);
+        }
+        return table;
+    }
+
+    private static Double millions(double usd) {
+        if (Double.isNaN(usd)) {
+            return null;
+        }
+        double m = usd / 1e6;
+        if (m == 0) {
+            return 0.0;
+        }
+        // three significant digits: 0.0123, 1.25, 12.5, 125
+        double scale = Math.pow(10, 2 - (int) Math.floor(Math.log10(Math.abs(m))));
+        return Math.round(m * scale) / scale;
+    }
+
+    private static Double round(double usd) {
+        return usd == 0 ? null : millions(usd);
+    }
+
+    // "|Software|SaaS|" -> "Software, SaaS"
+    private static String categories(String list, int max) {
+        if (list == null) {
+            return null;
+        }
+        String[] categories = Arrays.stream(list.split("\\|")).map(String::trim).filter(s -> !s.isEmpty()).toArray(String[]::new);
+        if (categories.length == 0) {
+            return null;
+        }
+        return String.join(", ", Arrays.copyOf(categories, Math.min(max, categories.length)));
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
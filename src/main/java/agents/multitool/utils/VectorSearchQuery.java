@@ -0,0 +1,237 @@
+package agents.multitool.utils;
+
+import agents.multitool.search.CompanyFilter;
+import com.google.cloud.bigquery.QueryParameterValue;
+import com.google.cloud.bigquery.StandardSQLTypeName;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * SQL for the vector search path, formatted once at class load. Per-call values (the content to
+ * embed, a cached embedding, top_k) are bound as named query parameters, so the SQL text of every
+ * call is identical: BigQuery can serve repeats from its result cache, and quotes in company
+ * names cannot break the query.
+ */
+final class VectorSearchQuery {
+
+    private static final String MODEL = String.format("`%s.%s.%s`",
+            CompanyVectorSearch.PROJECT_ID, CompanyVectorSearch.DATASET_ID, CompanyVectorSearch.MODEL_NAME);
+
+    private static final String GENERATE_INPUT_EMBEDDING =
+            "  SELECT ml_generate_embedding_result AS input_embedding \n" +
+            "  FROM ML.GENERATE_EMBEDDING(\n" +
+            "    MODEL " + MODEL + ", \n" +
+            "    (SELECT @content AS content), \n" +
+            "    STRUCT(\n" +
+            "      TRUE AS flatten_json_output, \n" +
+            "      'RETRIEVAL_DOCUMENT' AS task_type, \n" +
+            "      " + CompanyVectorSearch.EMBEDDING_DIMENSION + " AS output_dimensionality\n" +
+            "    )\n" +
+            "  )\n";
+
+    private static final String BIND_INPUT_EMBEDDING =
+            "  SELECT @query_embedding AS input_embedding\n";
+
+    // Funding is stored as text like " 1,750,000 "; founded_year as "2007.0".
+    private static final String FUNDING_USD = "SAFE_CAST(REPLACE(TRIM(CAST(f.` funding_total_usd ` AS STRING)), ',', '') AS FLOAT64)";
+    private static final String FOUNDED_YEAR = "CAST(SAFE_CAST(CAST(f.founded_year AS STRING) AS FLOAT64) AS INT64)";
+
+    /**
+     * Base table of a filtered search: the embeddings of companies passing the {@code @market},
+     * {@code @status}, {@code @region}, funding and founded-year parameters. Unset parameters are
+     * bound as NULL, so the SQL text stays the same for every filter combination.
+     */
+    private static final String FILTERED_BASE = String.format(
+            "(\n" +
+            "    SELECT e.* FROM `%s.%s.%s` e\n" +
+            "    JOIN `%s.%s.%s` f ON e.company_id = f.company_id\n" +
+            "    WHERE (@market IS NULL OR LOWER(TRIM(f.` market `)) = @market)\n" +
+            "      AND (@status IS NULL OR LOWER(TRIM(f.status)) = @status)\n" +
+            "      AND (@region IS NULL OR LOWER(TRIM(f.region)) = @region)\n" +
+            "      AND (@min_funding_usd IS NULL OR " + FUNDING_USD + " >= @min_funding_usd)\n" +
+            "      AND (@max_funding_usd IS NULL OR " + FUNDING_USD + " <= @max_funding_usd)\n" +
+            "      AND (@min_founded_year IS NULL OR " + FOUNDED_YEAR + " >= @min_founded_year)\n" +
+            "      AND (@max_founded_year IS NULL OR " + FOUNDED_YEAR + " <= @max_founded_year)\n" +
+            "  )",
+            CompanyVectorSearch.PROJECT_ID, CompanyVectorSearch.DATASET_ID, CompanyVectorSearch.EMBEDDING_TABLE,
+            CompanyVectorSearch.PROJECT_ID, CompanyVectorSearch.DATASET_ID, CompanyVectorSearch.COMPANIES_TABLE);
+
+    /**
+     * With {@code filtered}, VECTOR_SEARCH runs over {@link #FILTERED_BASE} instead of the whole
+     * table, so all top_k slots go to passing companies. It is told to scan exactly: a vector index
+     * probing a fixed share of its lists could come back with fewer than top_k passing rows.
+     */
+    private static String search(boolean returnEmbedding, boolean filtered) {
+        String base = filtered ? FILTERED_BASE : String.format("TABLE `%s.%s.%s`",
+                CompanyVectorSearch.PROJECT_ID, CompanyVectorSearch.DATASET_ID, CompanyVectorSearch.EMBEDDING_TABLE);
+        return String.format(
+            ")\n" +
+            "SELECT \n" +
+            "  base.base.company_id,\n" +
+            "  base.base.content,\n" +
+            "  base.distance,\n" +
+            "  c.name,\n" +
+            "  c.category_list,\n" +
+            "  c.` market `,\n" +
+            "  c.` funding_total_usd `,\n" +
+            "  c.status,\n" +
+            "  c.region,\n" +
+            "  c.funding_rounds,\n" +
+            "  c.founded_year,\n" +
+            "  c.round_A,\n" +
+            "  c.round_B,\n" +
+            "  c.round_C,\n" +
+            "  c.round_D%s\n" +
+            "FROM VECTOR_SEARCH(\n" +
+            "  %s, \n" +
+            "  'ml_generate_embedding_result', \n" +
+            "  (SELECT input_embedding FROM InputEmbedding), \n" +
+            "  distance_type => 'COSINE', \n" +
+            "  top_k => @top_k%s\n" +
+            ") base\n" +
+            "JOIN `%s.%s.%s` c ON base.base.company_id = c.company_id\n" +
+            "WHERE base.base.company_id IS NOT NULL\n" +
+            "ORDER BY base.distance ASC\n" +
+            "LIMIT @top_k",
+            returnEmbedding ? ",\n  (SELECT input_embedding FROM InputEmbedding) AS input_embedding" : "",
+            base,
+            filtered ? ", \n  options => '{\"use_brute_force\": true}'" : "",
+            CompanyVectorSearch.PROJECT_ID, CompanyVectorSearch.DATASET_ID, CompanyVectorSearch.COMPANIES_TABLE);
+    }
+
+    /** Embeds {@code @content} and searches with it; also returns the embedding so it can be cached. */
+    static final String SEARCH_BY_CONTENT = "WITH InputEmbedding AS (\n" + GENERATE_INPUT_EMBEDDING + search(true, false);
+
+    /** Searches with an embedding bound as {@code @query_embedding}; no model call. */
+    static final String SEARCH_BY_EMBEDDING = "WITH InputEmbedding AS (\n" + BIND_INPUT_EMBEDDING + search(false, false);
+
+    /** {@link #SEARCH_BY_CONTENT} restricted to companies passing the filter parameters. */
+    static final String FILTERED_SEARCH_BY_CONTENT = "WITH InputEmbedding AS (\n" + GENERATE_INPUT_EMBEDDING + search(true, true);
+
+    /** {@link #SEARCH_BY_EMBEDDING} restricted to companies passing the filter parameters. */
+    static final String FILTERED_SEARCH_BY_EMBEDDING = "WITH InputEmbedding AS (\n" + BIND_INPUT_EMBEDDING + search(false, true);
+
+    /** Embeds {@code @content} only. */
+    static final String EMBED_CONTENT =
+            "SELECT ml_generate_embedding_result AS embedding\n" +
+            "FROM ML.GENERATE_EMBEDDING(\n" +
+            "  MODEL " + MODEL + ", \n" +
+            "  (SELECT @content AS content), \n" +
+            "  STRUCT(\n" +
+            "    TRUE AS flatten_json_output, \n" +
+            "    'RETRIEVAL_DOCUMENT' AS task_type, \n" +
+            "    " + CompanyVectorSearch.EMBEDDING_DIMENSION + " AS output_dimensionality\n" +
+            "  )\n" +
+            ")";
+
+    private static final String BATCH_INPUT_EMBEDDINGS =
+            "WITH Inputs AS (\n" +
+            "  SELECT input_id, content FROM UNNEST(@contents) AS content WITH OFFSET AS input_id\n" +
+            "),\n" +
+            "InputEmbeddings AS (\n" +
+            "  SELECT input_id, ml_generate_embedding_result AS input_embedding\n" +
+            "  FROM ML.GENERATE_EMBEDDING(\n" +
+            "    MODEL " + MODEL + ", \n" +
+            "    (SELECT input_id, content FROM Inputs), \n" +
+            "    STRUCT(\n" +
+            "      TRUE AS flatten_json_output, \n" +
+            "      'RETRIEVAL_DOCUMENT' AS task_type, \n" +
+            "      " + CompanyVectorSearch.EMBEDDING_DIMENSION + " AS output_dimensionality\n" +
+            "    )\n" +
+            "  )\n" +
+            ")\n";
+
+    /**
+     * Embeds every element of {@code @contents} in one model call and runs one VECTOR_SEARCH with a
+     * query row per input. Rows carry {@code input_id}, the input's offset in {@code @contents}.
+     */
+    static final String BATCH_SEARCH_BY_CONTENT = BATCH_INPUT_EMBEDDINGS + String.format(
+            "SELECT \n" +
+            "  base.query.input_id,\n" +
+            "  base.base.company_id,\n" +
+            "  base.base.content,\n" +
+            "  base.distance,\n" +
+            "  c.name,\n" +
+            "  c.category_list,\n" +
+            "  c.` market `,\n" +
+            "  c.` funding_total_usd `,\n" +
+            "  c.status,\n" +
+            "  c.region,\n" +
+            "  c.funding_rounds,\n" +
+            "  c.founded_year,\n" +
+            "  c.round_A,\n" +
+            "  c.round_B,\n" +
+            "  c.round_C,\n" +
+            "  c.round_D\n" +
+            "FROM VECTOR_SEARCH(\n" +
+            "  TABLE `%s.%s.%s`, \n" +
+            "  'ml_generate_embedding_result', \n" +
+            "  (SELECT input_id, input_embedding FROM InputEmbeddings), \n" +
+            "  'input_embedding', \n" +
+            "  distance_type => 'COSINE', \n" +
+            "  top_k => @top_k\n" +
+            ") base\n" +
+            "JOIN `%s.%s.%s` c ON base.base.company_id = c.company_id\n" +
+            "WHERE base.base.company_id IS NOT NULL\n" +
+            "ORDER BY input_id, base.distance ASC",
+            CompanyVectorSearch.PROJECT_ID, CompanyVectorSearch.DATASET_ID, CompanyVectorSearch.EMBEDDING_TABLE,
+            CompanyVectorSearch.PROJECT_ID, CompanyVectorSearch.DATASET_ID, CompanyVectorSearch.COMPANIES_TABLE);
+
+    /** Embeds every element of {@code @contents}; rows carry {@code input_id} and {@code embedding}. */
+    static final String BATCH_EMBED_CONTENT = BATCH_INPUT_EMBEDDINGS +
+            "SELECT input_id, input_embedding AS embedding FROM InputEmbeddings";
+
+    private VectorSearchQuery() {
+    }
+
+    static String inputContent(String name, String industry, String stage, String revenue) {
+        return "Company Name: " + name + ". Industry: " + industry + ". Funding Stage: " + stage +
+                ". Revenue Range: " + revenue + ". This is a startup company in the " + industry +
+                " industry at " + stage + " stage with " + revenue + " revenue.";
+    }
+
+    /** Query of the BM25 half of the hybrid search; stage and revenue never occur in the indexed fields. */
+    static String lexicalContent(String name, String industry) {
+        return name + " " + industry;
+    }
+
+    static Map<String, QueryParameterValue> contentParameters(String content, int topK) {
+        return Map.of(
+                "content", QueryParameterValue.string(content),
+                "top_k", QueryParameterValue.int64(topK));
+    }
+
+    static Map<String, QueryParameterValue> batchParameters(String[] contents, int topK) {
+        return Map.of(
+                "contents", QueryParameterValue.array(contents, StandardSQLTypeName.STRING),
+                "top_k", QueryParameterValue.int64(topK));
+    }
+
+    static Map<String, QueryParameterValue> embeddingParameters(float[] embedding, int topK) {
+        return Map.of(
+                "query_embedding", toArrayParameter(embedding),
+                "top_k", QueryParameterValue.int64(topK));
+    }
+
+    /** Adds the parameters of the FILTERED_* queries to {@code parameters}; unset values are NULL. */
+    static Map<String, QueryParameterValue> withFilterParameters(Map<String, QueryParameterValue> parameters, CompanyFilter filter) {
+        Map<String, QueryParameterValue> all = new HashMap<>(parameters);
+        all.put("market", QueryParameterValue.of(filter.market(), StandardSQLTypeName.STRING));
+        all.put("status", QueryParameterValue.of(filter.status(), StandardSQLTypeName.STRING));
+        all.put("region", QueryParameterValue.of(filter.region(), StandardSQLTypeName.STRING));
+        all.put("min_funding_usd", QueryParameterValue.of(Double.isNaN(filter.minFundingUsd()) ? null : filter.minFundingUsd(), StandardSQLTypeName.FLOAT64));
+        all.put("max_funding_usd", QueryParameterValue.of(Double.isNaN(filter.maxFundingUsd()) ? null : filter.maxFundingUsd(), StandardSQLTypeName.FLOAT64));
+        all.put("min_founded_year", QueryParameterValue.of(filter.minFoundedYear() == 0 ? null : (long) filter.minFoundedYear(), StandardSQLTypeName.INT64));
+        all.put("max_founded_year", QueryParameterValue.of(filter.maxFoundedYear() == 0 ? null : (long) filter.maxFoundedYear(), StandardSQLTypeName.INT64));
+        return all;
+    }
+
+    static QueryParameterValue toArrayParameter(float[] vector) {
+        Double[] values = new Double[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            values[i] = (double) vector[i];
+        }
+        return QueryParameterValue.array(values, StandardSQLTypeName.FLOAT64);
+    }
+}
@@ -1,7 +1,18 @@
 package agents.multitool.utils;
 
+import agents.multitool.search.CompanyColumns;
+import agents.multitool.warehouse.CompanySource;
 import com.google.cloud.bigquery.*;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
 public class generateEmbedding {
 
   private static final String PROJECT_ID = "hopeful-list-463100-s6";
@@ -11,12 +22,33 @@ public class generateEmbedding {
   private static final String CONNECTION_ID = "vertex-ai-connection";
   private static final String MODEL_NAME = "text_embedding_model";
   private static final String REGION = "us"; // Change to your region
+  private static final int EMBEDDING_DIMENSION = 256;
+  // Companies to (re-)embed in an incremental run, numbered into chunks; kept until the run completes
+  private static final String PENDING_TABLE = "companies_embeddings_pending";
+
+  // "full" rebuilds companies_embeddings_ml, "incremental" embeds only new or changed companies
+  private static final String MODE = DatacompassConfig.get("datacompass.embedding.mode", "full");
+  private static final int CHUNK_SIZE = DatacompassConfig.getInt("datacompass.embedding.chunkSize", 5_000);
+  private static final String CHECKPOINT_PATH = DatacompassConfig.get("datacompass.embedding.checkpoint", "embedding-checkpoint.properties");
 
   public static void main(String[] args) {
-    BigQuery bigquery = BigQueryOptions.newBuilder()
-            .setProjectId(PROJECT_ID)
-            .build()
-            .getService();
+    if (CompanyVectorSearch.LOCAL_WAREHOUSE) {
+      // Nothing to generate remotely: embed the CSV with the local model straight into the snapshot
+      String snapshotPath = DatacompassConfig.get("datacompass.snapshot.path", "");
+      if (snapshotPath.isEmpty()) {
+        System.err.println("Set datacompass.snapshot.path to export the local companies CSV");
+        return;
+      }
+      try {
+        exportSnapshot(CompanyVectorSearch.companySource(), Paths.get(snapshotPath));
+      } catch (Exception e) {
+        System.err.println("Error: " + e.getMessage());
+        e.printStackTrace();
+      }
+      return;
+    }
+
+    BigQuery bigquery = BigQueryClientProvider.get();
 
     try {
       // Step 1: Create the connection (if not exists)
@@ -27,7 +59,17 @@ public class generateEmbedding {
       createRemoteModel(bigquery);
 
       // Step 3: Generate embeddings using the model
-      generateEmbeddings(bigquery);
+      if ("incremental".equalsIgnoreCase(MODE)) {
+        generateEmbeddingsIncremental(bigquery);
+      } else {
+        generateEmbeddings(bigquery);
+      }
+
+      // Step 4: Export a local snapshot for the in-process search backends
+      String snapshotPath = DatacompassConfig.get("datacompass.snapshot.path", "");
+      if (!snapshotPath.isEmpty()) {
+        exportSnapshot(bigquery, Paths.get(snapshotPath));
+      }
 
     } catch (Exception e) {
       System.err.println("Error: " + e.getMessage());
@@ -91,7 +133,8 @@ public class generateEmbedding {
                     "  (\n" +
                     "    SELECT\n" +
                     "      company_id,\n" +
-                    "      name AS content  -- ML.GENERATE_EMBEDDING expects a 'content' column\n" +
+                    "      name AS content,  -- ML.GENERATE_EMBEDDING expects a 'content' column\n" +
+                    "      TO_HEX(MD5(name)) AS content_hash  -- lets incremental runs detect changed names\n" +
                     "    FROM `%s.%s.%s`\n" +
                     "    WHERE name IS NOT NULL AND TRIM(name) != ''\n" +
                     "  ),\n" +
@@ -130,6 +173,148 @@ public class generateEmbedding {
     verifyResults(bigquery);
   }
 
+  /**
+   * Embeds only companies that are new or whose content hash changed since they were embedded, and
+   * MERGEs them into the embedding table chunk by chunk. The delta is materialized once into
+   * {@link #PENDING_TABLE}; completed chunks are recorded in a checkpoint file, so an interrupted
+   * run resumes with the next chunk instead of recomputing the delta.
+   */
+  private static void generateEmbeddingsIncremental(BigQuery bigquery) throws InterruptedException, IOException {
+    TableId embeddingTableId = TableId.of(PROJECT_ID, DATASET_ID, EMBEDDING_TABLE);
+    if (bigquery.getTable(embeddingTableId) == null) {
+      System.out.println("No embedding table yet, running a full generation instead.");
+      generateEmbeddings(bigquery);
+      return;
+    }
+
+    // Tables created before content hashes were tracked get the column; their rows hash content on the fly
+    executeQuery(bigquery, String.format(
+            "ALTER TABLE `%s.%s.%s` ADD COLUMN IF NOT EXISTS content_hash STRING",
+            PROJECT_ID, DATASET_ID, EMBEDDING_TABLE));
+
+    Path checkpointFile = Paths.get(CHECKPOINT_PATH);
+    Table pending = bigquery.getTable(TableId.of(PROJECT_ID, DATASET_ID, PENDING_TABLE));
+    int nextChunk = 0;
+    if (pending != null) {
+      nextChunk = readCheckpoint(checkpointFile, pending.getCreationTime());
+      System.out.printf("Resuming interrupted run at chunk %d%n", nextChunk);
+    } else {
+      System.out.println("Computing companies with new or changed content...");
+      executeQuery(bigquery, String.format(
+              "CREATE TABLE `%s.%s.%s` AS\n" +
+                      "SELECT\n" +
+                      "  s.company_id,\n" +
+                      "  s.name AS content,\n" +
+                      "  TO_HEX(MD5(s.name)) AS content_hash,\n" +
+                      "  DIV(ROW_NUMBER() OVER (ORDER BY s.company_id) - 1, %d) AS chunk\n" +
+                      "FROM `%s.%s.%s` s\n" +
+                      "LEFT JOIN `%s.%s.%s` e ON e.company_id = s.company_id\n" +
+                      "WHERE s.name IS NOT NULL AND TRIM(s.name) != ''\n" +
+                      "  AND (e.company_id IS NULL\n" +
+                      "    OR ARRAY_LENGTH(e.ml_generate_embedding_result) != %d\n" +
+                      "    OR COALESCE(e.content_hash, TO_HEX(MD5(e.content))) != TO_HEX(MD5(s.name)))",
+              PROJECT_ID, DATASET_ID, PENDING_TABLE, CHUNK_SIZE,
+              PROJECT_ID, DATASET_ID, SOURCE_TABLE,
+              PROJECT_ID, DATASET_ID, EMBEDDING_TABLE,
+              EMBEDDING_DIMENSION));
+      pending = bigquery.getTable(TableId.of(PROJECT_ID, DATASET_ID, PENDING_TABLE));
+      writeCheckpoint(checkpointFile, pending.getCreationTime(), 0);
+    }
+
+    long chunks = 0;
+    for (FieldValueList row : executeQuery(bigquery, String.format(
+            "SELECT COUNT(*) AS total, IFNULL(MAX(chunk) + 1, 0) AS chunks FROM `%s.%s.%s`",
+            PROJECT_ID, DATASET_ID, PENDING_TABLE)).iterateAll()) {
+      System.out.printf("%d companies to embed in %d chunks of %d%n",
+              row.get("total").getLongValue(), row.get("chunks").getLongValue(), CHUNK_SIZE);
+      chunks = row.get("chunks").getLongValue();
+    }
+
+    // Rows the model failed on are left out of the MERGE, so they stay in the delta of the next run
+    String mergeSql = String.format(
+            "MERGE `%s.%s.%s` t\n" +
+                    "USING (\n" +
+                    "  SELECT company_id, content, content_hash, ml_generate_embedding_result, ml_generate_embedding_status\n" +
+                    "  FROM ML.GENERATE_EMBEDDING(\n" +
+                    "    MODEL `%s.%s.%s`,\n" +
+                    "    (SELECT company_id, content, content_hash FROM `%s.%s.%s` WHERE chunk = @chunk),\n" +
+                    "    STRUCT(\n" +
+                    "      TRUE AS flatten_json_output,\n" +
+                    "      'RETRIEVAL_DOCUMENT' AS task_type,\n" +
+                    "      %d AS output_dimensionality\n" +
+                    "    )\n" +
+                    "  )\n" +
+                    "  WHERE ml_generate_embedding_status = ''\n" +
+                    ") s\n" +
+                    "ON t.company_id = s.company_id\n" +
+                    "WHEN MATCHED THEN UPDATE SET\n" +
+                    "  content = s.content,\n" +
+                    "  content_hash = s.content_hash,\n" +
+                    "  ml_generate_embedding_result = s.ml_generate_embedding_result,\n" +
+                    "  ml_generate_embedding_status = s.ml_generate_embedding_status\n" +
+                    "WHEN NOT MATCHED THEN INSERT\n" +
+                    "  (company_id, content, content_hash, ml_generate_embedding_result, ml_generate_embedding_status)\n" +
+                    "  VALUES (s.company_id, s.content, s.content_hash, s.ml_generate_embedding_result, s.ml_generate_embedding_status)",
+            PROJECT_ID, DATASET_ID, EMBEDDING_TABLE,
+            PROJECT_ID, DATASET_ID, MODEL_NAME,
+            PROJECT_ID, DATASET_ID, PENDING_TABLE,
+            EMBEDDING_DIMENSION);
+
+    for (int chunk = nextChunk; chunk < chunks; chunk++) {
+      long start = System.nanoTime();
+      Job job = runJob(bigquery, QueryJobConfiguration.newBuilder(mergeSql)
+              .setUseLegacySql(false)
+              .addNamedParameter("chunk", QueryParameterValue.int64(chunk))
+              .build());
+      Long affected = ((JobStatistics.QueryStatistics) job.getStatistics()).getNumDmlAffectedRows();
+      System.out.printf("Chunk %d/%d: %d embeddings merged in %d ms%n",
+              chunk + 1, chunks, affected == null ? 0 : affected, (System.nanoTime() - start) / 1_000_000);
+      writeCheckpoint(checkpointFile, pending.getCreationTime(), chunk + 1);
+    }
+
+    // Companies that were removed or lost their name no longer belong in the index
+    executeQuery(bigquery, String.format(
+            "DELETE FROM `%s.%s.%s` e\n" +
+                    "WHERE NOT EXISTS (\n" +
+                    "  SELECT 1 FROM `%s.%s.%s` s\n" +
+                    "  WHERE s.company_id = e.company_id AND s.name IS NOT NULL AND TRIM(s.name) != ''\n" +
+                    ")",
+            PROJECT_ID, DATASET_ID, EMBEDDING_TABLE,
+            PROJECT_ID, DATASET_ID, SOURCE_TABLE));
+
+    bigquery.delete(TableId.of(PROJECT_ID, DATASET_ID, PENDING_TABLE));
+    Files.deleteIfExists(checkpointFile);
+    System.out.println("Incremental embedding refresh completed!");
+
+    verifyResults(bigquery);
+  }
+
+  /** Next chunk to process, or 0 when the checkpoint is missing or belongs to another pending table. */
+  private static int readCheckpoint(Path file, Long pendingCreationTime) throws IOException {
+    if (!Files.exists(file)) {
+      return 0;
+    }
+    Properties checkpoint = new Properties();
+    try (Reader reader = Files.newBufferedReader(file)) {
+      checkpoint.load(reader);
+    }
+    if (!String.valueOf(pendingCreationTime).equals(checkpoint.getProperty("pendingCreationTime"))) {
+      return 0;
+    }
+    return Integer.parseInt(checkpoint.getProperty("nextChunk", "0"));
+  }
+
+  private static void writeCheckpoint(Path file, Long pendingCreationTime, int nextChunk) throws IOException {
+    Properties checkpoint = new Properties();
+    checkpoint.setProperty("pendingCreationTime", String.valueOf(pendingCreationTime));
+    checkpoint.setProperty("nextChunk", Integer.toString(nextChunk));
+    Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    try (Writer writer = Files.newBufferedWriter(temp)) {
+      checkpoint.store(writer, "generateEmbedding incremental run");
+    }
+    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
   private static void verifyResults(BigQuery bigquery) throws InterruptedException {
     String verifySql = String.format(
             "SELECT\n" +
@@ -188,11 +373,91 @@ public class generateEmbedding {
             PROJECT_ID, DATASET_ID, EMBEDDING_TABLE);
   }
 
+  /**
+   * Writes companies_embeddings_ml joined with companies to a columnar snapshot file
+   * that {@link agents.multitool.search.CompanySnapshot} memory-maps.
+   */
+  public static void exportSnapshot(BigQuery bigquery, Path path) throws InterruptedException, IOException {
+    exportSnapshot(new BigQueryCompanySource(bigquery), path);
+  }
+
+  static void exportSnapshot(CompanySource source, Path path) throws InterruptedException, IOException {
+    System.out.println("Exporting embeddings snapshot to " + path + "...");
+    long start = System.nanoTime();
+    int size = source.exportSnapshot(path);
+    System.out.printf("Snapshot written: %d companies in %d ms%n", size, (System.nanoTime() - start) / 1_000_000);
+  }
+
+  /** Every embedded company with its metadata, columns aliased to {@link CompanyColumns#NAMES} plus "embedding". */
+  static TableResult queryCompanyEmbeddings(BigQuery bigquery) throws InterruptedException {
+    String sql = String.format(
+            "SELECT\n" +
+                    "  e.company_id,\n" +
+                    "  e.content,\n" +
+                    "  e.ml_generate_embedding_result AS embedding,\n" +
+                    "  c.name,\n" +
+                    "  c.category_list,\n" +
+                    "  c.` market ` AS market,\n" +
+                    "  c.` funding_total_usd ` AS funding_total_usd,\n" +
+                    "  c.status,\n" +
+                    "  c.funding_rounds,\n" +
+                    "  c.founded_year,\n" +
+                    "  c.round_A,\n" +
+                    "  c.round_B,\n" +
+                    "  c.round_C,\n" +
+                    "  c.round_D,\n" +
+                    "  c.region\n" +
+                    "FROM `%s.%s.%s` e\n" +
+                    "JOIN `%s.%s.%s` c ON e.company_id = c.company_id\n" +
+                    "WHERE ARRAY_LENGTH(e.ml_generate_embedding_result) = %d\n" +
+                    "ORDER BY e.company_id",
+            PROJECT_ID, DATASET_ID, EMBEDDING_TABLE,
+            PROJECT_ID, DATASET_ID, SOURCE_TABLE,
+            EMBEDDING_DIMENSION
+    );
+    return executeQuery(bigquery, sql);
+  }
+
+  /** Every company, embedded or not, columns aliased to {@link CompanyColumns#NAMES} (content is NULL). */
+  static TableResult queryCompanies(BigQuery bigquery) throws InterruptedException {
+    String sql = String.format(
+            "SELECT\n" +
+                    "  CAST(company_id AS STRING) AS company_id,\n" +
+                    "  CAST(NULL AS STRING) AS content,\n" +
+                    "  name,\n" +
+                    "  category_list,\n" +
+                    "  ` market ` AS market,\n" +
+                    "  ` funding_total_usd ` AS funding_total_usd,\n" +
+                    "  status,\n" +
+                    "  funding_rounds,\n" +
+                    "  founded_year,\n" +
+                    "  round_A,\n" +
+                    "  round_B,\n" +
+                    "  round_C,\n" +
+                    "  round_D,\n" +
+                    "  region\n" +
+                    "FROM `%s.%s.%s`",
+            PROJECT_ID, DATASET_ID, SOURCE_TABLE
+    );
+    return executeQuery(bigquery, sql);
+  }
+
+  static void readCompanyRow(FieldValueList row, String[] values) {
+    for (int c = 0; c < values.length; c++) {
+      FieldValue value = row.get(CompanyColumns.NAMES[c]);
+      values[c] = value.isNull() ? null : value.getStringValue();
+    }
+  }
+
   private static TableResult executeQuery(BigQuery bigquery, String sql) throws InterruptedException {
     QueryJobConfiguration queryConfig = QueryJobConfiguration.newBuilder(sql)
             .setUseLegacySql(false)
             .build();
 
+    return runJob(bigquery, queryConfig).getQueryResults();
+  }
+
+  private static Job runJob(BigQuery bigquery, QueryJobConfiguration queryConfig) throws InterruptedException {
     Job queryJob = bigquery.create(JobInfo.newBuilder(queryConfig).build());
     queryJob = queryJob.waitFor();
 
@@ -204,7 +469,7 @@ public class generateEmbedding {
       throw new RuntimeException("Query failed: " + queryJob.getStatus().getError().toString());
     }
 
-    return queryJob.getQueryResults();
+    return queryJob;
   }
 
 
@@ -0,0 +1,61 @@
+package agents.multitool.warehouse;
+
+import agents.multitool.search.CompanyColumns;
+import agents.multitool.search.CompanyCorpus;
+import agents.multitool.search.CompanySnapshotWriter;
+import agents.multitool.search.CompanyStore;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Where the in-process search backends get their companies from: every embedded company with its
+ * metadata, read once at startup. The warehouse behind it may be BigQuery or a local file.
+ */
+public interface CompanySource {
+
+    int dimension();
+
+    /**
+     * Streams every company to {@code consumer}, values in {@link CompanyColumns} order. Both
+     * arrays are reused between calls, so copy what you keep.
+     */
+    void forEach(CompanyConsumer consumer) throws IOException, InterruptedException;
+
+    /**
+     * Streams every company in the warehouse, embedded or not, without embeddings ({@code null}
+     * is passed). Sources that can skip reading or computing embeddings should override this.
+     */
+    default void forEachRow(CompanyConsumer consumer) throws IOException, InterruptedException {
+        forEach((values, embedding) -> consumer.accept(values, null));
+    }
+
+    /**
+     * Changes whenever the companies do, embedded or not, such as the last-modified time of the
+     * tables or file behind the source; 0 if the source cannot tell.
+     */
+    default long version() throws IOException, InterruptedException {
+        return 0;
+    }
+
+    /** All companies on the heap. */
+    default CompanyStore load() throws IOException, InterruptedException {
+        CompanyCorpus.Builder builder = CompanyCorpus.builder(dimension());
+        forEach(builder::add);
+        return builder.build();
+    }
+
+    /** Writes all companies to a snapshot that {@code CompanySnapshot.open} can map. */
+    default int exportSnapshot(Path path) throws IOException, InterruptedException {
+        try (CompanySnapshotWriter writer = new CompanySnapshotWriter(path, dimension())) {
+            forEach(writer::add);
+            writer.finish();
+            return writer.size();
+        }
+    }
+
+    @FunctionalInterface
+    interface CompanyConsumer {
+        void accept(String[] values, float[] embedding) throws IOException;
+    }
+}
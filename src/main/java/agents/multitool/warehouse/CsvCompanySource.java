@@ -0,0 +1,190 @@
+package agents.multitool.warehouse;
+
+import agents.multitool.search.CompanyColumns;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Companies read from a CSV export of the Crunchbase {@code companies} table and embedded locally,
+ * for running the search path without BigQuery. Headers are matched trimmed and case-insensitively
+ * (the export's {@code " market "} matches {@code market}); {@code company_id} falls back to
+ * {@code permalink} and then the row number. Without a {@code content} column, the embedded
+ * content is the name followed by the market and categories, which gives the hashing model words
+ * to match a profile's industry against.
+ */
+public final class CsvCompanySource implements CompanySource {
+
+    private final Path path;
+    private final EmbeddingModel model;
+
+    public CsvCompanySource(Path path, EmbeddingModel model) {
+        this.path = path;
+        this.model = model;
+    }
+
+    @Override
+    public int dimension() {
+        return model.dimension();
+    }
+
+    @Override
+    public void forEach(CompanyConsumer consumer) throws IOException, InterruptedException {
+        read(consumer, true);
+    }
+
+    @Override
+    public void forEachRow(CompanyConsumer consumer) throws IOException, InterruptedException {
+        read(consumer, false);
+    }
+
+    @Override
+    public long version() throws IOException {
+        return Files.getLastModifiedTime(path).toMillis();
+    }
+
+    private void read(CompanyConsumer consumer, boolean embed) throws IOException, InterruptedException {
+        try (Reader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(path),
+                StandardCharsets.UTF_8.newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPLACE)
+                        .onUnmappableCharacter(CodingErrorAction.REPLACE)), 1 << 16)) {
+            CsvReader csv = new CsvReader(reader);
+            List<String> header = csv.next();
+            if (header == null) {
+                throw new IOException("Empty companies CSV: " + path);
+            }
+            int[] sourceColumn = mapHeader(header);
+            int contentColumn = indexOf(header, "content");
+
+            String[] values = new String[CompanyColumns.COUNT];
+            long row = 0;
+            for (List<String> record = csv.next(); record != null; record = csv.next(), row++) {
+                for (int c = 0; c < CompanyColumns.COUNT; c++) {
+                    int source = sourceColumn[c];
+                    String value = source >= 0 && source < record.size() ? record.get(source) : null;
+                    values[c] = value == null || value.isEmpty() ? null : value;
+                }
+                if (values[CompanyColumns.COMPANY_ID] == null) {
+                    values[CompanyColumns.COMPANY_ID] = Long.toString(row);
+                }
+                if (contentColumn < 0 || values[CompanyColumns.CONTENT] == null) {
+                    values[CompanyColumns.CONTENT] = content(values);
+                }
+                consumer.accept(values, embed ? model.embed(values[CompanyColumns.CONTENT]) : null);
+            }
+        }
+    }
+
+    private static String content(String[] values) {
+        StringBuilder content = new StringBuilder();
+        for (int c : new int[]{CompanyColumns.NAME, CompanyColumns.MARKET, CompanyColumns.CATEGORY_LIST}) {
+            String value = values[c];
+            if (value != null) {
+                if (content.length() > 0) {
+                    content.append(". ");
+                }
+                content.append(value.replace('|', ' ').trim());
+            }
+        }
+        return content.toString();
+    }
+
+    private static int[] mapHeader(List<String> header) {
+        int[] sourceColumn = new int[CompanyColumns.COUNT];
+        for (int c = 0; c < CompanyColumns.COUNT; c++) {
+            sourceColumn[c] = indexOf(header, CompanyColumns.NAMES[c]);
+        }
+        if (sourceColumn[CompanyColumns.COMPANY_ID] < 0) {
+            sourceColumn[CompanyColumns.COMPANY_ID] = indexOf(header, "permalink");
+        }
+        if (sourceColumn[CompanyColumns.NAME] < 0) {
+            throw new IllegalArgumentException("Companies CSV has no 'name' column: " + header);
+        }
+        return sourceColumn;
+    }
+
+    private static int indexOf(List<String> header, String column) {
+        for (int i = 0; i < header.size(); i++) {
+            if (header.get(i).trim().toLowerCase(Locale.ROOT).equals(column.toLowerCase(Locale.ROOT))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** RFC 4180 records: quoted fields may contain commas, doubled quotes and line breaks. */
+    static final class CsvReader {
+        private final Reader in;
+        private final StringBuilder field = new StringBuilder();
+        private int pending = -2;
+
+        CsvReader(Reader in) {
+            this.in = in;
+        }
+
+        /** Next record, or null at end of input. */
+        List<String> next() throws IOException {
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> record = new ArrayList<>();
+            field.setLength(0);
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        throw new IOException("Unterminated quoted field");
+                    }
+                    if (c == '"') {
+                        int after = read();
+                        if (after == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            c = after;
+                            continue;
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c == ',') {
+                    record.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == '\r' || c == -1) {
+                    if (c == '\r') {
+                        int after = read();
+                        if (after != '\n') {
+                            pending = after;
+                        }
+                    }
+                    record.add(field.toString());
+                    return record;
+                } else {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+        }
+
+        private int read() throws IOException {
+            if (pending != -2) {
+                int c = pending;
+                pending = -2;
+                return c;
+            }
+            return in.read();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package agents.multitool.warehouse;
+
+/**
+ * Turns text into the embedding space the company vectors live in. Query text and company
+ * content must go through the same model, or their similarities mean nothing.
+ */
+public interface EmbeddingModel {
+
+    int dimension();
+
+    /** Identifies the embedding space; two models with the same name produce comparable vectors. */
+    String name();
+
+    float[] embed(String content) throws InterruptedException;
+
+    /** Embeds every element; implementations that pay per call should batch. */
+    default float[][] embedAll(String[] contents) throws InterruptedException {
+        float[][] embeddings = new float[contents.length][];
+        for (int i = 0; i < contents.length; i++) {
+            embeddings[i] = embed(contents[i]);
+        }
+        return embeddings;
+    }
+}
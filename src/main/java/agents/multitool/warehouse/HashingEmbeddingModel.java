@@ -0,0 +1,98 @@
+package agents.multitool.warehouse;
+
+import agents.multitool.search.VectorMath;
+
+/**
+ * Deterministic offline stand-in for the Vertex AI text embedding model: feature hashing of
+ * lower-cased word unigrams, word bigrams and character trigrams into a signed, L2-normalized
+ * vector. Texts sharing words or word fragments ("Software" / "SaaS software") land close together,
+ * which is enough for the search path to return plausible peers. The output depends only on the
+ * text and dimension, never on the JVM, so runs are reproducible. Costs a few microseconds per
+ * call and is thread-safe.
+ */
+public final class HashingEmbeddingModel implements EmbeddingModel {
+
+    private static final float WORD_WEIGHT = 1.0f;
+    private static final float BIGRAM_WEIGHT = 0.7f;
+    private static final float TRIGRAM_WEIGHT = 0.35f;
+
+    private final int dimension;
+
+    public HashingEmbeddingModel(int dimension) {
+        if (dimension <= 0) {
+            throw new IllegalArgumentException("dimension must be positive: " + dimension);
+        }
+        this.dimension = dimension;
+    }
+
+    @Override
+    public int dimension() {
+        return dimension;
+    }
+
+    @Override
+    public String name() {
+        return "hashing-" + dimension;
+    }
+
+    @Override
+    public float[] embed(String content) {
+        float[] vector = new float[dimension];
+        if (content == null) {
+            return vector;
+        }
+        long previousWord = 0;
+        boolean hasPrevious = false;
+        int length = content.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && !Character.isLetterOrDigit(content.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && Character.isLetterOrDigit(content.charAt(i))) {
+                i++;
+            }
+            if (start == i) {
+                break;
+            }
+            long word = hash(content, start, i);
+            add(vector, word, WORD_WEIGHT);
+            if (hasPrevious) {
+                add(vector, mix(previousWord * 31 + word), BIGRAM_WEIGHT);
+            }
+            // "^ab", "abc", ..., "yz$" so short words still share fragments with longer ones
+            for (int t = start - 1; t + 2 <= i; t++) {
+                long trigram = 0x9E3779B97F4A7C15L;
+                for (int c = t; c < t + 3; c++) {
+                    char ch = c < start || c >= i ? '#' : Character.toLowerCase(content.charAt(c));
+                    trigram = mix(trigram ^ ch);
+                }
+                add(vector, trigram, TRIGRAM_WEIGHT);
+            }
+            previousWord = word;
+            hasPrevious = true;
+        }
+        return VectorMath.normalize(vector);
+    }
+
+    private void add(float[] vector, long hash, float weight) {
+        int index = (int) ((hash >>> 1) % dimension);
+        vector[index] += (hash & 1) == 0 ? weight : -weight;
+    }
+
+    private static long hash(String text, int from, int to) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = from; i < to; i++) {
+            h = (h ^ Character.toLowerCase(text.charAt(i))) * 0x100000001B3L;
+        }
+        return mix(h);
+    }
+
+    // SplitMix64 finalizer: spreads FNV's weak low bits across the whole word
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
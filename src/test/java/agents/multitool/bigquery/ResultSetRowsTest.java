@@ -0,0 +1,92 @@
+package agents.multitool.bigquery;
+
+import com.google.cloud.bigquery.Field;
+import com.google.cloud.bigquery.FieldList;
+import com.google.cloud.bigquery.FieldValue;
+import com.google.cloud.bigquery.StandardSQLTypeName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reads through a stand-in for the Connection API result set: columns addressed by 0-based
+ * schema position, {@code findColumn} unsupported.
+ */
+class ResultSetRowsTest {
+
+    private static final FieldList FIELDS = FieldList.of(
+            Field.of("input_id", StandardSQLTypeName.INT64),
+            Field.of("name", StandardSQLTypeName.STRING),
+            Field.of("distance", StandardSQLTypeName.FLOAT64),
+            Field.newBuilder("embedding", StandardSQLTypeName.FLOAT64).setMode(Field.Mode.REPEATED).build());
+
+    @Test
+    void resolvesColumnsAgainstTheSchema() {
+        ResultSetRows rows = new ResultSetRows(resultSet(
+                new Object[]{7L, "Acme", 0.25, List.of(0.5, 1.5)},
+                new Object[]{8L, null, 0.5, List.of(FieldValue.of(FieldValue.Attribute.PRIMITIVE, "2.5"))}),
+                FIELDS, 2, () -> { });
+
+        int inputId = rows.columnIndex("input_id");
+        int name = rows.columnIndex("name");
+        int distance = rows.columnIndex("distance");
+        int embedding = rows.columnIndex("embedding");
+        assertEquals(0, inputId);
+        assertEquals(3, embedding);
+
+        assertTrue(rows.next());
+        assertEquals(7L, rows.getLong(inputId));
+        assertEquals("Acme", rows.getString(name));
+        assertEquals(0.25, rows.getDouble(distance));
+        assertArrayEquals(new float[]{0.5f, 1.5f}, rows.getFloatArray(embedding));
+        assertEquals("Acme", rows.getString("name"));
+
+        assertTrue(rows.next());
+        assertTrue(rows.isNull(name));
+        assertNull(rows.getString(name));
+        assertArrayEquals(new float[]{2.5f}, rows.getFloatArray(embedding));
+        assertFalse(rows.next());
+        assertEquals(2, rows.totalRows());
+    }
+
+    @Test
+    void closeReleasesTheConnection() {
+        AtomicBoolean closed = new AtomicBoolean();
+        ResultSetRows rows = new ResultSetRows(resultSet(), FIELDS, 0, () -> closed.set(true));
+        rows.close();
+        assertTrue(closed.get());
+    }
+
+    // 0-based getters over the given rows, like BigQueryResultImpl's result set
+    private static ResultSet resultSet(Object[]... rows) {
+        int[] cursor = {-1};
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "next":
+                            return ++cursor[0] < rows.length;
+                        case "getObject":
+                            return rows[cursor[0]][(Integer) args[0]];
+                        case "getLong":
+                            return ((Number) rows[cursor[0]][(Integer) args[0]]).longValue();
+                        case "getDouble":
+                            return ((Number) rows[cursor[0]][(Integer) args[0]]).doubleValue();
+                        case "findColumn":
+                            throw new SQLFeatureNotSupportedException("findColumn");
+                        default:
+                            throw new UnsupportedOperationException(method.getName() + Arrays.toString(args));
+                    }
+                });
+    }
+}
@@ -0,0 +1,56 @@
+package agents.multitool.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    @Test
+    void bucketsAreExactBelow64AndContainTheirValues() {
+        for (long value = 0; value < 64; value++) {
+            assertEquals(value, LatencyHistogram.upperBound(LatencyHistogram.bucket(value)));
+        }
+        for (long value = 64; value < 1L << 40; value = value * 3 / 2 + 1) {
+            int bucket = LatencyHistogram.bucket(value);
+            long upper = LatencyHistogram.upperBound(bucket);
+            assertTrue(upper >= value, value + " above its bucket's upper bound " + upper);
+            assertTrue(LatencyHistogram.upperBound(bucket - 1) < value, value + " also fits bucket " + (bucket - 1));
+            assertTrue(upper - value <= value / 32, value + " reported as " + upper);
+        }
+        assertEquals(LatencyHistogram.bucket(Long.MAX_VALUE), LatencyHistogram.bucket(Long.MAX_VALUE - 1));
+    }
+
+    @Test
+    void percentilesStayWithinABucketOfTheExactValue() {
+        SplittableRandom random = new SplittableRandom(4);
+        LatencyHistogram histogram = new LatencyHistogram();
+        long[] values = new long[10_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(4 + 6 * random.nextDouble()); // 55us to 1.2s
+            histogram.recordMicros(values[i]);
+        }
+        Arrays.sort(values);
+        assertEquals(values.length, histogram.count());
+        assertEquals(values[values.length - 1], histogram.maxMicros());
+        assertEquals(Arrays.stream(values).sum(), histogram.sumMicros());
+        for (double q : new double[] {0.5, 0.9, 0.99, 1}) {
+            long expected = values[(int) Math.ceil(q * values.length) - 1];
+            long actual = histogram.percentileMicros(q);
+            assertTrue(actual >= expected && actual - expected <= expected / 32, "p" + q + ": " + actual + " vs " + expected);
+        }
+    }
+
+    @Test
+    void negativeDurationsCountAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordNanos(-5_000);
+        assertEquals(1, histogram.count());
+        assertEquals(0, histogram.percentileMicros(0.5));
+        assertEquals(0, new LatencyHistogram().percentileMicros(0.99));
+    }
+}
@@ -0,0 +1,49 @@
+package agents.multitool.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** The registry is process-wide, so each test uses metric names of its own. */
+class MetricsTest {
+
+    @Test
+    void exportsCountersGaugesAndSummaries() {
+        Metrics.counter("test_export_total", "Test counter", "kind", "a").add(3);
+        Metrics.counter("test_export_total", "Test counter", "kind", "b").increment();
+        Metrics.gauge("test_export_ratio", "Test gauge", () -> 0.25);
+        LatencyHistogram timer = Metrics.timer("test_export_seconds", "Test timer", "step", "x");
+        timer.recordMicros(1_500);
+        timer.recordMicros(2_500);
+
+        String text = Metrics.prometheusText();
+
+        assertContains(text, "# HELP test_export_total Test counter\n# TYPE test_export_total counter\n"
+                + "test_export_total{kind=\"a\"} 3\ntest_export_total{kind=\"b\"} 1\n");
+        assertContains(text, "# TYPE test_export_ratio gauge\ntest_export_ratio 0.25\n");
+        assertContains(text, "# TYPE test_export_seconds summary\n");
+        assertContains(text, "test_export_seconds{step=\"x\",quantile=\"0.5\"} 0.0015");
+        assertContains(text, "test_export_seconds_sum{step=\"x\"} 0.004\n");
+        assertContains(text, "test_export_seconds_count{step=\"x\"} 2\n");
+    }
+
+    @Test
+    void labelValuesAreEscaped() {
+        Metrics.counter("test_escape_total", "Test counter", "query", "say \"hi\"\\\n").increment();
+        assertContains(Metrics.prometheusText(), "test_escape_total{query=\"say \\\"hi\\\"\\\\\\n\"} 1\n");
+    }
+
+    @Test
+    void sameNameAndLabelsShareOneInstrument() {
+        assertSame(Metrics.counter("test_shared_total", "Test counter", "a", "1"),
+                Metrics.counter("test_shared_total", "Test counter", "a", "1"));
+        assertSame(Metrics.timer("test_shared_seconds", "Test timer"), Metrics.timer("test_shared_seconds", "Test timer"));
+        assertThrows(IllegalArgumentException.class, () -> Metrics.counter("test_shared_total", "Test counter", "a"));
+    }
+
+    private static void assertContains(String text, String expected) {
+        assertTrue(text.contains(expected), "missing:\n" + expected + "\nin:\n" + text);
+    }
+}
@@ -0,0 +1,91 @@
+package agents.multitool.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class Bm25IndexTest {
+
+    // name, category_list, market
+    private static final Bm25Index INDEX = Bm25Index.build(corpus(
+            new String[] {"Acme", "|Payments|", "Fintech"},
+            new String[] {"Payments Co", null, "Software"},
+            new String[] {"Beta", "|Games|", "Games"}));
+
+    @Test
+    void scoresAreBm25fWithFieldWeights() {
+        SearchHits hits = INDEX.search("payments", 10);
+
+        assertEquals(2, hits.size());
+        // category_list (1.5) outweighs name (1.0)
+        assertEquals(0, hits.id(0));
+        assertEquals(1, hits.id(1));
+        // weighted lengths 4.5, 4 and 4.5; "payments" is in 2 of 3 rows
+        double idf = Math.log(1 + (3 - 2 + 0.5) / (2 + 0.5));
+        double averageLength = 13.0 / 3;
+        assertEquals(bm25(idf, 1.5, 4.5, averageLength), hits.score(0), 1e-5);
+        assertEquals(bm25(idf, 1.0, 4.0, averageLength), hits.score(1), 1e-5);
+    }
+
+    @Test
+    void termInSeveralFieldsAddsTheirWeights() {
+        SearchHits hits = INDEX.search("GAMES", 10);
+
+        assertEquals(1, hits.size());
+        assertEquals(2, hits.id(0));
+        double idf = Math.log(1 + (3 - 1 + 0.5) / (1 + 0.5));
+        assertEquals(bm25(idf, 3.5, 4.5, 13.0 / 3), hits.score(0), 1e-5);
+    }
+
+    @Test
+    void filterAndKLimitTheHits() {
+        BitSet onlySecond = new BitSet();
+        onlySecond.set(1);
+        SearchHits filtered = INDEX.search("payments", 10, onlySecond);
+        assertEquals(1, filtered.size());
+        assertEquals(1, filtered.id(0));
+
+        assertSame(SearchHits.EMPTY, INDEX.search("payments", 10, new BitSet()));
+        assertSame(SearchHits.EMPTY, INDEX.search("unknown words", 10));
+        assertEquals(1, INDEX.search("payments games", 1).size());
+    }
+
+    @Test
+    void tokenizerSplitsOnPunctuationAndLowerCasesAnyLocale() {
+        assertEquals(List.of("e", "commerce", "b2b", "saas"), List.copyOf(Bm25Index.tokenize("E-Commerce |B2B| SaaS, saas")));
+        assertTrue(Bm25Index.tokenize(null).isEmpty());
+        assertTrue(Bm25Index.tokenize(" -|- ").isEmpty());
+
+        Locale original = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr"));
+        try {
+            // the Turkish default locale lower-cases I to a dotless i
+            assertEquals(List.of("biotech"), List.copyOf(Bm25Index.tokenize("BIOTECH")));
+        } finally {
+            Locale.setDefault(original);
+        }
+    }
+
+    private static double bm25(double idf, double tf, double length, double averageLength) {
+        return idf * tf * (1.2 + 1) / (tf + 1.2 * (1 - 0.75 + 0.75 * length / averageLength));
+    }
+
+    private static CompanyCorpus corpus(String[]... companies) {
+        CompanyCorpus.Builder builder = CompanyCorpus.builder(1);
+        for (int row = 0; row < companies.length; row++) {
+            String[] values = new String[CompanyColumns.COUNT];
+            values[CompanyColumns.COMPANY_ID] = "c" + row;
+            values[CompanyColumns.NAME] = companies[row][0];
+            values[CompanyColumns.CATEGORY_LIST] = companies[row][1];
+            values[CompanyColumns.MARKET] = companies[row][2];
+            builder.add(values, new float[] {1f});
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,99 @@
+package agents.multitool.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A snapshot written and read back holds the same rows as the heap corpus it was written from, and
+ * indexes over the mapped vectors return what the heap indexes return.
+ */
+class CompanySnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsBackWhatWasWritten() throws IOException {
+        CompanyCorpus corpus = TestCompanies.corpus(1500, 3);
+        try (CompanySnapshot snapshot = write(corpus, dir.resolve("companies.dcs"))) {
+            assertEquals(corpus.size(), snapshot.size());
+            assertEquals(corpus.dimension(), snapshot.dimension());
+            assertTrue(snapshot.vectorsNormalized());
+
+            float[] expected = corpus.copyVectors();
+            float[] actual = snapshot.copyVectors();
+            for (int offset = 0; offset < expected.length; offset += corpus.dimension()) {
+                VectorMath.normalize(expected, offset, corpus.dimension());
+            }
+            assertArrayEquals(expected, actual, 1e-6f);
+
+            float[] block = new float[100 * corpus.dimension()];
+            snapshot.readVectors(700, 100, block, 0);
+            for (int i = 0; i < block.length; i++) {
+                assertEquals(expected[700 * corpus.dimension() + i], block[i]);
+            }
+
+            for (int row = 0; row < corpus.size(); row++) {
+                for (int column = 0; column < CompanyColumns.COUNT; column++) {
+                    assertEquals(corpus.value(row, column), snapshot.value(row, column),
+                            "row " + row + ", column " + CompanyColumns.NAMES[column]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void heapAndSnapshotIndexesAgree() throws IOException {
+        CompanyCorpus corpus = TestCompanies.corpus(1500, 5);
+        try (CompanySnapshot snapshot = write(corpus, dir.resolve("companies.dcs"))) {
+            BruteForceIndex heap = BruteForceIndex.build(corpus.copyVectors(), corpus.dimension());
+            BruteForceIndex mapped = BruteForceIndex.over(snapshot);
+            SimdBruteForceIndex simdMapped = SimdBruteForceIndex.over(snapshot);
+            BitSet heapFilter = CompanyFilterIndex.build(corpus).matching(CompanyFilter.of("software", "", "", 0, 0, 0, 0));
+            BitSet snapshotFilter = CompanyFilterIndex.build(snapshot).matching(CompanyFilter.of("software", "", "", 0, 0, 0, 0));
+            assertEquals(heapFilter, snapshotFilter);
+
+            SplittableRandom random = new SplittableRandom(17);
+            for (int q = 0; q < 20; q++) {
+                float[] query = TestCompanies.query(random);
+                assertSameHits(heap.search(query, 10), mapped.search(query, 10));
+                assertSameHits(heap.search(query, 10), simdMapped.search(query, 10));
+                assertSameHits(heap.search(query, 10, heapFilter), mapped.search(query, 10, snapshotFilter));
+                assertSameHits(heap.search(query, 10, heapFilter), simdMapped.search(query, 10, snapshotFilter));
+            }
+        }
+    }
+
+    private static CompanySnapshot write(CompanyStore store, Path path) throws IOException {
+        try (CompanySnapshotWriter writer = new CompanySnapshotWriter(path, store.dimension())) {
+            String[] values = new String[CompanyColumns.COUNT];
+            float[] vector = new float[store.dimension()];
+            for (int row = 0; row < store.size(); row++) {
+                for (int column = 0; column < values.length; column++) {
+                    values[column] = store.value(row, column);
+                }
+                store.readVector(row, vector, 0);
+                writer.add(values, vector);
+            }
+            writer.finish();
+        }
+        return CompanySnapshot.open(path);
+    }
+
+    private static void assertSameHits(SearchHits expected, SearchHits actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.id(i), actual.id(i));
+            assertEquals(expected.score(i), actual.score(i), 1e-5f);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package agents.multitool.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EmbeddingCacheTest {
+
+    private static final long TTL = TimeUnit.HOURS.toMillis(1);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void savedEntriesLoadBackForTheSameModel() throws IOException {
+        EmbeddingCache cache = new EmbeddingCache(10, 3, TTL, "hashing-3");
+        cache.put("a", new float[] {1, 2, 3});
+        cache.put("b", new float[] {4, 5, 6});
+        Path file = dir.resolve("cache.bin");
+        cache.save(file);
+
+        EmbeddingCache reloaded = new EmbeddingCache(10, 3, TTL, "hashing-3");
+        assertEquals(2, reloaded.load(file));
+        assertArrayEquals(new float[] {4, 5, 6}, reloaded.get("b"), 0f);
+    }
+
+    @Test
+    void refusesAFileWrittenForAnotherModel() throws IOException {
+        EmbeddingCache cache = new EmbeddingCache(10, 3, TTL, "bigquery:project.dataset.text_embedding_model");
+        cache.put("a", new float[] {1, 2, 3});
+        Path file = dir.resolve("cache.bin");
+        cache.save(file);
+
+        EmbeddingCache other = new EmbeddingCache(10, 3, TTL, "hashing-3");
+        assertThrows(IOException.class, () -> other.load(file));
+        assertNull(other.get("a"));
+    }
+}
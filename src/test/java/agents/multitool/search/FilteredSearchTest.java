@@ -0,0 +1,166 @@
+package agents.multitool.search;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Filter bitmaps against a row-by-row evaluation, and every index's filtered top-k against a
+ * filtered brute-force scan: exact for the SIMD scan, above a recall floor for HNSW, int8 and pq.
+ */
+class FilteredSearchTest {
+
+    private static final int K = 10;
+    private static final int QUERIES = 30;
+
+    private static final List<CompanyFilter> FILTERS = List.of(
+            CompanyFilter.NONE,
+            CompanyFilter.of("software", "", "", 0, 0, 0, 0),
+            CompanyFilter.of(" Software ", "operating", "", 0, 0, 0, 0),
+            CompanyFilter.of("", "", "Boston", 0, 0, 0, 0),
+            CompanyFilter.of("Games", "closed", "Singapore", 0, 0, 0, 0),
+            CompanyFilter.of("", "", "", 5_000_000, 60_000_000, 0, 0),
+            CompanyFilter.of("", "acquired", "", 0, 0, 2005, 2015),
+            CompanyFilter.of("Biotechnology", "", "", 1, 0, 2010, 0),
+            CompanyFilter.of("no such market", "", "", 0, 0, 0, 0));
+
+    private static CompanyCorpus corpus;
+    private static CompanyFilterIndex filters;
+    private static BruteForceIndex exact;
+
+    @BeforeAll
+    static void buildCorpus() {
+        corpus = TestCompanies.corpus(3000, 7);
+        filters = CompanyFilterIndex.build(corpus);
+        exact = BruteForceIndex.build(corpus.copyVectors(), corpus.dimension());
+    }
+
+    @Test
+    void filterBitmapsMatchRowByRowEvaluation() {
+        for (CompanyFilter filter : FILTERS) {
+            BitSet matching = filters.matching(filter);
+            if (filter.isEmpty()) {
+                assertNull(matching, "an empty filter passes every row");
+                continue;
+            }
+            BitSet expected = new BitSet();
+            for (int row = 0; row < corpus.size(); row++) {
+                if (matches(filter, row)) {
+                    expected.set(row);
+                }
+            }
+            assertEquals(expected, matching, filter.toString());
+        }
+    }
+
+    @Test
+    void fundingBoundsCompareExactAmounts() {
+        // 16,777,217 has no float: rounded, it would fall below a bound of itself
+        CompanyCorpus.Builder builder = CompanyCorpus.builder(2);
+        for (String funding : new String[] {"16,777,216", "16,777,217", " 16777218 ", "-", null}) {
+            String[] values = new String[CompanyColumns.COUNT];
+            values[CompanyColumns.FUNDING_TOTAL_USD] = funding;
+            builder.add(values, new float[] {1, 0});
+        }
+        CompanyFilterIndex index = CompanyFilterIndex.build(builder.build());
+
+        BitSet expected = new BitSet();
+        expected.set(1);
+        assertEquals(expected, index.matching(CompanyFilter.of("", "", "", 16_777_217, 16_777_217, 0, 0)));
+        expected.set(2);
+        assertEquals(expected, index.matching(CompanyFilter.of("", "", "", 16_777_217, 0, 0, 0)));
+    }
+
+    @Test
+    void simdScanReturnsTheBruteForceTopK() {
+        SimdBruteForceIndex simd = SimdBruteForceIndex.build(corpus.copyVectors(), corpus.dimension());
+        SplittableRandom random = new SplittableRandom(11);
+        for (int q = 0; q < QUERIES; q++) {
+            float[] query = TestCompanies.query(random);
+            for (CompanyFilter filter : FILTERS) {
+                BitSet bits = filters.matching(filter);
+                SearchHits expected = exact.search(query, K, bits);
+                SearchHits actual = simd.search(query, K, bits);
+                assertEquals(expected.size(), actual.size(), filter.toString());
+                for (int i = 0; i < expected.size(); i++) {
+                    assertEquals(expected.score(i), actual.score(i), 1e-4f, filter.toString());
+                    assertTrue(bits == null || bits.get(actual.id(i)), "hit outside the filter: " + filter);
+                }
+            }
+        }
+    }
+
+    @Test
+    void hnswKeepsRecallUnderFilters() {
+        HnswIndex hnsw = HnswIndex.build(corpus.copyVectors(), corpus.dimension(), 16, 100, 64);
+        assertRecall(hnsw, 0.9);
+    }
+
+    @Test
+    void int8KeepsRecallUnderFilters() {
+        assertRecall(ScalarQuantizedIndex.build(corpus, 4), 0.95);
+    }
+
+    @Test
+    void pqRerankKeepsRecallUnderFilters() {
+        // 16 one-byte codes for 32 dimensions rank coarsely; re-ranking 4k candidates on the floats restores the order
+        assertRecall(ProductQuantizedIndex.build(corpus, 16, 4, 42), 0.9);
+    }
+
+    private static void assertRecall(VectorIndex index, double floor) {
+        SplittableRandom random = new SplittableRandom(13);
+        for (CompanyFilter filter : FILTERS) {
+            BitSet bits = filters.matching(filter);
+            int found = 0;
+            int total = 0;
+            for (int q = 0; q < QUERIES; q++) {
+                float[] query = TestCompanies.query(random);
+                SearchHits expected = exact.search(query, K, bits);
+                SearchHits actual = index.search(query, K, bits);
+                Set<Integer> ids = new HashSet<>();
+                for (int i = 0; i < actual.size(); i++) {
+                    assertTrue(bits == null || bits.get(actual.id(i)), "hit outside the filter: " + filter);
+                    ids.add(actual.id(i));
+                }
+                for (int i = 0; i < expected.size(); i++) {
+                    if (ids.contains(expected.id(i))) {
+                        found++;
+                    }
+                }
+                total += expected.size();
+            }
+            double recall = total == 0 ? 1 : (double) found / total;
+            assertTrue(recall >= floor, "recall@" + K + " " + recall + " below " + floor + " for " + filter);
+        }
+    }
+
+    private static boolean matches(CompanyFilter filter, int row) {
+        if (!equalsNormalized(filter.market(), corpus.value(row, CompanyColumns.MARKET))
+                || !equalsNormalized(filter.status(), corpus.value(row, CompanyColumns.STATUS))
+                || !equalsNormalized(filter.region(), corpus.value(row, CompanyColumns.REGION))) {
+            return false;
+        }
+        if (filter.hasFundingRange() && !filter.matchesFunding(number(corpus.value(row, CompanyColumns.FUNDING_TOTAL_USD)))) {
+            return false;
+        }
+        double year = number(corpus.value(row, CompanyColumns.FOUNDED_YEAR));
+        return !filter.hasFoundedYearRange() || filter.matchesFoundedYear(Double.isNaN(year) ? 0 : (int) year);
+    }
+
+    private static boolean equalsNormalized(String wanted, String value) {
+        return wanted == null || wanted.equals(CompanyFilter.normalize(value));
+    }
+
+    private static double number(String value) {
+        return value == null || value.equals("-") ? Double.NaN : Double.parseDouble(value);
+    }
+}
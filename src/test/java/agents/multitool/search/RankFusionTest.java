@@ -0,0 +1,66 @@
+package agents.multitool.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RankFusionTest {
+
+    @Test
+    void rowNearTheTopOfBothListsBeatsOneThatTopsOnlyOne() {
+        SearchHits vector = hits(1, 2, 3, 4);
+        SearchHits lexical = hits(5, 2, 6, 1);
+
+        SearchHits fused = RankFusion.reciprocalRank(4, RankFusion.DEFAULT_K, vector, lexical);
+
+        // 1: 1/61 + 1/64, 2: 1/62 + 1/62, 5: 1/61
+        assertEquals(2, fused.id(0));
+        assertEquals(1, fused.id(1));
+        assertEquals(5, fused.id(2));
+        assertEquals(2f / 62, fused.score(0), 1e-7f);
+        for (int i = 1; i < fused.size(); i++) {
+            assertTrue(fused.score(i - 1) >= fused.score(i), "not best first at " + i);
+        }
+    }
+
+    @Test
+    void ignoresScoresAndKeepsTopK() {
+        SearchHits cosine = new SearchHits(new int[] {7, 8, 9}, new float[] {0.99f, 0.98f, 0.10f});
+        SearchHits bm25 = new SearchHits(new int[] {9, 8}, new float[] {42f, 3f});
+
+        SearchHits fused = RankFusion.reciprocalRank(2, RankFusion.DEFAULT_K, cosine, bm25);
+
+        // 9: 1/63 + 1/61 edges out 8: 1/62 + 1/62; 7 tops the cosine list but is in only one
+        assertEquals(2, fused.size());
+        assertEquals(9, fused.id(0));
+        assertEquals(8, fused.id(1));
+    }
+
+    @Test
+    void weightsScaleEachListsContribution() {
+        SearchHits vector = hits(1, 2);
+        SearchHits lexical = hits(2, 1);
+
+        SearchHits fused = RankFusion.reciprocalRank(2, RankFusion.DEFAULT_K,
+                new SearchHits[] {vector, lexical}, new float[] {1f, 3f});
+
+        assertEquals(2, fused.id(0));
+        assertEquals(1f / 62 + 3f / 61, fused.score(0), 1e-7f);
+    }
+
+    @Test
+    void emptyListsFuseToEmpty() {
+        assertSame(SearchHits.EMPTY, RankFusion.reciprocalRank(5, RankFusion.DEFAULT_K, SearchHits.EMPTY, SearchHits.EMPTY));
+    }
+
+    // best first, scores only need to be descending
+    private static SearchHits hits(int... ids) {
+        float[] scores = new float[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            scores[i] = 1f - i * 0.1f;
+        }
+        return new SearchHits(ids, scores);
+    }
+}
@@ -0,0 +1,81 @@
+package agents.multitool.search;
+
+import java.util.SplittableRandom;
+
+/**
+ * Small seeded corpus for the search tests: clustered vectors plus metadata with a few markets,
+ * statuses and regions, blanks included, so filters select a mix of large and small row sets.
+ */
+final class TestCompanies {
+
+    static final int DIMENSION = 32;
+
+    static final String[] MARKETS = {"Software", "Biotechnology", "E-Commerce", "Fintech", "Games"};
+    static final String[] STATUSES = {"operating", "acquired", "closed"};
+    static final String[] REGIONS = {"SF Bay Area", "London", "New York City", "Berlin", "Singapore", "Boston"};
+
+    private TestCompanies() {
+    }
+
+    static CompanyCorpus corpus(int size, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        float[][] centers = new float[16][DIMENSION];
+        for (float[] center : centers) {
+            for (int d = 0; d < DIMENSION; d++) {
+                center[d] = (float) random.nextGaussian();
+            }
+        }
+        CompanyCorpus.Builder builder = CompanyCorpus.builder(DIMENSION);
+        for (int row = 0; row < size; row++) {
+            float[] center = centers[random.nextInt(centers.length)];
+            float[] vector = new float[DIMENSION];
+            for (int d = 0; d < DIMENSION; d++) {
+                vector[d] = center[d] + 0.4f * (float) random.nextGaussian();
+            }
+            builder.add(values(row, random), vector);
+        }
+        return builder.build();
+    }
+
+    static float[] query(SplittableRandom random) {
+        float[] query = new float[DIMENSION];
+        for (int d = 0; d < DIMENSION; d++) {
+            query[d] = (float) random.nextGaussian();
+        }
+        return query;
+    }
+
+    private static String[] values(int row, SplittableRandom random) {
+        String[] values = new String[CompanyColumns.COUNT];
+        values[CompanyColumns.COMPANY_ID] = "c" + row;
+        values[CompanyColumns.NAME] = "Company " + row;
+        values[CompanyColumns.CONTENT] = "company " + row;
+        values[CompanyColumns.MARKET] = random.nextInt(20) == 0 ? null : MARKETS[skewed(random, MARKETS.length)];
+        values[CompanyColumns.CATEGORY_LIST] = values[CompanyColumns.MARKET];
+        values[CompanyColumns.STATUS] = STATUSES[skewed(random, STATUSES.length)];
+        values[CompanyColumns.REGION] = random.nextInt(10) == 0 ? "" : REGIONS[skewed(random, REGIONS.length)];
+        int rounds = random.nextInt(5);
+        long funding = 0;
+        for (int r = 0; r < 4; r++) {
+            if (r < rounds) {
+                long amount = (1 + random.nextInt(50)) * 1_000_000L * (r + 1);
+                values[CompanyColumns.ROUND_A + r] = Long.toString(amount);
+                funding += amount;
+            } else {
+                values[CompanyColumns.ROUND_A + r] = "0";
+            }
+        }
+        if (rounds == 0 && random.nextBoolean()) {
+            funding = (1 + random.nextInt(900)) * 1_000L;
+        }
+        values[CompanyColumns.FUNDING_TOTAL_USD] = funding == 0 && random.nextInt(4) == 0 ? "-" : Long.toString(funding);
+        values[CompanyColumns.FUNDING_ROUNDS] = Integer.toString(rounds);
+        values[CompanyColumns.FOUNDED_YEAR] = random.nextInt(15) == 0 ? null : Integer.toString(1995 + random.nextInt(28));
+        return values;
+    }
+
+    // lower indexes are more common, so some postings are bitmaps and some are row lists
+    private static int skewed(SplittableRandom random, int n) {
+        return Math.min(n - 1, (int) (-Math.log(1 - random.nextDouble()) * n / 3));
+    }
+}
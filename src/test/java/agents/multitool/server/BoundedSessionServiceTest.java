@@ -0,0 +1,180 @@
+package agents.multitool.server;
+
+import com.google.adk.events.Event;
+import com.google.adk.events.EventActions;
+import com.google.adk.sessions.Session;
+import com.google.genai.types.Content;
+import com.google.genai.types.Part;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedSessionServiceTest {
+
+    private static final String APP = "app";
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void evictsLeastRecentlyUsedAndDropsWithoutASpillDirectory() {
+        BoundedSessionService store = new BoundedSessionService(2, Long.MAX_VALUE, HOUR, null);
+        List<String> dropped = new CopyOnWriteArrayList<>();
+        store.onDropped(dropped::add);
+
+        create(store, "a");
+        create(store, "b");
+        get(store, "a"); // b is now the least recently used
+        create(store, "c");
+
+        assertEquals(List.of("b"), dropped);
+        assertNull(get(store, "b"));
+        assertNotNull(get(store, "a"));
+        assertNotNull(get(store, "c"));
+        assertEquals(1L, store.stats().get("evictions"));
+    }
+
+    @Test
+    void spilledSessionRehydratesWithItsEvents() throws IOException {
+        BoundedSessionService store = new BoundedSessionService(1, Long.MAX_VALUE, HOUR, dir);
+        List<String> dropped = new CopyOnWriteArrayList<>();
+        store.onDropped(dropped::add);
+
+        Session a = create(store, "a");
+        append(store, a, "first", false);
+        append(store, a, "second", false);
+        create(store, "b"); // spills a
+
+        assertEquals(1, spillFiles().size());
+        Session revived = get(store, "a"); // rehydrates a, spills b
+        assertEquals(2, revived.events().size());
+        assertEquals("second", revived.events().get(1).stringifyContent());
+        assertEquals(1, spillFiles().size());
+        assertNotNull(get(store, "b"));
+        assertTrue(dropped.isEmpty());
+        assertEquals(2L, store.stats().get("rehydrations"));
+        assertNoTempFiles();
+    }
+
+    @Test
+    void partialEventsAreNotCounted() {
+        BoundedSessionService store = new BoundedSessionService(10, Long.MAX_VALUE, HOUR, null);
+        Session a = create(store, "a");
+        append(store, a, "stream", true);
+        assertEquals(0L, store.stats().get("approximate_bytes"));
+        assertEquals(0, a.events().size());
+
+        Event kept = append(store, a, "stream", false);
+        assertEquals((long) kept.toJson().length(), store.stats().get("approximate_bytes"));
+    }
+
+    @Test
+    void runningSessionIsNotEvicted() {
+        BoundedSessionService store = new BoundedSessionService(1, Long.MAX_VALUE, HOUR, null);
+        List<String> dropped = new CopyOnWriteArrayList<>();
+        store.onDropped(dropped::add);
+
+        Session a = create(store, "a");
+        store.beginRun(APP, "user", "a");
+        create(store, "b"); // nothing else to evict: over the bound until the run ends
+        create(store, "c");
+        assertSame(a, get(store, "a"));
+        assertEquals(List.of("b"), dropped);
+
+        store.endRun(APP, "user", "a");
+        assertEquals(1, store.stats().get("sessions"));
+        assertEquals(List.of("b", "c"), dropped); // a was used after c
+    }
+
+    @Test
+    void concurrentEvictionAndTakeBackKeepEverySession() throws Exception {
+        BoundedSessionService store = new BoundedSessionService(2, Long.MAX_VALUE, HOUR, dir);
+        List<String> dropped = new CopyOnWriteArrayList<>();
+        store.onDropped(dropped::add);
+        int count = 16;
+        for (int i = 0; i < count; i++) {
+            create(store, "s" + i);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> work = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int seed = t;
+                work.add(pool.submit(() -> {
+                    for (int i = 0; i < 300; i++) {
+                        String id = "s" + ((seed * 7 + i * 5) % count);
+                        Session session = get(store, id);
+                        assertNotNull(session, id);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : work) {
+                f.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertTrue(dropped.isEmpty(), "dropped " + dropped);
+        for (int i = 0; i < count; i++) {
+            assertNotNull(get(store, "s" + i), "s" + i);
+        }
+        // every session is either live or has exactly one spill file
+        assertEquals(count - 2, spillFiles().size());
+        assertNoTempFiles();
+    }
+
+    private static Session create(BoundedSessionService store, String id) {
+        return store.createSession(APP, "user", null, id).blockingGet();
+    }
+
+    private static Session get(BoundedSessionService store, String id) {
+        return store.getSession(APP, "user", id, Optional.empty()).blockingGet();
+    }
+
+    private static Event append(BoundedSessionService store, Session session, String text, boolean partial) {
+        Event event = Event.builder()
+                .id(Event.generateEventId())
+                .invocationId("invocation")
+                .author("user")
+                .content(Content.fromParts(Part.fromText(text)))
+                .actions(EventActions.builder().build())
+                .partial(partial)
+                .timestamp(System.currentTimeMillis())
+                .build();
+        return store.appendEvent(session, event).blockingGet();
+    }
+
+    private List<Path> spillFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> f.toString().endsWith(".json.gz")).toList();
+        }
+    }
+
+    private void assertNoTempFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(List.of(), files.filter(f -> f.toString().endsWith(".tmp")).toList());
+        }
+    }
+}
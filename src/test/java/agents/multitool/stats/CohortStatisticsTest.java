@@ -0,0 +1,132 @@
+package agents.multitool.stats;
+
+import agents.multitool.search.CompanyColumns;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CohortStatisticsTest {
+
+    private static final String[] MARKETS = {"Software", "Biotechnology", "Fintech", "Games"};
+    private static final String[] REGIONS = {"SF Bay Area", "London", "Berlin"};
+    private static final String[] STATUSES = {"operating", "acquired", "closed", null};
+
+    @Test
+    void incrementalRefreshMatchesAFreshBuild() {
+        SplittableRandom random = new SplittableRandom(5);
+        List<String[]> before = new ArrayList<>();
+        for (int i = 0; i < 800; i++) {
+            before.add(company("c" + i, random));
+        }
+        // a later refresh: some companies changed, some closed their books, some are new
+        List<String[]> after = new ArrayList<>();
+        int changed = 0;
+        for (String[] values : before) {
+            int roll = random.nextInt(10);
+            if (roll == 0) {
+                changed++; // removed
+            } else if (roll == 1) {
+                after.add(company(values[CompanyColumns.COMPANY_ID], random));
+                changed++;
+            } else {
+                after.add(values);
+            }
+        }
+        for (int i = 800; i < 900; i++) {
+            after.add(company("c" + i, random));
+            changed++;
+        }
+
+        CohortStatistics incremental = build(before);
+        CohortStatistics.Update update = incremental.update();
+        after.forEach(update::add);
+        int applied = update.apply();
+        CohortStatistics fresh = build(after);
+
+        // a regenerated company can come out identical, so only an upper bound is exact
+        assertTrue(applied <= changed && applied >= changed - 10, applied + " of " + changed);
+        assertEquals(fresh.companies(), incremental.companies());
+        assertEquals(fresh.cohorts(), incremental.cohorts());
+        for (String market : withAny(MARKETS)) {
+            for (String stage : withAny(CohortStatistics.STAGES)) {
+                for (String region : withAny(REGIONS)) {
+                    for (int year : new int[] {0, 2001, 2012, 2019}) {
+                        for (int minSize : new int[] {1, 40}) {
+                            Map<String, Object> expected = fresh.lookup(market, stage, region, year, minSize);
+                            assertEquals(expected, incremental.lookup(market, stage, region, year, minSize),
+                                    market + " / " + stage + " / " + region + " / " + year);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void unchangedRefreshTouchesNothing() {
+        SplittableRandom random = new SplittableRandom(6);
+        List<String[]> companies = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            companies.add(company("c" + i, random));
+        }
+        CohortStatistics statistics = build(companies);
+        Map<String, Object> before = statistics.lookup("Software", "", "", 0, 1);
+        CohortStatistics.Update update = statistics.update();
+        companies.forEach(update::add);
+        assertEquals(0, update.apply());
+        assertEquals(before, statistics.lookup("Software", "", "", 0, 1));
+    }
+
+    @Test
+    void stageOfReadsFreeTextStages() {
+        assertEquals(1, CohortStatistics.stageOf("Pre-Seed"));
+        assertEquals(2, CohortStatistics.stageOf("series a"));
+        assertEquals(3, CohortStatistics.stageOf(" Series B "));
+        assertEquals(5, CohortStatistics.stageOf("Series F"));
+        assertEquals(0, CohortStatistics.stageOf("bootstrapped"));
+        assertEquals(-1, CohortStatistics.stageOf("profitable"));
+        assertEquals(-1, CohortStatistics.stageOf(""));
+    }
+
+    private static CohortStatistics build(List<String[]> companies) {
+        CohortStatistics statistics = new CohortStatistics();
+        CohortStatistics.Update update = statistics.update();
+        companies.forEach(update::add);
+        update.apply();
+        return statistics;
+    }
+
+    private static String[] withAny(String[] values) {
+        String[] all = new String[values.length + 1];
+        all[0] = "";
+        System.arraycopy(values, 0, all, 1, values.length);
+        return all;
+    }
+
+    // whole-dollar amounts, so sums and means are exact whatever the order they were added in
+    private static String[] company(String id, SplittableRandom random) {
+        String[] values = new String[CompanyColumns.COUNT];
+        values[CompanyColumns.COMPANY_ID] = id;
+        values[CompanyColumns.NAME] = "Company " + id;
+        values[CompanyColumns.MARKET] = MARKETS[random.nextInt(MARKETS.length)];
+        values[CompanyColumns.REGION] = REGIONS[random.nextInt(REGIONS.length)];
+        values[CompanyColumns.STATUS] = STATUSES[random.nextInt(STATUSES.length)];
+        int rounds = random.nextInt(5);
+        long funding = rounds == 0 ? random.nextInt(3) * 250_000L : 0;
+        for (int r = 0; r < 4; r++) {
+            long amount = r < rounds ? (1 + random.nextInt(40)) * 1_000_000L : 0;
+            values[CompanyColumns.ROUND_A + r] = Long.toString(amount);
+            funding += amount;
+        }
+        values[CompanyColumns.FUNDING_TOTAL_USD] = Long.toString(funding);
+        values[CompanyColumns.FUNDING_ROUNDS] = Integer.toString(rounds);
+        values[CompanyColumns.FOUNDED_YEAR] = random.nextInt(10) == 0 ? null : Integer.toString(1998 + random.nextInt(25));
+        return values;
+    }
+}
@@ -0,0 +1,93 @@
+package agents.multitool.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuantileSketchTest {
+
+    private static final double[] QUANTILES = {0, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 1};
+
+    @Test
+    void quantilesStayWithinTheRelativeAccuracy() {
+        SplittableRandom random = new SplittableRandom(1);
+        QuantileSketch sketch = new QuantileSketch();
+        double[] values = new double[20_000];
+        for (int i = 0; i < values.length; i++) {
+            // log-normal amounts spanning several orders of magnitude, like funding totals
+            values[i] = Math.exp(13 + 2.5 * random.nextGaussian());
+            sketch.add(values[i]);
+        }
+        Arrays.sort(values);
+        assertEquals(values.length, sketch.count());
+        for (double q : QUANTILES) {
+            double expected = values[(int) Math.floor(q * (values.length - 1))];
+            double actual = sketch.quantile(q);
+            assertTrue(Math.abs(actual - expected) <= QuantileSketch.RELATIVE_ACCURACY * expected * (1 + 1e-9),
+                    "q" + q + ": " + actual + " vs " + expected);
+        }
+    }
+
+    @Test
+    void zerosAndNegativesCountAsZero() {
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.add(0);
+        sketch.add(-5);
+        sketch.add(100);
+        sketch.add(Double.NaN);
+        assertEquals(3, sketch.count());
+        assertEquals(0, sketch.quantile(0));
+        assertEquals(0, sketch.quantile(0.5));
+        assertEquals(100, sketch.quantile(1), 100 * QuantileSketch.RELATIVE_ACCURACY);
+        assertTrue(Double.isNaN(new QuantileSketch().quantile(0.5)));
+    }
+
+    @Test
+    void removeUndoesAdd() {
+        SplittableRandom random = new SplittableRandom(2);
+        QuantileSketch kept = new QuantileSketch();
+        QuantileSketch churned = new QuantileSketch();
+        double[] removed = new double[500];
+        for (int i = 0; i < 2000; i++) {
+            double value = 1 + random.nextInt(1_000_000);
+            kept.add(value);
+            churned.add(value);
+        }
+        for (int i = 0; i < removed.length; i++) {
+            removed[i] = 1 + random.nextInt(1_000_000);
+            churned.add(removed[i]);
+        }
+        for (double value : removed) {
+            churned.remove(value);
+        }
+        churned.remove(123.456e9); // never added
+        assertSameDistribution(kept, churned);
+    }
+
+    @Test
+    void mergeEqualsAddingEverything() {
+        SplittableRandom random = new SplittableRandom(3);
+        QuantileSketch all = new QuantileSketch();
+        QuantileSketch left = new QuantileSketch();
+        QuantileSketch right = new QuantileSketch();
+        for (int i = 0; i < 3000; i++) {
+            double value = random.nextInt(10) == 0 ? 0 : 1 + random.nextInt(50_000_000);
+            all.add(value);
+            (i % 3 == 0 ? left : right).add(value);
+        }
+        left.merge(right);
+        assertSameDistribution(all, left);
+    }
+
+    private static void assertSameDistribution(QuantileSketch expected, QuantileSketch actual) {
+        assertEquals(expected.count(), actual.count());
+        assertEquals(expected.mean(), actual.mean(), 1e-6 * expected.mean());
+        for (double q : QUANTILES) {
+            assertEquals(expected.quantile(q), actual.quantile(q), "q" + q);
+        }
+    }
+}
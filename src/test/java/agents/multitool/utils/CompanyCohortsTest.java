@@ -0,0 +1,74 @@
+package agents.multitool.utils;
+
+import agents.multitool.search.CompanyColumns;
+import agents.multitool.stats.CohortStatistics;
+import agents.multitool.warehouse.CompanySource;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CompanyCohortsTest {
+
+    @Test
+    void refreshReadsTheCompaniesOnlyWhenTheVersionChanges() throws Exception {
+        CountingSource source = new CountingSource();
+        CohortStatistics cohorts = new CohortStatistics();
+        source.version = 100;
+
+        long loaded = CompanyCohorts.refresh(cohorts, source, 0);
+        assertEquals(100, loaded);
+        assertEquals(1, source.scans);
+        assertEquals(3, cohorts.companies());
+
+        loaded = CompanyCohorts.refresh(cohorts, source, loaded);
+        assertEquals(1, source.scans);
+
+        source.version = 200;
+        source.companies = 4;
+        loaded = CompanyCohorts.refresh(cohorts, source, loaded);
+        assertEquals(200, loaded);
+        assertEquals(2, source.scans);
+        assertEquals(4, cohorts.companies());
+    }
+
+    @Test
+    void sourceWithoutAVersionIsReadEveryTime() throws Exception {
+        CountingSource source = new CountingSource();
+        CohortStatistics cohorts = new CohortStatistics();
+
+        long loaded = CompanyCohorts.refresh(cohorts, source, 0);
+        CompanyCohorts.refresh(cohorts, source, loaded);
+
+        assertEquals(2, source.scans);
+    }
+
+    private static final class CountingSource implements CompanySource {
+        long version;
+        int companies = 3;
+        int scans;
+
+        @Override
+        public int dimension() {
+            return 1;
+        }
+
+        @Override
+        public void forEach(CompanyConsumer consumer) throws IOException {
+            scans++;
+            for (int i = 0; i < companies; i++) {
+                String[] values = new String[CompanyColumns.COUNT];
+                values[CompanyColumns.COMPANY_ID] = "c" + i;
+                values[CompanyColumns.MARKET] = "Software";
+                values[CompanyColumns.FUNDING_TOTAL_USD] = "1000000";
+                consumer.accept(values, new float[] {1f});
+            }
+        }
+
+        @Override
+        public long version() {
+            return version;
+        }
+    }
+}
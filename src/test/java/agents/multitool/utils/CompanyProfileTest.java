@@ -0,0 +1,49 @@
+package agents.multitool.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompanyProfileTest {
+
+    @Test
+    void readsJsonProfileFieldByField() {
+        CompanyProfile profile = CompanyProfile.parse("{\"companyName\": \"TechCorp\", \"industry\": \"SaaS\", "
+                + "\"stage\": \"Series A\", \"revenueRange\": \"$1M-$5M\", \"market\": \"Software\", \"minFoundedYear\": 2015}");
+
+        assertTrue(profile.structured());
+        assertEquals("TechCorp", profile.name());
+        assertEquals("SaaS", profile.industry());
+        assertEquals("Series A", profile.stage());
+        assertEquals("$1M-$5M", profile.revenue());
+        assertEquals("Software", profile.market());
+        assertEquals(2015, profile.minFoundedYear());
+        assertFalse(profile.filter().isEmpty());
+    }
+
+    @Test
+    void picksStageAndRevenueOutOfFreeText() {
+        CompanyProfile profile = CompanyProfile.parse("A series b fintech startup with $10M - $20M revenue");
+
+        assertFalse(profile.structured());
+        assertEquals("A series b fintech startup with $10M - $20M revenue", profile.industry());
+        assertEquals("Series B", profile.stage());
+        assertEquals("$10m-$20m", profile.revenue());
+        assertTrue(profile.filter().isEmpty());
+    }
+
+    @Test
+    void leavesMissingFieldsEmpty() {
+        CompanyProfile profile = CompanyProfile.parse("a marketplace for used bikes");
+
+        assertEquals("", profile.name());
+        assertEquals("", profile.stage());
+        assertEquals("", profile.revenue());
+
+        CompanyProfile broken = CompanyProfile.parse("{not json");
+        assertFalse(broken.structured());
+        assertEquals("{not json", broken.industry());
+    }
+}
@@ -0,0 +1,167 @@
+package agents.multitool.utils;
+
+import agents.multitool.bigquery.FakeQueryExecutor;
+import agents.multitool.bigquery.QueryExecutor;
+import agents.multitool.bigquery.ResultRows;
+import com.google.cloud.bigquery.QueryParameterValue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the warehouse (VECTOR_SEARCH) path of the search tools against a {@link FakeQueryExecutor},
+ * checking the SQL and parameters sent and how the returned rows are mapped.
+ */
+class CompanyVectorSearchTest {
+
+    private final List<String> kinds = new ArrayList<>();
+    private Function<String, QueryExecutor> original;
+
+    @BeforeEach
+    void saveExecutors() {
+        original = CompanyVectorSearch.executors;
+    }
+
+    @AfterEach
+    void restoreExecutors() {
+        CompanyVectorSearch.executors = original;
+    }
+
+    private void use(FakeQueryExecutor fake) {
+        CompanyVectorSearch.executors = kind -> {
+            kinds.add(kind);
+            return fake;
+        };
+    }
+
+    @Test
+    void similarCompanyGeneratesTheEmbeddingInTheSearchQueryThenReusesIt() {
+        float[] embedding = new float[CompanyVectorSearch.EMBEDDING_DIMENSION];
+        embedding[0] = 1f;
+        FakeQueryExecutor fake = FakeQueryExecutor.returning(List.of(
+                row("c1", "Acme Payments", 0.1, embedding),
+                row("c2", "Ledgerly", 0.25, embedding)));
+        use(fake);
+
+        Map<String, Object> result = CompanyVectorSearch.getSimilarCompany("Fake Pay", "Fintech", "Seed", "$1M-$5M");
+
+        assertEquals("success", result.get("status"));
+        assertEquals(List.of(VectorSearchQuery.SEARCH_BY_CONTENT), fake.executedSql());
+        assertEquals(List.of("short"), kinds);
+        Map<String, QueryParameterValue> parameters = fake.lastParameters();
+        assertEquals(VectorSearchQuery.inputContent("Fake Pay", "Fintech", "Seed", "$1M-$5M"),
+                parameters.get("content").getValue());
+        assertEquals("5", parameters.get("top_k").getValue());
+
+        List<?> companies = (List<?>) result.get("companies");
+        assertEquals(2, companies.size());
+        Map<?, ?> first = (Map<?, ?>) companies.get(0);
+        assertEquals("Acme Payments", first.get("name"));
+        assertEquals(0.9, (Double) first.get("similarity_score"), 1e-9);
+
+        // the embedding returned with the rows is cached and bound on the next identical profile
+        CompanyVectorSearch.getSimilarCompany("Fake Pay", "Fintech", "Seed", "$1M-$5M");
+        assertEquals(VectorSearchQuery.SEARCH_BY_EMBEDDING, fake.executedSql().get(1));
+        assertTrue(fake.lastParameters().containsKey("query_embedding"));
+        assertEquals(CompanyVectorSearch.EMBEDDING_DIMENSION, fake.lastParameters().get("query_embedding").getArrayValues().size());
+    }
+
+    @Test
+    void filteredSearchBindsTheFilterParameters() {
+        FakeQueryExecutor fake = FakeQueryExecutor.returning(List.of());
+        use(fake);
+
+        Map<String, Object> result = CompanyVectorSearch.getSimilarCompanyFiltered("Fake Bio", "Biotech", "Series A",
+                "$5M-$10M", "Biotechnology", "operating", "", 1_000_000, 0, 2010, 0);
+
+        assertEquals("no_results", result.get("status"));
+        assertEquals(List.of(VectorSearchQuery.FILTERED_SEARCH_BY_CONTENT), fake.executedSql());
+        Map<String, QueryParameterValue> parameters = fake.lastParameters();
+        assertEquals("biotechnology", parameters.get("market").getValue());
+        assertEquals("operating", parameters.get("status").getValue());
+        assertNull(parameters.get("region").getValue());
+        assertEquals("2010", parameters.get("min_founded_year").getValue());
+        assertNull(parameters.get("max_founded_year").getValue());
+    }
+
+    @Test
+    void similarCompaniesSearchesTheWholePortfolioInOneBatchQuery() {
+        FakeQueryExecutor fake = new FakeQueryExecutor((sql, parameters) -> {
+            List<Map<String, Object>> rows = new ArrayList<>();
+            rows.add(batchRow(1, "Beta Peer", 0.2));
+            rows.add(batchRow(0, "Alpha Peer", 0.3));
+            rows.add(batchRow(1, "Beta Peer 2", 0.4));
+            return rows;
+        });
+        use(fake);
+
+        Map<String, Object> result = CompanyVectorSearch.getSimilarCompanies(List.of(
+                Map.of("name", "Alpha", "industry", "SaaS", "stage", "Seed", "revenue", "$0-1M"),
+                Map.of("name", "Beta", "industry", "Fintech", "stage", "Series A", "revenue", "$1M-$5M")));
+
+        assertEquals("success", result.get("status"));
+        assertEquals(List.of(VectorSearchQuery.BATCH_SEARCH_BY_CONTENT), fake.executedSql());
+        assertEquals(List.of("storage"), kinds);
+        List<QueryParameterValue> contents = fake.lastParameters().get("contents").getArrayValues();
+        assertEquals(2, contents.size());
+        assertEquals(VectorSearchQuery.inputContent("Beta", "Fintech", "Series A", "$1M-$5M"), contents.get(1).getValue());
+
+        List<?> results = (List<?>) result.get("results");
+        assertEquals(1, ((List<?>) ((Map<?, ?>) results.get(0)).get("companies")).size());
+        List<?> beta = (List<?>) ((Map<?, ?>) results.get(1)).get("companies");
+        assertEquals(2, beta.size());
+        assertEquals("Beta Peer", ((Map<?, ?>) beta.get(0)).get("name"));
+    }
+
+    @Test
+    void rowReaderMapsTheRegionLikeTheLocalStore() {
+        assertTrue(VectorSearchQuery.SEARCH_BY_CONTENT.contains("c.region"));
+        assertTrue(VectorSearchQuery.BATCH_SEARCH_BY_CONTENT.contains("c.region"));
+        ResultRows rows = FakeQueryExecutor.returning(List.of(row("c1", "Acme Payments", 0.1, null)))
+                .query(VectorSearchQuery.SEARCH_BY_CONTENT, Map.of());
+        assertTrue(rows.next());
+
+        Company company = new CompanyRowReader(rows).read();
+
+        assertEquals("SF Bay Area", company.region());
+        assertEquals("operating", company.status());
+        assertEquals(0.9, company.similarityScore(), 1e-9);
+    }
+
+    private static Map<String, Object> row(String id, String name, double distance, float[] inputEmbedding) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("company_id", id);
+        row.put("name", name);
+        row.put("content", name + " content");
+        row.put("distance", distance);
+        row.put("category_list", "|Payments|");
+        row.put(" market ", "Finance");
+        row.put(" funding_total_usd ", "1,500,000");
+        row.put("status", "operating");
+        row.put("region", "SF Bay Area");
+        row.put("funding_rounds", "2");
+        row.put("founded_year", "2012");
+        row.put("round_A", "1000000");
+        row.put("round_B", null);
+        row.put("round_C", null);
+        row.put("round_D", null);
+        row.put("input_embedding", inputEmbedding);
+        return row;
+    }
+
+    private static Map<String, Object> batchRow(long inputId, String name, double distance) {
+        Map<String, Object> row = row(name.toLowerCase(), name, distance, null);
+        row.put("input_id", inputId);
+        return row;
+    }
+}
@@ -0,0 +1,137 @@
+package agents.multitool.utils;
+
+import com.google.adk.tools.BaseTool;
+import com.google.adk.tools.ToolContext;
+import io.reactivex.rxjava3.core.Single;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MemoizedToolTest {
+
+    private static final Map<String, Object> ARGS = Map.of("name", "Acme", "stage", "Seed");
+
+    @Test
+    void concurrentIdenticalCallsInOneInvocationRunOnce() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountingTool tool = new CountingTool(() -> {
+            started.countDown();
+            assertTrue(release.await(1, TimeUnit.MINUTES));
+            return success();
+        });
+        MemoizedTool memo = MemoizedTool.wrap(tool);
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<Map<String, Object>> first = pool.submit(() -> memo.runAsync("inv-1", ARGS, null).blockingGet());
+            assertTrue(started.await(1, TimeUnit.MINUTES));
+            // same arguments in another order, while the first call is still running
+            Future<Map<String, Object>> second = pool.submit(() ->
+                    memo.runAsync("inv-1", Map.of("stage", "Seed", "name", "Acme"), null).blockingGet());
+            release.countDown();
+
+            assertSame(first.get(1, TimeUnit.MINUTES), second.get(1, TimeUnit.MINUTES));
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(1, tool.calls.get());
+    }
+
+    @Test
+    void otherInvocationsAndArgumentsRunAgain() {
+        CountingTool tool = new CountingTool(MemoizedToolTest::success);
+        MemoizedTool memo = MemoizedTool.wrap(tool);
+
+        memo.runAsync("inv-1", ARGS, null).blockingGet();
+        memo.runAsync("inv-1", ARGS, null).blockingGet();
+        assertEquals(1, tool.calls.get());
+
+        memo.runAsync("inv-2", ARGS, null).blockingGet();
+        memo.runAsync("inv-1", Map.of("name", "Other"), null).blockingGet();
+        assertEquals(3, tool.calls.get());
+    }
+
+    @Test
+    void failedCallsAreNotKept() {
+        AtomicInteger attempt = new AtomicInteger();
+        CountingTool tool = new CountingTool(() -> {
+            switch (attempt.incrementAndGet()) {
+                case 1:
+                    throw new IllegalStateException("timeout");
+                case 2:
+                    Map<String, Object> error = new HashMap<>();
+                    error.put("status", "error");
+                    return error;
+                default:
+                    return success();
+            }
+        });
+        MemoizedTool memo = MemoizedTool.wrap(tool);
+
+        assertThrows(RuntimeException.class, () -> memo.runAsync("inv-1", ARGS, null).blockingGet());
+        assertEquals("error", memo.runAsync("inv-1", ARGS, null).blockingGet().get("status"));
+        assertEquals("success", memo.runAsync("inv-1", ARGS, null).blockingGet().get("status"));
+        assertEquals("success", memo.runAsync("inv-1", ARGS, null).blockingGet().get("status"));
+        assertEquals(3, tool.calls.get());
+    }
+
+    @Test
+    void oldestInvocationsAreDropped() {
+        CountingTool tool = new CountingTool(MemoizedToolTest::success);
+        MemoizedTool memo = MemoizedTool.wrap(tool);
+
+        for (int i = 0; i <= MemoizedTool.MAX_TRACKED_INVOCATIONS; i++) {
+            memo.runAsync("inv-" + i, ARGS, null).blockingGet();
+        }
+        assertEquals(MemoizedTool.MAX_TRACKED_INVOCATIONS, memo.trackedInvocations());
+
+        // inv-0 was the least recently used, so its result is gone; the newest is still kept
+        int calls = tool.calls.get();
+        memo.runAsync("inv-" + MemoizedTool.MAX_TRACKED_INVOCATIONS, ARGS, null).blockingGet();
+        assertEquals(calls, tool.calls.get());
+        memo.runAsync("inv-0", ARGS, null).blockingGet();
+        assertEquals(calls + 1, tool.calls.get());
+    }
+
+    private static Map<String, Object> success() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("status", "success");
+        return result;
+    }
+
+    private static final class CountingTool extends BaseTool {
+        final AtomicInteger calls = new AtomicInteger();
+        private final Call call;
+
+        CountingTool(Call call) {
+            super("lookup", "test tool");
+            this.call = call;
+        }
+
+        @Override
+        public Single<Map<String, Object>> runAsync(Map<String, Object> args, ToolContext toolContext) {
+            return Single.fromCallable(() -> {
+                calls.incrementAndGet();
+                return call.run();
+            });
+        }
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        Map<String, Object> run() throws Exception;
+    }
+}
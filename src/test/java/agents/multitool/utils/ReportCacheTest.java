@@ -0,0 +1,55 @@
+package agents.multitool.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ReportCacheTest {
+
+    @Test
+    void jsonProfilesSharePartitionsAcrossCompanies() {
+        ReportCache.Profile tech = ReportCache.profile(
+                "{\"companyName\": \"TechCorp\", \"industry\": \"SaaS\", \"stage\": \"Series A\", \"revenueRange\": \"$1M-$5M\"}");
+        ReportCache.Profile other = ReportCache.profile(
+                "{\"companyName\": \"OtherCorp\", \"industry\": \"SaaS\", \"stage\": \"series a\", \"revenueRange\": \"$1M-$5M\"}");
+
+        assertEquals(tech, other);
+    }
+
+    @Test
+    void peerFiltersSplitJsonPartitions() {
+        String base = "{\"industry\": \"SaaS\", \"stage\": \"Series A\", \"revenueRange\": \"$1M-$5M\"";
+        ReportCache.Profile unfiltered = ReportCache.profile(base + "}");
+        ReportCache.Profile london = ReportCache.profile(base + ", \"region\": \"London\"}");
+        ReportCache.Profile berlin = ReportCache.profile(base + ", \"region\": \"Berlin\"}");
+        ReportCache.Profile funded = ReportCache.profile(base + ", \"region\": \"london\", \"minFundingUsd\": 5000000}");
+        ReportCache.Profile founded = ReportCache.profile(base + ", \"foundedYear\": 2019}");
+
+        assertNotEquals(unfiltered.partition(), london.partition());
+        assertNotEquals(london.partition(), berlin.partition());
+        assertNotEquals(london.partition(), funded.partition());
+        assertNotEquals(unfiltered.partition(), founded.partition());
+        assertEquals(london, ReportCache.profile(base + ", \"region\": \" london \"}"));
+    }
+
+    @Test
+    void freeTextIsPartitionedByStageAndRevenue() {
+        ReportCache.Profile seriesA = ReportCache.profile("A Series A SaaS startup for dentists with $1M-$5M revenue");
+        ReportCache.Profile seriesB = ReportCache.profile("A Series B SaaS startup for dentists with $1M-$5M revenue");
+        ReportCache.Profile larger = ReportCache.profile("A Series A SaaS startup for dentists with $5M-$10M revenue");
+        ReportCache.Profile respaced = ReportCache.profile("series a saas startup for dentists, $1m - $5m revenue");
+
+        assertNotEquals(seriesA.partition(), seriesB.partition());
+        assertNotEquals(seriesA.partition(), larger.partition());
+        assertEquals(seriesA.partition(), respaced.partition());
+    }
+
+    @Test
+    void freeTextWithoutStageAndRevenueBypassesTheCache() {
+        assertNull(ReportCache.profile("tell me more about the risks"));
+        assertNull(ReportCache.profile("what about a Series B company?"));
+        assertNull(ReportCache.profile("{\"companyName\": \"NoIndustry\"}"));
+    }
+}
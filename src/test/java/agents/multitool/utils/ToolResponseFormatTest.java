@@ -0,0 +1,87 @@
+package agents.multitool.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ToolResponseFormatTest {
+
+    @Test
+    void amountsAreMillionsToThreeSignificantDigits() {
+        Map<String, Object> table = ToolResponseFormat.compact(List.of(
+                company("Alpha", 0.91234, 12_345_678, 1_750_000),
+                company("Beta", 0.5, 987_654_321, 0),
+                company("Gamma", 0.25, 12_345, Double.NaN)), 0);
+
+        assertEquals(List.of("name", "similarity", "funding_usd_m", "round_a_usd_m"), table.get("columns"));
+        assertEquals(List.of(
+                List.of("Alpha", 0.912, 12.3, 1.75),
+                listOf("Beta", 0.5, 988.0, null),
+                listOf("Gamma", 0.25, 0.0123, null)), table.get("rows"));
+        assertEquals("amounts in USD millions", table.get("units"));
+    }
+
+    @Test
+    void columnsEmptyInEveryRowAreDropped() {
+        Map<String, Object> table = ToolResponseFormat.compact(List.of(
+                company("Alpha", 0.9, Double.NaN, 0),
+                company("Beta", 0.8, Double.NaN, 0)), 0);
+
+        assertEquals(List.of("name", "similarity"), table.get("columns"));
+        assertNull(table.get("units"));
+    }
+
+    @Test
+    void overBudgetDropsTheLeastSimilarRowsAndKeepsRankOrder() {
+        // fused rank order, with similarities out of order
+        List<Company> companies = new ArrayList<>();
+        double[] similarities = {0.70, 0.95, 0.40, 0.90, 0.55, 0.85};
+        for (int i = 0; i < similarities.length; i++) {
+            companies.add(company("Company " + i, similarities[i], 1_000_000 * (i + 1), 0));
+        }
+        Map<String, Object> all = ToolResponseFormat.compact(companies, 0);
+        int rowLength = ToolResponseFormat.length(((List<?>) all.get("rows")).get(0)) + 1; // and its comma
+
+        int budget = ToolResponseFormat.length(all) - 2 * rowLength;
+        Map<String, Object> trimmed = ToolResponseFormat.compact(companies, budget);
+
+        assertTrue(ToolResponseFormat.length(trimmed) <= budget);
+        List<String> names = new ArrayList<>();
+        for (Object row : (List<?>) trimmed.get("rows")) {
+            names.add((String) ((List<?>) row).get(0));
+        }
+        // 0.40 and 0.55 go first although 5 is ranked above them, then 0.70 to make room for omitted_rows
+        assertEquals(List.of("Company 1", "Company 3", "Company 5"), names);
+        assertEquals(3, trimmed.get("omitted_rows"));
+    }
+
+    @Test
+    void overBudgetCutsCategoriesBeforeRows() {
+        Company many = new Company("c1", "Alpha", "Alpha", null, "|Software|SaaS|Analytics|Health|Dental|",
+                "Software", null, null, null, Double.NaN, Company.UNKNOWN, Company.UNKNOWN,
+                0, 0, 0, 0, 0.9);
+        Map<String, Object> full = ToolResponseFormat.compact(List.of(many), 0);
+
+        Map<String, Object> trimmed = ToolResponseFormat.compact(List.of(many), ToolResponseFormat.length(full) - 1);
+
+        assertEquals(List.of(List.of("Alpha", 0.9, "Software", "Software, SaaS, Analytics")), trimmed.get("rows"));
+        assertNull(trimmed.get("omitted_rows"));
+    }
+
+    private static Company company(String name, double similarity, double fundingUsd, double roundA) {
+        return new Company("id-" + name, name, name, null, null, null, null, null, null,
+                fundingUsd, Company.UNKNOWN, Company.UNKNOWN, roundA, 0, 0, 0, similarity);
+    }
+
+    // List.of does not take nulls
+    private static List<Object> listOf(Object... values) {
+        return Arrays.asList(values);
+    }
+}